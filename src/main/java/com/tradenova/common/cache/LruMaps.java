@@ -0,0 +1,28 @@
+package com.tradenova.common.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 프로세스 메모리 캐시용 LRU Map
+ *
+ * - accessOrder=true LinkedHashMap -> 가장 오래 안 쓴 항목부터 제거(LRU)
+ * - 스레드 안전하지 않다. 호출하는 쪽에서 synchronized 등으로 감싼다.
+ */
+public final class LruMaps {
+
+    private LruMaps() {}
+
+    /**
+     * @param initialCapacity LinkedHashMap 초기 용량
+     * @param maxEntries      이 개수를 넘으면 가장 오래 안 쓴 항목을 제거
+     */
+    public static <K, V> Map<K, V> lru(int initialCapacity, int maxEntries) {
+        return new LinkedHashMap<>(initialCapacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+}
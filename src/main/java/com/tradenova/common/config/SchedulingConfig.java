@@ -0,0 +1,13 @@
+package com.tradenova.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @Scheduled 배경 작업 활성화 (이벤트 압축 등)
+ * - 기본 스케줄러 스레드 1개로 충분하다. (작업마다 스스로 끊어서 짧게 돈다)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -35,6 +35,7 @@ public enum ErrorCode {
     CANDLES_EMPTY(HttpStatus.BAD_REQUEST, "error.CANDLES_EMPTY"),
     INVALID_TRAINING_EVENT(HttpStatus.BAD_REQUEST, "error.INVALID_TRAINING_EVENT"),
     INVALID_EVENT_LIST_SIZE(HttpStatus.BAD_REQUEST, "error.INVALID_EVENT_LIST_SIZE"),
+    INVALID_TIMELINE_CURSOR(HttpStatus.BAD_REQUEST, "error.INVALID_TIMELINE_CURSOR"),
 
     // 리포트 관련
     REPORT_SNAPSHOT_NOT_FOUND(HttpStatus.NOT_FOUND, "error.REPORT_SNAPSHOT_NOT_FOUND"),
@@ -80,9 +81,15 @@ public enum ErrorCode {
 
     TRAINING_SESSION_NOT_IN_PROGRESS(HttpStatus.BAD_REQUEST, "error.TRAINING_SESSION_NOT_IN_PROGRESS"),
     INVALID_ADVANCE_STEPS(HttpStatus.BAD_REQUEST, "error.INVALID_ADVANCE_STEPS"),
+    INVALID_PLAYBACK_INTERVAL(HttpStatus.BAD_REQUEST, "error.INVALID_PLAYBACK_INTERVAL"),
+    TRAINING_PLAYBACK_NOT_FOUND(HttpStatus.NOT_FOUND, "error.TRAINING_PLAYBACK_NOT_FOUND"),
     INVALID_TRADE_QTY(HttpStatus.BAD_REQUEST, "error.INVALID_TRADE_QTY"),
     INSUFFICIENT_CASH(HttpStatus.BAD_REQUEST, "error.INSUFFICIENT_CASH"),
     INSUFFICIENT_POSITION_QTY(HttpStatus.BAD_REQUEST, "error.INSUFFICIENT_POSITION_QTY"),
+    INVALID_ORDER_PRICE(HttpStatus.BAD_REQUEST, "error.INVALID_ORDER_PRICE"),
+    TRAINING_ORDER_NOT_FOUND(HttpStatus.NOT_FOUND, "error.TRAINING_ORDER_NOT_FOUND"),
+    TRAINING_ORDER_NOT_OPEN(HttpStatus.BAD_REQUEST, "error.TRAINING_ORDER_NOT_OPEN"),
+    TRAINING_ORDER_LIMIT_EXCEEDED(HttpStatus.BAD_REQUEST, "error.TRAINING_ORDER_LIMIT_EXCEEDED"),
 
     SESSION_AI_ALREADY_EXISTS(HttpStatus.CONFLICT, "error.SESSION_AI_ALREADY_EXISTS"),
     SESSION_AI_NOT_FOUND(HttpStatus.NOT_FOUND, "error.SESSION_AI_NOT_FOUND"),
@@ -90,6 +97,12 @@ public enum ErrorCode {
     CHART_AI_ALREADY_EXISTS(HttpStatus.CONFLICT, "error.CHART_AI_ALREADY_EXISTS"),
     CHART_AI_NOT_FOUND(HttpStatus.NOT_FOUND, "error.CHART_AI_NOT_FOUND"),
 
+    // AI 리뷰 비동기 작업
+    AI_JOB_NOT_FOUND(HttpStatus.NOT_FOUND, "error.AI_JOB_NOT_FOUND"),
+    AI_JOB_LIMIT_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "error.AI_JOB_LIMIT_EXCEEDED"),
+    AI_JOB_QUEUE_FULL(HttpStatus.SERVICE_UNAVAILABLE, "error.AI_JOB_QUEUE_FULL"),
+    AI_JOB_INTERRUPTED(HttpStatus.SERVICE_UNAVAILABLE, "error.AI_JOB_INTERRUPTED"),
+
     CHART_REFRESH_NOT_ALLOWED_HAS_TRADES(HttpStatus.BAD_REQUEST, "error.CHART_REFRESH_NOT_ALLOWED_HAS_TRADES"),
 
     INVALID_RISK_RULE(HttpStatus.BAD_REQUEST, "error.INVALID_RISK_RULE"),
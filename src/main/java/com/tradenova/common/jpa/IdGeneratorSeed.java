@@ -0,0 +1,65 @@
+package com.tradenova.common.jpa;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * id_generator 테이블 초기값 보정
+ *
+ * 배경:
+ * - 기존 테이블들은 IDENTITY(auto_increment)로 PK가 쌓여 있다.
+ * - pooled 생성기는 id_generator.next_val 기준으로 ID를 나눠주므로, 그대로 두면 1부터 다시 발급되어 PK 충돌이 난다.
+ *
+ * 동작:
+ * - 모든 싱글톤 생성 직후(= ddl-auto로 테이블이 만들어진 뒤, 웹 서버가 요청을 받기 전) 1회 실행한다.
+ * - next_val >= max(id) + allocationSize + 1 이 되도록 올려둔다. (이미 더 크면 그대로 둔다)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdGeneratorSeed implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ddl-auto(update)로 id_generator 테이블이 먼저 만들어지도록 EntityManagerFactory 생성 이후에 실행되게 의존성만 건다.
+    private final EntityManagerFactory entityManagerFactory;
+
+    private record Target(String genName, String table, int allocationSize) {}
+
+    private static final List<Target> TARGETS = List.of(
+            new Target(IdGenerators.TRAINING_SESSION_CANDLE, "training_session_candle", IdGenerators.CANDLE_ALLOCATION_SIZE),
+            new Target(IdGenerators.MARKET_CANDLE, "market_candle", IdGenerators.CANDLE_ALLOCATION_SIZE),
+            new Target(IdGenerators.TRAINING_EVENT, "training_event", IdGenerators.LOG_ALLOCATION_SIZE),
+            new Target(IdGenerators.TRAINING_TRADE, "training_trade", IdGenerators.LOG_ALLOCATION_SIZE),
+            new Target(IdGenerators.TRAINING_ORDER, "training_order", IdGenerators.LOG_ALLOCATION_SIZE)
+    );
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Target t : TARGETS) {
+            // 테이블명/생성기명은 상수이므로 문자열 결합해도 안전하다.
+            Long seed = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(id), 0) + ? + 1 FROM " + t.table(),
+                    Long.class,
+                    t.allocationSize()
+            );
+
+            jdbcTemplate.update(
+                    "INSERT INTO " + IdGenerators.TABLE
+                            + " (" + IdGenerators.PK_COLUMN + ", " + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)"
+                            + " ON DUPLICATE KEY UPDATE " + IdGenerators.VALUE_COLUMN
+                            + " = GREATEST(" + IdGenerators.VALUE_COLUMN + ", VALUES(" + IdGenerators.VALUE_COLUMN + "))",
+                    t.genName(),
+                    seed
+            );
+
+            log.info("id generator seeded. gen={}, minNextVal={}", t.genName(), seed);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.tradenova.common.jpa;
+
+/**
+ * 대량 insert 엔티티용 테이블 기반(pooled) ID 생성기 설정 모음
+ *
+ * 왜 IDENTITY를 쓰지 않나?
+ * - IDENTITY는 insert 직후 DB가 발급한 PK를 받아와야 해서 Hibernate가 JDBC 배치를 끈다.
+ * - 캔들 120개 saveAll = insert 120번 왕복이 된다.
+ * - MySQL은 시퀀스가 없으므로 id_generator 테이블에서 allocationSize 만큼 ID 구간을 한 번에 확보한다.
+ *
+ * 주의:
+ * - 기존 IDENTITY로 쌓인 데이터와 충돌하지 않도록 기동 시 IdGeneratorSeed가 next_val을 max(id) 이후로 맞춘다.
+ */
+public final class IdGenerators {
+
+    private IdGenerators() {}
+
+    /** 생성기 값을 저장하는 테이블 */
+    public static final String TABLE = "id_generator";
+
+    /** 생성기 이름 컬럼 (엔티티별 1행) */
+    public static final String PK_COLUMN = "gen_name";
+
+    /** 다음에 확보할 ID 값 컬럼 */
+    public static final String VALUE_COLUMN = "next_val";
+
+    /** 캔들류(세션 캔들/원천 캔들): 차트 1개 = 최대 120봉, 원천 캔들은 수백 건 단위로 저장 */
+    public static final int CANDLE_ALLOCATION_SIZE = 100;
+
+    /** 이벤트/체결 로그: 요청당 1~수 건이지만 빈번하게 쌓인다 */
+    public static final int LOG_ALLOCATION_SIZE = 50;
+
+    public static final String TRAINING_SESSION_CANDLE = "training_session_candle";
+    public static final String MARKET_CANDLE = "market_candle";
+    public static final String TRAINING_EVENT = "training_event";
+    public static final String TRAINING_TRADE = "training_trade";
+    public static final String TRAINING_ORDER = "training_order";
+}
@@ -0,0 +1,179 @@
+package com.tradenova.common.jpa;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.hibernate.annotations.Immutable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 이벤트/리포트 JSON payload holder (필요할 때만 파싱)
+ *
+ * 배경:
+ * - 예전에는 JsonNodeConverter가 행을 읽을 때마다 LONGTEXT JSON을 JsonNode 트리로 파싱했다.
+ * - 목록 API는 payload를 그대로 응답에 싣기만 하므로 트리를 만들 필요가 없다.
+ *
+ * 동작:
+ * - DB에서 읽으면 저장된 바이트(Smile, 크면 gzip) 또는 예전 JSON 문자열만 들고 있다.
+ * - node()를 처음 부를 때 1번만 파싱한다. (서비스에서 필드를 꺼낼 때)
+ * - 응답 직렬화는 파싱하지 않은 상태면 토큰 단위로 그대로 옮겨 쓴다. (트리 생성 없음)
+ *
+ * 저장 형식 (SmileJsonPayloadConverter):
+ * - Smile 바이트 그대로 (":)\n" 헤더로 시작)
+ * - GZIP_THRESHOLD 바이트보다 크면 gzip으로 감싼다 (0x1f 0x8b로 시작)
+ *
+ * 값은 바꾸지 않는다. 내용을 바꾸려면 새 JsonPayload를 만들어 엔티티에 넣는다.
+ * (@Immutable: Hibernate가 인스턴스가 바뀌었을 때만 dirty로 본다)
+ */
+@Immutable
+@JsonSerialize(using = JsonPayload.Serializer.class)
+public final class JsonPayload {
+
+    // 이보다 큰 Smile 바이트는 gzip으로 저장 (작은 payload는 압축 이득보다 헤더가 더 크다)
+    static final int GZIP_THRESHOLD = 1024;
+
+    static final SmileFactory SMILE_FACTORY = new SmileFactory();
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(SMILE_FACTORY);
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    // DB에서 읽은 원본 (둘 중 하나만 있음 / of()로 만든 경우 둘 다 null)
+    private final byte[] stored;
+    private final String legacyJson;
+
+    // 파싱 결과 (처음 node() 호출 시 채움)
+    private volatile JsonNode node;
+
+    private JsonPayload(byte[] stored, String legacyJson, JsonNode node) {
+        this.stored = stored;
+        this.legacyJson = legacyJson;
+        this.node = node;
+    }
+
+    /**
+     * 저장할 JSON (null이면 null)
+     */
+    public static JsonPayload of(JsonNode node) {
+        return node == null ? null : new JsonPayload(null, null, node);
+    }
+
+    /**
+     * DB 바이너리 컬럼 값 (파싱은 미룬다)
+     */
+    public static JsonPayload fromStored(byte[] stored) {
+        return stored == null ? null : new JsonPayload(stored, null, null);
+    }
+
+    /**
+     * 예전 LONGTEXT 컬럼 값 (파싱은 미룬다)
+     */
+    public static JsonPayload fromJsonText(String json) {
+        return json == null ? null : new JsonPayload(null, json, null);
+    }
+
+    /**
+     * JSON 트리 (처음 호출 시 파싱)
+     * - 돌려준 트리를 고쳐도 저장되지 않는다.
+     */
+    public JsonNode node() {
+        JsonNode n = node;
+        if (n == null) {
+            synchronized (this) {
+                n = node;
+                if (n == null) {
+                    n = parse();
+                    node = n;
+                }
+            }
+        }
+        return n;
+    }
+
+    // 테스트/진단용: 이미 파싱했는지
+    boolean isParsed() {
+        return node != null;
+    }
+
+    /**
+     * DB 바이너리 컬럼에 넣을 바이트
+     * - 읽은 그대로 다시 저장하는 경우에는 원본 바이트를 재사용한다.
+     */
+    byte[] toStored() {
+        if (stored != null) {
+            return stored;
+        }
+        try {
+            byte[] smile = SMILE_MAPPER.writeValueAsBytes(node());
+            return smile.length > GZIP_THRESHOLD ? gzip(smile) : smile;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON serialize failed", e);
+        }
+    }
+
+    private JsonNode parse() {
+        try {
+            if (stored != null) {
+                return SMILE_MAPPER.readTree(open(stored));
+            }
+            return JSON_MAPPER.readTree(legacyJson);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON parse failed", e);
+        }
+    }
+
+    /**
+     * 원본을 토큰 단위로 읽는 파서 (파싱 전 직렬화용)
+     */
+    private JsonParser openParser() throws IOException {
+        if (stored != null) {
+            return SMILE_FACTORY.createParser(open(stored));
+        }
+        return JSON_MAPPER.getFactory().createParser(legacyJson);
+    }
+
+    private static InputStream open(byte[] stored) throws IOException {
+        InputStream in = new ByteArrayInputStream(stored);
+        return isGzip(stored) ? new GZIPInputStream(in) : in;
+    }
+
+    static boolean isGzip(byte[] b) {
+        return b.length >= 2 && (b[0] & 0xff) == 0x1f && (b[1] & 0xff) == 0x8b;
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(raw.length / 2);
+        try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+            gz.write(raw);
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * 응답 직렬화
+     * - 이미 파싱했으면 트리를 쓰고, 아니면 원본 토큰을 그대로 옮긴다.
+     */
+    public static final class Serializer extends JsonSerializer<JsonPayload> {
+        @Override
+        public void serialize(JsonPayload value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            JsonNode parsed = value.node;
+            if (parsed != null) {
+                gen.writeTree(parsed);
+                return;
+            }
+            try (JsonParser p = value.openParser()) {
+                p.nextToken();
+                gen.copyCurrentStructure(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tradenova.common.jpa;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * JsonPayload <-> BLOB(Smile, 크면 gzip) 변환기
+ *
+ * JsonNodeConverter(LONGTEXT)의 대안:
+ * - 저장 크기가 작고(키 이름 공유/숫자 바이너리), 읽을 때는 바이트만 들고 있다가 필요할 때 파싱한다.
+ * - 형식 판별은 앞 바이트로 한다. (gzip 0x1f 0x8b / 그 외 Smile)
+ */
+@Converter(autoApply = false)
+public class SmileJsonPayloadConverter implements AttributeConverter<JsonPayload, byte[]> {
+
+    /**
+     * 엔티티 -> DB 저장 시 호출됨
+     */
+    @Override
+    public byte[] convertToDatabaseColumn(JsonPayload attribute) {
+        return attribute == null ? null : attribute.toStored();
+    }
+
+    /**
+     * DB -> 엔티티 로딩 시 호출됨 (파싱하지 않는다)
+     */
+    @Override
+    public JsonPayload convertToEntityAttribute(byte[] dbData) {
+        return JsonPayload.fromStored(dbData);
+    }
+}
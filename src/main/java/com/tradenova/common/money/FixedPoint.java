@@ -0,0 +1,112 @@
+package com.tradenova.common.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 가격/수량 고정소수점(long) 연산
+ *
+ * 단위 (DB 컬럼 scale과 같다):
+ * - 가격  : 1 tick = 0.0001원   (price / avg_price / stop_loss_price : scale 4)
+ * - 수량  : 1 micro = 0.000001주 (qty / quantity : scale 6)
+ * - 금액  : 가격 x 수량 = scale 10 (tick x micro), 곱셈 결과를 반올림 없이 그대로 담는다
+ *
+ * 규칙:
+ * - 변환은 "정확할 때만" 한다. 소수 자릿수가 넘치거나 long 범위를 벗어나면 ArithmeticException.
+ *   호출부는 이 예외를 받으면 기존 BigDecimal 계산으로 돌아간다. (결과가 BigDecimal 버전과 항상 같도록)
+ * - 반올림이 필요한 곳(가중평균 단가)은 기존 정책과 같은 HALF_UP, scale 4.
+ * - BigDecimal은 DB/API 경계(toPrice/toQty/toAmount)에서만 만든다.
+ */
+public final class FixedPoint {
+
+    public static final int PRICE_SCALE = 4;
+    public static final int QTY_SCALE = 6;
+    public static final int AMOUNT_SCALE = PRICE_SCALE + QTY_SCALE;
+
+    public static final long TICKS_PER_UNIT = 10_000L;
+    public static final long MICROS_PER_UNIT = 1_000_000L;
+
+    private FixedPoint() {
+    }
+
+    // ===== 경계 변환 (BigDecimal/double -> long) =====
+
+    /**
+     * 캔들 가격(double) -> tick
+     * - BigDecimal.valueOf(double)과 같은 값이 소수 4자리 안에 들어올 때만 변환한다.
+     */
+    public static long priceTicks(double price) {
+        double scaled = price * TICKS_PER_UNIT;
+        if (Double.isNaN(scaled) || Math.abs(scaled) >= 0x1p62) {
+            throw new ArithmeticException("price out of range: " + price);
+        }
+        long ticks = Math.round(scaled);
+        // 가장 가까운 tick을 다시 double로 돌렸을 때 원래 값이면 정확히 표현되는 가격
+        if ((double) ticks / TICKS_PER_UNIT != price) {
+            throw new ArithmeticException("price has more than 4 decimals: " + price);
+        }
+        return ticks;
+    }
+
+    public static long priceTicks(BigDecimal price) {
+        return unscaledExact(price, PRICE_SCALE);
+    }
+
+    public static long qtyMicros(BigDecimal qty) {
+        return unscaledExact(qty, QTY_SCALE);
+    }
+
+    // ===== 경계 변환 (long -> BigDecimal) =====
+
+    public static BigDecimal toPrice(long ticks) {
+        return BigDecimal.valueOf(ticks, PRICE_SCALE);
+    }
+
+    public static BigDecimal toQty(long micros) {
+        return BigDecimal.valueOf(micros, QTY_SCALE);
+    }
+
+    public static BigDecimal toAmount(long amount) {
+        return BigDecimal.valueOf(amount, AMOUNT_SCALE);
+    }
+
+    // ===== 연산 =====
+
+    /**
+     * 금액 = 가격 x 수량 (scale 10, 반올림 없음)
+     */
+    public static long amount(long priceTicks, long qtyMicros) {
+        return Math.multiplyExact(priceTicks, qtyMicros);
+    }
+
+    /**
+     * 가중평균 단가 = (oldAvg*oldQty + price*qty) / (oldQty+qty), HALF_UP scale 4
+     * - 분자는 scale 10, 분모는 scale 6 -> 몫이 그대로 scale 4 (tick)
+     */
+    public static long weightedAvgTicks(long oldAvgTicks, long oldQtyMicros, long priceTicks, long qtyMicros) {
+        long newQty = Math.addExact(oldQtyMicros, qtyMicros);
+        if (newQty <= 0) {
+            throw new ArithmeticException("non-positive quantity: " + newQty);
+        }
+        long numerator = Math.addExact(amount(oldAvgTicks, oldQtyMicros), amount(priceTicks, qtyMicros));
+        return divideHalfUp(numerator, newQty);
+    }
+
+    /**
+     * long 나눗셈 HALF_UP (0에서 먼 쪽으로 반올림, 분모 > 0)
+     */
+    static long divideHalfUp(long numerator, long denominator) {
+        long q = numerator / denominator;
+        long r = numerator % denominator;
+        // |r| * 2 >= denominator 이면 올림 (오버플로 없이 비교)
+        if (Math.abs(r) >= denominator - Math.abs(r)) {
+            q += numerator < 0 ? -1 : 1;
+        }
+        return q;
+    }
+
+    private static long unscaledExact(BigDecimal value, int scale) {
+        // 소수 자릿수가 넘치면 setScale(UNNECESSARY)가 ArithmeticException
+        return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,69 @@
+package com.tradenova.common.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 차트 1개의 포지션/손익 장부 (long 고정소수점)
+ *
+ * SessionReportAnalysisService.calculateFinalPnL의 BigDecimal 루프와 같은 규칙:
+ * - 매수: 수량 증가, 평균 단가 가중평균 (HALF_UP scale 4)
+ * - 매도: 실현손익 += (체결가 - 평단) x 수량, 전량 매도 시 평단 0
+ * - 최종 손익 = 실현 + 미실현((현재가 - 평단) x 잔여수량), HALF_UP scale 4
+ *
+ * 중간 합계는 scale 10 그대로 누적해서 반올림은 마지막 한 번만 한다.
+ * long 범위를 넘으면 ArithmeticException (호출부가 BigDecimal로 다시 계산).
+ */
+public final class PositionLedger {
+
+    private long qtyMicros;
+    private long avgTicks;
+    private long realizedAmount; // scale 10
+
+    public void buy(long priceTicks, long qtyMicros) {
+        long newQty = Math.addExact(this.qtyMicros, qtyMicros);
+        if (newQty > 0) {
+            avgTicks = FixedPoint.weightedAvgTicks(avgTicks, this.qtyMicros, priceTicks, qtyMicros);
+        }
+        this.qtyMicros = newQty;
+    }
+
+    public void sell(long priceTicks, long qtyMicros) {
+        long pnl = FixedPoint.amount(Math.subtractExact(priceTicks, avgTicks), qtyMicros);
+        realizedAmount = Math.addExact(realizedAmount, pnl);
+        this.qtyMicros = Math.subtractExact(this.qtyMicros, qtyMicros);
+        if (this.qtyMicros == 0) {
+            avgTicks = 0;
+        }
+    }
+
+    public boolean holding() {
+        return qtyMicros > 0;
+    }
+
+    public long qtyMicros() {
+        return qtyMicros;
+    }
+
+    public long avgTicks() {
+        return avgTicks;
+    }
+
+    /**
+     * 실현 + 미실현 (현재가 기준), scale 10
+     */
+    public long totalAmount(long markTicks) {
+        if (qtyMicros <= 0) {
+            return realizedAmount;
+        }
+        long unrealized = FixedPoint.amount(Math.subtractExact(markTicks, avgTicks), qtyMicros);
+        return Math.addExact(realizedAmount, unrealized);
+    }
+
+    /**
+     * API/리포트용 최종 손익 (HALF_UP scale 4)
+     */
+    public BigDecimal totalPnL(long markTicks) {
+        return FixedPoint.toAmount(totalAmount(markTicks)).setScale(FixedPoint.PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+}
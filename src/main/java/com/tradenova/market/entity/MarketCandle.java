@@ -1,6 +1,7 @@
 package com.tradenova.market.entity;
 
 import com.tradenova.symbol.entity.Symbol;
+import com.tradenova.common.jpa.IdGenerators;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -45,7 +46,15 @@ import java.time.OffsetDateTime;
 public class MarketCandle {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "market_candle_id")
+    @TableGenerator(
+            name = "market_candle_id",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.MARKET_CANDLE,
+            allocationSize = IdGenerators.CANDLE_ALLOCATION_SIZE
+    )
     private Long id;
 
     /**
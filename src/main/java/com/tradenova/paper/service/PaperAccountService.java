@@ -9,6 +9,7 @@ import com.tradenova.paper.dto.PaperAccountUpdateRequest;
 import com.tradenova.paper.entity.PaperAccount;
 import com.tradenova.paper.repository.PaperAccountRepository;
 import com.tradenova.paper.repository.PaperPositionRepository;
+import com.tradenova.training.service.ChartReplayStateCache;
 import com.tradenova.user.entity.SubscriptionTier;
 import com.tradenova.user.entity.User;
 import com.tradenova.user.repository.UserRepository;
@@ -29,6 +30,8 @@ public class PaperAccountService {
     private final PaperPositionRepository paperPositionRepository;
     //계좌 생성 시 유저 존재 검증
     private final UserRepository userRepository;
+    //계좌 리셋 시 훈련 진행 상태 캐시(현금/포지션) 비우기
+    private final ChartReplayStateCache replayCache;
 
     @Transactional //트랜잭션 등록
     public PaperAccountResponse create(Long userId, PaperAccountCreateRequest req){
@@ -100,6 +103,9 @@ public class PaperAccountService {
 
         // 2) 포지션 전부 삭제
         paperPositionRepository.deleteAllByAccountId(accountId);
+
+        // 3) 커밋 후 캐시된 현금/포지션 제거
+        ChartReplayStateCache.afterCommit(() -> replayCache.evictAccount(accountId));
     }
 
     @Transactional
@@ -0,0 +1,92 @@
+package com.tradenova.report.controller;
+
+import com.tradenova.report.dto.AiReviewJobResponse;
+import com.tradenova.report.service.AiReviewJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * AI 리뷰 비동기 작업 컨트롤러
+ *
+ * 기능
+ * - 차트/세션 AI 리뷰를 작업으로 등록 (바로 202 응답)
+ * - 작업 상태 조회 (폴링) / 상태 구독 (SSE)
+ * - 결과는 기존과 같이 training_event(Type.AI)로 저장된다.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/reports")
+public class AiReviewJobController {
+
+    private final AiReviewJobService aiReviewJobService;
+
+    /**
+     * 차트 AI 리뷰 작업 등록
+     *
+     * POST /api/reports/charts/{chartId}/analyze/jobs
+     */
+    @PostMapping("/charts/{chartId}/analyze/jobs")
+    public ResponseEntity<AiReviewJobResponse> submitChart(
+            Authentication authentication,
+            @PathVariable Long chartId
+    ) {
+        Long userId = extractUserId(authentication);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(aiReviewJobService.submitChart(userId, chartId));
+    }
+
+    /**
+     * 세션 AI 리뷰 작업 등록
+     *
+     * POST /api/reports/sessions/{sessionId}/analyze/jobs
+     */
+    @PostMapping("/sessions/{sessionId}/analyze/jobs")
+    public ResponseEntity<AiReviewJobResponse> submitSession(
+            Authentication authentication,
+            @PathVariable Long sessionId
+    ) {
+        Long userId = extractUserId(authentication);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(aiReviewJobService.submitSession(userId, sessionId));
+    }
+
+    /**
+     * 작업 상태 조회
+     *
+     * GET /api/reports/ai-jobs/{jobId}
+     */
+    @GetMapping("/ai-jobs/{jobId}")
+    public ResponseEntity<AiReviewJobResponse> get(
+            Authentication authentication,
+            @PathVariable Long jobId
+    ) {
+        Long userId = extractUserId(authentication);
+        return ResponseEntity.ok(aiReviewJobService.get(userId, jobId));
+    }
+
+    /**
+     * 작업 상태 구독 (SSE)
+     * - status: 작업 상태 (끝나면 연결 종료)
+     * - summary: 생성 중인 AI summary 텍스트 조각 {"text": "..."} (스트리밍 모드)
+     *
+     * GET /api/reports/ai-jobs/{jobId}/events
+     */
+    @GetMapping(value = "/ai-jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            Authentication authentication,
+            @PathVariable Long jobId
+    ) {
+        Long userId = extractUserId(authentication);
+        return aiReviewJobService.subscribe(userId, jobId);
+    }
+
+    private Long extractUserId(Authentication authentication) {
+        Object p = authentication.getPrincipal();
+        return (p instanceof Long) ? (Long) p : Long.valueOf(p.toString());
+    }
+}
@@ -3,6 +3,7 @@ package com.tradenova.report.controller;
 import com.tradenova.common.exception.CustomException;
 import com.tradenova.common.exception.ErrorCode;
 import com.tradenova.report.dto.TrainingEventAppendRequest;
+import com.tradenova.report.dto.TrainingEventPageResponse;
 import com.tradenova.report.dto.TrainingEventResponse;
 import com.tradenova.report.entity.Type;
 import com.tradenova.report.service.TrainingEventService;
@@ -40,6 +41,22 @@ public class TrainingEventController {
         return ResponseEntity.ok(trainingEventService.listLatest(userId, chartId, size));
     }
 
+    // 이벤트 타임라인 키셋 페이지 (최신순, 무한스크롤)
+    // GET /api/reports/charts/{chartId}/events/page?cursor={nextCursor}&size=50
+    @GetMapping("/{chartId}/events/page")
+    public ResponseEntity<TrainingEventPageResponse> getEventPage(
+            Authentication auth,
+            @PathVariable Long chartId,
+            @RequestParam(required = false) Long cursor, // 첫 페이지는 생략
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        if (size < 1 || size > 200) {
+            throw new CustomException(ErrorCode.INVALID_EVENT_LIST_SIZE);
+        }
+        Long userId = extractUserId(auth);
+        return ResponseEntity.ok(trainingEventService.listPage(userId, chartId, cursor, size));
+    }
+
     // 사용자가 “과정 중” 메모/리포트 입력 -> 이벤트로 쌓기
     // POST /api/reports/charts/{chartId}/events
     @PostMapping("/{chartId}/events")
@@ -0,0 +1,110 @@
+package com.tradenova.report.controller;
+
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.report.dto.SessionTimelinePageResponse;
+import com.tradenova.report.dto.TrainingEventPageResponse;
+import com.tradenova.report.service.SessionTimelineService;
+import com.tradenova.report.service.TrainingEventService;
+import com.tradenova.report.service.TrainingHistoryExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * 세션 기록 조회 API
+ *
+ * - 세션 전체 이벤트 타임라인 (키셋 페이지)
+ * - 세션 기록 내보내기 (NDJSON 스트리밍)
+ * - 세션 타임라인 (거래 + 이벤트 + 스냅샷 시간 순 병합, 키셋 페이지 / NDJSON 스트리밍)
+ *
+ *  Base Path : /api/reports/sessions/{sessionId}
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/reports/sessions/{sessionId}")
+public class TrainingSessionHistoryController {
+
+    private final TrainingEventService trainingEventService;
+    private final TrainingHistoryExportService exportService;
+    private final SessionTimelineService timelineService;
+
+    /**
+     * 세션 이벤트 타임라인 (모든 차트, 최신순)
+     * GET /api/reports/sessions/{sessionId}/events?cursor={nextCursor}&size=50
+     */
+    @GetMapping("/events")
+    public ResponseEntity<TrainingEventPageResponse> getEventPage(
+            Authentication auth,
+            @PathVariable Long sessionId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        if (size < 1 || size > 200) {
+            throw new CustomException(ErrorCode.INVALID_EVENT_LIST_SIZE);
+        }
+        return ResponseEntity.ok(
+                trainingEventService.listSessionPage(extractUserId(auth), sessionId, cursor, size)
+        );
+    }
+
+    /**
+     * 세션 기록 내보내기 (이벤트 + 거래 + 스냅샷, 한 줄에 JSON 1개)
+     * GET /api/reports/sessions/{sessionId}/export
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            Authentication auth,
+            @PathVariable Long sessionId
+    ) {
+        StreamingResponseBody body = exportService.exportSession(extractUserId(auth), sessionId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"session-" + sessionId + ".ndjson\"")
+                .body(body);
+    }
+
+    /**
+     * 세션 타임라인 (모든 차트의 거래/이벤트/스냅샷, 오래된 순)
+     * GET /api/reports/sessions/{sessionId}/timeline?cursor={nextCursor}&size=50
+     */
+    @GetMapping("/timeline")
+    public ResponseEntity<SessionTimelinePageResponse> getTimelinePage(
+            Authentication auth,
+            @PathVariable Long sessionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        if (size < 1 || size > 200) {
+            throw new CustomException(ErrorCode.INVALID_EVENT_LIST_SIZE);
+        }
+        return ResponseEntity.ok(
+                timelineService.page(extractUserId(auth), sessionId, cursor, size)
+        );
+    }
+
+    /**
+     * 세션 타임라인 전체 (한 줄에 항목 1개, 오래된 순)
+     * GET /api/reports/sessions/{sessionId}/timeline/stream
+     */
+    @GetMapping(value = "/timeline/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTimeline(
+            Authentication auth,
+            @PathVariable Long sessionId
+    ) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(timelineService.stream(extractUserId(auth), sessionId));
+    }
+
+    // Authentication에서 userId 꺼내는 유틸
+    private Long extractUserId(Authentication authentication) {
+        Object p = authentication.getPrincipal();
+        return (p instanceof Long) ? (Long) p : Long.valueOf(p.toString());
+    }
+}
@@ -4,7 +4,6 @@ import lombok.Builder;
 import lombok.Getter;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 /**
  * AI 리포트 분석 요청 DTO
@@ -124,25 +123,20 @@ public record AiAnalysisRequest(
          */
         Boolean autoExitEnabled,
 
-        // ===== 최근 차트 데이터 =====
-
         /**
-         * 최근 캔들 종가 리스트
-         *
-         * AI가 차트 흐름을 파악할 수 있도록 제공
-         *
-         * 예
-         * [72000, 72100, 71900, 72500]
+         * 보유 중 최대 역행폭 (MAE, 0 이하, 차트 손익 장부 기준)
+         * 장부가 없으면 null
          */
-        List<Double> closes,
+        BigDecimal maxAdverseExcursion,
+
+        // ===== 최근 차트 데이터 =====
+
         /**
-         * 최근 캔들 종가 리스트
-         *
-         * AI가 차트 흐름을 파악할 수 있도록 제공
+         * 최근 캔들 구간 요약 지표
          *
-         * 예
-         * [72000, 72100, 71900, 72500]
+         * 종가/거래량 원본 배열 대신 수익률, ATR, 낙폭, 추세 기울기,
+         * 거래량 z-score, 진입/청산가의 구간 내 위치를 전달한다.
          */
-        List<Double> volumes
+        CandleFeatures features
 ) {
 }
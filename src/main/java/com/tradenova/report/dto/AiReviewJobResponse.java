@@ -0,0 +1,31 @@
+package com.tradenova.report.dto;
+
+import com.tradenova.report.entity.AiReviewJob;
+
+import java.time.Instant;
+
+public record AiReviewJobResponse(
+        Long jobId,
+        String scope,         // CHART / SESSION
+        Long targetId,        // chartId 또는 sessionId
+        String status,        // QUEUED / RUNNING / SUCCEEDED / FAILED
+        Long resultEventId,   // 성공 시 training_event id (GET .../ai/latest 로도 조회 가능)
+        String errorCode,     // 실패 시 ErrorCode 이름
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt
+) {
+    public static AiReviewJobResponse from(AiReviewJob j) {
+        return new AiReviewJobResponse(
+                j.getId(),
+                j.getScope().name(),
+                j.getTargetId(),
+                j.getStatus().name(),
+                j.getResultEventId(),
+                j.getErrorCode(),
+                j.getCreatedAt(),
+                j.getStartedAt(),
+                j.getFinishedAt()
+        );
+    }
+}
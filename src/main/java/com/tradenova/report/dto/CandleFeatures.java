@@ -0,0 +1,31 @@
+package com.tradenova.report.dto;
+
+/**
+ * 최근 캔들 구간 요약 지표 (AI 프롬프트용)
+ *
+ * 종가/거래량 원본 배열 대신 이 값들만 프롬프트에 넣는다.
+ * - 비율 값(...Pct)은 % 단위
+ * - 위치 값(...Pos)은 구간 저가=0, 고가=1 기준 (구간 밖이면 0 미만/1 초과)
+ */
+public record CandleFeatures(
+        int bars,                   // 사용한 봉 수
+        double firstClose,
+        double lastClose,
+        double returnPct,           // 구간 수익률 (첫 종가 -> 마지막 종가)
+        double lastReturnPct,       // 마지막 봉 수익률
+        double volatilityPct,       // 봉 수익률 표준편차
+        double atr,                 // 평균 true range
+        double atrPct,              // atr / 마지막 종가
+        double maxDrawdownPct,      // 종가 기준 최대 낙폭 (0 이하)
+        double trendSlopePct,       // 종가 회귀 기울기 / 평균 종가 (봉당 %)
+        double trendR2,             // 회귀 설명력 (0~1, 추세의 깔끔함)
+        double rangeLow,            // 구간 최저가 (저가 기준)
+        double rangeHigh,           // 구간 최고가 (고가 기준)
+        double lastClosePos,        // 마지막 종가의 구간 내 위치
+        double lastVolumeZ,         // 마지막 봉 거래량 z-score
+        double maxVolumeZ,          // 최대 거래량 z-score
+        int maxVolumeBarsAgo,       // 최대 거래량 봉이 몇 봉 전인지 (0 = 마지막 봉)
+        Double entryPos,            // 마지막 매수가의 구간 내 위치 (매수 없으면 null)
+        Double exitPos              // 마지막 매도가의 구간 내 위치 (매도 없으면 null)
+) {
+}
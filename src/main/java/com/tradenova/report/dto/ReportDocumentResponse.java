@@ -1,6 +1,7 @@
 package com.tradenova.report.dto;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.tradenova.common.jpa.JsonPayload;
+import com.tradenova.report.entity.ReportDocument;
 
 import java.time.Instant;
 
@@ -8,8 +9,18 @@ public record ReportDocumentResponse(
         Long id,
         Long chartId,
         String kind,          // "DRAFT" or "SNAPSHOT"
-        JsonNode contentJson,
+        JsonPayload contentJson, // 응답 직렬화 시 원본을 그대로 옮겨 씀 (트리 파싱 없음)
         Instant createdAt,
         Instant updatedAt
 ) {
+    public static ReportDocumentResponse from(ReportDocument d) {
+        return new ReportDocumentResponse(
+                d.getId(),
+                d.getChartId(),
+                d.getKind().name(),
+                d.getContent(),
+                d.getCreatedAt(),
+                d.getUpdatedAt()
+        );
+    }
 }
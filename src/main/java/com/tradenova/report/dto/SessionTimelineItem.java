@@ -0,0 +1,27 @@
+package com.tradenova.report.dto;
+
+import java.time.Instant;
+
+/**
+ * 세션 타임라인 항목 1건 (거래/이벤트/스냅샷을 시간 순으로 합친 것)
+ *
+ * - at: 발생 시각 (createdAt)
+ * - data: kind별 기존 응답 DTO
+ *   TRADE -> TrainingTradeItemResponse / EVENT -> TrainingEventResponse / SNAPSHOT -> ReportDocumentResponse
+ */
+public record SessionTimelineItem(
+        Kind kind,
+        Long id,
+        Long chartId,
+        Instant at,
+        Object data
+) {
+    /**
+     * 같은 시각이면 선언 순서대로 놓는다. (거래 -> 그 거래 이벤트 -> 스냅샷)
+     */
+    public enum Kind {
+        TRADE,
+        EVENT,
+        SNAPSHOT
+    }
+}
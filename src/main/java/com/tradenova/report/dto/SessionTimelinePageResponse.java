@@ -0,0 +1,16 @@
+package com.tradenova.report.dto;
+
+import java.util.List;
+
+/**
+ * 세션 타임라인 키셋 페이지
+ *
+ * - items는 오래된 순 (at, kind, id 오름차순)
+ * - 다음 페이지는 nextCursor를 cursor로 넘겨서 요청
+ * - nextCursor == null 이면 마지막 페이지
+ */
+public record SessionTimelinePageResponse(
+        List<SessionTimelineItem> items,
+        String nextCursor
+) {
+}
@@ -0,0 +1,16 @@
+package com.tradenova.report.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tradenova.report.entity.Type;
+
+/**
+ * 일괄 저장(appendAll / publishAll)용 이벤트 1건
+ * - userId는 호출 단위로 하나만 받는다. (한 사용자의 이벤트만 묶을 수 있음)
+ */
+public record TrainingEventDraft(
+        Long chartId,
+        Type type,
+        String title,           // 한 줄 로그 (엔티티에서는 summary)
+        JsonNode payloadJson    // 상세 JSON
+) {
+}
@@ -0,0 +1,16 @@
+package com.tradenova.report.dto;
+
+import java.util.List;
+
+/**
+ * 이벤트 타임라인 키셋 페이지
+ *
+ * - items는 최신순 (id 내림차순)
+ * - 다음(더 오래된) 페이지는 nextCursor를 cursor로 넘겨서 요청
+ * - nextCursor == null 이면 마지막 페이지
+ */
+public record TrainingEventPageResponse(
+        List<TrainingEventResponse> items,
+        Long nextCursor
+) {
+}
@@ -1,6 +1,7 @@
 package com.tradenova.report.dto;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.tradenova.common.jpa.JsonPayload;
+import com.tradenova.report.entity.TrainingEvent;
 
 import java.time.Instant;
 
@@ -9,7 +10,17 @@ public record TrainingEventResponse(
         Long chartId,
         String type,          // Type enum name
         String title,         // 한줄 로그
-        JsonNode payloadJson,
+        JsonPayload payloadJson, // 응답 직렬화 시 원본을 그대로 옮겨 씀 (트리 파싱 없음)
         Instant createdAt
 ) {
+    public static TrainingEventResponse from(TrainingEvent e) {
+        return new TrainingEventResponse(
+                e.getId(),
+                e.getChartId(),
+                e.getType().name(),
+                e.getSummary(),
+                e.getPayload(),
+                e.getCreatedAt()
+        );
+    }
 }
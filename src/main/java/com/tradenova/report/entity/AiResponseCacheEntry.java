@@ -0,0 +1,44 @@
+package com.tradenova.report.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "ai_response_cache",
+        // 만료 행 정리
+        indexes = @Index(name = "idx_ai_cache_expires", columnList = "expires_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+/**
+ * OpenAI 응답 캐시 (2단계: 메모리 LRU -> 이 테이블)
+ *
+ * key = sha256(model, system prompt, user prompt, temperature)
+ * 같은 프롬프트로 다시 분석하면 OpenAI를 호출하지 않고 저장된 응답을 쓴다.
+ */
+public class AiResponseCacheEntry {
+
+    // sha256 hex (64자)
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    @Column(nullable = false, length = 64)
+    private String model;
+
+    // choices[0].message.content (AI가 돌려준 JSON 문자열)
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
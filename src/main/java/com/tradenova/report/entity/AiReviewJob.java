@@ -0,0 +1,70 @@
+package com.tradenova.report.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "ai_review_job",
+        // 사용자별 최근 작업 조회
+        indexes = @Index(name = "idx_ai_job_user", columnList = "user_id, created_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+/**
+ * AI 리뷰 비동기 작업
+ *
+ * 요청 스레드는 작업만 등록하고 바로 응답(202)한다.
+ * 실제 OpenAI 호출은 worker 스레드에서 트랜잭션 밖에서 실행되고,
+ * 결과는 기존과 같이 training_event(Type.AI)로 저장된다. (resultEventId)
+ */
+public class AiReviewJob {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 작업 소유자
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // CHART: chartId 기준 / SESSION: sessionId 기준
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AnalysisScope scope;
+
+    // chartId 또는 sessionId
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    // 작업을 등록한(실행하는) 인스턴스 id - 기동 정리는 자기 인스턴스 작업만 닫는다
+    @Column(name = "owner_id", length = 64)
+    private String ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AiReviewJobStatus status;
+
+    // 성공 시 저장된 AI 이벤트 id
+    @Column(name = "result_event_id")
+    private Long resultEventId;
+
+    // 실패 시 ErrorCode 이름
+    @Column(name = "error_code", length = 64)
+    private String errorCode;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
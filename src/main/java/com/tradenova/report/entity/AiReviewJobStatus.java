@@ -0,0 +1,16 @@
+package com.tradenova.report.entity;
+
+/**
+ * AI 리뷰 비동기 작업 상태
+ * - QUEUED: 대기열에 들어감
+ * - RUNNING: worker가 실행 중 (OpenAI 호출 중)
+ * - SUCCEEDED: training_event(Type.AI) 저장 완료
+ * - FAILED: 실패 (errorCode에 ErrorCode 이름)
+ */
+public enum AiReviewJobStatus {
+    QUEUED, RUNNING, SUCCEEDED, FAILED;
+
+    public boolean finished() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+}
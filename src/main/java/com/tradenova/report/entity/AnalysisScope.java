@@ -0,0 +1,10 @@
+package com.tradenova.report.entity;
+
+/**
+ * AI 리뷰 이벤트(Type.AI)의 분석 범위
+ * - CHART   : 차트 1개 리뷰 (training_event.chart_id = 대상 차트)
+ * - SESSION : 세션 전체 리뷰 (training_event.session_id = 대상 세션, chart_id는 대표 차트)
+ */
+public enum AnalysisScope {
+    CHART, SESSION
+}
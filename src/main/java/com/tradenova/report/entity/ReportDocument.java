@@ -2,7 +2,8 @@ package com.tradenova.report.entity;
 
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.tradenova.common.jpa.JsonNodeConverter;
+import com.tradenova.common.jpa.JsonPayload;
+import com.tradenova.common.jpa.SmileJsonPayloadConverter;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -14,8 +15,8 @@ import java.time.Instant;
 @Table(
         name = "report_document",
         indexes = {
-                // 특정 사용자 + 특정 차트 + 특정 종류 리토프 검색
-                @Index(name="idx_report_user_chart_kind", columnList="user_id, chart_id, kind"),
+                // 특정 사용자 + 특정 차트 + 특정 종류 리포트 검색 / 세션 타임라인 (created_at, id) 키셋 커서
+                @Index(name="idx_report_user_chart_kind_created", columnList="user_id, chart_id, kind, created_at, id"),
                 // 특정 사용자별 리포트 최신순 조회
                 @Index(name="idx_report_user_created", columnList="user_id, created_at")
         },
@@ -92,10 +93,25 @@ public class ReportDocument {
      * 감정 점수
      * 리스크 평가
      */
-    // DB에는 LONGTEXT, JPA에서는 JsonNode 객체, Converter가 변환해줌
-    @Convert(converter = JsonNodeConverter.class)
-    @Column(name="content_json", columnDefinition = "LONGTEXT")
-    private JsonNode contentJson;
+    // DB에는 Smile 바이너리(크면 gzip), JPA에서는 필요할 때 파싱하는 JsonPayload, Converter가 변환해줌
+    @Convert(converter = SmileJsonPayloadConverter.class)
+    @Column(name="content_smile", columnDefinition = "MEDIUMBLOB")
+    private JsonPayload content;
+
+    /**
+     * 예전 저장 형식 (LONGTEXT JSON)
+     * - content_smile이 비어 있는 예전 행만 여기서 읽는다. (dual-read, 새로 쓰지 않음)
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name="content_json", columnDefinition = "LONGTEXT", insertable = false, updatable = false)
+    private String legacyContentJson;
+
+    // legacyContentJson 파싱 결과 캐시
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private JsonPayload legacyContent;
 
     // 리포트 생성 시간
     // insert 시에 자동 입력
@@ -109,5 +125,29 @@ public class ReportDocument {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    /**
+     * 리포트 내용 (새 컬럼 우선, 없으면 예전 컬럼) - 아직 파싱하지 않은 상태
+     */
+    public JsonPayload getContent() {
+        if (content != null) {
+            return content;
+        }
+        if (legacyContent == null) {
+            legacyContent = JsonPayload.fromJsonText(legacyContentJson);
+        }
+        return legacyContent;
+    }
+
+    // 리포트 내용 JSON 트리 (여기서 파싱)
+    public JsonNode getContentJson() {
+        JsonPayload c = getContent();
+        return c == null ? null : c.node();
+    }
+
+    // Draft 덮어쓰기 (새 컬럼에만 쓴다)
+    public void setContentJson(JsonNode contentJson) {
+        this.content = JsonPayload.of(contentJson);
+    }
+
 
 }
@@ -2,7 +2,9 @@ package com.tradenova.report.entity;
 
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.tradenova.common.jpa.JsonNodeConverter;
+import com.tradenova.common.jpa.IdGenerators;
+import com.tradenova.common.jpa.JsonPayload;
+import com.tradenova.common.jpa.SmileJsonPayloadConverter;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -13,8 +15,14 @@ import java.time.Instant;
 @Table(
         name="training_event",
         indexes = {
-                // 특정 사용자 + 특정 차트의 이벤트 히스토리
-                @Index(name="idx_event_user_chart_time", columnList="user_id, chart_id, created_at")
+                // 특정 사용자 + 특정 차트의 이벤트 히스토리 / 세션 타임라인 (created_at, id) 키셋 커서
+                @Index(name="idx_event_user_chart_created", columnList="user_id, chart_id, created_at, id"),
+                // 타임라인 키셋 페이지 / 내보내기 (user + chart -> id 순)
+                @Index(name="idx_event_user_chart_id", columnList="user_id, chart_id, id"),
+                // 최신 차트 AI 리뷰 (user + chart + scope -> id desc 첫 행)
+                @Index(name="idx_event_ai_chart", columnList="user_id, chart_id, analysis_scope, id"),
+                // 최신 세션 AI 리뷰 (user + session + scope -> id desc 첫 행)
+                @Index(name="idx_event_ai_session", columnList="user_id, session_id, analysis_scope, id")
         }
 )
 @Getter
@@ -25,7 +33,17 @@ import java.time.Instant;
 // 훈련 중 발생하는 모든 행동의 로그 저장소
 public class TrainingEvent {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // 이벤트는 가장 많이 쌓이는 로그라 배치 insert가 가능한 pooled 테이블 생성기를 쓴다.
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "training_event_id")
+    @TableGenerator(
+            name = "training_event_id",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.TRAINING_EVENT,
+            allocationSize = IdGenerators.LOG_ALLOCATION_SIZE
+    )
     private Long id;
 
     //이벤트 소유자
@@ -94,13 +112,60 @@ public class TrainingEvent {
      *   "habits": ["추격매수", "손절 지연"]
      * }
      */
-    // JsonNode == Jackson 라이브러리에서 제공하는 "JSON을 트리 구조로 다루는 객체"
-    @Convert(converter = JsonNodeConverter.class)
-    @Column(name="payload_json", columnDefinition="LONGTEXT")
-    private JsonNode payloadJson;
+    // 저장은 Smile 바이너리(크면 gzip), 읽을 때는 바이트만 들고 있다가 필요할 때 파싱한다. (JsonPayload)
+    @Convert(converter = SmileJsonPayloadConverter.class)
+    @Column(name="payload_smile", columnDefinition="MEDIUMBLOB")
+    private JsonPayload payload;
+
+    /**
+     * 예전 저장 형식 (LONGTEXT JSON)
+     * - 새 행은 쓰지 않는다. payload_smile이 비어 있는 예전 행만 여기서 읽는다. (dual-read)
+     * - JsonPayloadBinaryMigration이 백그라운드에서 payload_smile로 옮기고 비운다.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name="payload_json", columnDefinition="LONGTEXT", insertable=false, updatable=false)
+    private String legacyPayloadJson;
+
+    // legacyPayloadJson 파싱 결과 캐시 (같은 엔티티에서 여러 번 꺼내도 1번만 파싱)
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private JsonPayload legacyPayload;
+
+    /**
+     * AI 리뷰 범위 (Type.AI만, 나머지 이벤트는 null)
+     * - payload_json.analysisScope와 같은 값. 조회는 JSON 대신 이 컬럼 + 인덱스로 한다.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name="analysis_scope", length=10)
+    private AnalysisScope analysisScope;
+
+    // 세션 AI 리뷰 대상 세션 (SESSION 범위만, payload_json.sessionId와 같은 값)
+    @Column(name="session_id")
+    private Long sessionId;
 
     //이벤트 생성 시 자동 기록
     @CreationTimestamp
     @Column(name="created_at", updatable=false)
     private Instant createdAt;
+
+    /**
+     * 상세 JSON (새 컬럼 우선, 없으면 예전 컬럼) - 아직 파싱하지 않은 상태
+     */
+    public JsonPayload getPayload() {
+        if (payload != null) {
+            return payload;
+        }
+        if (legacyPayload == null) {
+            legacyPayload = JsonPayload.fromJsonText(legacyPayloadJson);
+        }
+        return legacyPayload;
+    }
+
+    // JsonNode == Jackson 라이브러리에서 제공하는 "JSON을 트리 구조로 다루는 객체" (여기서 파싱)
+    public JsonNode getPayloadJson() {
+        JsonPayload p = getPayload();
+        return p == null ? null : p.node();
+    }
 }
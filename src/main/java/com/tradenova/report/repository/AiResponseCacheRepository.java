@@ -0,0 +1,19 @@
+package com.tradenova.report.repository;
+
+import com.tradenova.report.entity.AiResponseCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface AiResponseCacheRepository extends JpaRepository<AiResponseCacheEntry, String> {
+
+    // 만료된 캐시 행 일괄 삭제
+    @Modifying
+    @Transactional
+    @Query("delete from AiResponseCacheEntry c where c.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,43 @@
+package com.tradenova.report.repository;
+
+import com.tradenova.report.entity.AiReviewJob;
+import com.tradenova.report.entity.AiReviewJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface AiReviewJobRepository extends JpaRepository<AiReviewJob, Long> {
+
+    // 소유권 포함 단건 조회
+    Optional<AiReviewJob> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * 기동 시 정리: 이전 프로세스에서 끝나지 못한 작업(QUEUED/RUNNING)을 FAILED로 닫는다.
+     * (작업 큐는 메모리에만 있으므로 재시작하면 이어서 실행할 수 없다)
+     *
+     * 다른 인스턴스가 실행 중인 작업은 건드리지 않는다.
+     * - 같은 ownerId(이 인스턴스가 재시작 전에 등록한 작업)
+     * - 또는 staleBefore 이전에 등록된 작업 (사라진 인스턴스가 남긴 작업)
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update AiReviewJob j
+           set j.status = com.tradenova.report.entity.AiReviewJobStatus.FAILED,
+               j.errorCode = :errorCode,
+               j.finishedAt = :now
+         where j.status in :statuses
+           and (j.ownerId = :ownerId or j.createdAt < :staleBefore)
+    """)
+    int failUnfinished(@Param("statuses") Collection<AiReviewJobStatus> statuses,
+                       @Param("ownerId") String ownerId,
+                       @Param("staleBefore") Instant staleBefore,
+                       @Param("errorCode") String errorCode,
+                       @Param("now") Instant now);
+}
@@ -2,12 +2,18 @@ package com.tradenova.report.repository;
 
 import com.tradenova.report.entity.ReportDocument;
 import com.tradenova.report.entity.ReportKind;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ReportDocumentRepository extends JpaRepository<ReportDocument, Long> {
 
@@ -69,4 +75,34 @@ public interface ReportDocumentRepository extends JpaRepository<ReportDocument,
                                                               @Param("chartId") Long chartId,
                                                               @Param("kind") ReportKind kind);
 
+
+    /**
+     * 세션 타임라인용: 차트 1개에서 (createdAt, id)가 (at, afterId)보다 뒤인 문서를 시간 순으로 limit건
+     */
+    @Query("""
+            select d
+              from ReportDocument d
+             where d.userId = :userId
+               and d.chartId = :chartId
+               and d.kind = :kind
+               and (d.createdAt > :at or (d.createdAt = :at and d.id > :afterId))
+             order by d.createdAt asc, d.id asc
+            """)
+    List<ReportDocument> findTimelineAfter(
+            @Param("userId") Long userId,
+            @Param("chartId") Long chartId,
+            @Param("kind") ReportKind kind,
+            @Param("at") Instant at,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * 내보내기용: 차트 문서를 id 순으로 한 행씩 읽는다. (MySQL 스트리밍 결과셋, 트랜잭션 안에서만 사용)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ReportDocument> streamByUserIdAndChartIdAndKindOrderByIdAsc(Long userId, Long chartId, ReportKind kind);
 }
@@ -1,15 +1,21 @@
 package com.tradenova.report.repository;
 
+import com.tradenova.report.entity.AnalysisScope;
 import com.tradenova.report.entity.TrainingEvent;
 import com.tradenova.report.entity.Type;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TrainingEventRepository extends JpaRepository<TrainingEvent, Long> {
 
@@ -42,6 +48,76 @@ public interface TrainingEventRepository extends JpaRepository<TrainingEvent, Lo
 
     List<TrainingEvent> findAllByUserIdAndChartIdInOrderByIdAsc(Long userId, List<Long> chartIds);
 
+    // 차트 이벤트 전체 (오래된 순) - PROGRESS 압축용
+    List<TrainingEvent> findAllByUserIdAndChartIdOrderByIdAsc(Long userId, Long chartId);
+
+    /**
+     * 키셋 페이지: cursor(id)보다 오래된 이벤트를 최신순으로 (idx_event_user_chart_id)
+     * - OFFSET 없이 인덱스에서 cursor 위치부터 size건만 읽는다.
+     */
+    List<TrainingEvent> findByUserIdAndChartIdAndIdLessThanOrderByIdDesc(
+            Long userId,
+            Long chartId,
+            Long cursor,
+            Pageable pageable
+    );
+
+    /**
+     * 세션(여러 차트) 키셋 페이지
+     */
+    List<TrainingEvent> findByUserIdAndChartIdInAndIdLessThanOrderByIdDesc(
+            Long userId,
+            Collection<Long> chartIds,
+            Long cursor,
+            Pageable pageable
+    );
+
+    /**
+     * 차트별 이벤트 개수 (행을 읽지 않고 인덱스로 집계)
+     * - [chartId, count]
+     */
+    @Query("""
+            select e.chartId, count(e)
+              from TrainingEvent e
+             where e.userId = :userId
+               and e.chartId in :chartIds
+             group by e.chartId
+            """)
+    List<Object[]> countByUserIdAndChartIdInGroupByChartId(
+            @Param("userId") Long userId,
+            @Param("chartIds") Collection<Long> chartIds
+    );
+
+    /**
+     * 세션 타임라인용: 차트 1개에서 (createdAt, id)가 (at, afterId)보다 뒤인 이벤트를 시간 순으로 limit건
+     * - idx_event_user_chart_created(user_id, chart_id, created_at, id) 순서 그대로 읽는다. (filesort 없음)
+     * - 한 번에 한 묶음만 읽고 결과셋을 닫는다. (거래/스냅샷 커서와 같은 커넥션에서 번갈아 읽기 위해)
+     */
+    @Query("""
+            select e
+              from TrainingEvent e
+             where e.userId = :userId
+               and e.chartId = :chartId
+               and (e.createdAt > :at or (e.createdAt = :at and e.id > :afterId))
+             order by e.createdAt asc, e.id asc
+            """)
+    List<TrainingEvent> findTimelineAfter(
+            @Param("userId") Long userId,
+            @Param("chartId") Long chartId,
+            @Param("at") Instant at,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * 내보내기용: 차트 이벤트를 id 순으로 한 행씩 읽는다. (MySQL 스트리밍 결과셋, 트랜잭션 안에서만 사용)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<TrainingEvent> streamByUserIdAndChartIdOrderByIdAsc(Long userId, Long chartId);
+
     /**
      * 특정 차트에 이벤트 기록이 있는지 확인
      * - AI/NOTE/WARNING/TRADE 등 기록 보호용
@@ -49,33 +125,28 @@ public interface TrainingEventRepository extends JpaRepository<TrainingEvent, Lo
     boolean existsByUserIdAndChartId(Long userId, Long chartId);
 
     /**
-     * 특정 세션의 가장 최근 SESSION AI 이벤트를 조회한다.
-     *
-     * TrainingEvent에는 sessionId 전용 컬럼이 없고,
-     * payload_json 안에 sessionId가 저장되어 있으므로
-     * MySQL JSON_EXTRACT를 사용한다.
+     * 차트의 가장 최근 AI 리뷰 (idx_event_ai_chart 인덱스 1번 탐색)
      */
-    @Query(
-            value = """
-        SELECT te.*
-        FROM training_event te
-        WHERE te.user_id = :userId
-          AND te.type = 'AI'
-          AND JSON_UNQUOTE(
-                JSON_EXTRACT(te.payload_json, '$.analysisScope')
-              ) = 'SESSION'
-          AND CAST(
-                JSON_UNQUOTE(
-                  JSON_EXTRACT(te.payload_json, '$.sessionId')
-                ) AS UNSIGNED
-              ) = :sessionId
-        ORDER BY te.created_at DESC
-        LIMIT 1
-        """,
-            nativeQuery = true
-    )
-    Optional<TrainingEvent> findLatestSessionAiEvent(
-            @Param("userId") Long userId,
-            @Param("sessionId") Long sessionId
+    Optional<TrainingEvent> findFirstByUserIdAndChartIdAndAnalysisScopeOrderByIdDesc(
+            Long userId,
+            Long chartId,
+            AnalysisScope analysisScope
     );
+
+    /**
+     * 세션의 가장 최근 AI 리뷰 (idx_event_ai_session 인덱스 1번 탐색)
+     */
+    Optional<TrainingEvent> findFirstByUserIdAndSessionIdAndAnalysisScopeOrderByIdDesc(
+            Long userId,
+            Long sessionId,
+            AnalysisScope analysisScope
+    );
+
+    /**
+     * 특정 세션의 가장 최근 SESSION AI 이벤트를 조회한다.
+     * - payload_json(JSON_EXTRACT)이 아니라 analysis_scope/session_id 컬럼 + 인덱스로 찾는다.
+     */
+    default Optional<TrainingEvent> findLatestSessionAiEvent(Long userId, Long sessionId) {
+        return findFirstByUserIdAndSessionIdAndAnalysisScopeOrderByIdDesc(userId, sessionId, AnalysisScope.SESSION);
+    }
 }
@@ -14,8 +14,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * OpenAI 연동 전담 서비스
@@ -24,6 +32,8 @@ import java.util.Map;
  * - AiAnalysisRequest를 받아 프롬프트를 구성
  * - OpenAI Chat Completions API 호출
  * - 응답 JSON을 AiAnalysisResponse로 변환
+ * - 같은 프롬프트의 응답은 AiResponseCache에서 재사용 (OpenAI 호출 생략)
+ * - 스트리밍 모드(onSummary != null): stream=true로 호출하고 summary 텍스트를 받는 대로 넘긴다.
  *
  * 설계 원칙
  * - "외부 AI 호출" 책임만 가진다.
@@ -52,6 +62,18 @@ public class AiAnalysisService {
      */
     private final ObjectMapper objectMapper;
 
+    /**
+     * 응답 캐시 (model + prompt + temperature 해시 기준)
+     */
+    private final AiResponseCache responseCache;
+
+    /**
+     * 응답 랜덤성 (낮을수록 일관적) - 캐시 키에도 들어간다
+     */
+    private static final double TEMPERATURE = 0.2;
+
+    private static final String COMPLETIONS_URL = "https://api.openai.com/v1/chat/completions";
+
     /**
      * OpenAI API Key
      *
@@ -85,6 +107,16 @@ public class AiAnalysisService {
      * - 점수, 요약, 경고, 강점
      */
     public AiAnalysisResponse analyze(AiAnalysisRequest req) {
+        return analyze(req, null);
+    }
+
+    /**
+     * AI 분석 실행 (스트리밍)
+     *
+     * onSummary: 생성 중인 summary 텍스트 조각을 받는 콜백 (null이면 기존처럼 완성 응답을 기다림)
+     * 반환값은 동기 호출과 같은 최종 AiAnalysisResponse
+     */
+    public AiAnalysisResponse analyze(AiAnalysisRequest req, Consumer<String> onSummary) {
         try {
 
             // AI 역할 설명서
@@ -93,40 +125,8 @@ public class AiAnalysisService {
             // 사용자 리포트/체결 데이터를 문자열로 정리
             String userPrompt = promptBuilder.buildUserPrompt(req);
 
-            // HTTP 헤더 설정
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(apiKey);
-
-            // OpenAI 용청 body
-            Map<String, Object> body = Map.of(
-                    "model", model,
-                    "temperature", 0.2,
-                    "response_format", Map.of("type", "json_object"),
-                    "messages", List.of(
-                            Map.of("role", "system", "content", systemPrompt),
-                            Map.of("role", "user", "content", userPrompt)
-                    )
-            );
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            // OpenAI API 호출
-            ResponseEntity<String> response = restTemplate.exchange(
-                    "https://api.openai.com/v1/chat/completions",
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
-            System.out.println("=== OpenAI raw response ===");
-            System.out.println(response.getBody());
-            // 응답이 비정상이면 예외 처리
-            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-                throw new CustomException(ErrorCode.AI_ANALYSIS_FAILED);
-            }
-
-            // 응답 JSON -> AiAnalysisResponse 변환
-            return parseResponse(response.getBody());
+            // OpenAI 호출 (같은 프롬프트면 캐시 응답)
+            return complete(systemPrompt, userPrompt, onSummary);
 
         }catch (HttpStatusCodeException e){
             System.out.println("=== OpenAI status code ===");
@@ -145,37 +145,170 @@ public class AiAnalysisService {
     }
 
     /**
-     * OpenAI 응답 파싱
+     * OpenAI Chat Completions 호출 (캐시 우선)
+     *
+     * 1. key = sha256(model, system prompt, user prompt, temperature)
+     * 2. 캐시에 있으면 저장된 content를 그대로 파싱 (API 호출 없음)
+     * 3. 없으면 호출 -> 파싱 성공한 content만 캐시에 저장
+     *    (onSummary가 있으면 스트리밍 호출, 캐시 적중이면 summary 전체를 한 번에 넘긴다)
+     */
+    private AiAnalysisResponse complete(String systemPrompt, String userPrompt,
+                                        Consumer<String> onSummary) throws Exception {
+        String cacheKey = AiResponseCache.key(model, systemPrompt, userPrompt, TEMPERATURE);
+        Optional<String> cached = responseCache.get(cacheKey);
+        if (cached.isPresent()) {
+            AiAnalysisResponse result = parseContent(cached.get());
+            if (onSummary != null && result.summary() != null && !result.summary().isEmpty()) {
+                onSummary.accept(result.summary());
+            }
+            return result;
+        }
+
+        if (onSummary != null) {
+            String content = streamContent(systemPrompt, userPrompt, onSummary);
+            AiAnalysisResponse result = parseContent(content);
+            responseCache.put(cacheKey, model, content);
+            return result;
+        }
+
+        // HTTP 헤더 설정
+        //    - JSON 형식으로 요청
+        //    - Bearer 토큰으로 인증
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(apiKey);
+
+        // OpenAI 요청 body
+        //    - model: 사용할 모델명
+        //    - temperature: 응답의 랜덤성 (낮을수록 일관적)
+        //    - response_format: JSON 객체 형태 강제
+        //    - messages: system + user 프롬포트 전달
+        Map<String, Object> body = Map.of(
+                "model", model,
+                "temperature", TEMPERATURE,
+                "response_format", Map.of("type", "json_object"),
+                "messages", List.of(
+                        Map.of("role", "system", "content", systemPrompt),
+                        Map.of("role", "user", "content", userPrompt)
+                )
+        );
+
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+
+        // OpenAI API 호출
+        ResponseEntity<String> response = restTemplate.exchange(
+                COMPLETIONS_URL,
+                HttpMethod.POST,
+                entity,
+                String.class
+        );
+        System.out.println("=== OpenAI raw response ===");
+        System.out.println(response.getBody());
+        // 응답이 비정상이면 예외 처리
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new CustomException(ErrorCode.AI_ANALYSIS_FAILED);
+        }
+
+        // 응답 JSON -> content -> AiAnalysisResponse 변환
+        String content = extractContent(response.getBody());
+        AiAnalysisResponse result = parseContent(content);
+
+        // 파싱까지 성공한 응답만 캐시에 저장
+        responseCache.put(cacheKey, model, content);
+        return result;
+    }
+
+    /**
+     * 스트리밍 호출 (stream=true)
+     *
+     * 응답은 SSE: "data: {chunk}" 줄이 이어지고 "data: [DONE]"으로 끝난다.
+     * chunk.choices[0].delta.content 조각을 이어 붙여 최종 content를 만들고,
+     * 그중 summary 값은 디코딩되는 대로 onSummary로 넘긴다.
+     */
+    private String streamContent(String systemPrompt, String userPrompt, Consumer<String> onSummary) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", model);
+        body.put("temperature", TEMPERATURE);
+        body.put("stream", true);
+        body.put("response_format", Map.of("type", "json_object"));
+        body.put("messages", List.of(
+                Map.of("role", "system", "content", systemPrompt),
+                Map.of("role", "user", "content", userPrompt)
+        ));
+
+        // 4xx/5xx는 기본 에러 핸들러가 HttpStatusCodeException으로 던진다
+        return restTemplate.execute(
+                COMPLETIONS_URL,
+                HttpMethod.POST,
+                request -> {
+                    request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                    request.getHeaders().setBearerAuth(apiKey);
+                    objectMapper.writeValue(request.getBody(), body);
+                },
+                response -> readStream(response.getBody(), onSummary)
+        );
+    }
+
+    /**
+     * SSE 본문 읽기 -> 전체 content
+     */
+    String readStream(InputStream in, Consumer<String> onSummary) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        SummaryStreamExtractor summary = new SummaryStreamExtractor();
+        StringBuilder content = new StringBuilder();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("data:")) {
+                continue; // 빈 줄 / keep-alive 주석
+            }
+            String data = line.substring(5).trim();
+            if ("[DONE]".equals(data)) {
+                break;
+            }
+
+            JsonNode delta = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+            if (!delta.isTextual()) {
+                continue; // role만 있는 첫 chunk, finish_reason chunk
+            }
+            content.append(delta.asText());
+
+            String piece = summary.feed(delta.asText());
+            if (!piece.isEmpty()) {
+                onSummary.accept(piece);
+            }
+        }
+
+        // 내용 없이 끝났으면 실패 처리
+        if (content.length() == 0) {
+            throw new CustomException(ErrorCode.AI_ANALYSIS_FAILED);
+        }
+        return content.toString();
+    }
+
+    /**
+     * OpenAI 응답에서 content 꺼내기
      *
      * OpenAI 응답 구조:
      * choices[0].message.content 안에 JSON 문자열이 들어있다.
      */
-    private AiAnalysisResponse parseResponse(String rawBody) throws Exception {
-        // rawBody log
-        System.out.println("=== parseResponse rawBody ===");
-        System.out.println(rawBody);
-
+    private String extractContent(String rawBody) throws Exception {
         JsonNode root = objectMapper.readTree(rawBody);
-        // root log
-        System.out.println("=== parseResponse root ===");
-        System.out.println(root);
-
-        JsonNode contentNode = root.path("choices").get(0).path("message").path("content");
-        // contrentNode log
-        System.out.println("=== root ===");
-        System.out.println(root.toPrettyString());
+        JsonNode contentNode = root.path("choices").path(0).path("message").path("content");
 
         // content가 비어있으면 실패 처리
         if (contentNode.isMissingNode() || contentNode.asText().isBlank()) {
             throw new CustomException(ErrorCode.AI_ANALYSIS_FAILED);
         }
+        return contentNode.asText();
+    }
 
-        String content = contentNode.asText();
-        System.out.println("=== content text ===");
-        System.out.println(content);
-
-        // content 문자열을 다시 JSON으로 파싱
-        JsonNode aiJson = objectMapper.readTree(contentNode.asText());
+    /**
+     * content(JSON 문자열) -> AiAnalysisResponse
+     */
+    private AiAnalysisResponse parseContent(String content) throws Exception {
+        JsonNode aiJson = objectMapper.readTree(content);
 
         Integer score = aiJson.path("score").asInt(0);
         String summary = aiJson.path("summary").asText("");
@@ -199,52 +332,22 @@ public class AiAnalysisService {
      * 세션 단위 AI 분석 결과를 생성
      */
     public AiAnalysisResponse analyzeSession(SessionAiAnalysisRequest req) {
+        return analyzeSession(req, null);
+    }
+
+    /**
+     * 세션 AI 분석 (스트리밍, onSummary == null이면 동기와 같음)
+     */
+    public AiAnalysisResponse analyzeSession(SessionAiAnalysisRequest req, Consumer<String> onSummary) {
         try {
             // 1. AI 역할, 출력 형식, 평가 규칙을 담은 system prompt 생성
             String systemPrompt = promptBuilder.buildSessionSystemPrompt();
             // 2. 실세 세션 데이터(차트 요약, snapshot 등)를 담은 user prompt 생성
             String userPrompt = promptBuilder.buildSessionUserPrompt(req);
 
-            // 3. OpenAI API 요청 헤더 구성
-            //    - JSON 형식으로 요청
-            //    - Bearer 토큰으로 인증
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(apiKey);
-
-            // 4. OpenAI Chat Completions 요청 바디 구성
-            //    - model: 사용할 모델명
-            //    - temperature: 응답의 랜덤성 (낮을수록 일관적)
-            //    - response_format: JSON 객체 형태 강제
-            //    - messages: system + user 프롬포트 전달
-            Map<String, Object> body = Map.of(
-                    "model", model,
-                    "temperature", 0.2,
-                    "response_format", Map.of("type", "json_object"),
-                    "messages", List.of(
-                            Map.of("role", "system", "content", systemPrompt),
-                            Map.of("role", "user", "content", userPrompt)
-                    )
-            );
-
-            // 5. 헤더 + 바디를 하나의 HTTP 요청 엔티티로 묶음
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            // 6. OpenAI API 호출
-            ResponseEntity<String> response = restTemplate.exchange(
-                    "https://api.openai.com/v1/chat/completions",
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
-
-            // 7. 응답 상태 코드 또는 body 검증
-            //    - 2xx가 아니거나 응답 본문이 없으면 실패 처리
-            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
-                throw new CustomException(ErrorCode.AI_ANALYSIS_FAILED);
-            }
-            // 8. OpenAI 응답 JSON에서 실제 분석 결과(score, summary 등)를 파싱하여 반환
-            return parseResponse(response.getBody());
+            // 3. OpenAI 호출 후 응답 JSON에서 실제 분석 결과(score, summary 등)를 파싱하여 반환
+            //    (같은 프롬프트로 이미 받은 응답이 있으면 OpenAI를 호출하지 않는다)
+            return complete(systemPrompt, userPrompt, onSummary);
 
         } catch (HttpStatusCodeException e) {
             // OpenAI 서버가 4xx / 5xx 응답을 준 경우
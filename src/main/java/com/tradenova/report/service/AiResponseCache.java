@@ -0,0 +1,196 @@
+package com.tradenova.report.service;
+
+import com.tradenova.common.cache.LruMaps;
+import com.tradenova.report.entity.AiResponseCacheEntry;
+import com.tradenova.report.repository.AiResponseCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OpenAI 응답 캐시
+ *
+ * 왜 필요한가?
+ * - 클라이언트 타임아웃 후 재시도, 같은 완료 차트 재분석처럼 PromptBuilder가 만든 프롬프트가
+ *   글자 하나 다르지 않은데도 매번 OpenAI를 호출하고 있었다. (시간 + API 비용)
+ *
+ * 구조:
+ * - key = sha256(model, system prompt, user prompt, temperature)
+ * - 1단계: 메모리 LRU (memory-size개, 프로세스 단위)
+ * - 2단계: ai_response_cache 테이블 (재시작/다른 인스턴스와 공유)
+ * - TTL(ttl-hours)이 지난 항목은 쓰지 않고, 주기적으로 테이블에서 지운다.
+ *
+ * 캐시에는 파싱에 성공한 응답(content)만 넣는다. (실패/이상 응답은 다음 호출에서 다시 시도)
+ *
+ * 지표: stats() (메모리 적중/DB 적중/미스/저장 수, 적중률)
+ */
+@Slf4j
+@Component
+public class AiResponseCache {
+
+    private final AiResponseCacheRepository repository;
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int memorySize;
+
+    // key -> 메모리 항목 (접근 순서 LRU)
+    private final Map<String, Entry> memory;
+
+    // ===== 지표 (누적) =====
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+
+    private record Entry(String content, Instant expiresAt) {
+    }
+
+    public AiResponseCache(
+            AiResponseCacheRepository repository,
+            @Value("${tradenova.ai-cache.enabled:true}") boolean enabled,
+            @Value("${tradenova.ai-cache.ttl-hours:168}") long ttlHours,
+            @Value("${tradenova.ai-cache.memory-size:500}") int memorySize
+    ) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.ttl = Duration.ofHours(Math.max(1, ttlHours));
+        this.memorySize = Math.max(1, memorySize);
+        this.memory = LruMaps.lru(16, this.memorySize);
+    }
+
+    /**
+     * 누적 지표
+     */
+    public record Stats(long memoryHits, long dbHits, long misses, long puts, int memoryEntries, double hitRate) {
+    }
+
+    public Stats stats() {
+        long mem = memoryHits.get();
+        long db = dbHits.get();
+        long miss = misses.get();
+        long total = mem + db + miss;
+        int size;
+        synchronized (memory) {
+            size = memory.size();
+        }
+        return new Stats(mem, db, miss, puts.get(), size, total == 0 ? 0.0 : (double) (mem + db) / total);
+    }
+
+    /**
+     * 캐시 키 = sha256(model \0 system \0 user \0 temperature) hex
+     */
+    public static String key(String model, String systemPrompt, String userPrompt, double temperature) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{model, systemPrompt, userPrompt, Double.toString(temperature)}) {
+                md.update(part.getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 캐시 조회 (메모리 -> DB)
+     */
+    public Optional<String> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Instant now = Instant.now();
+
+        synchronized (memory) {
+            Entry e = memory.get(key);
+            if (e != null) {
+                if (e.expiresAt().isAfter(now)) {
+                    memoryHits.incrementAndGet();
+                    return Optional.of(e.content());
+                }
+                memory.remove(key);
+            }
+        }
+
+        try {
+            Optional<AiResponseCacheEntry> row = repository.findById(key)
+                    .filter(r -> r.getExpiresAt().isAfter(now));
+            if (row.isPresent()) {
+                dbHits.incrementAndGet();
+                remember(key, row.get().getContent(), row.get().getExpiresAt());
+                return Optional.of(row.get().getContent());
+            }
+        } catch (Exception e) {
+            // 캐시 장애는 분석을 막지 않는다 (그냥 OpenAI 호출)
+            log.warn("ai response cache read failed", e);
+        }
+
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * 캐시 저장 (메모리 + DB)
+     */
+    public void put(String key, String model, String content) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        remember(key, content, expiresAt);
+        puts.incrementAndGet();
+
+        try {
+            repository.save(AiResponseCacheEntry.builder()
+                    .cacheKey(key)
+                    .model(model)
+                    .content(content)
+                    .createdAt(now)
+                    .expiresAt(expiresAt)
+                    .build());
+        } catch (Exception e) {
+            // 동시에 같은 키를 저장한 경우 등: 메모리에는 이미 있으므로 무시
+            log.warn("ai response cache write failed", e);
+        }
+    }
+
+    private void remember(String key, String content, Instant expiresAt) {
+        synchronized (memory) {
+            memory.put(key, new Entry(content, expiresAt));
+        }
+    }
+
+    /**
+     * 만료 행 정리
+     */
+    @Scheduled(
+            initialDelayString = "${tradenova.ai-cache.purge-initial-delay-ms:120000}",
+            fixedDelayString = "${tradenova.ai-cache.purge-interval-ms:3600000}"
+    )
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int deleted = repository.deleteExpired(Instant.now());
+            if (deleted > 0) {
+                log.info("ai_response_cache purge. deleted={}, stats={}", deleted, stats());
+            }
+        } catch (Exception e) {
+            log.warn("ai_response_cache purge failed", e);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.tradenova.report.service;
+
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.report.dto.AiReviewJobResponse;
+import com.tradenova.report.dto.TrainingEventResponse;
+import com.tradenova.report.entity.AiReviewJob;
+import com.tradenova.report.entity.AiReviewJobStatus;
+import com.tradenova.report.entity.AnalysisScope;
+import com.tradenova.report.repository.AiReviewJobRepository;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import com.tradenova.training.repository.TrainingSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * AI 리뷰 비동기 작업 큐
+ *
+ * 왜 필요한가?
+ * - 동기 분석(POST .../analyze)은 OpenAI 응답(수 초~수십 초)을 받을 때까지 Tomcat 스레드를 잡고 있다.
+ * - 요청이 몰리면 웹 스레드가 AI 대기로 전부 묶인다.
+ *
+ * 동작:
+ * - submit: 소유권 확인 -> 한도/중복 확인 + 자리 예약(락) -> ai_review_job(QUEUED) 저장(락 밖) -> worker 풀에 등록 -> 바로 202 응답
+ * - worker: RUNNING -> 기존 분석 서비스 호출 -> SUCCEEDED(resultEventId) / FAILED(errorCode)
+ *   (분석 서비스는 "조회 트랜잭션 -> 트랜잭션 밖 OpenAI 호출 -> 저장 트랜잭션"으로 나뉘어 있어
+ *    AI 호출 중에는 DB 커넥션을 잡지 않는다)
+ * - 결과는 기존과 같은 training_event(Type.AI) -> GET .../ai/latest 로도 조회 가능
+ * - 상태 확인: GET 폴링 또는 SSE(status 이벤트, 끝나면 연결 종료)
+ * - 스트리밍(stream=true): OpenAI를 stream 모드로 호출하고, 생성 중인 summary 텍스트를
+ *   SSE summary 이벤트({"text": 조각})로 바로 보낸다. (체감 대기 = 첫 토큰까지)
+ *
+ * 제한:
+ * - worker 수(threads) / 대기열 크기(queue-capacity): 넘치면 AI_JOB_QUEUE_FULL
+ * - 사용자당 동시 작업 수(per-user-limit): 넘치면 AI_JOB_LIMIT_EXCEEDED
+ * - 같은 대상(사용자+범위+id)에 진행 중인 작업이 있으면 새로 만들지 않고 그 작업을 돌려준다.
+ *
+ * 주의:
+ * - 큐는 메모리에만 있다. 재시작 시 끝나지 못한 작업은 기동할 때 FAILED(AI_JOB_INTERRUPTED)로 닫는다.
+ *   (작업마다 등록한 인스턴스 id(ownerId)를 남기고, 자기 작업 + stale-after-ms보다 오래된 작업만 닫는다.
+ *    다른 인스턴스에서 아직 실행 중인 작업은 그대로 둔다)
+ * - 진행 중 작업 집계도 프로세스 단위다. (인스턴스 여러 대면 인스턴스마다 따로 센다)
+ */
+@Slf4j
+@Service
+public class AiReviewJobService implements SmartInitializingSingleton, DisposableBean {
+
+    private final AiReviewJobRepository jobRepository;
+    private final TrainingSessionChartRepository chartRepository;
+    private final TrainingSessionRepository sessionRepository;
+    private final ReportAnalysisService reportAnalysisService;
+    private final SessionReportAnalysisService sessionReportAnalysisService;
+
+    private final ExecutorService workers;
+    private final int perUserLimit;
+    private final long emitterTimeoutMs;
+    private final boolean stream;
+    private final String instanceId;
+    private final long staleAfterMs;
+
+    // 진행 중(QUEUED/RUNNING) 작업: "userId:scope:targetId" -> jobId (행 저장 전에는 미완료)
+    private final Map<String, CompletableFuture<Long>> activeByTarget = new HashMap<>();
+    // 진행 중 작업 수: userId -> count
+    private final Map<Long, Integer> activeByUser = new HashMap<>();
+    // 상태 구독: jobId -> SSE 연결들
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AiReviewJobService(
+            AiReviewJobRepository jobRepository,
+            TrainingSessionChartRepository chartRepository,
+            TrainingSessionRepository sessionRepository,
+            ReportAnalysisService reportAnalysisService,
+            SessionReportAnalysisService sessionReportAnalysisService,
+            @Value("${tradenova.ai-review.threads:2}") int threads,
+            @Value("${tradenova.ai-review.queue-capacity:100}") int queueCapacity,
+            @Value("${tradenova.ai-review.per-user-limit:2}") int perUserLimit,
+            @Value("${tradenova.ai-review.emitter-timeout-ms:300000}") long emitterTimeoutMs,
+            @Value("${tradenova.ai-review.stream:true}") boolean stream,
+            @Value("${tradenova.ai-review.instance-id:}") String instanceId,
+            @Value("${tradenova.ai-review.stale-after-ms:3600000}") long staleAfterMs
+    ) {
+        this(jobRepository, chartRepository, sessionRepository, reportAnalysisService, sessionReportAnalysisService,
+                newWorkerPool(threads, queueCapacity), perUserLimit, emitterTimeoutMs, stream,
+                instanceId == null || instanceId.isBlank() ? hostName() : instanceId, staleAfterMs);
+    }
+
+    AiReviewJobService(
+            AiReviewJobRepository jobRepository,
+            TrainingSessionChartRepository chartRepository,
+            TrainingSessionRepository sessionRepository,
+            ReportAnalysisService reportAnalysisService,
+            SessionReportAnalysisService sessionReportAnalysisService,
+            ExecutorService workers,
+            int perUserLimit,
+            long emitterTimeoutMs,
+            boolean stream,
+            String instanceId,
+            long staleAfterMs
+    ) {
+        this.jobRepository = jobRepository;
+        this.chartRepository = chartRepository;
+        this.sessionRepository = sessionRepository;
+        this.reportAnalysisService = reportAnalysisService;
+        this.sessionReportAnalysisService = sessionReportAnalysisService;
+        this.workers = workers;
+        this.perUserLimit = Math.max(1, perUserLimit);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.stream = stream;
+        this.instanceId = instanceId;
+        this.staleAfterMs = Math.max(0, staleAfterMs);
+    }
+
+    /**
+     * 기본 인스턴스 id (호스트 이름, 못 구하면 임의 값)
+     */
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    /**
+     * 고정 크기 worker + 크기 제한 대기열 (넘치면 RejectedExecutionException)
+     */
+    private static ExecutorService newWorkerPool(int threads, int queueCapacity) {
+        int n = Math.max(1, threads);
+        AtomicInteger seq = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                n, n, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "ai-review-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * 기동 시: 이전 프로세스에서 끝나지 못한 작업 정리
+     * - 이 인스턴스가 남긴 작업 + staleAfterMs보다 오래된 작업만 (다른 인스턴스의 진행 중 작업은 제외)
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Instant now = Instant.now();
+        int closed = jobRepository.failUnfinished(
+                List.of(AiReviewJobStatus.QUEUED, AiReviewJobStatus.RUNNING),
+                instanceId,
+                now.minusMillis(staleAfterMs),
+                ErrorCode.AI_JOB_INTERRUPTED.name(),
+                now);
+        if (closed > 0) {
+            log.info("ai_review_job: {} unfinished jobs marked FAILED. instanceId={}", closed, instanceId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 차트 AI 리뷰 작업 등록 (최신 snapshot 기준)
+     */
+    public AiReviewJobResponse submitChart(Long userId, Long chartId) {
+        chartRepository.findByIdAndSession_User_Id(chartId, userId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
+        return submit(userId, AnalysisScope.CHART, chartId);
+    }
+
+    /**
+     * 세션 AI 리뷰 작업 등록
+     */
+    public AiReviewJobResponse submitSession(Long userId, Long sessionId) {
+        sessionRepository.findByIdAndUserId(sessionId, userId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_SESSION_NOT_FOUND));
+        return submit(userId, AnalysisScope.SESSION, sessionId);
+    }
+
+    private AiReviewJobResponse submit(Long userId, AnalysisScope scope, Long targetId) {
+        String key = userId + ":" + scope + ":" + targetId;
+        CompletableFuture<Long> active;
+        CompletableFuture<Long> reserved = null;
+
+        // 락 안에서는 메모리 집계만 (행 저장은 락 밖)
+        synchronized (this) {
+            active = activeByTarget.get(key);
+            if (active == null) {
+                if (activeByUser.getOrDefault(userId, 0) >= perUserLimit) {
+                    throw new CustomException(ErrorCode.AI_JOB_LIMIT_EXCEEDED);
+                }
+                reserved = new CompletableFuture<>();
+                activeByTarget.put(key, reserved);
+                activeByUser.merge(userId, 1, Integer::sum);
+            }
+        }
+
+        // 같은 대상에 진행 중인 작업이 있으면 그 작업을 돌려준다 (아직 저장 중이면 저장을 기다린다)
+        if (active != null) {
+            Long activeId;
+            try {
+                activeId = active.join();
+            } catch (CompletionException e) {
+                // 먼저 온 요청의 저장이 실패했다 (예약은 이미 풀림) -> 다시 등록
+                return submit(userId, scope, targetId);
+            }
+            return get(userId, activeId);
+        }
+
+        AiReviewJob job;
+        try {
+            job = jobRepository.save(AiReviewJob.builder()
+                    .userId(userId)
+                    .scope(scope)
+                    .targetId(targetId)
+                    .ownerId(instanceId)
+                    .status(AiReviewJobStatus.QUEUED)
+                    .build());
+        } catch (RuntimeException e) {
+            release(key, userId);
+            reserved.completeExceptionally(e);
+            throw e;
+        }
+        reserved.complete(job.getId());
+
+        // worker가 먼저 끝낼 수 있으므로 응답은 등록 전에 만든다
+        AiReviewJobResponse response = AiReviewJobResponse.from(job);
+        Long jobId = job.getId();
+        try {
+            workers.execute(() -> run(jobId, key));
+        } catch (RejectedExecutionException e) {
+            release(key, userId);
+            job.setStatus(AiReviewJobStatus.FAILED);
+            job.setErrorCode(ErrorCode.AI_JOB_QUEUE_FULL.name());
+            job.setFinishedAt(Instant.now());
+            jobRepository.save(job);
+            throw new CustomException(ErrorCode.AI_JOB_QUEUE_FULL);
+        }
+        return response;
+    }
+
+    /**
+     * worker: 분석 실행 -> 결과 기록
+     */
+    void run(Long jobId, String key) {
+        AiReviewJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        try {
+            job.setStatus(AiReviewJobStatus.RUNNING);
+            job.setStartedAt(Instant.now());
+            job = jobRepository.save(job);
+            publish(job);
+
+            // 스트리밍이면 summary 조각을 구독자에게 바로 보낸다
+            Consumer<String> onSummary = stream ? text -> publishSummary(jobId, text) : null;
+
+            TrainingEventResponse result = job.getScope() == AnalysisScope.CHART
+                    ? reportAnalysisService.analyzeLatestSnapshot(job.getUserId(), job.getTargetId(), onSummary)
+                    : sessionReportAnalysisService.analyzeSession(job.getUserId(), job.getTargetId(), onSummary);
+
+            job.setStatus(AiReviewJobStatus.SUCCEEDED);
+            job.setResultEventId(result.id());
+        } catch (CustomException e) {
+            job.setStatus(AiReviewJobStatus.FAILED);
+            job.setErrorCode(e.getErrorCode().name());
+        } catch (Exception e) {
+            log.warn("ai review job failed. jobId={}", jobId, e);
+            job.setStatus(AiReviewJobStatus.FAILED);
+            job.setErrorCode(ErrorCode.AI_ANALYSIS_FAILED.name());
+        } finally {
+            release(key, job.getUserId());
+        }
+
+        job.setFinishedAt(Instant.now());
+        try {
+            job = jobRepository.save(job);
+        } catch (Exception e) {
+            // 상태 저장 실패: 결과 이벤트는 이미 저장됐을 수 있다 (GET .../ai/latest)
+            log.warn("ai review job status save failed. jobId={}", jobId, e);
+        }
+        publish(job);
+    }
+
+    private synchronized void release(String key, Long userId) {
+        activeByTarget.remove(key);
+        activeByUser.computeIfPresent(userId, (k, v) -> v <= 1 ? null : v - 1);
+    }
+
+    /**
+     * 작업 상태 조회 (폴링)
+     */
+    public AiReviewJobResponse get(Long userId, Long jobId) {
+        return AiReviewJobResponse.from(find(userId, jobId));
+    }
+
+    private AiReviewJob find(Long userId, Long jobId) {
+        return jobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new CustomException(ErrorCode.AI_JOB_NOT_FOUND));
+    }
+
+    /**
+     * 작업 상태 구독 (SSE)
+     * - 연결 직후 현재 상태 1회 + 상태가 바뀔 때마다 "status" 이벤트
+     * - SUCCEEDED/FAILED를 보내면 연결을 닫는다.
+     */
+    public SseEmitter subscribe(Long userId, Long jobId) {
+        find(userId, jobId);
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        List<SseEmitter> list = subscribers.computeIfAbsent(jobId, k -> new CopyOnWriteArrayList<>());
+        list.add(emitter);
+
+        emitter.onCompletion(() -> unsubscribe(jobId, emitter));
+        emitter.onTimeout(() -> unsubscribe(jobId, emitter));
+        emitter.onError(e -> unsubscribe(jobId, emitter));
+
+        // 등록 후 다시 읽는다 (등록 직전에 끝난 작업도 마지막 상태를 받는다)
+        AiReviewJob current = find(userId, jobId);
+        send(emitter, current);
+        if (current.getStatus().finished()) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    private void unsubscribe(Long jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (k, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private void publish(AiReviewJob job) {
+        List<SseEmitter> list = job.getStatus().finished()
+                ? subscribers.remove(job.getId())
+                : subscribers.get(job.getId());
+        if (list == null) {
+            return;
+        }
+        for (SseEmitter emitter : list) {
+            send(emitter, job);
+            if (job.getStatus().finished()) {
+                emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * 생성 중인 summary 조각 전달 (SSE summary 이벤트)
+     * - 조각은 저장하지 않는다. 늦게 구독한 클라이언트는 끝난 뒤 결과 이벤트를 조회한다.
+     */
+    private void publishSummary(Long jobId, String text) {
+        List<SseEmitter> list = subscribers.get(jobId);
+        if (list == null) {
+            return;
+        }
+        for (SseEmitter emitter : list) {
+            try {
+                emitter.send(SseEmitter.event().name("summary").data(Map.of("text", text)));
+            } catch (IOException | IllegalStateException e) {
+                // 클라이언트가 이미 끊었다 -> onError/onCompletion에서 정리
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, AiReviewJob job) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(AiReviewJobResponse.from(job)));
+        } catch (IOException | IllegalStateException e) {
+            // 클라이언트가 이미 끊었다 -> onError/onCompletion에서 정리
+        }
+    }
+}
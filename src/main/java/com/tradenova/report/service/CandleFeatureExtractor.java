@@ -0,0 +1,135 @@
+package com.tradenova.report.service;
+
+import com.tradenova.report.dto.CandleFeatures;
+
+/**
+ * 캔들 구간 -> 요약 지표 (CandleFeatures)
+ *
+ * 왜 필요한가?
+ * - 예전에는 최근 종가/거래량 List<Double>을 그대로 프롬프트에 넣었다.
+ *   봉 수만큼 토큰이 늘고, 추세/변동성은 모델이 직접 계산해야 했다.
+ * - 여기서 미리 계산한 지표 몇 개만 넣으면 프롬프트가 짧아지고 해석도 일관적이다.
+ *
+ * 계산:
+ * - primitive 배열을 한 번만 돈다. (합계/제곱합/최고·최저만 누적하고 마지막에 조합)
+ * - 수익률 분산은 Welford, 추세는 최소제곱 회귀(x = 봉 순서, y = 종가)
+ * - ATR은 단순 평균 true range (첫 봉은 고가-저가)
+ * - 거래량 z-score는 구간 평균/모표준편차 기준
+ *
+ * 입력 배열은 오래된 봉 -> 최근 봉 순서, 길이가 모두 같아야 한다.
+ */
+public final class CandleFeatureExtractor {
+
+    private CandleFeatureExtractor() {
+    }
+
+    public static CandleFeatures extract(double[] high, double[] low, double[] close, double[] volume,
+                                         Double entryPrice, Double exitPrice) {
+        int n = close.length;
+        if (n == 0 || high.length != n || low.length != n || volume.length != n) {
+            throw new IllegalArgumentException("candle arrays must be non-empty and of equal length");
+        }
+
+        // 회귀 (x = i, y = close)
+        double sx = 0, sy = 0, sxy = 0, sxx = 0, syy = 0;
+        // 수익률 (Welford)
+        int rn = 0;
+        double rMean = 0, rM2 = 0, lastReturn = 0;
+        // ATR / 구간 / 낙폭
+        double trSum = 0;
+        double lo = Double.MAX_VALUE, hi = -Double.MAX_VALUE;
+        double peak = close[0], maxDd = 0;
+        // 거래량
+        double sv = 0, svv = 0, maxV = -Double.MAX_VALUE;
+        int maxVIdx = 0;
+
+        for (int i = 0; i < n; i++) {
+            double c = close[i];
+
+            sx += i;
+            sy += c;
+            sxy += i * c;
+            sxx += (double) i * i;
+            syy += c * c;
+
+            double tr = high[i] - low[i];
+            if (i > 0) {
+                double prev = close[i - 1];
+                tr = Math.max(tr, Math.max(Math.abs(high[i] - prev), Math.abs(low[i] - prev)));
+
+                if (prev != 0) {
+                    double r = c / prev - 1;
+                    rn++;
+                    double d = r - rMean;
+                    rMean += d / rn;
+                    rM2 += d * (r - rMean);
+                    lastReturn = r;
+                }
+            }
+            trSum += tr;
+
+            lo = Math.min(lo, low[i]);
+            hi = Math.max(hi, high[i]);
+
+            peak = Math.max(peak, c);
+            if (peak > 0) {
+                maxDd = Math.min(maxDd, c / peak - 1);
+            }
+
+            double v = volume[i];
+            sv += v;
+            svv += v * v;
+            if (v >= maxV) {
+                maxV = v;
+                maxVIdx = i;
+            }
+        }
+
+        double first = close[0];
+        double last = close[n - 1];
+        double meanClose = sy / n;
+
+        // 회귀 기울기 / 설명력
+        double sxxC = n * sxx - sx * sx;
+        double syyC = n * syy - sy * sy;
+        double sxyC = n * sxy - sx * sy;
+        double slope = sxxC == 0 ? 0 : sxyC / sxxC;
+        double r2 = (sxxC == 0 || syyC <= 0) ? 0 : (sxyC * sxyC) / (sxxC * syyC);
+
+        // 거래량 z-score
+        double vMean = sv / n;
+        double vStd = Math.sqrt(Math.max(0, svv / n - vMean * vMean));
+
+        double atr = trSum / n;
+        double width = hi - lo;
+
+        return new CandleFeatures(
+                n,
+                first,
+                last,
+                first == 0 ? 0 : (last / first - 1) * 100,
+                lastReturn * 100,
+                rn < 2 ? 0 : Math.sqrt(rM2 / (rn - 1)) * 100,
+                atr,
+                last == 0 ? 0 : atr / last * 100,
+                maxDd * 100,
+                meanClose == 0 ? 0 : slope / meanClose * 100,
+                Math.min(1, r2),
+                lo,
+                hi,
+                position(last, lo, width),
+                vStd == 0 ? 0 : (volume[n - 1] - vMean) / vStd,
+                vStd == 0 ? 0 : (maxV - vMean) / vStd,
+                n - 1 - maxVIdx,
+                entryPrice == null ? null : position(entryPrice, lo, width),
+                exitPrice == null ? null : position(exitPrice, lo, width)
+        );
+    }
+
+    /**
+     * 구간 내 위치 (저가 0 ~ 고가 1), 구간 폭이 0이면 0.5
+     */
+    private static double position(double price, double lo, double width) {
+        return width <= 0 ? 0.5 : (price - lo) / width;
+    }
+}
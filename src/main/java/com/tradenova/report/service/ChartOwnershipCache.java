@@ -0,0 +1,45 @@
+package com.tradenova.report.service;
+
+import com.tradenova.common.cache.LruMaps;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * (userId, chartId) 소유권 확인 결과 캐시 (짧은 TTL)
+ *
+ * 왜 필요한가?
+ * - 이벤트를 저장할 때마다 chart -> session -> user 조인 쿼리로 소유권을 다시 확인했다.
+ * - 차트 소유자는 생성 후 바뀌지 않으므로 한 번 확인한 결과를 잠깐 재사용해도 안전하다.
+ *
+ * - "소유함"으로 확인된 것만 저장한다. (실패는 캐시하지 않음 -> 매번 DB 확인)
+ * - TTL이 지나면 다시 DB로 확인한다. (차트/세션 삭제 등에 대한 안전장치)
+ */
+@Component
+public class ChartOwnershipCache {
+
+    private static final int MAX_ENTRIES = 50_000;
+    private static final long TTL_MILLIS = 60_000L;
+
+    private record Key(Long userId, Long chartId) {}
+
+    // value = 만료 시각(epoch millis)
+    private final Map<Key, Long> verified = LruMaps.lru(1024, MAX_ENTRIES);
+
+    public synchronized boolean isOwned(Long userId, Long chartId) {
+        Key key = new Key(userId, chartId);
+        Long expiresAt = verified.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt < System.currentTimeMillis()) {
+            verified.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    public synchronized void markOwned(Long userId, Long chartId) {
+        verified.put(new Key(userId, chartId), System.currentTimeMillis() + TTL_MILLIS);
+    }
+}
@@ -0,0 +1,154 @@
+package com.tradenova.report.service;
+
+import com.tradenova.common.jpa.JsonPayload;
+import com.tradenova.common.jpa.SmileJsonPayloadConverter;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * payload_json / content_json(LONGTEXT) -> payload_smile / content_smile(Smile BLOB) 이전
+ *
+ * 배경:
+ * - 엔티티는 새 컬럼을 먼저 읽고, 비어 있으면 예전 컬럼을 읽는다. (dual-read)
+ *   그래서 이전이 끝나지 않아도 조회 결과는 같고, 이 작업은 저장 공간/파싱 비용만 줄인다.
+ *
+ * 동작:
+ * - 모든 싱글톤 생성 직후 백그라운드 스레드 1개에서 돈다. (요청 처리를 막지 않음)
+ * - id 순으로 CHUNK건씩 읽어서 Smile로 바꿔 쓰고 예전 컬럼은 비운다.
+ * - 새 컬럼이 이미 있는 행은 건드리지 않으므로 여러 번 돌아도 결과가 같다.
+ * - 파싱이 안 되는 JSON은 예전 컬럼에 그대로 둔다. (dual-read로 계속 읽힘)
+ * - AI 이벤트는 TrainingEventAiScopeBackfill이 payload_json을 읽어야 하므로 analysis_scope가 채워진 뒤에만 옮긴다.
+ * - 다 옮긴 뒤에는 tradenova.payload.binary-migration=false로 끈다.
+ */
+@Slf4j
+@Component
+public class JsonPayloadBinaryMigration implements SmartInitializingSingleton {
+
+    static final int CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    // 바이트 변환은 엔티티 저장과 같은 converter를 쓴다 (gzip 기준 등 동일)
+    private final SmileJsonPayloadConverter converter = new SmileJsonPayloadConverter();
+
+    public JsonPayloadBinaryMigration(
+            JdbcTemplate jdbcTemplate,
+            // ddl-auto(update)로 새 컬럼이 먼저 추가되도록 EntityManagerFactory 생성 이후에 실행되게 의존성만 건다.
+            EntityManagerFactory entityManagerFactory,
+            @Value("${tradenova.payload.binary-migration:true}") boolean enabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        Thread worker = new Thread(this::migrateAll, "payload-binary-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void migrateAll() {
+        try {
+            migrate(Target.TRAINING_EVENT);
+            migrate(Target.REPORT_DOCUMENT);
+        } catch (Exception e) {
+            // 다음 기동 때 남은 행부터 이어서 한다
+            log.warn("payload binary migration stopped", e);
+        }
+    }
+
+    int migrate(Target target) {
+        long lastId = 0L;
+        int migrated = 0;
+        int skipped = 0;
+
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(target.selectSql,
+                    (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)},
+                    lastId, CHUNK);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                try {
+                    JsonPayload payload = JsonPayload.fromJsonText((String) row[1]);
+                    payload.node(); // 깨진 JSON은 여기서 걸러낸다
+                    updates.add(new Object[]{converter.convertToDatabaseColumn(payload), id});
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                }
+            }
+            if (!updates.isEmpty()) {
+                migrated += jdbcTemplate.batchUpdate(target.updateSql, updates).length;
+            }
+
+            lastId = (Long) rows.get(rows.size() - 1)[0];
+            if (rows.size() < CHUNK) {
+                break;
+            }
+        }
+
+        if (migrated > 0 || skipped > 0) {
+            log.info("{} payload migrated to smile. migrated={}, skipped(invalid json)={}",
+                    target.table, migrated, skipped);
+        }
+        return migrated;
+    }
+
+    enum Target {
+        TRAINING_EVENT("training_event", """
+                SELECT id, payload_json
+                  FROM training_event
+                 WHERE id > ?
+                   AND payload_smile IS NULL
+                   AND payload_json IS NOT NULL
+                   AND (type <> 'AI' OR analysis_scope IS NOT NULL)
+                 ORDER BY id
+                 LIMIT ?
+                """, """
+                UPDATE training_event
+                   SET payload_smile = ?, payload_json = NULL
+                 WHERE id = ?
+                   AND payload_smile IS NULL
+                """),
+        REPORT_DOCUMENT("report_document", """
+                SELECT id, content_json
+                  FROM report_document
+                 WHERE id > ?
+                   AND content_smile IS NULL
+                   AND content_json IS NOT NULL
+                 ORDER BY id
+                 LIMIT ?
+                """, """
+                UPDATE report_document
+                   SET content_smile = ?, content_json = NULL
+                 WHERE id = ?
+                   AND content_smile IS NULL
+                """);
+
+        final String table;
+        final String selectSql;
+        final String updateSql;
+
+        Target(String table, String selectSql, String updateSql) {
+            this.table = table;
+            this.selectSql = selectSql;
+            this.updateSql = updateSql;
+        }
+    }
+}
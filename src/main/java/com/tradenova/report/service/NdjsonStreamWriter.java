@@ -0,0 +1,77 @@
+package com.tradenova.report.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * NDJSON 스트리밍 응답 공통 (한 줄에 JSON 1개)
+ *
+ * 세션 기록 내보내기 / 세션 타임라인 스트리밍이 같이 쓴다.
+ * - 응답 스레드(MVC async)에서 읽기 전용 트랜잭션 1개를 열고 body를 끝까지 실행한다.
+ * - writeObject가 응답 스트림을 닫지 않게 하고, 줄 구분은 직접 '\n'으로 쓴다. (기본 루트 구분자 공백 제거)
+ * - FLUSH_EVERY 줄마다 출력 버퍼를 내보낸다. (클라이언트가 진행 상황을 바로 받도록)
+ * - 쓰기 중 IOException(클라이언트 연결 끊김 등)은 트랜잭션을 정리한 뒤 그대로 다시 던진다.
+ */
+final class NdjsonStreamWriter {
+
+    // 출력 버퍼를 이 줄 수마다 내보낸다
+    static final int FLUSH_EVERY = 500;
+
+    @FunctionalInterface
+    interface Body {
+        void write(NdjsonStreamWriter out) throws IOException;
+    }
+
+    private final JsonGenerator gen;
+    private long lines;
+
+    private NdjsonStreamWriter(JsonGenerator gen) {
+        this.gen = gen;
+    }
+
+    static void write(
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            OutputStream out,
+            Body body
+    ) throws IOException {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null);
+        NdjsonStreamWriter writer = new NdjsonStreamWriter(gen);
+
+        try {
+            tx.executeWithoutResult(status -> {
+                try {
+                    body.write(writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // 트랜잭션(스트리밍 결과셋)은 이미 정리됨
+            throw e.getCause();
+        }
+        gen.flush();
+    }
+
+    /**
+     * JSON 1줄
+     */
+    void line(Object value) throws IOException {
+        gen.writeObject(value);
+        gen.writeRaw('\n');
+        if (++lines % FLUSH_EVERY == 0) {
+            gen.flush();
+        }
+    }
+}
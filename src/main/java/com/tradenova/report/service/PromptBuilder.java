@@ -1,12 +1,17 @@
 package com.tradenova.report.service;
 
 import com.tradenova.report.dto.AiAnalysisRequest;
+import com.tradenova.report.dto.CandleFeatures;
 import com.tradenova.report.dto.SessionAiAnalysisRequest;
 import com.tradenova.report.dto.SessionChartSummary;
 import com.tradenova.report.dto.SessionSnapshotSummary;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * AI 프롬프트 생성 전담 컴포넌트
@@ -19,10 +24,25 @@ import java.util.List;
  * - AiAnalysisService는 "외부 API 호출" 책임만 가지게 하기 위해
  * - 프롬프트 수정/실험을 이 클래스에서만 하게 하기 위해
  * - 나중에 프롬프트 버전관리 하기 좋게 만들기 위해
+ *
+ * 토큰 예산 (openai.prompt.token-budget)
+ * - user prompt 1건의 대략적인 토큰 상한
+ * - 고정 문구 + 지표를 뺀 나머지를 사용자 메모(thesis/entryReason/...)에 나눠 주고,
+ *   넘치는 메모는 긴 것부터 잘라 "…"를 붙인다. (짧은 메모는 그대로)
+ * - 토큰 수는 추정치 (ASCII 4자 = 1토큰, 그 외 문자 1자 = 1토큰)
  */
 @Component
 public class PromptBuilder {
 
+    // 메모 1개에 최소한 남겨 두는 토큰 (예산 안에서 가능할 때만)
+    private static final int MIN_NOTE_TOKENS = 40;
+
+    private final int tokenBudget;
+
+    public PromptBuilder(@Value("${openai.prompt.token-budget:2000}") int tokenBudget) {
+        this.tokenBudget = tokenBudget;
+    }
+
     /**
      * 시스템 프롬프트 생성
      *
@@ -67,6 +87,18 @@ public class PromptBuilder {
      * 구조화된 텍스트로 만들어 전달한다.
      */
     public String buildUserPrompt(AiAnalysisRequest req) {
+        List<String> notes = List.of(
+                nullSafe(req.thesis()),
+                nullSafe(req.entryReason()),
+                nullSafe(req.exitPlan()),
+                nullSafe(req.riskNote()),
+                nullSafe(req.freeNote())
+        );
+        int fixed = estimateTokens(renderUserPrompt(req, List.of("", "", "", "", "")));
+        return renderUserPrompt(req, fitNotes(notes, tokenBudget - fixed));
+    }
+
+    private String renderUserPrompt(AiAnalysisRequest req, List<String> notes) {
         return """
             [분석 타입]
             analysisType: %s
@@ -93,10 +125,10 @@ public class PromptBuilder {
             takeProfitPrice: %s
             autoExitEnabled: %s
             
-            [최근 종가]
-            %s
+            [보유 중 최대 역행폭(MAE)]
+            maxAdverseExcursion: %s
             
-            [최근 거래량]
+            [최근 캔들 요약]
             %s
             
             위 데이터를 보고 아래 항목을 평가해라:
@@ -111,20 +143,22 @@ public class PromptBuilder {
             - 리포트 내용과 실제 리스크 룰이 일관적인지
             - 진입 사유가 추상적인지 구체적인지
             - 포지션 크기와 현금 상태가 과도한지
+            - 보유 중 역행폭(MAE)이 손절 계획보다 컸는지 (버티기 습관)
 
             추가 규칙:
             - analysisType이 FAST면 snapshot 기반 reasoning 평가는 하지 말고,
               거래/포지션/리스크/가격 흐름 중심으로만 평가해라.
             - analysisType이 DEEP면 snapshot의 thesis, entryReason, exitPlan, riskNote를 적극 반영해라.
             - hasSnapshot=false 인 경우 리포트 텍스트가 비어 있어도 정상 상황으로 간주해라.
+            - 최근 캔들 요약의 Pct는 %% 단위, Pos는 구간 저가=0 / 고가=1 기준 위치다.
             """.formatted(
                 nullSafe(req.analysisType()),
                 req.hasSnapshot(),
-                nullSafe(req.thesis()),
-                nullSafe(req.entryReason()),
-                nullSafe(req.exitPlan()),
-                nullSafe(req.riskNote()),
-                nullSafe(req.freeNote()),
+                notes.get(0),
+                notes.get(1),
+                notes.get(2),
+                notes.get(3),
+                notes.get(4),
                 req.price(),
                 req.qty(),
                 req.avgPrice(),
@@ -133,8 +167,8 @@ public class PromptBuilder {
                 req.stopLossPrice(),
                 req.takeProfitPrice(),
                 req.autoExitEnabled(),
-                req.closes(),
-                req.volumes()
+                req.maxAdverseExcursion() == null ? "없음" : num(req.maxAdverseExcursion().doubleValue()),
+                featureBlock(req.features())
         );
     }
 
@@ -185,6 +219,25 @@ public class PromptBuilder {
      * 세션 데이터를 기반으로 AI에게 전달할 사용자 프롬포트 생성
      */
     public String buildSessionUserPrompt(SessionAiAnalysisRequest req) {
+        List<SessionSnapshotSummary> snapshots = req.snapshots() == null ? List.of() : req.snapshots();
+
+        // snapshot 메모 5개씩 펼쳐서 예산 배분
+        List<String> notes = new ArrayList<>();
+        for (SessionSnapshotSummary s : snapshots) {
+            notes.add(nullSafe(s.thesis()));
+            notes.add(nullSafe(s.entryReason()));
+            notes.add(nullSafe(s.exitPlan()));
+            notes.add(nullSafe(s.riskNote()));
+            notes.add(nullSafe(s.freeNote()));
+        }
+        List<String> empty = notes.stream().map(n -> "").toList();
+        int fixed = estimateTokens(renderSessionUserPrompt(req, snapshots, empty));
+        return renderSessionUserPrompt(req, snapshots, fitNotes(notes, tokenBudget - fixed));
+    }
+
+    private String renderSessionUserPrompt(SessionAiAnalysisRequest req,
+                                           List<SessionSnapshotSummary> snapshots,
+                                           List<String> notes) {
         return """
             [세션 기본 정보]
             sessionId: %s
@@ -224,7 +277,7 @@ public class PromptBuilder {
                 req.totalTradeCount(),
                 req.totalEventCount(),
                 chartBlock(req.charts()),
-                snapshotBlock(req.snapshots())
+                snapshotBlock(snapshots, notes)
         );
     }
 
@@ -252,25 +305,154 @@ public class PromptBuilder {
     }
 
     // 세션 내 snapshot(사용자 분석 기록) 요약 생성
-    private String snapshotBlock(List<SessionSnapshotSummary> snapshots) {
-        if (snapshots == null || snapshots.isEmpty()) {
+    // (notes: snapshot마다 thesis/entryReason/exitPlan/riskNote/freeNote 순서, 예산에 맞게 잘린 값)
+    private String snapshotBlock(List<SessionSnapshotSummary> snapshots, List<String> notes) {
+        if (snapshots.isEmpty()) {
             return "세션 내 저장된 snapshot 없음";
         }
 
         StringBuilder sb = new StringBuilder();
-        for (SessionSnapshotSummary s : snapshots) {
+        for (int i = 0; i < snapshots.size(); i++) {
+            SessionSnapshotSummary s = snapshots.get(i);
+            int k = i * 5;
             sb.append("- chartId=").append(s.chartId())
                     .append(", version=").append(s.version())
-                    .append(", thesis=").append(nullSafe(s.thesis()))
-                    .append(", entryReason=").append(nullSafe(s.entryReason()))
-                    .append(", exitPlan=").append(nullSafe(s.exitPlan()))
-                    .append(", riskNote=").append(nullSafe(s.riskNote()))
-                    .append(", freeNote=").append(nullSafe(s.freeNote()))
+                    .append(", thesis=").append(notes.get(k))
+                    .append(", entryReason=").append(notes.get(k + 1))
+                    .append(", exitPlan=").append(notes.get(k + 2))
+                    .append(", riskNote=").append(notes.get(k + 3))
+                    .append(", freeNote=").append(notes.get(k + 4))
                     .append("\n");
         }
         return sb.toString();
     }
 
+    // 캔들 구간 요약 지표를 한 덩어리 텍스트로 변환
+    private String featureBlock(CandleFeatures f) {
+        if (f == null) {
+            return "없음";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("bars=").append(f.bars())
+                .append(", firstClose=").append(num(f.firstClose()))
+                .append(", lastClose=").append(num(f.lastClose()))
+                .append(", returnPct=").append(num(f.returnPct()))
+                .append(", lastReturnPct=").append(num(f.lastReturnPct()))
+                .append("\n")
+                .append("volatilityPct=").append(num(f.volatilityPct()))
+                .append(", atr=").append(num(f.atr()))
+                .append(", atrPct=").append(num(f.atrPct()))
+                .append(", maxDrawdownPct=").append(num(f.maxDrawdownPct()))
+                .append("\n")
+                .append("trendSlopePct=").append(num(f.trendSlopePct()))
+                .append(", trendR2=").append(num(f.trendR2()))
+                .append("\n")
+                .append("rangeLow=").append(num(f.rangeLow()))
+                .append(", rangeHigh=").append(num(f.rangeHigh()))
+                .append(", lastClosePos=").append(num(f.lastClosePos()))
+                .append(", entryPos=").append(f.entryPos() == null ? "없음" : num(f.entryPos()))
+                .append(", exitPos=").append(f.exitPos() == null ? "없음" : num(f.exitPos()))
+                .append("\n")
+                .append("lastVolumeZ=").append(num(f.lastVolumeZ()))
+                .append(", maxVolumeZ=").append(num(f.maxVolumeZ()))
+                .append(", maxVolumeBarsAgo=").append(f.maxVolumeBarsAgo());
+        return sb.toString();
+    }
+
+    // 소수 둘째 자리 (가격은 큰 값이라도 그대로)
+    private static String num(double v) {
+        return String.format(Locale.ROOT, "%.2f", v);
+    }
+
+    /**
+     * 메모들을 예산(토큰) 안으로 맞춘다.
+     * - 모두 들어가면 그대로
+     * - 아니면 메모당 상한 cap을 찾아(짧은 메모는 그대로, 긴 메모만 cap으로) 합이 예산 이하가 되게 자른다.
+     * - cap은 MIN_NOTE_TOKENS까지 올리되, 그래도 합이 예산 이하일 때만 올린다. (결과 합은 항상 예산 이하)
+     * - 예산이 0 이하면 긴 메모는 빈 문자열로 뺀다.
+     */
+    static List<String> fitNotes(List<String> notes, int budget) {
+        int[] cost = new int[notes.size()];
+        int total = 0;
+        for (int i = 0; i < cost.length; i++) {
+            cost[i] = estimateTokens(notes.get(i));
+            total += cost[i];
+        }
+        if (total <= budget) {
+            return notes;
+        }
+
+        // 짧은 메모부터 채우고 남은 예산을 긴 메모들이 똑같이 나눈다
+        int[] sorted = cost.clone();
+        Arrays.sort(sorted);
+        int remaining = Math.max(0, budget);
+        int cap = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            int share = remaining / (sorted.length - i);
+            if (sorted[i] > share) {
+                cap = share;
+                break;
+            }
+            remaining -= sorted[i];
+            cap = sorted[i];
+        }
+        if (cap < MIN_NOTE_TOKENS) {
+            int atFloor = 0;
+            for (int c : cost) {
+                atFloor += Math.min(c, MIN_NOTE_TOKENS);
+            }
+            if (atFloor <= budget) {
+                cap = MIN_NOTE_TOKENS;
+            }
+        }
+
+        List<String> fitted = new ArrayList<>(notes.size());
+        for (int i = 0; i < cost.length; i++) {
+            fitted.add(cost[i] <= cap ? notes.get(i) : truncate(notes.get(i), cap));
+        }
+        return fitted;
+    }
+
+    /**
+     * 대략적인 토큰 수 (ASCII 4자 = 1토큰, 한글 등 그 외 문자 1자 = 1토큰)
+     */
+    static int estimateTokens(String text) {
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + other;
+    }
+
+    // 앞에서부터 maxTokens만큼 남기고 "…" (코드 포인트 단위로 잘라 서로게이트 쌍을 나누지 않는다)
+    private static String truncate(String text, int maxTokens) {
+        if (maxTokens <= 0) {
+            return "";
+        }
+        int ascii = 0;
+        int other = 0;
+        int end = 0;
+        while (end < text.length()) {
+            int cp = text.codePointAt(end);
+            int len = Character.charCount(cp);
+            if (cp < 128) {
+                ascii++;
+            } else {
+                other += len;   // estimateTokens와 같게 char 수로 센다
+            }
+            if ((ascii + 3) / 4 + other > maxTokens - 1) {
+                break;
+            }
+            end += len;
+        }
+        return text.substring(0, end) + "…";
+    }
+
     /**
      * null 방어용 문자열 헬퍼
      */
@@ -11,17 +11,21 @@ import com.tradenova.paper.entity.PaperPosition;
 import com.tradenova.paper.repository.PaperPositionRepository;
 import com.tradenova.report.dto.AiAnalysisRequest;
 import com.tradenova.report.dto.AiAnalysisResponse;
+import com.tradenova.report.dto.CandleFeatures;
 import com.tradenova.report.dto.TrainingEventResponse;
+import com.tradenova.report.entity.AnalysisScope;
 import com.tradenova.report.entity.ReportDocument;
 import com.tradenova.report.entity.ReportKind;
 import com.tradenova.report.entity.TrainingEvent;
-import com.tradenova.report.entity.Type;
 import com.tradenova.report.repository.ReportDocumentRepository;
 import com.tradenova.report.repository.TrainingEventRepository;
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingChartLedger;
 import com.tradenova.training.entity.TrainingRiskRule;
 import com.tradenova.training.entity.TrainingSessionCandle;
 import com.tradenova.training.entity.TrainingSessionChart;
 import com.tradenova.training.entity.TrainingTrade;
+import com.tradenova.training.repository.TrainingChartLedgerRepository;
 import com.tradenova.training.repository.TrainingRiskRuleRepository;
 import com.tradenova.training.repository.TrainingSessionCandleRepository;
 import com.tradenova.training.repository.TrainingSessionChartRepository;
@@ -29,9 +33,12 @@ import com.tradenova.training.repository.TrainingTradeRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 리포트 AI 분석 orchestration 서비스
@@ -50,6 +57,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ReportAnalysisService {
 
+    // AI 리뷰에 요약해서 넣는 최근 봉 수
+    private static final int RECENT_CANDLES = 30;
+
     // 리포트 문서(snapshot/draft) 조회용
     private final ReportDocumentRepository reportDocumentRepository;
 
@@ -69,6 +79,9 @@ public class ReportAnalysisService {
     // 리스크 룰 조회용
     private final TrainingRiskRuleRepository trainingRiskRuleRepository;
 
+    // 차트 손익 장부 (MAE 조회용)
+    private final TrainingChartLedgerRepository ledgerRepository;
+
     // AI 분석 결과를 이벤트 로그로 저장
     private final TrainingEventService trainingEventService;
 
@@ -81,6 +94,24 @@ public class ReportAnalysisService {
     // Event Repo 가져오기
     private final TrainingEventRepository trainingEventRepository;
 
+    // 준비/저장 단계만 트랜잭션으로 감싼다 (AI 호출 중에는 DB 커넥션을 잡지 않음)
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * AI 호출 전에 DB에서 모아둔 차트 리뷰 입력 (트랜잭션 밖으로 들고 나가는 값만)
+     */
+    public record ChartReviewInput(
+            Long chartId,
+            AiAnalysisRequest request,
+            String analysisType,
+            boolean hasSnapshot,
+            Long snapshotId,
+            BigDecimal stopLossPrice,
+            BigDecimal takeProfitPrice,
+            Boolean autoExitEnabled
+    ) {
+    }
+
     /**
      * 특정 차트의 최신 snapshot을 분석해서
      * AI 리뷰 이벤트를 생성한다.
@@ -93,9 +124,38 @@ public class ReportAnalysisService {
      * 5. AI 요청 DTO 생성
      * 6. AI 분석 호출
      * 7. 결과를 training_event로 저장
+     *
+     * 1~5는 읽기 트랜잭션(prepareChartReview), 6은 트랜잭션 밖, 7은 쓰기 트랜잭션(saveChartReview)
+     * - 비동기 실행은 AiReviewJobService가 같은 세 단계를 worker 스레드에서 돈다.
      */
-    @Transactional
     public TrainingEventResponse analyzeLatestSnapshot(Long userId, Long chartId) {
+        return analyzeLatestSnapshot(userId, chartId, null);
+    }
+
+    /**
+     * 차트 AI 리뷰 (스트리밍)
+     * - onSummary: 생성 중인 summary 텍스트 조각 (null이면 완성 응답을 기다림)
+     * - 저장되는 결과는 동기 호출과 같다.
+     */
+    public TrainingEventResponse analyzeLatestSnapshot(Long userId, Long chartId, Consumer<String> onSummary) {
+        ChartReviewInput input = prepareChartReview(userId, chartId);
+
+        // AI 분석 실행 (트랜잭션 밖)
+        AiAnalysisResponse ai = aiAnalysisService.analyze(input.request(), onSummary);
+
+        return saveChartReview(userId, input, ai);
+    }
+
+    /**
+     * 차트 리뷰 입력 수집 (읽기 전용 트랜잭션)
+     */
+    public ChartReviewInput prepareChartReview(Long userId, Long chartId) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> collectChartReview(userId, chartId));
+    }
+
+    private ChartReviewInput collectChartReview(Long userId, Long chartId) {
 
         // 1) 차트 소유권 검증
         TrainingSessionChart chart = chartRepository.findByIdAndSession_User_Id(chartId, userId)
@@ -121,28 +181,23 @@ public class ReportAnalysisService {
         // snapshot true면 DEEP, 아니면 FAST
         String analysisType = hasSnapshot ? "DEEP" : "FAST";
 
-        // 4) 최근 캔들 30개 조회
-        List<TrainingSessionCandle> candles = candleRepository.findTop30ByChartIdOrderByIdxDesc(chartId);
+        // 4) 최근 캔들 30개 조회 (진행 위치까지만 - 아직 공개되지 않은 봉은 보내지 않는다)
+        int progress = chart.getProgressIndex() == null ? 0 : Math.max(0, chart.getProgressIndex());
+        List<TrainingSessionCandle> candles = candleRepository.findAllByChartIdAndIdxBetweenOrderByIdxAsc(
+                chartId, Math.max(0, progress - (RECENT_CANDLES - 1)), progress);
 
         if (candles == null || candles.isEmpty()) {
             throw new CustomException(ErrorCode.CANDLES_EMPTY);
         }
 
-        // 종가 리스트 추출
-        List<Double> closes = candles.stream()
-                .map(TrainingSessionCandle::getC)
-                .toList();
-
-        // 거래량 리스트 추출
-        List<Double> volumes = candles.stream()
-                .map(TrainingSessionCandle::getV)
-                .toList();
-
         // 5) 최근 거래 1건 조회 (없을 수도 있음)
         TrainingTrade latestTrade = tradeRepository
                 .findTopByChartIdOrderByIdDesc(chartId)
                 .orElse(null);
 
+        // 캔들 구간 요약 지표 (원본 배열 대신 프롬프트에 들어감)
+        CandleFeatures features = extractFeatures(candles, tradeRepository.findAllByChartIdOrderByIdAsc(chartId));
+
         // 최근 거래가 없으면 0으로 대체
         BigDecimal price = latestTrade != null ? latestTrade.getPrice() : BigDecimal.ZERO;
         BigDecimal qty = latestTrade != null ? latestTrade.getQty() : BigDecimal.ZERO;
@@ -173,6 +228,10 @@ public class ReportAnalysisService {
         BigDecimal takeProfitPrice = riskRule != null ? riskRule.getTakeProfitPrice() : null;
         Boolean autoExitEnabled = riskRule != null ? riskRule.isEnabled() : Boolean.FALSE;
 
+        // 보유 중 최대 역행폭 (장부가 없으면 null)
+        BigDecimal maxAdverseExcursion = ledgerRepository.findById(chartId)
+                .map(TrainingChartLedger::getMaxAdverseExcursion)
+                .orElse(null);
 
         // 7) AI 분석 요청 DTO 생성
         AiAnalysisRequest request = new AiAnalysisRequest(
@@ -191,12 +250,42 @@ public class ReportAnalysisService {
                 stopLossPrice,
                 takeProfitPrice,
                 autoExitEnabled,
-                closes,
-                volumes
+                maxAdverseExcursion,
+                features
         );
 
-        // 8) AI 분석 실행
-        AiAnalysisResponse ai = aiAnalysisService.analyze(request);
+        return new ChartReviewInput(
+                chartId,
+                request,
+                analysisType,
+                hasSnapshot,
+                snapshot != null ? snapshot.getId() : null,
+                stopLossPrice,
+                takeProfitPrice,
+                autoExitEnabled
+        );
+    }
+
+    /**
+     * AI 결과를 training_event로 저장 (쓰기 트랜잭션)
+     * - AI 호출 사이에 다른 요청이 먼저 저장했을 수 있으므로 중복을 다시 확인한다.
+     */
+    public TrainingEventResponse saveChartReview(Long userId, ChartReviewInput input, AiAnalysisResponse ai) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            if (findLatestChartAiEventOrNull(userId, input.chartId()) != null) {
+                throw new CustomException(ErrorCode.CHART_AI_ALREADY_EXISTS);
+            }
+            return appendChartReview(userId, input, ai);
+        });
+    }
+
+    private TrainingEventResponse appendChartReview(Long userId, ChartReviewInput input, AiAnalysisResponse ai) {
+        Long chartId = input.chartId();
+        String analysisType = input.analysisType();
+        boolean hasSnapshot = input.hasSnapshot();
+        BigDecimal stopLossPrice = input.stopLossPrice();
+        BigDecimal takeProfitPrice = input.takeProfitPrice();
+        Boolean autoExitEnabled = input.autoExitEnabled();
 
         // 9) AI 결과를 training_event payload JSON 구성
         ObjectNode payload = objectMapper.createObjectNode();
@@ -223,19 +312,20 @@ public class ReportAnalysisService {
 
         // 어떤 snapshot / chart에 대한 결과인지 함께 저장
         // 분석에 사용된 문맥도 일부 같이 저장
-        payload.put("snapshotId", snapshot != null ? snapshot.getId() : null);
+        payload.put("snapshotId", input.snapshotId());
         payload.put("chartId", chartId);
         payload.put("stopLossPrice", stopLossPrice != null ? stopLossPrice.toPlainString() : null);
         payload.put("takeProfitPrice", takeProfitPrice != null ? takeProfitPrice.toPlainString() : null);
         payload.put("autoExitEnabled", autoExitEnabled);
 
         // 10) AI 리뷰 결과를 training_event로 저장 후 반환
-        return trainingEventService.append(
+        return trainingEventService.appendAi(
                 userId,
                 chartId,
-                Type.AI,
                 "차트 AI 리뷰",
-                payload
+                payload,
+                AnalysisScope.CHART,
+                null
         );
     }
 
@@ -264,44 +354,50 @@ public class ReportAnalysisService {
                 matched.getChartId(),       // 차트 ID
                 matched.getType().name(),   // 타입 (AI)
                 matched.getSummary(),       // 한 줄 요약
-                matched.getPayloadJson(),   // 상세 분석 JSON
+                matched.getPayload(),       // 상세 분석 JSON
                 matched.getCreatedAt()      // 생성 시간
         );
     }
 
+    /**
+     * 최근 캔들(오래된 순) + 차트 거래 -> 구간 요약 지표
+     * - 진입/청산 위치는 마지막 매수/매도 체결가 기준
+     */
+    private static CandleFeatures extractFeatures(List<TrainingSessionCandle> candles, List<TrainingTrade> trades) {
+        int n = candles.size();
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        double[] volume = new double[n];
+        for (int i = 0; i < n; i++) {
+            TrainingSessionCandle c = candles.get(i);
+            high[i] = c.getH();
+            low[i] = c.getL();
+            close[i] = c.getC();
+            volume[i] = c.getV();
+        }
+
+        Double entryPrice = null;
+        Double exitPrice = null;
+        for (TrainingTrade t : trades) {
+            if (t.getSide() == TradeSide.BUY) {
+                entryPrice = t.getPrice().doubleValue();
+            } else {
+                exitPrice = t.getPrice().doubleValue();
+            }
+        }
+        return CandleFeatureExtractor.extract(high, low, close, volume, entryPrice, exitPrice);
+    }
+
     /**
      * 특정 차트의 최신 차트 AI 이벤트를 조회한다.
      * - 있으면 TrainingEvent 반환
      * - 없으면 null 반환
      */
     private TrainingEvent findLatestChartAiEventOrNull(Long userId, Long chartId) {
-        // 1) 해당 차트의 AI 이벤트 목록 조회 (최신순)
-        List<TrainingEvent> aiEvents = trainingEventRepository
-                .findAllByUserIdAndChartIdAndTypeOrderByIdDesc(userId, chartId, Type.AI);
-
-        // 2) payload 기준으로 "차트 AI"만 필터링
-        return aiEvents.stream()
-                .filter(event -> {
-
-                    // payload JSON 가져오기
-                    JsonNode payload = event.getPayloadJson();
-
-                    // payload가 없으면 무조건 제외
-                    if (payload == null || payload.isNull()) return false;
-
-                    // analysisScope -> "CHART" / "SESSION" 구분용
-                    String scope = payload.path("analysisScope").asText("");
-
-                    // payload 내부에 저장된 chartId
-                    long payloadChartId = payload.path("chartId").asLong(-1L);
-
-                    // 조건:
-                    // 1) 차트 분석인지 (CHART)
-                    // 2) 해당 chartId와 일치하는지
-                    return "CHART".equals(scope) && payloadChartId == chartId;
-                })
-                // 최신순으로 가져왔기 때문에 첫 번째가 가장 최신 결과
-                .findFirst()
+        // (user, chart, CHART) 인덱스에서 id가 가장 큰 1건만 읽는다
+        return trainingEventRepository
+                .findFirstByUserIdAndChartIdAndAnalysisScopeOrderByIdDesc(userId, chartId, AnalysisScope.CHART)
                 // 없으면 null 반환 (내부 로직용)
                 .orElse(null);
     }
@@ -3,6 +3,7 @@ package com.tradenova.report.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.tradenova.common.exception.CustomException;
 import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.common.jpa.JsonPayload;
 import com.tradenova.report.dto.ReportDocumentResponse;
 import com.tradenova.report.dto.ReportDraftUpsertRequest;
 import com.tradenova.report.entity.ReportDocument;
@@ -118,7 +119,7 @@ public class ReportDocumentService {
                         .schemaVersion(SCHEMA_V1)
                         .version(nextVersion)
                         .linkedEventId(linkedEventId)
-                        .contentJson(payloadJson)   // 실제 리포트 내용
+                        .content(JsonPayload.of(payloadJson)) // 실제 리포트 내용
                         .build()
         );
 
@@ -153,7 +154,7 @@ public class ReportDocumentService {
                 d.getId(),          // 리포트 ID
                 d.getChartId(),     // 차트 ID
                 d.getKind().name(), // 문서 타입 문자열
-                d.getContentJson(), // 리포트 내용(JSON)
+                d.getContent(),     // 리포트 내용(JSON, 파싱 없이 그대로 응답)
                 d.getCreatedAt(),   // 생성 시간
                 d.getUpdatedAt()    // 수정 시간
         );
@@ -5,28 +5,38 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.money.FixedPoint;
+import com.tradenova.common.money.PositionLedger;
 import com.tradenova.common.exception.ErrorCode;
 import com.tradenova.report.dto.*;
+import com.tradenova.report.entity.AnalysisScope;
 import com.tradenova.report.entity.ReportDocument;
 import com.tradenova.report.entity.ReportKind;
 import com.tradenova.report.entity.TrainingEvent;
-import com.tradenova.report.entity.Type;
 import com.tradenova.report.repository.ReportDocumentRepository;
 import com.tradenova.report.repository.TrainingEventRepository;
 import com.tradenova.training.entity.*;
+import com.tradenova.training.repository.TrainingChartLedgerRepository;
 import com.tradenova.training.repository.TrainingSessionCandleRepository;
 import com.tradenova.training.repository.TrainingSessionChartRepository;
 import com.tradenova.training.repository.TrainingSessionRepository;
 import com.tradenova.training.repository.TrainingTradeRepository;
+import com.tradenova.training.service.TrainingChartLedgerService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.DoubleSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -54,13 +64,102 @@ public class SessionReportAnalysisService {
     private final TrainingEventRepository eventRepository;
     private final ReportDocumentRepository reportDocumentRepository;
     private final TrainingSessionCandleRepository candleRepository;
+    // 차트별 손익 장부 (거래 재생 없이 손익 계산)
+    private final TrainingChartLedgerRepository ledgerRepository;
+    private final TrainingChartLedgerService ledgerService;
 
     private final AiAnalysisService aiAnalysisService;
     private final TrainingEventService trainingEventService;
     private final ObjectMapper objectMapper;
 
-    @Transactional
+    // 준비/저장 단계만 트랜잭션으로 감싼다 (AI 호출 중에는 DB 커넥션을 잡지 않음)
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * AI 호출 전에 DB에서 모아둔 세션 리뷰 입력 (트랜잭션 밖으로 들고 나가는 값만)
+     */
+    public record SessionReviewInput(
+            Long sessionId,
+            Long representativeChartId,
+            SessionAiAnalysisRequest request,
+            boolean hasSnapshots,
+            int tradedChartCount,
+            int totalChartCount,
+            int completedChartCount,
+            int totalTradeCount,
+            long totalEventCount,
+            int snapshotCount
+    ) {
+    }
+
+    /**
+     * 세션 AI 리뷰 (동기)
+     * - 수집(읽기 트랜잭션) -> AI 호출(트랜잭션 밖) -> 저장(쓰기 트랜잭션)
+     * - 비동기 실행은 AiReviewJobService가 같은 세 단계를 worker 스레드에서 돈다.
+     */
     public TrainingEventResponse analyzeSession(Long userId, Long sessionId) {
+        return analyzeSession(userId, sessionId, null);
+    }
+
+    /**
+     * 세션 AI 리뷰 (스트리밍, onSummary == null이면 동기와 같음)
+     */
+    public TrainingEventResponse analyzeSession(Long userId, Long sessionId, Consumer<String> onSummary) {
+        SessionReviewInput input = prepareSessionReview(userId, sessionId);
+
+        // AI 분석 실행 (트랜잭션 밖)
+        AiAnalysisResponse ai = aiAnalysisService.analyzeSession(input.request(), onSummary);
+
+        return saveSessionReview(userId, input, ai);
+    }
+
+    /**
+     * 세션 리뷰 입력 수집 (읽기 전용 트랜잭션)
+     * - 수집 전에 거래 기록과 어긋난 손익 장부를 별도 쓰기 트랜잭션(REQUIRES_NEW)에서 다시 만든다.
+     *   읽기 전용 트랜잭션 안의 쓰기는 flush되지 않으므로 수집 중에는 장부를 쓰지 않는다.
+     */
+    public SessionReviewInput prepareSessionReview(Long userId, Long sessionId) {
+        TransactionTemplate repairTx = new TransactionTemplate(transactionManager);
+        repairTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        repairTx.executeWithoutResult(status -> rebuildStaleLedgers(userId, sessionId));
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> collectSessionReview(userId, sessionId));
+    }
+
+    /**
+     * 장부가 없거나 거래 수가 다른 차트만 거래 기록으로 장부를 다시 만든다.
+     * (세션이 없으면 아무것도 하지 않는다. 에러는 수집 단계에서 낸다)
+     */
+    private void rebuildStaleLedgers(Long userId, Long sessionId) {
+        if (sessionRepository.findByIdAndUserId(sessionId, userId).isEmpty()) {
+            return;
+        }
+        List<TrainingSessionChart> charts = chartRepository.findAllBySession_IdOrderByChartIndexAsc(sessionId);
+        if (charts.isEmpty()) {
+            return;
+        }
+        List<Long> chartIds = charts.stream().map(TrainingSessionChart::getId).toList();
+
+        Map<Long, Long> tradeCountMap = tradeRepository.countByChartIdInGroupByChartId(chartIds).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+        Map<Long, TrainingChartLedger> ledgerByChartId = ledgerRepository.findAllById(chartIds).stream()
+                .collect(Collectors.toMap(TrainingChartLedger::getChartId, Function.identity()));
+
+        for (TrainingSessionChart chart : charts) {
+            long tradeCount = tradeCountMap.getOrDefault(chart.getId(), 0L);
+            if (tradeCount == 0) {
+                continue;
+            }
+            TrainingChartLedger ledger = ledgerByChartId.get(chart.getId());
+            if (ledger == null || ledger.getTradeCount() != tradeCount) {
+                ledgerService.rebuild(chart, tradeRepository.findAllByChartIdOrderByIdAsc(chart.getId()));
+            }
+        }
+    }
+
+    private SessionReviewInput collectSessionReview(Long userId, Long sessionId) {
 
         // 1) 세션 조회 + 소유권 체크
         TrainingSession session = sessionRepository.findByIdAndUserId(sessionId, userId)
@@ -85,7 +184,11 @@ public class SessionReportAnalysisService {
 
         // 3) 세션 전체 거래 / 이벤트 / 스냅샷 조회
         List<TrainingTrade> trades = tradeRepository.findAllByChartIdInOrderByCreatedAtAsc(chartIds);
-        List<TrainingEvent> events = eventRepository.findAllByUserIdAndChartIdInOrderByIdAsc(userId, chartIds);
+        // 이벤트는 개수만 쓰므로 행을 읽지 않고 차트별로 집계
+        Map<Long, Long> eventCountMap = eventRepository.countByUserIdAndChartIdInGroupByChartId(userId, chartIds)
+                .stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+        long totalEventCount = eventCountMap.values().stream().mapToLong(Long::longValue).sum();
         List<ReportDocument> snapshots = reportDocumentRepository
                 .findAllByUserIdAndChartIdInAndKindOrderByCreatedAtDesc(userId, chartIds, ReportKind.SNAPSHOT);
 
@@ -93,9 +196,6 @@ public class SessionReportAnalysisService {
         Map<Long, Long> tradeCountMap = trades.stream()
                 .collect(Collectors.groupingBy(TrainingTrade::getChartId, Collectors.counting()));
 
-        Map<Long, Long> eventCountMap = events.stream()
-                .collect(Collectors.groupingBy(TrainingEvent::getChartId, Collectors.counting()));
-
         Map<Long, Long> snapshotCountMap = snapshots.stream()
                 .collect(Collectors.groupingBy(ReportDocument::getChartId, Collectors.counting()));
 
@@ -103,6 +203,10 @@ public class SessionReportAnalysisService {
         Map<Long, List<TrainingTrade>> tradesByChartId = trades.stream()
                 .collect(Collectors.groupingBy(TrainingTrade::getChartId));
 
+        // 차트별 손익 장부 (IN 조회 1번)
+        Map<Long, TrainingChartLedger> ledgerByChartId = ledgerRepository.findAllById(chartIds).stream()
+                .collect(Collectors.toMap(TrainingChartLedger::getChartId, Function.identity()));
+
         // 5) 차트 요약 만들기
         // - 행동 + 결과(finalPnL) 포함
         List<SessionChartSummary> chartSummaries = charts.stream()
@@ -114,7 +218,8 @@ public class SessionReportAnalysisService {
                     // 핵심: 차트별 손익 계산
                     BigDecimal finalPnL = calculateFinalPnL(
                             chart,
-                            tradesByChartId.getOrDefault(chart.getId(), List.of())
+                            tradesByChartId.getOrDefault(chart.getId(), List.of()),
+                            ledgerByChartId.get(chart.getId())
                     );
 
                     return new SessionChartSummary(
@@ -160,37 +265,63 @@ public class SessionReportAnalysisService {
                 charts.size(),
                 completedChartCount,
                 trades.size(),
-                events.size(),
+                (int) totalEventCount,
                 chartSummaries,
                 snapshotSummaries
         );
 
-        // 7) AI 분석 실행
-        AiAnalysisResponse ai = aiAnalysisService.analyzeSession(request);
-
         // 거래가 발생한 차트 수
         int tradedChartCount = (int) chartSummaries.stream()
                 .filter(SessionChartSummary::traded)
                 .count();
 
+        // chartId null 불가라 첫 차트를 대표 chartId로 사용
+        return new SessionReviewInput(
+                session.getId(),
+                charts.get(0).getId(),
+                request,
+                !snapshots.isEmpty(),
+                tradedChartCount,
+                charts.size(),
+                completedChartCount,
+                trades.size(),
+                totalEventCount,
+                snapshots.size()
+        );
+    }
+
+    /**
+     * AI 결과를 training_event로 저장 (쓰기 트랜잭션)
+     * - AI 호출 사이에 다른 요청이 먼저 저장했을 수 있으므로 중복을 다시 확인한다.
+     */
+    public TrainingEventResponse saveSessionReview(Long userId, SessionReviewInput input, AiAnalysisResponse ai) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            if (findLatestSessionAiEventOrNull(userId, input.sessionId()) != null) {
+                throw new CustomException(ErrorCode.SESSION_AI_ALREADY_EXISTS);
+            }
+            return appendSessionReview(userId, input, ai);
+        });
+    }
+
+    private TrainingEventResponse appendSessionReview(Long userId, SessionReviewInput input, AiAnalysisResponse ai) {
         // 8) payload 저장
         // "AI 분석 결과 + 메타데이터를 JSON으로 저장하는 공간"
         ObjectNode payload = objectMapper.createObjectNode();
         payload.put("analysisScope", "SESSION"); // .put으로 JSON에 key-value 넣기
-        payload.put("sessionId", session.getId());
+        payload.put("sessionId", input.sessionId());
         payload.put("score", ai.score());
         payload.put("summary", ai.summary());
 
         payload.put("generatedAt", Instant.now().toString());
         payload.put("analysisVersion", 1);
-        payload.put("hasSnapshots", !snapshots.isEmpty());
-        payload.put("tradedChartCount", tradedChartCount);
+        payload.put("hasSnapshots", input.hasSnapshots());
+        payload.put("tradedChartCount", input.tradedChartCount());
 
-        payload.put("totalChartCount", charts.size());
-        payload.put("completedChartCount", completedChartCount);
-        payload.put("totalTradeCount", trades.size());
-        payload.put("totalEventCount", events.size());
-        payload.put("snapshotCount", snapshots.size());
+        payload.put("totalChartCount", input.totalChartCount());
+        payload.put("completedChartCount", input.completedChartCount());
+        payload.put("totalTradeCount", input.totalTradeCount());
+        payload.put("totalEventCount", input.totalEventCount());
+        payload.put("snapshotCount", input.snapshotCount());
 
         // 경고 목록
         ArrayNode warningsNode = payload.putArray("warnings");
@@ -204,16 +335,14 @@ public class SessionReportAnalysisService {
             ai.strengths().forEach(strengthsNode::add);
         }
 
-        // chartId null 불가라 첫 차트를 대표 chartId로 사용
-        Long representativeChartId = charts.get(0).getId();
-
         // 이벤트 로그로 저장
-        return trainingEventService.append(
+        return trainingEventService.appendAi(
                 userId,
-                representativeChartId,
-                Type.AI,
+                input.representativeChartId(),
                 "세션 AI 리뷰",
-                payload
+                payload,
+                AnalysisScope.SESSION,
+                input.sessionId()
         );
     }
 
@@ -232,17 +361,71 @@ public class SessionReportAnalysisService {
      * 2) 마지막에 포지션이 남아 있으면
      *    - 현재가 기준으로 미실현 손익 계산
      *
+     * 평소에는 1)을 매매 시점에 미리 해둔 차트 장부(TrainingChartLedger)를 읽고,
+     * 장부가 없거나 거래 수가 다를 때만 거래 로그를 순회한다. (읽기 전용 - 장부를 쓰지 않음)
+     *
      * 특징:
      * - 차트 단위 독립 계산 (멀티차트 대응)
      * - 세션 종료 시점 기준 평가
      */
-    private BigDecimal calculateFinalPnL(TrainingSessionChart chart, List<TrainingTrade> chartTrades) {
+    private BigDecimal calculateFinalPnL(
+            TrainingSessionChart chart,
+            List<TrainingTrade> chartTrades,
+            TrainingChartLedger ledger
+    ) {
 
         // 거래 없으면 손익 0
         if (chartTrades == null || chartTrades.isEmpty()) {
             return BigDecimal.ZERO;
         }
 
+        // 현재가는 포지션이 남아 있을 때만 조회한다
+        DoubleSupplier currentClose = () -> currentClose(chart);
+
+        // 장부가 거래 기록과 맞으면 O(1): 실현 + (현재가 - 평단) x 잔여수량
+        if (ledger != null && ledger.getTradeCount() == chartTrades.size()) {
+            return TrainingChartLedgerService.totalPnL(ledger, currentClose);
+        }
+
+        // 장부가 없던 기존 차트 / 어긋난 장부 -> 거래 재생으로 계산
+        // (장부는 수집 전에 다시 만들어 두므로 여기서는 그 사이 거래가 추가된 경우 정도만 온다)
+
+        // long 고정소수점으로 먼저 계산, 표현 범위를 벗어나면 BigDecimal로 다시 계산 (결과는 같다)
+        try {
+            return finalPnLFixed(chartTrades, currentClose);
+        } catch (ArithmeticException e) {
+            return finalPnLDecimal(chartTrades, currentClose);
+        }
+    }
+
+    /**
+     * 최종 손익 - long 고정소수점 버전 (PositionLedger)
+     * - 장부(TrainingChartLedger)가 없거나 어긋났을 때의 재생 경로
+     * - 가격/수량이 tick/micro로 정확히 표현되지 않거나 long 범위를 넘으면 ArithmeticException
+     */
+    static BigDecimal finalPnLFixed(List<TrainingTrade> chartTrades, DoubleSupplier currentClose) {
+        PositionLedger ledger = new PositionLedger();
+
+        for (TrainingTrade trade : chartTrades) {
+            long price = FixedPoint.priceTicks(trade.getPrice());
+            long qty = FixedPoint.qtyMicros(trade.getQty());
+
+            if (trade.getSide() == TradeSide.BUY) {
+                ledger.buy(price, qty);
+            } else if (trade.getSide() == TradeSide.SELL) {
+                ledger.sell(price, qty);
+            }
+        }
+
+        long mark = ledger.holding() ? FixedPoint.priceTicks(currentClose.getAsDouble()) : 0L;
+        return ledger.totalPnL(mark);
+    }
+
+    /**
+     * 최종 손익 - BigDecimal 버전 (기준 구현, fallback)
+     */
+    static BigDecimal finalPnLDecimal(List<TrainingTrade> chartTrades, DoubleSupplier currentClose) {
+
         BigDecimal realizedPnL = BigDecimal.ZERO; // 확정 손익
         BigDecimal positionQty = BigDecimal.ZERO; // 현재 보유 수량
         BigDecimal avgPrice = BigDecimal.ZERO;    // 평균 단가
@@ -288,15 +471,7 @@ public class SessionReportAnalysisService {
         // 포지션 남아 있으면 미실현 손익 계산
         if (positionQty.compareTo(BigDecimal.ZERO) > 0) {
 
-            int idx = (chart.getProgressIndex() == null) ? 0 : chart.getProgressIndex();
-            int maxIdx = Math.max(0, chart.getBars() - 1);
-            idx = Math.max(0, Math.min(idx, maxIdx));
-
-            // 현재가 조회 (마지막 공개된 캔들)
-            TrainingSessionCandle candle = candleRepository.findByChartIdAndIdx(chart.getId(), idx)
-                    .orElseThrow(() -> new CustomException(ErrorCode.CANDLES_EMPTY));
-
-            BigDecimal currentPrice = BigDecimal.valueOf(candle.getC());
+            BigDecimal currentPrice = BigDecimal.valueOf(currentClose.getAsDouble());
 
             // 평가 손익 계산
             unrealizedPnL = currentPrice.subtract(avgPrice).multiply(positionQty);
@@ -306,6 +481,20 @@ public class SessionReportAnalysisService {
         return realizedPnL.add(unrealizedPnL).setScale(4, RoundingMode.HALF_UP);
     }
 
+    /**
+     * 현재가 (마지막 공개된 캔들 종가)
+     */
+    private double currentClose(TrainingSessionChart chart) {
+        int idx = (chart.getProgressIndex() == null) ? 0 : chart.getProgressIndex();
+        int maxIdx = Math.max(0, chart.getBars() - 1);
+        idx = Math.max(0, Math.min(idx, maxIdx));
+
+        TrainingSessionCandle candle = candleRepository.findByChartIdAndIdx(chart.getId(), idx)
+                .orElseThrow(() -> new CustomException(ErrorCode.CANDLES_EMPTY));
+
+        return candle.getC();
+    }
+
     /**
      * userId의 세션에 대한 최신 세션 AI 분석 결과를 조회한다.
      *
@@ -315,6 +504,10 @@ public class SessionReportAnalysisService {
      */
     @Transactional
     public TrainingEventResponse getLatestSessionAi(Long userId, Long sessionId) {
+        // 세션 소유권 검증
+        sessionRepository.findByIdAndUserId(sessionId, userId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_SESSION_NOT_FOUND));
+
         TrainingEvent matched = findLatestSessionAiEventOrNull(userId, sessionId);
 
         if (matched == null) {
@@ -326,7 +519,7 @@ public class SessionReportAnalysisService {
                 matched.getChartId(),
                 matched.getType().name(),
                 matched.getSummary(),
-                matched.getPayloadJson(),
+                matched.getPayload(),
                 matched.getCreatedAt()
         );
     }
@@ -341,39 +534,8 @@ public class SessionReportAnalysisService {
      * - 외부 API 응답용이 아니라 내부 로직용 메서드다.
      */
     private TrainingEvent findLatestSessionAiEventOrNull(Long userId, Long sessionId) {
-        // 1) 세션 조회 + 소유권 검증
-        TrainingSession session = sessionRepository.findByIdAndUserId(sessionId, userId)
-                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_SESSION_NOT_FOUND));
-
-        // 2) 세션에 포함된 차트 목록 조회
-        List<TrainingSessionChart> charts = chartRepository.findAllBySession_IdOrderByChartIndexAsc(session.getId());
-
-        // 차트가 없으면 AI 결과도 없음
-        if (charts.isEmpty()) {
-            return null;
-        }
-
-        // chartId 리스트 추출
-        List<Long> chartIds = charts.stream()
-                .map(TrainingSessionChart::getId)
-                .toList();
-
-        // 3) 해당 차트들에 대한 AI 이벤트 조회 (최신순)
-        List<TrainingEvent> aiEvents = eventRepository
-                .findAllByUserIdAndChartIdInAndTypeOrderByIdDesc(userId, chartIds, Type.AI);
-
-        // 4) payload 기준으로 "세션 AI"만 필터링
-        return aiEvents.stream()
-                .filter(event -> {
-                    JsonNode payload = event.getPayloadJson();
-                    if (payload == null || payload.isNull()) return false;
-
-                    String scope = payload.path("analysisScope").asText("");
-                    long payloadSessionId = payload.path("sessionId").asLong(-1L);
-
-                    return "SESSION".equals(scope) && payloadSessionId == sessionId;
-                })
-                .findFirst()
+        // (user, session, SESSION) 인덱스에서 id가 가장 큰 1건만 읽는다
+        return eventRepository.findLatestSessionAiEvent(userId, sessionId)
                 .orElse(null);
     }
 
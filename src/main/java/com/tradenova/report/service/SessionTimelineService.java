@@ -0,0 +1,293 @@
+package com.tradenova.report.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.report.dto.ReportDocumentResponse;
+import com.tradenova.report.dto.SessionTimelineItem;
+import com.tradenova.report.dto.SessionTimelineItem.Kind;
+import com.tradenova.report.dto.SessionTimelinePageResponse;
+import com.tradenova.report.dto.TrainingEventResponse;
+import com.tradenova.report.entity.ReportDocument;
+import com.tradenova.report.entity.ReportKind;
+import com.tradenova.report.entity.TrainingEvent;
+import com.tradenova.report.repository.ReportDocumentRepository;
+import com.tradenova.report.repository.TrainingEventRepository;
+import com.tradenova.training.dto.TrainingTradeItemResponse;
+import com.tradenova.training.entity.TrainingTrade;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import com.tradenova.training.repository.TrainingTradeRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * 세션 타임라인 (거래 + 이벤트 + 스냅샷을 시간 순으로 합친 하나의 흐름)
+ *
+ * 방식:
+ * - (종류, 차트)마다 (createdAt, id) 키셋 커서를 하나씩 연다. 커서는 묶음(limit)만큼 읽고 결과셋을 바로 닫는다.
+ *   (chartId IN (...) 하나로 읽으면 여러 차트 범위를 합쳐 정렬하느라 묶음마다 filesort가 생긴다.
+ *    차트 1개씩이면 (chart_id, created_at, id) 인덱스 순서 그대로 읽는다)
+ *   (MySQL 스트리밍 결과셋은 커넥션당 1개만 열 수 있어서, 세 커서를 번갈아 읽으려면 묶음 단위여야 한다)
+ * - 각 커서의 맨 앞 항목을 우선순위 큐에 넣고 (at, kind, id)가 가장 작은 것부터 꺼낸다. (k-way merge)
+ * - 메모리는 커서 수(종류 3 x 차트 수) x 묶음 크기로 일정하다. 세션 기록이 아무리 많아도 전부 올리지 않는다.
+ *
+ * 페이지 커서: 마지막 항목의 "초.나노.kind.id" (다음 페이지는 그 뒤부터)
+ */
+@Service
+@RequiredArgsConstructor
+public class SessionTimelineService {
+
+    // 스트리밍 시 커서 1개가 한 번에 읽는 행 수
+    static final int STREAM_BATCH = 500;
+
+    private final TrainingSessionChartRepository chartRepository;
+    private final TrainingEventRepository eventRepository;
+    private final TrainingTradeRepository tradeRepository;
+    private final ReportDocumentRepository reportDocumentRepository;
+
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 타임라인 페이지 (오래된 순)
+     * - 커서마다 size + 1건까지만 읽으면 다음 페이지 여부까지 알 수 있다.
+     */
+    @Transactional(readOnly = true)
+    public SessionTimelinePageResponse page(Long userId, Long sessionId, String cursor, int size) {
+        List<Long> chartIds = ownedChartIds(userId, sessionId);
+        Position after = Position.parse(cursor);
+
+        Iterator<SessionTimelineItem> merged = merge(userId, chartIds, after, size + 1);
+        List<SessionTimelineItem> items = new ArrayList<>(size);
+        while (items.size() < size && merged.hasNext()) {
+            items.add(merged.next());
+        }
+
+        String nextCursor = merged.hasNext() && !items.isEmpty()
+                ? Position.of(items.get(items.size() - 1)).format()
+                : null;
+        return new SessionTimelinePageResponse(items, nextCursor);
+    }
+
+    /**
+     * 타임라인 전체 (NDJSON: 한 줄에 SessionTimelineItem 1개, 오래된 순)
+     * - 소유권은 응답을 시작하기 전에 확인한다.
+     */
+    public StreamingResponseBody stream(Long userId, Long sessionId) {
+        List<Long> chartIds = ownedChartIds(userId, sessionId);
+        return out -> write(userId, chartIds, out);
+    }
+
+    void write(Long userId, List<Long> chartIds, OutputStream out) throws IOException {
+        NdjsonStreamWriter.write(transactionManager, objectMapper, out, writer -> {
+            Iterator<SessionTimelineItem> merged = merge(userId, chartIds, Position.START, STREAM_BATCH);
+            while (merged.hasNext()) {
+                writer.line(merged.next());
+            }
+        });
+    }
+
+    private List<Long> ownedChartIds(Long userId, Long sessionId) {
+        List<Long> chartIds = chartRepository.findChartIdsBySessionIdAndUserId(sessionId, userId);
+        if (chartIds.isEmpty()) {
+            throw new CustomException(ErrorCode.TRAINING_SESSION_NOT_FOUND);
+        }
+        return chartIds;
+    }
+
+    /**
+     * after 뒤의 항목을 시간 순으로 합쳐서 돌려준다.
+     */
+    Iterator<SessionTimelineItem> merge(Long userId, List<Long> chartIds, Position after, int batch) {
+        List<Cursor> cursors = new ArrayList<>(chartIds.size() * 3);
+        for (Long chartId : chartIds) {
+            cursors.add(new Cursor(Kind.TRADE, after, batch, (at, afterId, limit) ->
+                    tradeRepository.findTimelineAfter(
+                                    chartId, at.atOffset(ZoneOffset.UTC), afterId, PageRequest.of(0, limit))
+                            .stream().map(this::toItem).toList()));
+            cursors.add(new Cursor(Kind.EVENT, after, batch, (at, afterId, limit) ->
+                    eventRepository.findTimelineAfter(
+                                    userId, chartId, at, afterId, PageRequest.of(0, limit))
+                            .stream().map(this::toItem).toList()));
+            cursors.add(new Cursor(Kind.SNAPSHOT, after, batch, (at, afterId, limit) ->
+                    reportDocumentRepository.findTimelineAfter(
+                                    userId, chartId, ReportKind.SNAPSHOT, at, afterId, PageRequest.of(0, limit))
+                            .stream().map(this::toItem).toList()));
+        }
+        return new MergeIterator(cursors);
+    }
+
+    // ===== 엔티티 -> 항목 (변환 후 영속성 컨텍스트에서 떼어낸다: 스트리밍 중 메모리 일정) =====
+
+    private SessionTimelineItem toItem(TrainingTrade t) {
+        entityManager.detach(t);
+        return new SessionTimelineItem(Kind.TRADE, t.getId(), t.getChartId(), t.getCreatedAt().toInstant(),
+                TrainingTradeItemResponse.from(t));
+    }
+
+    private SessionTimelineItem toItem(TrainingEvent e) {
+        entityManager.detach(e);
+        return new SessionTimelineItem(Kind.EVENT, e.getId(), e.getChartId(), e.getCreatedAt(),
+                TrainingEventResponse.from(e));
+    }
+
+    private SessionTimelineItem toItem(ReportDocument d) {
+        entityManager.detach(d);
+        return new SessionTimelineItem(Kind.SNAPSHOT, d.getId(), d.getChartId(), d.getCreatedAt(),
+                ReportDocumentResponse.from(d));
+    }
+
+    // ===== 커서 / 병합 =====
+
+    /**
+     * 타임라인 위치 (at, kind, id) - 정렬 키이자 페이지 커서
+     */
+    record Position(Instant at, Kind kind, long id) {
+
+        // 처음부터 (모든 항목이 이 뒤)
+        static final Position START = new Position(Instant.EPOCH, Kind.TRADE, Long.MIN_VALUE);
+
+        static final Comparator<SessionTimelineItem> ORDER = Comparator
+                .comparing(SessionTimelineItem::at)
+                .thenComparing(SessionTimelineItem::kind)
+                .thenComparingLong(SessionTimelineItem::id);
+
+        static Position of(SessionTimelineItem item) {
+            return new Position(item.at(), item.kind(), item.id());
+        }
+
+        static Position parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return START;
+            }
+            String[] parts = cursor.split("\\.");
+            try {
+                if (parts.length != 4) {
+                    throw new IllegalArgumentException(cursor);
+                }
+                return new Position(
+                        Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                        Kind.valueOf(parts[2]),
+                        Long.parseLong(parts[3])
+                );
+            } catch (RuntimeException e) {
+                throw new CustomException(ErrorCode.INVALID_TIMELINE_CURSOR);
+            }
+        }
+
+        String format() {
+            return at.getEpochSecond() + "." + at.getNano() + "." + kind.name() + "." + id;
+        }
+
+        /**
+         * kind 커서가 읽기 시작할 (at, afterId)
+         * - kind가 커서보다 앞 순서면 같은 시각은 이미 다 나갔고(t > at),
+         *   뒤 순서면 같은 시각부터 전부(t >= at), 같으면 id 뒤부터.
+         */
+        long afterIdFor(Kind k) {
+            int c = k.compareTo(kind);
+            if (c < 0) return Long.MAX_VALUE;
+            if (c > 0) return Long.MIN_VALUE;
+            return id;
+        }
+    }
+
+    @FunctionalInterface
+    interface Fetch {
+        List<SessionTimelineItem> after(Instant at, long afterId, int limit);
+    }
+
+    /**
+     * 종류 1개의 키셋 커서 (묶음 단위로 읽고, 다 쓰면 마지막 키 뒤부터 다음 묶음)
+     */
+    static final class Cursor {
+        private final Fetch fetch;
+        private final int batch;
+        private final ArrayDeque<SessionTimelineItem> buffer = new ArrayDeque<>();
+
+        private Instant at;
+        private long afterId;
+        private boolean exhausted;
+
+        Cursor(Kind kind, Position after, int batch, Fetch fetch) {
+            this.fetch = fetch;
+            this.batch = batch;
+            this.at = after.at();
+            this.afterId = after.afterIdFor(kind);
+        }
+
+        SessionTimelineItem peek() {
+            if (buffer.isEmpty() && !exhausted) {
+                List<SessionTimelineItem> rows = fetch.after(at, afterId, batch);
+                if (rows.size() < batch) {
+                    exhausted = true;
+                }
+                if (!rows.isEmpty()) {
+                    SessionTimelineItem last = rows.get(rows.size() - 1);
+                    at = last.at();
+                    afterId = last.id();
+                    buffer.addAll(rows);
+                }
+            }
+            return buffer.peekFirst();
+        }
+
+        SessionTimelineItem poll() {
+            return buffer.pollFirst();
+        }
+    }
+
+    /**
+     * 커서 k개 병합 (각 커서의 맨 앞 항목 중 가장 이른 것)
+     */
+    static final class MergeIterator implements Iterator<SessionTimelineItem> {
+        private final PriorityQueue<Cursor> heads;
+
+        MergeIterator(List<Cursor> cursors) {
+            this.heads = new PriorityQueue<>(Math.max(1, cursors.size()),
+                    Comparator.comparing(Cursor::peek, Position.ORDER));
+            for (Cursor c : cursors) {
+                if (c.peek() != null) {
+                    heads.add(c);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public SessionTimelineItem next() {
+            Cursor c = heads.poll();
+            if (c == null) {
+                throw new NoSuchElementException();
+            }
+            SessionTimelineItem item = c.poll();
+            // 다음 항목이 있으면 (필요하면 다음 묶음을 읽어서) 다시 큐에 넣는다
+            if (c.peek() != null) {
+                heads.add(c);
+            }
+            return item;
+        }
+    }
+}
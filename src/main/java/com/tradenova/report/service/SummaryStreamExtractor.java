@@ -0,0 +1,82 @@
+package com.tradenova.report.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 스트리밍 응답에서 "summary" 문자열 값만 조금씩 꺼내는 도우미
+ *
+ * OpenAI 스트리밍은 content(JSON 문자열)를 몇 글자씩 잘라 보낸다.
+ * 예: {"score":6 / 2,"summ / ary":"추세 / 추종 매수는 / 좋았지만 \ / n손절이 ...
+ *
+ * - 조각을 이어 붙이면서 "summary": " 를 찾고, 그 뒤 문자열을 닫는 따옴표까지 디코딩한다.
+ * - 이스케이프(\n, \", 유니코드 4자리)가 조각 경계에서 잘리면 다음 조각이 올 때까지 기다린다.
+ * - 요청 1건당 1개 (스레드 안전하지 않음)
+ */
+class SummaryStreamExtractor {
+
+    private static final Pattern SUMMARY_START = Pattern.compile("\"summary\"\\s*:\\s*\"");
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private int pos = -1;       // summary 값에서 다음에 읽을 위치 (-1: 아직 못 찾음)
+    private boolean done;       // 닫는 따옴표까지 읽음
+
+    /**
+     * 조각 추가
+     *
+     * @return 이번 조각으로 새로 확정된 summary 텍스트 (없으면 빈 문자열)
+     */
+    String feed(String chunk) {
+        if (done || chunk == null || chunk.isEmpty()) {
+            return "";
+        }
+        buffer.append(chunk);
+
+        if (pos < 0) {
+            Matcher m = SUMMARY_START.matcher(buffer);
+            if (!m.find()) {
+                return "";
+            }
+            pos = m.end();
+        }
+
+        StringBuilder out = new StringBuilder();
+        while (pos < buffer.length()) {
+            char c = buffer.charAt(pos);
+            if (c == '"') {
+                done = true;
+                break;
+            }
+            if (c != '\\') {
+                out.append(c);
+                pos++;
+                continue;
+            }
+
+            // 이스케이프: 끝까지 안 왔으면 다음 조각을 기다린다
+            if (pos + 1 >= buffer.length()) {
+                break;
+            }
+            char e = buffer.charAt(pos + 1);
+            if (e == 'u') {
+                if (pos + 6 > buffer.length()) {
+                    break;
+                }
+                out.append((char) Integer.parseInt(buffer.substring(pos + 2, pos + 6), 16));
+                pos += 6;
+                continue;
+            }
+            out.append(switch (e) {
+                case 'n' -> '\n';
+                case 't' -> '\t';
+                case 'r' -> '\r';
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                default -> e;   // \" \\ \/
+            });
+            pos += 2;
+        }
+        return out.toString();
+    }
+}
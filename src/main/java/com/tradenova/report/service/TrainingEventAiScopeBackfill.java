@@ -0,0 +1,101 @@
+package com.tradenova.report.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * training_event.analysis_scope / session_id 백필
+ *
+ * 배경:
+ * - AI 리뷰의 범위/세션은 원래 payload_json 안에만 있었다.
+ * - 최신 리뷰 조회를 인덱스로 하려고 컬럼을 추가했으므로(ddl-auto update), 기존 AI 이벤트는 컬럼이 비어 있다.
+ *
+ * 동작:
+ * - IdGeneratorSeed와 같이 모든 싱글톤 생성 직후(요청을 받기 전) 1회 실행한다.
+ * - id 순으로 CHUNK건씩 끊어서 payload_json에서 값을 꺼내 채운다. (긴 UPDATE 1번으로 테이블을 잡지 않도록)
+ * - 이미 채워진 행은 건너뛰므로 여러 번 돌아도 결과가 같다.
+ * - 전 구간을 한 번 훑으므로, 운영에서 한 번 돌린 뒤에는 tradenova.event-log.ai-scope-backfill=false로 끈다.
+ */
+@Slf4j
+@Component
+public class TrainingEventAiScopeBackfill implements SmartInitializingSingleton {
+
+    static final int CHUNK = 1_000;
+
+    // 아직 컬럼이 비어 있는 AI 이벤트 id (PK 순서로 이어서 읽는다)
+    static final String SELECT_IDS_SQL = """
+            SELECT id
+              FROM training_event
+             WHERE id > ?
+               AND type = 'AI'
+               AND analysis_scope IS NULL
+             ORDER BY id
+             LIMIT ?
+            """;
+
+    // payload_json.analysisScope가 CHART/SESSION인 행만 채운다 (깨진 JSON/범위 없는 예전 이벤트는 그대로 둔다)
+    static final String UPDATE_SQL = """
+            UPDATE training_event
+               SET analysis_scope = JSON_UNQUOTE(JSON_EXTRACT(payload_json, '$.analysisScope')),
+                   session_id = CASE
+                       WHEN JSON_UNQUOTE(JSON_EXTRACT(payload_json, '$.analysisScope')) = 'SESSION'
+                       THEN CAST(JSON_UNQUOTE(JSON_EXTRACT(payload_json, '$.sessionId')) AS UNSIGNED)
+                   END
+             WHERE id BETWEEN ? AND ?
+               AND type = 'AI'
+               AND analysis_scope IS NULL
+               AND JSON_VALID(payload_json)
+               AND JSON_UNQUOTE(JSON_EXTRACT(payload_json, '$.analysisScope')) IN ('CHART', 'SESSION')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public TrainingEventAiScopeBackfill(
+            JdbcTemplate jdbcTemplate,
+            // ddl-auto(update)로 컬럼이 먼저 추가되도록 EntityManagerFactory 생성 이후에 실행되게 의존성만 건다.
+            EntityManagerFactory entityManagerFactory,
+            @Value("${tradenova.event-log.ai-scope-backfill:true}") boolean enabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+
+        long lastId = 0L;
+        int scanned = 0;
+        int updated = 0;
+
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_IDS_SQL, Long.class, lastId, CHUNK);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            long from = ids.get(0);
+            long to = ids.get(ids.size() - 1);
+            updated += jdbcTemplate.update(UPDATE_SQL, from, to);
+            scanned += ids.size();
+            lastId = to;
+
+            if (ids.size() < CHUNK) {
+                break;
+            }
+        }
+
+        if (scanned > 0) {
+            log.info("training_event ai scope backfilled. candidates={}, updated={}", scanned, updated);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.tradenova.report.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tradenova.common.jpa.JsonPayload;
+import com.tradenova.report.entity.TrainingEvent;
+import com.tradenova.report.entity.Type;
+import com.tradenova.report.repository.TrainingEventRepository;
+import com.tradenova.training.entity.TrainingSessionCandle;
+import com.tradenova.training.repository.TrainingSessionCandleRepository;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PROGRESS 이벤트 압축 (배경 작업)
+ *
+ * 왜 필요한가?
+ * - advance 한 번마다 PROGRESS 이벤트가 1행씩 쌓인다. 끝난 차트에서는 합계만 의미가 있다.
+ * - training_event가 커질수록 (user, chart) 인덱스 범위 스캔도 같이 길어진다.
+ *
+ * 동작:
+ * - 완료됐거나(새로고침으로) 비활성화된 차트 중 아직 압축 전인 차트를 id 순으로 chunk개씩 가져온다.
+ * - 차트마다 이벤트를 id 순으로 보고, 다른 이벤트(매매/경고/노트...) 없이 연속된 PROGRESS 묶음을 찾는다.
+ * - 묶음의 첫 행을 요약 이벤트로 바꾸고(같은 id/시각 유지 -> 타임라인 위치 그대로) 나머지 행은 지운다.
+ * - 자동청산/끝까지 진행 이벤트는 그 자체로 의미가 있으므로 묶지 않는다.
+ * - 차트 1개 = 트랜잭션 1개. chunk마다 throttle-ms만큼 쉬고, 1회 실행당 max-charts-per-run개까지만 처리한다.
+ *
+ * 요약 payload는 원래 PROGRESS 필드 이름을 그대로 쓴다. (requestedSteps/advancedSteps/orderFills는 합계,
+ * fromIndex는 첫 이벤트, toIndex/progressIndex/currentPrice는 마지막 이벤트) + events/startPrice/minPrice/maxPrice
+ * - startPrice = fromIndex 봉(진행 전 위치)의 종가
+ * - minPrice/maxPrice = fromIndex..toIndex 봉의 저가 최솟값 / 고가 최댓값
+ *   (캔들이 없으면 이벤트 currentPrice 기준으로 대신 계산한다)
+ *
+ * 주의:
+ * - 세션 리포트의 이벤트 개수는 압축 후 행 수 기준으로 줄어든다.
+ * - ASYNC write-behind로 완료 직후 늦게 들어온 PROGRESS 1건은 압축 뒤에 남을 수 있다. (단건이라 그대로 둔다)
+ *
+ * 지표: stats() (누적 실행/차트/묶음/삭제 행 수, 마지막 실행 시간) + 실행마다 info 로그
+ */
+@Slf4j
+@Component
+public class TrainingEventCompactionJob {
+
+    private final TrainingSessionChartRepository chartRepository;
+    private final TrainingEventRepository eventRepository;
+    private final TrainingSessionCandleRepository candleRepository;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final int chunk;
+    private final int maxChartsPerRun;
+    private final long throttleMs;
+
+    // ===== 지표 (누적) =====
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong chartsCompacted = new AtomicLong();
+    private final AtomicLong groupsFolded = new AtomicLong();
+    private final AtomicLong eventsDeleted = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+
+    public TrainingEventCompactionJob(
+            TrainingSessionChartRepository chartRepository,
+            TrainingEventRepository eventRepository,
+            TrainingSessionCandleRepository candleRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${tradenova.event-log.compaction.enabled:true}") boolean enabled,
+            @Value("${tradenova.event-log.compaction.chunk:50}") int chunk,
+            @Value("${tradenova.event-log.compaction.max-charts-per-run:2000}") int maxChartsPerRun,
+            @Value("${tradenova.event-log.compaction.throttle-ms:200}") long throttleMs
+    ) {
+        this.chartRepository = chartRepository;
+        this.eventRepository = eventRepository;
+        this.candleRepository = candleRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.chunk = Math.max(1, chunk);
+        this.maxChartsPerRun = Math.max(1, maxChartsPerRun);
+        this.throttleMs = Math.max(0, throttleMs);
+    }
+
+    /**
+     * 누적 지표
+     */
+    public record Stats(long runs, long chartsCompacted, long groupsFolded, long eventsDeleted, long lastRunMillis) {
+    }
+
+    public Stats stats() {
+        return new Stats(runs.get(), chartsCompacted.get(), groupsFolded.get(), eventsDeleted.get(), lastRunMillis.get());
+    }
+
+    @Scheduled(
+            initialDelayString = "${tradenova.event-log.compaction.initial-delay-ms:60000}",
+            fixedDelayString = "${tradenova.event-log.compaction.interval-ms:600000}"
+    )
+    public void scheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            runOnce();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // 다음 주기에 압축 전 차트부터 다시 한다
+            log.warn("training_event compaction failed", e);
+        }
+    }
+
+    /**
+     * 1회 실행 (압축 전 차트를 chunk 단위로, 최대 maxChartsPerRun개)
+     *
+     * @return 이번 실행에서 지운 이벤트 행 수
+     */
+    public long runOnce() throws InterruptedException {
+        long started = System.currentTimeMillis();
+        long afterId = 0L;
+        int charts = 0;
+        long deleted = 0;
+
+        while (charts < maxChartsPerRun) {
+            List<Object[]> candidates = chartRepository.findEventCompactionCandidates(
+                    afterId, PageRequest.of(0, Math.min(chunk, maxChartsPerRun - charts)));
+            if (candidates.isEmpty()) {
+                break;
+            }
+
+            for (Object[] row : candidates) {
+                Long chartId = (Long) row[0];
+                Long userId = (Long) row[1];
+                Long removed = tx.execute(status -> compactChart(userId, chartId));
+                deleted += removed == null ? 0 : removed;
+                afterId = chartId;
+                charts++;
+            }
+
+            if (throttleMs > 0) {
+                Thread.sleep(throttleMs);
+            }
+        }
+
+        long took = System.currentTimeMillis() - started;
+        runs.incrementAndGet();
+        lastRunMillis.set(took);
+        if (charts > 0) {
+            log.info("training_event compaction. charts={}, deletedEvents={}, tookMs={}, total={}",
+                    charts, deleted, took, stats());
+        }
+        return deleted;
+    }
+
+    /**
+     * 차트 1개 압축 (호출 측 트랜잭션 안)
+     */
+    long compactChart(Long userId, Long chartId) {
+        List<TrainingEvent> events = eventRepository.findAllByUserIdAndChartIdOrderByIdAsc(userId, chartId);
+
+        List<List<TrainingEvent>> groups = groups(events);
+        List<TrainingSessionCandle> candles = groups.isEmpty()
+                ? List.of()
+                : candleRepository.findAllByChartIdOrderByIdxAsc(chartId);
+
+        long deleted = 0;
+        for (List<TrainingEvent> group : groups) {
+            TrainingEvent keeper = group.get(0);
+            ObjectNode summary = summarize(group, candles);
+
+            keeper.setSummary(summary.path("advancedSteps").asLong() + "봉 진행 ("
+                    + summary.path("events").asLong() + "회 묶음)");
+            keeper.setPayload(JsonPayload.of(summary));
+
+            List<Long> removeIds = group.subList(1, group.size()).stream().map(TrainingEvent::getId).toList();
+            eventRepository.deleteAllByIdInBatch(removeIds);
+            deleted += removeIds.size();
+            groupsFolded.incrementAndGet();
+        }
+
+        chartRepository.markEventsCompacted(chartId, OffsetDateTime.now(ZoneOffset.UTC));
+        chartsCompacted.incrementAndGet();
+        eventsDeleted.addAndGet(deleted);
+        return deleted;
+    }
+
+    /**
+     * 다른 이벤트 없이 연속된 (묶을 수 있는) PROGRESS 2건 이상 묶음들
+     */
+    static List<List<TrainingEvent>> groups(List<TrainingEvent> events) {
+        List<List<TrainingEvent>> result = new ArrayList<>();
+        List<TrainingEvent> current = new ArrayList<>();
+        for (TrainingEvent e : events) {
+            if (foldable(e)) {
+                current.add(e);
+                continue;
+            }
+            if (current.size() >= 2) {
+                result.add(current);
+            }
+            current = new ArrayList<>();
+        }
+        if (current.size() >= 2) {
+            result.add(current);
+        }
+        return result;
+    }
+
+    private static boolean foldable(TrainingEvent e) {
+        if (e.getType() != Type.PROGRESS) {
+            return false;
+        }
+        JsonNode p = e.getPayloadJson();
+        return p != null
+                && !p.path("autoExited").asBoolean(false)
+                && !p.path("runToEnd").asBoolean(false);
+    }
+
+    /**
+     * 묶음 -> 요약 payload (이미 요약된 이벤트도 다시 묶을 수 있다)
+     *
+     * @param candles 차트 전체 캔들 (idx 오름차순, 비어 있으면 이벤트 가격으로 대신 계산)
+     */
+    ObjectNode summarize(List<TrainingEvent> group, List<TrainingSessionCandle> candles) {
+        JsonNode first = group.get(0).getPayloadJson();
+        JsonNode last = group.get(group.size() - 1).getPayloadJson();
+
+        long events = 0;
+        long requested = 0;
+        long advanced = 0;
+        long fills = 0;
+        BigDecimal min = null;
+        BigDecimal max = null;
+
+        for (TrainingEvent e : group) {
+            JsonNode p = e.getPayloadJson();
+            events += p.path("events").asLong(1);
+            requested += p.path("requestedSteps").asLong(0);
+            advanced += p.path("advancedSteps").asLong(0);
+            fills += p.path("orderFills").asLong(0);
+            min = lower(min, price(p, "minPrice"));
+            max = higher(max, price(p, "maxPrice"));
+        }
+
+        ObjectNode s = objectMapper.createObjectNode();
+        s.put("compacted", true);
+        s.put("events", events);
+        s.put("requestedSteps", requested);
+        s.put("advancedSteps", advanced);
+        copy(s, first, "fromIndex");
+        copy(s, last, "toIndex");
+        copy(s, last, "progressIndex");
+        copy(s, last, "bars");
+        BigDecimal start = price(first, "startPrice");
+
+        // 캔들 기준: 진행 전 봉 종가 + 구간 저가/고가
+        JsonNode fromNode = first.get("fromIndex");
+        JsonNode toNode = last.get("toIndex");
+        if (fromNode != null && toNode != null) {
+            int from = fromNode.asInt();
+            int to = toNode.asInt();
+            BigDecimal low = null;
+            BigDecimal high = null;
+            BigDecimal startClose = null;
+            for (TrainingSessionCandle c : candles) {
+                int idx = c.getIdx();
+                if (idx < from || idx > to) {
+                    continue;
+                }
+                if (idx == from) {
+                    startClose = decimal(c.getC());
+                }
+                low = lower(low, decimal(c.getL()));
+                high = higher(high, decimal(c.getH()));
+            }
+            if (startClose != null) {
+                start = startClose;
+            }
+            if (low != null && high != null) {
+                min = low;
+                max = high;
+            }
+        }
+
+        s.put("startPrice", start);
+        s.put("currentPrice", price(last, "currentPrice"));
+        s.put("minPrice", min);
+        s.put("maxPrice", max);
+        s.put("orderFills", fills);
+        s.put("autoExited", false);
+        return s;
+    }
+
+    private static void copy(ObjectNode target, JsonNode source, String field) {
+        JsonNode v = source.get(field);
+        if (v != null) {
+            target.set(field, v);
+        }
+    }
+
+    /**
+     * 가격 필드 (원본 PROGRESS에는 currentPrice만 있으므로 없으면 currentPrice)
+     */
+    private static BigDecimal price(JsonNode p, String field) {
+        JsonNode v = p.get(field);
+        if (v == null || v.isNull()) {
+            v = p.get("currentPrice");
+        }
+        return v == null || v.isNull() ? null : v.decimalValue();
+    }
+
+    private static BigDecimal decimal(Double v) {
+        return v == null ? null : BigDecimal.valueOf(v);
+    }
+
+    private static BigDecimal lower(BigDecimal a, BigDecimal b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.min(b);
+    }
+
+    private static BigDecimal higher(BigDecimal a, BigDecimal b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.max(b);
+    }
+}
@@ -3,7 +3,11 @@ package com.tradenova.report.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.tradenova.common.exception.CustomException;
 import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.common.jpa.JsonPayload;
+import com.tradenova.report.dto.TrainingEventDraft;
+import com.tradenova.report.dto.TrainingEventPageResponse;
 import com.tradenova.report.dto.TrainingEventResponse;
+import com.tradenova.report.entity.AnalysisScope;
 import com.tradenova.report.entity.TrainingEvent;
 import com.tradenova.report.entity.Type;
 import com.tradenova.report.repository.TrainingEventRepository;
@@ -13,7 +17,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor // final 필드 생성자 주입 자동 생성
@@ -24,6 +30,12 @@ public class TrainingEventService {
 
     private final TrainingSessionChartRepository chartRepository;
 
+    // 매매/advance 등 핫패스 이벤트를 커밋 후 비동기로 저장하는 파이프라인
+    private final TrainingEventWriteBehind writeBehind;
+
+    // (userId, chartId) 소유권 확인 결과 캐시 (짧은 TTL)
+    private final ChartOwnershipCache ownershipCache;
+
     /**
      * 이벤트 1건 추가 (append)
      * - 훈련 진행/거래/경고/AI평가 등 발생할 때마다 로그를 쌓는다.
@@ -41,7 +53,10 @@ public class TrainingEventService {
         }
 
         validateOwnedChart(userId, chartId);
-        
+
+        // write-behind 큐에 남은 같은 차트 이벤트를 먼저 저장 (id 순서 = 발생 순서)
+        writeBehind.flushCharts(List.of(chartId));
+
         // training_event 테이블에 INSERT
         TrainingEvent saved = repo.save(
                 TrainingEvent.builder()
@@ -49,13 +64,112 @@ public class TrainingEventService {
                         .chartId(chartId)        // 어떤 차트에서 발생했는지
                         .type(type)              // 이벤트 종류
                         .summary(title)          // 화면에 바로 뿌릴 한 줄 로그
-                        .payloadJson(payloadJson)// 상세 데이터 JSON
+                        .payload(JsonPayload.of(payloadJson)) // 상세 데이터 JSON
                         .build()
         );
         // 저장된 엔티티를 응답 DTO로 변환해서 반환
         return toRes(saved);
     }
 
+    /**
+     * AI 리뷰 이벤트 1건 추가
+     * - append와 같지만 분석 범위/세션을 컬럼에도 기록한다. (최신 리뷰 조회가 인덱스 1번으로 끝나도록)
+     * - SESSION 범위면 sessionId 필수, chartId는 대표 차트
+     */
+    @Transactional
+    public TrainingEventResponse appendAi(Long userId,
+                                          Long chartId,
+                                          String title,
+                                          JsonNode payloadJson,
+                                          AnalysisScope scope,
+                                          Long sessionId
+    ) {
+        if (title == null || chartId == null || title.isBlank() || scope == null
+                || (scope == AnalysisScope.SESSION && sessionId == null)) {
+            throw new CustomException(ErrorCode.INVALID_TRAINING_EVENT);
+        }
+
+        validateOwnedChart(userId, chartId);
+
+        TrainingEvent saved = repo.save(
+                TrainingEvent.builder()
+                        .userId(userId)
+                        .chartId(chartId)
+                        .type(Type.AI)
+                        .summary(title)
+                        .payload(JsonPayload.of(payloadJson))
+                        .analysisScope(scope)
+                        .sessionId(scope == AnalysisScope.SESSION ? sessionId : null)
+                        .build()
+        );
+        return toRes(saved);
+    }
+
+    /**
+     * 이벤트 여러 건 일괄 추가
+     * - 소유권은 (user, chart 목록) 단위로 한 번만 확인한다. (캐시 미스 차트만 쿼리 1번)
+     * - INSERT는 saveAll 한 번 (pooled ID + batch insert)
+     * - 하나라도 남의 차트면 전체 실패
+     * - write-behind 큐에 남은 같은 차트 이벤트(매매/진행)를 먼저 저장한 뒤 INSERT 한다. (타임라인 순서 유지)
+     */
+    @Transactional
+    public List<TrainingEventResponse> appendAll(Long userId, List<TrainingEventDraft> drafts) {
+        if (drafts == null || drafts.isEmpty()) {
+            return List.of();
+        }
+
+        List<TrainingEvent> events = toEntities(userId, drafts);
+        validateOwnedCharts(userId, events);
+
+        // write-behind 큐에 남은 같은 차트 이벤트를 먼저 저장 (id 순서 = 발생 순서)
+        writeBehind.flushCharts(events.stream().map(TrainingEvent::getChartId).distinct().toList());
+
+        return repo.saveAll(events).stream()
+                .map(this::toRes)
+                .toList();
+    }
+
+    /**
+     * 이벤트 1건 기록 (핫패스용, write-behind)
+     * - 매매/advance처럼 호출 측에서 이미 chart lock + 소유권 검증을 끝낸 경우에 쓴다.
+     *   (그래서 validateOwnedChart를 다시 하지 않는다)
+     * - 저장 시점은 TrainingEventWriteBehind 모드를 따른다. (ASYNC: 커밋 후 배치 저장, SYNC: 즉시 저장)
+     * - 저장 결과(id 등)가 필요하면 append를 쓴다.
+     */
+    public void publish(Long userId,
+                        Long chartId,
+                        Type type,
+                        String title,
+                        JsonNode payloadJson
+    ) {
+        // 입력값 방어
+        if (type == null || title == null || chartId == null || title.isBlank()) {
+            throw new CustomException(ErrorCode.INVALID_TRAINING_EVENT);
+        }
+
+        writeBehind.submit(
+                TrainingEvent.builder()
+                        .userId(userId)
+                        .chartId(chartId)
+                        .type(type)
+                        .summary(title)
+                        .payload(JsonPayload.of(payloadJson))
+                        .build()
+        );
+    }
+
+    /**
+     * 이벤트 여러 건 기록 (핫패스용, write-behind)
+     * - publish와 같은 전제 (호출 측에서 소유권 검증 완료)
+     * - ASYNC 모드에서는 커밋 후 한 번에 큐에 적재된다.
+     */
+    public void publishAll(Long userId, List<TrainingEventDraft> drafts) {
+        if (drafts == null || drafts.isEmpty()) {
+            return;
+        }
+        writeBehind.submitAll(toEntities(userId, drafts));
+    }
+
     /**
      * 최신 이벤트 N개 조회
      * - 최신순(id desc)으로 size개 가져옴
@@ -83,6 +197,36 @@ public class TrainingEventService {
         return list;
     }
 
+    /**
+     * 차트 이벤트 타임라인 (키셋 페이지)
+     * - cursor가 없으면 최신부터, 있으면 그 id보다 오래된 것부터 size건
+     * - OFFSET을 쓰지 않아서 몇 번째 페이지든 인덱스 탐색 1번 + size건 읽기로 끝난다.
+     */
+    @Transactional(readOnly = true)
+    public TrainingEventPageResponse listPage(Long userId, Long chartId, Long cursor, int size) {
+        return toPage(
+                repo.findByUserIdAndChartIdAndIdLessThanOrderByIdDesc(
+                        userId, chartId, cursorOrMax(cursor), PageRequest.of(0, size + 1)),
+                size
+        );
+    }
+
+    /**
+     * 세션 전체(모든 차트) 이벤트 타임라인 (키셋 페이지)
+     */
+    @Transactional(readOnly = true)
+    public TrainingEventPageResponse listSessionPage(Long userId, Long sessionId, Long cursor, int size) {
+        List<Long> chartIds = chartRepository.findChartIdsBySessionIdAndUserId(sessionId, userId);
+        if (chartIds.isEmpty()) {
+            throw new CustomException(ErrorCode.TRAINING_SESSION_NOT_FOUND);
+        }
+        return toPage(
+                repo.findByUserIdAndChartIdInAndIdLessThanOrderByIdDesc(
+                        userId, chartIds, cursorOrMax(cursor), PageRequest.of(0, size + 1)),
+                size
+        );
+    }
+
     /**
      * 이벤트 단건 조회
      * - eventId로 조회하되 userId까지 같이 걸어서 남의 이벤트 접근 차단
@@ -97,10 +241,74 @@ public class TrainingEventService {
     }
 
 
+    private static Long cursorOrMax(Long cursor) {
+        return cursor == null ? Long.MAX_VALUE : cursor;
+    }
+
+    /**
+     * size + 1건을 읽어서 다음 페이지가 있는지 판단한다. (count 쿼리 없이)
+     */
+    private TrainingEventPageResponse toPage(List<TrainingEvent> rows, int size) {
+        boolean hasMore = rows.size() > size;
+        List<TrainingEvent> page = hasMore ? rows.subList(0, size) : rows;
+        Long nextCursor = hasMore ? page.get(page.size() - 1).getId() : null;
+        return new TrainingEventPageResponse(
+                page.stream().map(this::toRes).toList(),
+                nextCursor
+        );
+    }
+
     private void validateOwnedChart(Long userId, Long chartId) {
+        if (ownershipCache.isOwned(userId, chartId)) {
+            return;
+        }
         chartRepository.findByIdAndSession_User_Id(chartId, userId)
                 .orElseThrow(() ->
                         new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
+        ownershipCache.markOwned(userId, chartId);
+    }
+
+    /**
+     * 여러 차트 소유권을 한 번에 검증
+     * - 캐시에 없는 차트만 모아서 쿼리 1번
+     */
+    private void validateOwnedCharts(Long userId, List<TrainingEvent> events) {
+        Set<Long> unknown = new LinkedHashSet<>();
+        for (TrainingEvent e : events) {
+            if (!ownershipCache.isOwned(userId, e.getChartId())) {
+                unknown.add(e.getChartId());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+
+        List<Long> owned = chartRepository.findOwnedChartIds(userId, unknown);
+        if (owned.size() != unknown.size()) {
+            throw new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND);
+        }
+        owned.forEach(chartId -> ownershipCache.markOwned(userId, chartId));
+    }
+
+    /**
+     * 입력값 검증 + 엔티티 변환 (append와 같은 규칙)
+     */
+    private List<TrainingEvent> toEntities(Long userId, List<TrainingEventDraft> drafts) {
+        return drafts.stream()
+                .map(d -> {
+                    if (d == null || d.type() == null || d.title() == null
+                            || d.chartId() == null || d.title().isBlank()) {
+                        throw new CustomException(ErrorCode.INVALID_TRAINING_EVENT);
+                    }
+                    return TrainingEvent.builder()
+                            .userId(userId)
+                            .chartId(d.chartId())
+                            .type(d.type())
+                            .summary(d.title())
+                            .payload(JsonPayload.of(d.payloadJson()))
+                            .build();
+                })
+                .toList();
     }
 
     /**
@@ -113,7 +321,7 @@ public class TrainingEventService {
                 e.getChartId(),         // chartId
                 e.getType().name(),     // type 문자열 (PROGRESS/TRADE/...)
                 e.getSummary(),         // 한 줄 로그
-                e.getPayloadJson(),     // 상세 JSON
+                e.getPayload(),         // 상세 JSON (파싱 없이 그대로 응답)
                 e.getCreatedAt()        // 생성 시각
         );
     }
@@ -0,0 +1,265 @@
+package com.tradenova.report.service;
+
+import com.tradenova.report.entity.TrainingEvent;
+import com.tradenova.report.repository.TrainingEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * training_event write-behind 파이프라인
+ *
+ * 왜 필요한가?
+ * - 매매/advance 요청마다 이벤트 로그 INSERT(+ payload JSON 직렬화)를 요청 스레드에서 바로 했다.
+ * - 이벤트 로그는 화면 타임라인/리포트용이라 매매 트랜잭션과 같은 커밋일 필요가 없다.
+ *
+ * 동작 (mode = ASYNC, 기본값):
+ * - 업무 트랜잭션이 커밋된 뒤에만 큐에 넣는다. (롤백된 매매의 로그는 남지 않는다)
+ * - 백그라운드 writer 스레드 1개가 큐를 batch-size 단위로 꺼내 saveAll 한다.
+ *   (TrainingEvent는 pooled ID + hibernate batch_size 라서 multi-row insert로 나간다)
+ * - 큐가 가득 차면 offer-timeout-ms 만큼 기다린 뒤 경고를 남기고, 자리가 날 때까지 호출 스레드를 막는다. (backpressure)
+ *   호출 스레드에서 바로 저장하면 큐에 먼저 들어간 같은 차트 이벤트보다 앞서 저장되어 순서가 깨지기 때문이다.
+ * - writer가 없을 때(기동 전/종료 중)는 큐에 남은 이벤트부터 저장한 뒤 호출 스레드에서 저장한다.
+ *   (writeLock으로 writer의 배치 저장과 겹치지 않게 해서 순서를 지킨다)
+ * - 종료 시(stop) 큐에 남은 이벤트를 모두 저장하고 내려간다.
+ *
+ * mode = SYNC:
+ * - 기존처럼 업무 트랜잭션 안에서 바로 저장한다. (매매와 로그가 원자적으로 커밋되어야 하는 환경용)
+ *
+ * 주의:
+ * - 같은 차트 이벤트를 큐를 거치지 않고 바로 저장하는 경로(TrainingEventService.append/appendAll)는
+ *   먼저 flushCharts()로 그 차트의 대기 이벤트를 저장한다. (나중에 저장된 큐 이벤트가 더 큰 id를 받지 않게)
+ * - ASYNC 모드에서는 업무 트랜잭션 커밋 직후의 조회(타임라인/리포트/내보내기)가 방금 이벤트를 본다는 보장이 없다.
+ *   (보통 수 ms 늦게 보인다) 커밋 직후 반드시 읽어야 하는 흐름은 SYNC 모드를 쓰거나 flush() 후에 읽는다.
+ * - created_at 은 INSERT 시각이라 발생 시각보다 약간 늦을 수 있다. 타임라인 정렬은 id 기준이다.
+ * - 프로세스가 비정상 종료(kill -9)되면 큐에 남은 이벤트는 유실된다.
+ */
+@Slf4j
+@Component
+public class TrainingEventWriteBehind implements SmartLifecycle {
+
+    public enum Mode { SYNC, ASYNC }
+
+    private final TrainingEventRepository repo;
+    private final TransactionTemplate txTemplate;
+
+    private final Mode mode;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final BlockingQueue<TrainingEvent> queue;
+
+    // writer의 배치 저장 / 호출 스레드 직접 저장 / flush를 한 줄로 세운다 (저장 순서 = 적재 순서)
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+
+    private volatile boolean running = false;
+    private Thread writer;
+
+    public TrainingEventWriteBehind(
+            TrainingEventRepository repo,
+            PlatformTransactionManager transactionManager,
+            @Value("${tradenova.event-log.mode:ASYNC}") Mode mode,
+            @Value("${tradenova.event-log.queue-capacity:10000}") int queueCapacity,
+            @Value("${tradenova.event-log.batch-size:100}") int batchSize,
+            @Value("${tradenova.event-log.offer-timeout-ms:50}") long offerTimeoutMs
+    ) {
+        this.repo = repo;
+        // afterCommit 콜백 안에서도 원래 트랜잭션에 묶이지 않도록 항상 새 트랜잭션으로 저장
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.mode = mode;
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeoutMs = Math.max(0, offerTimeoutMs);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    /**
+     * 이벤트 1건 기록 요청
+     * - SYNC  : 현재 트랜잭션 안에서 바로 저장
+     * - ASYNC : 커밋 후 큐에 적재 (트랜잭션 밖이면 즉시 적재)
+     *           커밋 직후 조회에서 이 이벤트가 보인다는 보장은 없다.
+     */
+    public void submit(TrainingEvent event) {
+        submitAll(List.of(event));
+    }
+
+    /**
+     * 여러 건 기록 요청 (커밋 콜백은 1개만 등록, SYNC 모드는 saveAll 1번)
+     */
+    public void submitAll(List<TrainingEvent> events) {
+        if (mode == Mode.SYNC) {
+            repo.saveAll(events);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    events.forEach(TrainingEventWriteBehind.this::enqueue);
+                }
+            });
+        } else {
+            events.forEach(this::enqueue);
+        }
+    }
+
+    private void enqueue(TrainingEvent event) {
+        if (running) {
+            try {
+                if (queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                // 큐가 가득 참: 따로 저장하면 순서가 깨지므로 자리가 날 때까지 기다린다
+                log.warn("training event queue full. blocking caller until space. queued={}", queue.size());
+                queue.put(event);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // writer가 없거나(기동 전/종료 중) 대기 중 인터럽트된 경우:
+        // 유실 대신 큐에 남은 이벤트부터 저장한 뒤 호출 스레드에서 저장
+        writeLock.lock();
+        try {
+            flushLocked();
+            writeBatch(List.of(event));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ===== writer =====
+
+    private void drainLoop() {
+        while (running || !queue.isEmpty()) {
+            // 꺼내기부터 저장까지 lock 안에서 (꺼낸 뒤 저장 전에 직접 저장이 끼어들지 않게)
+            writeLock.lock();
+            try {
+                TrainingEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<TrainingEvent> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private void writeBatch(List<TrainingEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            txTemplate.executeWithoutResult(status -> repo.saveAll(batch));
+        } catch (RuntimeException e) {
+            // 로그성 데이터라 업무 흐름은 막지 않는다. 유실 건수를 남긴다.
+            log.error("training event batch write failed. dropped={}", batch.size(), e);
+        }
+    }
+
+    /**
+     * 큐에 남은 이벤트를 호출 스레드에서 모두 저장한다. (종료 시 / 테스트용)
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 주어진 차트들의 대기 이벤트만 호출 스레드에서 저장한다. (다른 차트 이벤트는 큐에 그대로)
+     * - writer가 저장 중인 배치가 있으면 끝날 때까지 기다린다. (반환 시점에 이 차트들 이벤트는 모두 저장됨)
+     */
+    public void flushCharts(Collection<Long> chartIds) {
+        if (mode == Mode.SYNC || chartIds.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            List<TrainingEvent> pending = new ArrayList<>();
+            queue.removeIf(e -> chartIds.contains(e.getChartId()) && pending.add(e));
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                writeBatch(pending.subList(from, Math.min(pending.size(), from + batchSize)));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        while (true) {
+            List<TrainingEvent> batch = new ArrayList<>(batchSize);
+            if (queue.drainTo(batch, batchSize) == 0) {
+                return;
+            }
+            writeBatch(batch);
+        }
+    }
+
+    // ===== lifecycle =====
+
+    @Override
+    public void start() {
+        if (mode == Mode.SYNC || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "training-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // writer가 시간 안에 못 끝냈거나 stop 직전에 들어온 이벤트까지 저장
+        flush();
+        log.info("training event writer stopped.");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 웹 서버(요청 유입)가 먼저 멈춘 뒤에 멈추고, 웹 서버보다 먼저 시작한다.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
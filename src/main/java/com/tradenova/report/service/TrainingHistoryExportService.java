@@ -0,0 +1,120 @@
+package com.tradenova.report.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.report.dto.ReportDocumentResponse;
+import com.tradenova.report.dto.TrainingEventResponse;
+import com.tradenova.report.entity.ReportDocument;
+import com.tradenova.report.entity.ReportKind;
+import com.tradenova.report.entity.TrainingEvent;
+import com.tradenova.report.repository.ReportDocumentRepository;
+import com.tradenova.report.repository.TrainingEventRepository;
+import com.tradenova.training.dto.TrainingTradeItemResponse;
+import com.tradenova.training.entity.TrainingTrade;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import com.tradenova.training.repository.TrainingTradeRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 세션 기록 내보내기 (NDJSON: 한 줄에 JSON 1개)
+ *
+ * 줄 구성:
+ * - {"kind":"session", "sessionId":.., "chartIds":[..]}
+ * - 차트마다 {"kind":"event"|"trade"|"snapshot", "data":{..}} (각각 id 순)
+ * - {"kind":"end", "events":n, "trades":n, "snapshots":n}  <- 없으면 중간에 끊긴 파일
+ *
+ * 메모리:
+ * - 조회는 MySQL 스트리밍 결과셋(fetch size = Integer.MIN_VALUE, read-only)으로 한 행씩 읽는다.
+ * - 한 행을 쓰고 나면 영속성 컨텍스트에서 떼어내므로, 기록이 몇만 건이어도 메모리 사용량이 일정하다.
+ * - 응답 스레드(MVC async)에서 읽기 전용 트랜잭션 1개를 열고 끝까지 쓴다. (NdjsonStreamWriter)
+ */
+@Service
+@RequiredArgsConstructor
+public class TrainingHistoryExportService {
+
+    private final TrainingSessionChartRepository chartRepository;
+    private final TrainingEventRepository eventRepository;
+    private final TrainingTradeRepository tradeRepository;
+    private final ReportDocumentRepository reportDocumentRepository;
+
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    // ===== 줄 형태 (필드 순서 = 출력 순서) =====
+
+    record SessionLine(String kind, Long sessionId, List<Long> chartIds) {
+    }
+
+    record DataLine(String kind, Object data) {
+    }
+
+    record EndLine(String kind, long events, long trades, long snapshots) {
+    }
+
+    /**
+     * 세션 기록 내보내기
+     * - 소유권은 응답을 시작하기 전에 확인한다. (남의 세션이면 404 JSON 응답)
+     */
+    public StreamingResponseBody exportSession(Long userId, Long sessionId) {
+        List<Long> chartIds = chartRepository.findChartIdsBySessionIdAndUserId(sessionId, userId);
+        if (chartIds.isEmpty()) {
+            throw new CustomException(ErrorCode.TRAINING_SESSION_NOT_FOUND);
+        }
+        return out -> write(userId, sessionId, chartIds, out);
+    }
+
+    void write(Long userId, Long sessionId, List<Long> chartIds, OutputStream out) throws IOException {
+        NdjsonStreamWriter.write(transactionManager, objectMapper, out,
+                writer -> writeAll(writer, userId, sessionId, chartIds));
+    }
+
+    private void writeAll(NdjsonStreamWriter writer, Long userId, Long sessionId, List<Long> chartIds) throws IOException {
+        writer.line(new SessionLine("session", sessionId, chartIds));
+
+        long events = 0;
+        long trades = 0;
+        long snapshots = 0;
+
+        // 차트 단위로 끊어 읽으면 (user, chart, id) 인덱스 순서 그대로라 정렬이 필요 없다
+        // 한 행을 쓰고 나면 영속성 컨텍스트에서 떼어낸다
+        for (Long chartId : chartIds) {
+            try (Stream<TrainingEvent> rows = eventRepository.streamByUserIdAndChartIdOrderByIdAsc(userId, chartId)) {
+                for (TrainingEvent e : (Iterable<TrainingEvent>) rows::iterator) {
+                    writer.line(new DataLine("event", TrainingEventResponse.from(e)));
+                    entityManager.detach(e);
+                    events++;
+                }
+            }
+
+            try (Stream<TrainingTrade> rows = tradeRepository.streamByChartIdOrderByIdAsc(chartId)) {
+                for (TrainingTrade t : (Iterable<TrainingTrade>) rows::iterator) {
+                    writer.line(new DataLine("trade", TrainingTradeItemResponse.from(t)));
+                    entityManager.detach(t);
+                    trades++;
+                }
+            }
+
+            try (Stream<ReportDocument> rows = reportDocumentRepository
+                    .streamByUserIdAndChartIdAndKindOrderByIdAsc(userId, chartId, ReportKind.SNAPSHOT)) {
+                for (ReportDocument d : (Iterable<ReportDocument>) rows::iterator) {
+                    writer.line(new DataLine("snapshot", ReportDocumentResponse.from(d)));
+                    entityManager.detach(d);
+                    snapshots++;
+                }
+            }
+        }
+
+        writer.line(new EndLine("end", events, trades, snapshots));
+    }
+}
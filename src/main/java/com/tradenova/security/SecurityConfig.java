@@ -1,5 +1,6 @@
 package com.tradenova.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -41,6 +42,7 @@ public class SecurityConfig {
                 .httpBasic(basic -> basic.disable()) //브라우저 팝업으로 뜨는 Basic 인증 안 씀
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll() //OPTIONS permitAll
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() //SSE 등 비동기 응답 재디스패치 (원 요청에서 이미 인증됨)
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/auth/login",
@@ -0,0 +1,132 @@
+package com.tradenova.training.controller;
+
+import com.tradenova.training.dto.TradeRequest;
+import com.tradenova.training.dto.TradeResponse;
+import com.tradenova.training.service.ChartPlaybackService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 차트 스트리밍 재생(SSE) API 컨트롤러
+ *
+ * - next를 봉마다 호출하는 대신, 연결 1개를 열어두면 서버가 봉을 일정 간격으로 보내준다.
+ * - 재생 중 일시정지/재개/매매는 아래 POST API로 보낸다. (결과는 응답 + SSE 이벤트 둘 다)
+ *
+ *  Base Path : /api/training/charts/{chartId}/playback
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/training/charts/{chartId}/playback")
+public class TrainingChartPlaybackController {
+
+    private final ChartPlaybackService playbackService;
+
+    /**
+     * 재생 시작 (SSE 연결)
+     *
+     * GET /api/training/charts/{chartId}/playback/stream?intervalMs=500
+     *
+     * @param intervalMs 봉 간격(ms), 생략 시 서버 기본값
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            Authentication authentication,
+            @PathVariable Long chartId,
+            @RequestParam(required = false) Long intervalMs
+    ) {
+        return playbackService.start(extractUserId(authentication), chartId, intervalMs);
+    }
+
+    /**
+     * 일시정지 (현재 위치까지 DB 반영)
+     * POST /api/training/charts/{chartId}/playback/pause
+     */
+    @PostMapping("/pause")
+    public ResponseEntity<Void> pause(
+            Authentication authentication,
+            @PathVariable Long chartId
+    ) {
+        playbackService.pause(extractUserId(authentication), chartId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 재개
+     * POST /api/training/charts/{chartId}/playback/resume
+     */
+    @PostMapping("/resume")
+    public ResponseEntity<Void> resume(
+            Authentication authentication,
+            @PathVariable Long chartId
+    ) {
+        playbackService.resume(extractUserId(authentication), chartId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 재생 종료 (현재 위치까지 DB 반영 후 연결 종료)
+     * DELETE /api/training/charts/{chartId}/playback
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> stop(
+            Authentication authentication,
+            @PathVariable Long chartId
+    ) {
+        playbackService.stop(extractUserId(authentication), chartId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 재생 중 매수 (화면에 보이는 마지막 봉 종가로 체결)
+     * POST /api/training/charts/{chartId}/playback/buy
+     */
+    @PostMapping("/buy")
+    public ResponseEntity<TradeResponse> buy(
+            Authentication authentication,
+            @PathVariable Long chartId,
+            @Valid @RequestBody TradeRequest req
+    ) {
+        return ResponseEntity.ok(
+                playbackService.buy(extractUserId(authentication), chartId, req.qty())
+        );
+    }
+
+    /**
+     * 재생 중 매도
+     * POST /api/training/charts/{chartId}/playback/sell
+     */
+    @PostMapping("/sell")
+    public ResponseEntity<TradeResponse> sell(
+            Authentication authentication,
+            @PathVariable Long chartId,
+            @Valid @RequestBody TradeRequest req
+    ) {
+        return ResponseEntity.ok(
+                playbackService.sell(extractUserId(authentication), chartId, req.qty())
+        );
+    }
+
+    /**
+     * 재생 중 전량 매도
+     * POST /api/training/charts/{chartId}/playback/sell-all
+     */
+    @PostMapping("/sell-all")
+    public ResponseEntity<TradeResponse> sellAll(
+            Authentication authentication,
+            @PathVariable Long chartId
+    ) {
+        return ResponseEntity.ok(
+                playbackService.sellAll(extractUserId(authentication), chartId)
+        );
+    }
+
+    private Long extractUserId(Authentication authentication) {
+        Object p = authentication.getPrincipal();
+        return (p instanceof Long) ? (Long) p : Long.valueOf(p.toString());
+    }
+}
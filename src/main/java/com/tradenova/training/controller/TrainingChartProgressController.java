@@ -2,6 +2,7 @@ package com.tradenova.training.controller;
 
 import com.tradenova.training.dto.SessionAdvanceRequest;
 import com.tradenova.training.dto.SessionProgressResponse;
+import com.tradenova.training.service.ChartCommandExecutor;
 import com.tradenova.training.service.TrainingSessionProgressService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,9 @@ public class TrainingChartProgressController {
     // - next/advance 수행 시 소유권 검증, 상태 변경, 현개자/잔고/포지션 스냅샷 생성 등을 담당
     private final TrainingSessionProgressService progressService;
 
+    // 차트 쓰기 직렬화 (락 모드별 동작은 ChartCommandExecutor 참고)
+    private final ChartCommandExecutor chartCommands;
+
     /**
      * 다음 봉(1 step) 진행
      *
@@ -52,7 +56,9 @@ public class TrainingChartProgressController {
         Long userId = extractUserId(authentication);
 
         // 1봉 진행 후 상태 스냅샷 반환
-        return ResponseEntity.ok(progressService.next(userId, chartId));
+        return ResponseEntity.ok(
+                chartCommands.execute(chartId, () -> progressService.next(userId, chartId))
+        );
     }
 
     /**
@@ -84,7 +90,30 @@ public class TrainingChartProgressController {
         Long userId = extractUserId(authentication);
         
         // N봉 진행 후 상태 스냅샷 반환
-        return ResponseEntity.ok(progressService.advance(userId, chartId, req.steps()));
+        return ResponseEntity.ok(
+                chartCommands.execute(chartId, () -> progressService.advance(userId, chartId, req.steps()))
+        );
+    }
+
+    /**
+     * 차트 끝까지 한 번에 진행
+     *
+     * POST /api/training/charts/{chartId}/run-to-end
+     *
+     * - advance(500)를 여러 번 호출하는 대신 남은 봉을 서버 메모리에서 한 번에 재생한다.
+     * - 손절/익절/마지막 봉 강제청산 규칙은 advance와 같다.
+     * - 응답 후 차트는 COMPLETED 상태가 된다.
+     */
+    @PostMapping("/run-to-end")
+    public ResponseEntity<SessionProgressResponse> runToEnd(
+            Authentication authentication,
+            @PathVariable Long chartId
+    ) {
+        Long userId = extractUserId(authentication);
+
+        return ResponseEntity.ok(
+                chartCommands.execute(chartId, () -> progressService.runToEnd(userId, chartId))
+        );
     }
 
     /**
@@ -0,0 +1,80 @@
+package com.tradenova.training.controller;
+
+import com.tradenova.training.dto.TrainingOrderRequest;
+import com.tradenova.training.dto.TrainingOrderResponse;
+import com.tradenova.training.service.ChartCommandExecutor;
+import com.tradenova.training.service.TrainingOrderService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 차트 예약 주문(지정가/스톱) API 컨트롤러
+ *
+ * - 주문은 차트에 걸어두고, 봉이 진행(next/advance/run-to-end/재생)될 때 고가/저가와 매칭되어 체결된다.
+ * - 체결 결과는 일반 매매와 같은 거래 기록(TRADE 이벤트)으로 남는다.
+ *
+ *  Base Path : /api/training/charts/{chartId}/orders
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/training/charts/{chartId}/orders")
+public class TrainingOrderController {
+
+    private final TrainingOrderService orderService;
+    // 차트 단위 쓰기 직렬화 (OPTIMISTIC/SEQUENCED 락 모드에서만 동작)
+    private final ChartCommandExecutor chartCommands;
+
+    /**
+     * 예약 주문 등록
+     * POST /api/training/charts/{chartId}/orders
+     */
+    @PostMapping
+    public ResponseEntity<TrainingOrderResponse> place(
+            Authentication authentication,
+            @PathVariable Long chartId,
+            @Valid @RequestBody TrainingOrderRequest req
+    ) {
+        Long userId = extractUserId(authentication);
+        return ResponseEntity.ok(
+                chartCommands.execute(chartId, () -> orderService.place(userId, chartId, req))
+        );
+    }
+
+    /**
+     * 주문 목록 (최신순)
+     * GET /api/training/charts/{chartId}/orders
+     */
+    @GetMapping
+    public ResponseEntity<List<TrainingOrderResponse>> list(
+            Authentication authentication,
+            @PathVariable Long chartId
+    ) {
+        return ResponseEntity.ok(orderService.list(extractUserId(authentication), chartId));
+    }
+
+    /**
+     * 대기 주문 취소
+     * DELETE /api/training/charts/{chartId}/orders/{orderId}
+     */
+    @DeleteMapping("/{orderId}")
+    public ResponseEntity<TrainingOrderResponse> cancel(
+            Authentication authentication,
+            @PathVariable Long chartId,
+            @PathVariable Long orderId
+    ) {
+        Long userId = extractUserId(authentication);
+        return ResponseEntity.ok(
+                chartCommands.execute(chartId, () -> orderService.cancel(userId, chartId, orderId))
+        );
+    }
+
+    private Long extractUserId(Authentication authentication) {
+        Object p = authentication.getPrincipal();
+        return (p instanceof Long) ? (Long) p : Long.valueOf(p.toString());
+    }
+}
@@ -2,6 +2,7 @@ package com.tradenova.training.controller;
 
 import com.tradenova.training.dto.RiskRuleResponse;
 import com.tradenova.training.dto.RiskRuleUpsertRequest;
+import com.tradenova.training.service.ChartCommandExecutor;
 import com.tradenova.training.service.TrainingRiskRuleService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,8 @@ import org.springframework.web.bind.annotation.*;
 public class TrainingRiskRuleController {
 
     private final TrainingRiskRuleService service;
+    // 차트 쓰기 직렬화 (락 모드별 동작은 ChartCommandExecutor 참고)
+    private final ChartCommandExecutor chartCommands;
 
     /**
      * 리스크 규칙 조회
@@ -48,6 +51,6 @@ public class TrainingRiskRuleController {
     ) {
         Object p = authentication.getPrincipal();
         Long userId = (p instanceof Long) ? (Long) p : Long.valueOf(p.toString());
-        return ResponseEntity.ok(service.upsert(userId, chartId, req));
+        return ResponseEntity.ok(chartCommands.execute(chartId, () -> service.upsert(userId, chartId, req)));
     }
 }
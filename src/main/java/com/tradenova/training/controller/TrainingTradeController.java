@@ -1,8 +1,11 @@
 package com.tradenova.training.controller;
 
+import com.tradenova.training.dto.BatchTradeRequest;
+import com.tradenova.training.dto.BatchTradeResponse;
 import com.tradenova.training.dto.TradeRequest;
 import com.tradenova.training.dto.TradeResponse;
 import com.tradenova.training.dto.TrainingTradeItemResponse;
+import com.tradenova.training.service.ChartCommandExecutor;
 import com.tradenova.training.service.TrainingTradeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +32,11 @@ public class TrainingTradeController {
      */
     private final TrainingTradeService tradeService;
 
+    /**
+     * 차트 쓰기 직렬화 (OPTIMISTIC: 차트 stripe lock, SEQUENCED: 계좌 단위 sequencer, PESSIMISTIC: 그대로 실행)
+     */
+    private final ChartCommandExecutor chartCommands;
+
     /**
      * 매수(BUY) 트레이드 실행
      *
@@ -55,7 +63,7 @@ public class TrainingTradeController {
         Long userId = (p instanceof Long) ? (Long) p : Long.valueOf(p.toString());
 
         return ResponseEntity.ok(
-                tradeService.buy(userId, chartId, req.qty())
+                chartCommands.execute(chartId, () -> tradeService.buy(userId, chartId, req.qty()))
         );
     }
 
@@ -85,7 +93,30 @@ public class TrainingTradeController {
         Long userId = (p instanceof Long) ? (Long) p : Long.valueOf(p.toString());
 
         return ResponseEntity.ok(
-                tradeService.sell(userId, chartId, req.qty(), false)
+                chartCommands.execute(chartId, () -> tradeService.sell(userId, chartId, req.qty(), false))
+        );
+    }
+
+    /**
+     * 일괄 주문 (분할 매수/매도)
+     *
+     * POST /api/training/charts/{chartId}/trades/batch
+     *
+     * - orders 순서대로 현재 봉 종가에 체결
+     * - 한 건이라도 실패(현금/보유 수량 부족)하면 전체 취소
+     * - lock/조회/이벤트는 요청당 1번
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTradeResponse> batch(
+            Authentication authentication,
+            @PathVariable Long chartId,
+            @Valid @RequestBody BatchTradeRequest req
+    ) {
+        Object p = authentication.getPrincipal();
+        Long userId = (p instanceof Long) ? (Long) p : Long.valueOf(p.toString());
+
+        return ResponseEntity.ok(
+                chartCommands.execute(chartId, () -> tradeService.batch(userId, chartId, req.orders()))
         );
     }
 
@@ -103,7 +134,9 @@ public class TrainingTradeController {
         Object p = authentication.getPrincipal();
         Long userId = (p instanceof Long) ? (Long) p : Long.valueOf(p.toString());
 
-        return ResponseEntity.ok(tradeService.sellAll(userId, chartId));
+        return ResponseEntity.ok(
+                chartCommands.execute(chartId, () -> tradeService.sellAll(userId, chartId))
+        );
     }
 
     /**
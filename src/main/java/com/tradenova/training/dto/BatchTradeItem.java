@@ -0,0 +1,17 @@
+package com.tradenova.training.dto;
+
+import com.tradenova.training.entity.TradeSide;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+// 일괄 주문 안의 주문 1건 (요청 순서대로 체결)
+public record BatchTradeItem(
+        @NotNull
+        TradeSide side,     // BUY / SELL
+        @NotNull
+        @DecimalMin(value = "0.000001")
+        BigDecimal qty      // 주문 수량
+) {
+}
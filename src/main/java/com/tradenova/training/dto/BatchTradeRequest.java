@@ -0,0 +1,15 @@
+package com.tradenova.training.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// 여러 건의 매수/매도를 한 번에 보내는 요청 (분할 매수/매도)
+public record BatchTradeRequest(
+        @NotEmpty
+        @Size(max = 20)
+        List<@Valid BatchTradeItem> orders
+) {
+}
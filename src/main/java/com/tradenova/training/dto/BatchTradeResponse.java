@@ -0,0 +1,16 @@
+package com.tradenova.training.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// 일괄 주문 결과: 주문별 체결 결과 + 마지막 주문 이후 최종 상태
+public record BatchTradeResponse(
+        Long chartId,
+        List<TradeResponse> trades,     // 요청 순서와 같은 순서
+        BigDecimal cashBalance,         // 최종 현금
+        BigDecimal positionQty,         // 최종 보유 수량
+        BigDecimal avgPrice,            // 최종 평단가
+        BigDecimal executedPrice,       // 체결가 (모두 현재 봉 종가)
+        Long candleTime
+) {
+}
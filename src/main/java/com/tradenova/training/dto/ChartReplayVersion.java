@@ -0,0 +1,17 @@
+package com.tradenova.training.dto;
+
+import com.tradenova.training.entity.TrainingStatus;
+
+/**
+ * 진행 상태 캐시 검증용 버전 조회 결과
+ *
+ * - 캐시된 ChartState/AccountSnapshot이 DB와 같은지 @Version으로만 비교한다.
+ * - 세션에는 @Version이 없어서 상태를 같이 가져온다.
+ * - 포지션은 매매 때 계좌 현금과 함께 바뀌므로 계좌 버전으로 같이 검증된다.
+ */
+public record ChartReplayVersion(
+        Long chartVersion,
+        Long accountVersion,
+        TrainingStatus sessionStatus
+) {
+}
@@ -0,0 +1,27 @@
+package com.tradenova.training.dto;
+
+import com.tradenova.training.entity.TrainingChartStatus;
+import com.tradenova.training.entity.TrainingStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * 진행 상태 조회(getProgress) 캐시 미스 시 쿼리 1번으로 가져오는 차트/세션/계좌 요약
+ *
+ * - 엔티티 그래프(chart -> session -> account)를 지연 로딩하지 않고 필요한 컬럼만 뽑는다.
+ * - ChartReplayStateCache에 올리는 원본 데이터
+ */
+public record ChartReplayView(
+        Long chartId,
+        Long chartVersion,
+        Long userId,
+        Long accountId,
+        Long accountVersion,
+        Long symbolId,
+        Integer bars,
+        Integer progressIndex,
+        TrainingChartStatus chartStatus,
+        TrainingStatus sessionStatus,
+        BigDecimal cashBalance
+) {
+}
@@ -0,0 +1,13 @@
+package com.tradenova.training.dto;
+
+/**
+ * 주문장 캐시 검증용 버전 조회 결과 (차트의 OPEN 주문 수 + 최대 id)
+ *
+ * - 주문 id는 늘어나기만 하므로, 새 주문이 들어오면 최대 id가 바뀌고 취소/체결되면 개수가 줄어든다.
+ * - 둘 다 같으면 캐시된 주문장과 DB의 OPEN 주문이 같은 집합이다.
+ */
+public record OrderBookVersion(
+        Long openCount,
+        Long maxOpenId
+) {
+}
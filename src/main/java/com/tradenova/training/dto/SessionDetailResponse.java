@@ -7,6 +7,7 @@ public record SessionDetailResponse(
         Long sessionId,
         Long accountId,
         TrainingMode mode,
-        TrainingStatus status
+        TrainingStatus status,
+        Long seed
 ) {
 }
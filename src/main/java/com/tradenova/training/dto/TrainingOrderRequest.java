@@ -0,0 +1,23 @@
+package com.tradenova.training.dto;
+
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingOrderType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+// 예약 주문 등록 요청
+public record TrainingOrderRequest(
+        @NotNull
+        TradeSide side,             // BUY / SELL
+        @NotNull
+        TrainingOrderType type,     // LIMIT / STOP
+        @NotNull
+        @DecimalMin(value = "0.0001")
+        BigDecimal price,           // 지정가 또는 스톱 발동가
+        @NotNull
+        @DecimalMin(value = "0.000001")
+        BigDecimal qty              // 주문 수량
+) {
+}
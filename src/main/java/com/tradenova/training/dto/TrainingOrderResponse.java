@@ -0,0 +1,23 @@
+package com.tradenova.training.dto;
+
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingOrderStatus;
+import com.tradenova.training.entity.TrainingOrderType;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+public record TrainingOrderResponse(
+        Long id,
+        Long chartId,
+        TradeSide side,
+        TrainingOrderType type,
+        BigDecimal price,
+        BigDecimal qty,
+        TrainingOrderStatus status,
+        BigDecimal filledPrice,
+        Long filledCandleTime,
+        Long tradeId,
+        OffsetDateTime createdAt
+) {
+}
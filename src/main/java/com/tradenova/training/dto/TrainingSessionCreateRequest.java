@@ -1,5 +1,6 @@
 package com.tradenova.training.dto;
 
+import com.tradenova.symbol.dto.SymbolSector;
 import com.tradenova.training.entity.TrainingMode;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -9,6 +10,8 @@ public record TrainingSessionCreateRequest(
         @NotNull Long accountId, //어떤 가상 계좌로 훈련할지 (계좌 없이 훈련은 불가능, null 이면 바로 에러)
         @NotNull TrainingMode mode, //차트에 사용할 캔들 개수
         @NotNull @Min(30) Integer bars, //bars 개수
-        Integer chartCount //chart 갯수
+        Integer chartCount, //chart 갯수
+        Long seed, //챌린지 시드 (선택) - 같은 시드 + 같은 조건이면 같은 차트 구성
+        SymbolSector sector //종목 섹터 필터 (선택)
 ) {
 }
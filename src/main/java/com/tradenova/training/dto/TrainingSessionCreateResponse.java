@@ -21,6 +21,7 @@ public record TrainingSessionCreateResponse(
         Long accountId, //어떤 가상계좌로 훈련 중인지
         TrainingMode mode, //훈련 방식
         TrainingStatus status, //세션 상태
-        List<TrainingChartCreateResponse> charts //멀티 차트 리스트로 반환
+        List<TrainingChartCreateResponse> charts, //멀티 차트 리스트로 반환
+        Long seed //시드 세션이면 공유용 시드, 일반 랜덤 세션이면 null
 ) {
 }
@@ -1,6 +1,7 @@
 package com.tradenova.training.dto;
 
 import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingTrade;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -44,4 +45,17 @@ public record TrainingTradeItemResponse(
         // 거래 발생 시간
         OffsetDateTime createdAt
 ) {
+    public static TrainingTradeItemResponse from(TrainingTrade t) {
+        return new TrainingTradeItemResponse(
+                t.getId(),
+                t.getChartId(),
+                t.getAccountId(),
+                t.getSymbolId(),
+                t.getSide(),
+                t.getPrice(),
+                t.getQty(),
+                t.getCandleTime(),
+                t.getCreatedAt()
+        );
+    }
 }
\ No newline at end of file
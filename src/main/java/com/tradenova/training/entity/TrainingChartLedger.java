@@ -0,0 +1,83 @@
+package com.tradenova.training.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * 차트별 손익 장부 (차트당 1행)
+ *
+ * - 매매가 저장되는 같은 트랜잭션에서 TrainingChartLedgerService가 갱신한다.
+ * - 규칙은 SessionReportAnalysisService.finalPnLDecimal(거래 재생)과 같다.
+ *   그래서 리포트/요약은 거래를 다시 돌리지 않고 이 행 하나로 손익을 계산한다.
+ *   (최종 손익 = realizedPnl + (현재가 - avgPrice) x positionQty)
+ * - 금액 컬럼은 scale 10 (가격 scale 4 x 수량 scale 6)이라 반올림 없이 그대로 담긴다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "training_chart_ledger")
+public class TrainingChartLedger {
+
+    /** 차트 ID (training_session_chart.id) */
+    @Id
+    @Column(name = "chart_id")
+    private Long chartId;
+
+    /** 매매 계좌 (PaperAccount.id) */
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /** 누적 실현손익 (scale 10, 반올림 없음) */
+    @Column(name = "realized_pnl", precision = 30, scale = 10, nullable = false)
+    private BigDecimal realizedPnl;
+
+    /** 현재 보유 수량 */
+    @Column(name = "position_qty", precision = 18, scale = 6, nullable = false)
+    private BigDecimal positionQty;
+
+    /** 평균 단가 (보유 수량이 0이면 0) */
+    @Column(name = "avg_price", precision = 18, scale = 4, nullable = false)
+    private BigDecimal avgPrice;
+
+    /** 반영된 거래 수 (거래 기록과 대조용) */
+    @Column(name = "trade_count", nullable = false)
+    private int tradeCount;
+
+    /** 마지막으로 반영한 training_trade.id */
+    @Column(name = "last_trade_id")
+    private Long lastTradeId;
+
+    /**
+     * 최대 역행폭 (MAE, 0 이하)
+     * - 보유 중 공개된 봉의 저가 기준 평가손익 중 가장 나빴던 값
+     */
+    @Column(name = "max_adverse_excursion", precision = 30, scale = 10, nullable = false)
+    private BigDecimal maxAdverseExcursion;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    public static TrainingChartLedger empty(Long chartId, Long accountId) {
+        return TrainingChartLedger.builder()
+                .chartId(chartId)
+                .accountId(accountId)
+                .realizedPnl(BigDecimal.ZERO)
+                .positionQty(BigDecimal.ZERO)
+                .avgPrice(BigDecimal.ZERO)
+                .tradeCount(0)
+                .maxAdverseExcursion(BigDecimal.ZERO)
+                .build();
+    }
+
+    public boolean holding() {
+        return positionQty != null && positionQty.signum() > 0;
+    }
+}
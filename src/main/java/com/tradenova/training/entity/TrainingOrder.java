@@ -0,0 +1,100 @@
+package com.tradenova.training.entity;
+
+import com.tradenova.common.jpa.IdGenerators;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * 차트에 걸어둔 예약 주문(지정가/스톱) 1건
+ *
+ * - OPEN 주문은 메모리 주문장(TrainingOrderBook)에 가격순으로 올라가고,
+ *   advance로 공개되는 봉의 고가/저가와 매칭된다.
+ * - 체결되면 일반 매매와 같은 training_trade 기록이 남고 trade_id로 연결된다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "training_order",
+        indexes = {
+                // 차트별 대기 주문 적재 (주문장 캐시 미스 시)
+                @Index(name = "idx_order_chart_status", columnList = "chart_id, status")
+        }
+)
+public class TrainingOrder {
+
+    /**
+     * 주문 ID (PK)
+     * - 매매 기록과 같이 pooled 테이블 생성기를 쓴다. (IDENTITY는 JDBC 배치를 끈다)
+     * - 한 서버 안에서는 발급 순서대로 증가하므로 같은 차트 주문의 id 순 = 접수 순이 유지된다.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "training_order_id")
+    @TableGenerator(
+            name = "training_order_id",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.TRAINING_ORDER,
+            allocationSize = IdGenerators.LOG_ALLOCATION_SIZE
+    )
+    private Long id;
+
+    /** 어떤 차트의 주문인지 */
+    @Column(name = "chart_id", nullable = false)
+    private Long chartId;
+
+    /** 주문 계좌 (PaperAccount.id) */
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /** 매수/매도 */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "side", length = 10, nullable = false)
+    private TradeSide side;
+
+    /** 지정가/스톱 */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 10, nullable = false)
+    private TrainingOrderType type;
+
+    /** 주문 가격 (지정가 또는 스톱 발동가) */
+    @Column(name = "price", precision = 18, scale = 4, nullable = false)
+    private BigDecimal price;
+
+    /** 주문 수량 */
+    @Column(name = "qty", precision = 18, scale = 6, nullable = false)
+    private BigDecimal qty;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 10, nullable = false)
+    private TrainingOrderStatus status;
+
+    /** 실제 체결가 (갭이면 시가) */
+    @Column(name = "filled_price", precision = 18, scale = 4)
+    private BigDecimal filledPrice;
+
+    /** 체결(또는 거부)된 봉 시간 */
+    @Column(name = "filled_candle_time")
+    private Long filledCandleTime;
+
+    /** 체결로 생성된 training_trade.id */
+    @Column(name = "trade_id")
+    private Long tradeId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private OffsetDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
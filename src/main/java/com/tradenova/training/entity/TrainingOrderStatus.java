@@ -0,0 +1,12 @@
+package com.tradenova.training.entity;
+
+/**
+ * 예약 주문 상태
+ * - OPEN     : 대기 중 (advance 때 봉마다 매칭)
+ * - FILLED   : 체결됨
+ * - CANCELED : 사용자 취소 또는 차트 종료로 만료
+ * - REJECTED : 조건은 만족했지만 체결 시점에 현금/보유 수량이 부족
+ */
+public enum TrainingOrderStatus {
+    OPEN, FILLED, CANCELED, REJECTED
+}
@@ -0,0 +1,10 @@
+package com.tradenova.training.entity;
+
+/**
+ * 예약 주문 종류
+ * - LIMIT : 지정가 (매수는 가격 이하로 내려오면, 매도는 가격 이상으로 올라오면 체결)
+ * - STOP  : 스톱 (매수는 가격 이상으로 올라가면, 매도는 가격 이하로 내려가면 체결)
+ */
+public enum TrainingOrderType {
+    LIMIT, STOP
+}
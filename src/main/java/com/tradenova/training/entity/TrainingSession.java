@@ -1,6 +1,7 @@
 package com.tradenova.training.entity;
 
 import com.tradenova.paper.entity.PaperAccount;
+import com.tradenova.symbol.dto.SymbolSector;
 import com.tradenova.symbol.entity.Symbol;
 import com.tradenova.user.entity.User;
 import jakarta.persistence.*;
@@ -61,6 +62,16 @@ public class TrainingSession {
     @Column(nullable = false, length = 20)
     private TrainingStatus status;
 
+    // 챌린지 시드 (null이면 일반 랜덤 세션)
+    // 같은 seed + bars + chartCount + sector 로 만들면 같은 차트 구성이 재현된다.
+    @Column(name = "seed")
+    private Long seed;
+
+    // 세션 생성 시 사용한 섹터 필터 (null이면 전체 종목)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "training_sector", length = 50)
+    private SymbolSector sector;
+
     // 생성 시각
     @CreationTimestamp
     @Column(name = "created_at", nullable = false)
@@ -1,5 +1,6 @@
 package com.tradenova.training.entity;
 
+import com.tradenova.common.jpa.IdGenerators;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -35,9 +36,20 @@ import java.time.OffsetDateTime;
 )
 public class TrainingSessionCandle {
 
-    /** 내부 PK (의미 없음, JPA 식별용) */
+    /**
+     * 내부 PK (의미 없음, JPA 식별용)
+     * - 차트 생성 시 saveAll로 한 번에 저장되므로 배치 insert가 가능한 pooled 테이블 생성기를 쓴다.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "training_session_candle_id")
+    @TableGenerator(
+            name = "training_session_candle_id",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.TRAINING_SESSION_CANDLE,
+            allocationSize = IdGenerators.CANDLE_ALLOCATION_SIZE
+    )
     private Long id;
 
     /** 어떤 차트(chart)의 캔들인지 */
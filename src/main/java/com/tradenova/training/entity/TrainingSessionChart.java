@@ -4,6 +4,7 @@ import com.tradenova.symbol.entity.Symbol;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,9 +17,13 @@ import java.time.OffsetDateTime;
                 @Index(name = "idx_session_chart_session", columnList = "session_id"),
                 @Index(name = "idx_session_chart_symbol", columnList = "symbol_id"),
                 @Index(name = "idx_session_chart_session_active", columnList = "session_id, active"),
-                @Index(name = "idx_session_chart_session_idx_active", columnList = "session_id, chart_index, active")
+                @Index(name = "idx_session_chart_session_idx_active", columnList = "session_id, chart_index, active"),
+                // 이벤트 압축 대상 (아직 압축 안 한 차트 -> id 순)
+                @Index(name = "idx_session_chart_compaction", columnList = "events_compacted_at, id")
         }
 )
+// advance는 progress_index/status만 바꾸므로 변경된 컬럼만 UPDATE (next 연타 시 row 갱신량 최소화)
+@DynamicUpdate
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
@@ -95,6 +100,22 @@ public class TrainingSessionChart {
     @Column(name = "refreshed", nullable = false)
     private boolean refreshed = false;
 
+    /**
+     * PROGRESS 이벤트 압축 완료 시각 (TrainingEventCompactionJob)
+     * - null이면 아직 압축 전 (완료/비활성 차트만 대상)
+     */
+    @Column(name = "events_compacted_at")
+    private OffsetDateTime eventsCompactedAt;
+
+    /**
+     * 최신 리스크 룰 히스토리 id (매매 기록에 찍는 riskRuleHistoryId)
+     * - 룰 저장 시 차트 쓰기 lock 안에서 같이 바꾼다. 매매/advance는 lock으로 읽은 차트에서 바로 꺼낸다.
+     * - 0 = 히스토리 없음 / null = 컬럼 추가 전 차트 (첫 쓰기 때 1번 조회해서 채운다)
+     */
+    @Builder.Default
+    @Column(name = "risk_history_id")
+    private Long riskHistoryId = 0L;
+
     // ===== 편의 메서드 =====
     public void setProgressIndex(int progressIndex) {
         this.progressIndex = progressIndex;
@@ -111,4 +132,8 @@ public class TrainingSessionChart {
     public void markRefreshed() {
         this.refreshed = true;
     }
+
+    public void updateRiskHistoryId(long riskHistoryId) {
+        this.riskHistoryId = riskHistoryId;
+    }
 }
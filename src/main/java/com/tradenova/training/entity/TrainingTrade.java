@@ -1,5 +1,6 @@
 package com.tradenova.training.entity;
 
+import com.tradenova.common.jpa.IdGenerators;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -17,6 +18,8 @@ import java.time.OffsetDateTime;
 @Table(name = "training_trade",
         indexes = {
                 @Index(name="idx_trade_chart", columnList="chart_id"),
+                // 세션 타임라인 (차트 -> 시간 순 키셋)
+                @Index(name="idx_trade_chart_created", columnList="chart_id, created_at, id"),
                 @Index(name="idx_trade_account", columnList="account_id"),
                 @Index(name="idx_trade_risk_history", columnList="risk_rule_history_id")
         }
@@ -28,7 +31,15 @@ public class TrainingTrade {
      * 한 번 체결된 주문 1건을 식별하기 위한 값
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "training_trade_id")
+    @TableGenerator(
+            name = "training_trade_id",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.PK_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = IdGenerators.TRAINING_TRADE,
+            allocationSize = IdGenerators.LOG_ALLOCATION_SIZE
+    )
     private Long id;
 
     /**
@@ -0,0 +1,27 @@
+package com.tradenova.training.repository;
+
+import com.tradenova.training.entity.TrainingChartLedger;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+// 차트별 손익 장부 (PK = chart_id)
+public interface TrainingChartLedgerRepository extends JpaRepository<TrainingChartLedger, Long> {
+
+    /**
+     * 대조 작업용: 완료된 차트의 장부 id (afterChartId 다음부터 id 순)
+     * - 완료된 차트는 더 이상 매매/봉 공개가 없어서 차트 lock 없이 대조해도 겹치지 않는다.
+     */
+    @Query("""
+        select l.chartId
+        from TrainingChartLedger l, TrainingSessionChart c
+        where c.id = l.chartId
+          and c.status = com.tradenova.training.entity.TrainingChartStatus.COMPLETED
+          and l.chartId > :afterChartId
+        order by l.chartId
+    """)
+    List<Long> findCompletedChartIdsAfter(@Param("afterChartId") Long afterChartId, Pageable pageable);
+}
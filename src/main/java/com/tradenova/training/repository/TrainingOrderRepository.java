@@ -0,0 +1,46 @@
+package com.tradenova.training.repository;
+
+import com.tradenova.training.dto.OrderBookVersion;
+import com.tradenova.training.entity.TrainingOrder;
+import com.tradenova.training.entity.TrainingOrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+// 차트 예약 주문(지정가/스톱) 조회/저장
+public interface TrainingOrderRepository extends JpaRepository<TrainingOrder, Long> {
+
+    // 주문장 적재용: 차트의 대기 주문 (id 순 = 접수 순)
+    List<TrainingOrder> findByChartIdAndStatusOrderByIdAsc(Long chartId, TrainingOrderStatus status);
+
+    /**
+     * 주문장 캐시 검증용: 차트의 OPEN 주문 수 + 최대 id
+     * - idx_order_chart_status 범위만 읽는다. (다른 서버에서 등록/취소/체결된 주문 감지)
+     */
+    @Query("""
+            select new com.tradenova.training.dto.OrderBookVersion(count(o), max(o.id))
+              from TrainingOrder o
+             where o.chartId = :chartId
+               and o.status = com.tradenova.training.entity.TrainingOrderStatus.OPEN
+            """)
+    OrderBookVersion findOpenVersionByChartId(@Param("chartId") Long chartId);
+
+    // 주문 목록 화면 (최신순)
+    List<TrainingOrder> findByChartIdOrderByIdDesc(Long chartId);
+
+    Optional<TrainingOrder> findByIdAndChartId(Long id, Long chartId);
+
+    // 차트 종료 시 남은 대기 주문 일괄 만료
+    @Modifying
+    @Query("""
+            update TrainingOrder o
+               set o.status = com.tradenova.training.entity.TrainingOrderStatus.CANCELED
+             where o.chartId = :chartId
+               and o.status = com.tradenova.training.entity.TrainingOrderStatus.OPEN
+            """)
+    int cancelOpenByChartId(@Param("chartId") Long chartId);
+}
@@ -2,6 +2,8 @@ package com.tradenova.training.repository;
 
 import com.tradenova.training.entity.TrainingRiskRuleHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +14,11 @@ public interface TrainingRiskRuleHistoryRepository
     List<TrainingRiskRuleHistory> findAllByChartIdOrderByIdAsc(Long chartId);
 
     Optional<TrainingRiskRuleHistory> findTopByChartIdOrderByIdDesc(Long chartId);
+
+    /**
+     * 차트의 최신 히스토리 id (없으면 null)
+     * - idx_risk_history_chart_id(chart_id, id) 인덱스만 읽는다. (리스크 룰 캐시 검증용)
+     */
+    @Query("select max(h.id) from TrainingRiskRuleHistory h where h.chartId = :chartId")
+    Long findLatestIdByChartId(@Param("chartId") Long chartId);
 }
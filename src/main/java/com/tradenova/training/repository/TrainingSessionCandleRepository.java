@@ -21,6 +21,20 @@ public interface TrainingSessionCandleRepository extends JpaRepository<TrainingS
      */
     Optional<TrainingSessionCandle> findByChartIdAndIdx(Long ChartId, Integer idx);
 
+    /**
+     * 특정 차트의 [fromIdx, toIdx] 구간 캔들을 idx 오름차순으로 조회
+     *
+     * 필요한 구간만 쿼리 1번으로 가져온다.
+     * (chart_id, idx) 유니크 인덱스를 그대로 range scan 한다.
+     * - advance 경로는 ChartReplayStateCache의 전체 봉 시리즈로 대체됐고,
+     *   지금은 AI 리뷰의 최근 구간(진행 위치까지) 조회에 쓴다.
+     */
+    List<TrainingSessionCandle> findAllByChartIdAndIdxBetweenOrderByIdxAsc(
+            Long chartId,
+            Integer fromIdx,
+            Integer toIdx
+    );
+
     /** visibleOnly 옵션 (치팅 방지 강화용) */
     List<TrainingSessionCandle> findAllByChartIdAndIdxLessThanEqualOrderByIdxAsc( //LessThen = 비교연산
             Long ChartId,
@@ -30,10 +44,4 @@ public interface TrainingSessionCandleRepository extends JpaRepository<TrainingS
     /** 세션 삭제/리셋 시 사용 */
     void deleteAllByChartId(Long ChartId);
 
-    /**
-     * 특정 차트의 최근 30개 봉 조회
-     * - AI 분석용
-     */
-    List<TrainingSessionCandle> findTop30ByChartIdOrderByIdxDesc(Long chartId);
-
 }
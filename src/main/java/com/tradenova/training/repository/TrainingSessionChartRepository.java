@@ -1,12 +1,18 @@
 package com.tradenova.training.repository;
 
+import com.tradenova.training.dto.ChartReplayVersion;
+import com.tradenova.training.dto.ChartReplayView;
 import com.tradenova.training.entity.TrainingSessionChart;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -57,4 +63,130 @@ public interface TrainingSessionChartRepository extends JpaRepository<TrainingSe
             @Param("chartId") Long chartId,
             @Param("userId") Long userId
     );
+
+    /**
+     * OPTIMISTIC 모드용 쓰기 조회 (row lock 없음)
+     * - 커밋 시 차트 @Version을 강제로 올린다. (OPTIMISTIC_FORCE_INCREMENT)
+     * - 매매처럼 차트 행 자체를 바꾸지 않는 쓰기도 같은 차트의 다른 쓰기와 버전 충돌로 감지된다.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("""
+        select c
+        from TrainingSessionChart c
+        join c.session s
+        join s.user u
+        where c.id = :chartId
+          and u.id = :userId
+    """)
+    Optional<TrainingSessionChart> findForVersionedWriteByIdAndUserId(
+            @Param("chartId") Long chartId,
+            @Param("userId") Long userId
+    );
+
+    /**
+     * 진행 상태 캐시 적재용 요약 조회
+     * - chart/session/account를 지연 로딩하지 않고 필요한 값만 쿼리 1번으로 가져온다.
+     * - 소유권(userId) 조건 포함
+     */
+    @Query("""
+        select new com.tradenova.training.dto.ChartReplayView(
+            c.id, c.version, u.id, a.id, a.version, sym.id,
+            c.bars, c.progressIndex, c.status, s.status, a.cashBalance
+        )
+        from TrainingSessionChart c
+        join c.session s
+        join s.user u
+        join s.account a
+        join c.symbol sym
+        where c.id = :chartId
+          and u.id = :userId
+    """)
+    Optional<ChartReplayView> findReplayViewByIdAndUserId(
+            @Param("chartId") Long chartId,
+            @Param("userId") Long userId
+    );
+
+    /**
+     * 진행 상태 캐시 검증용 버전 조회
+     * - 캐시 히트일 때도 이 쿼리 1번으로 다른 서버의 쓰기를 감지한다. (엔티티 로딩 없음)
+     */
+    @Query("""
+        select new com.tradenova.training.dto.ChartReplayVersion(
+            c.version, a.version, s.status
+        )
+        from TrainingSessionChart c
+        join c.session s
+        join s.account a
+        where c.id = :chartId
+    """)
+    Optional<ChartReplayVersion> findReplayVersionById(@Param("chartId") Long chartId);
+
+    /**
+     * 차트가 속한 세션의 계좌 id (계좌 단위 명령 순서 보장용)
+     */
+    @Query("""
+        select s.account.id
+        from TrainingSessionChart c
+        join c.session s
+        where c.id = :chartId
+    """)
+    Optional<Long> findAccountIdById(@Param("chartId") Long chartId);
+
+    /**
+     * 주어진 차트들 중 userId 소유인 차트 id만 조회
+     * - 이벤트 일괄 저장 시 소유권을 쿼리 1번으로 검증한다.
+     */
+    @Query("""
+        select c.id
+        from TrainingSessionChart c
+        join c.session s
+        join s.user u
+        where c.id in :chartIds
+          and u.id = :userId
+    """)
+    List<Long> findOwnedChartIds(
+            @Param("userId") Long userId,
+            @Param("chartIds") Collection<Long> chartIds
+    );
+
+    /**
+     * 세션의 차트 id 목록 (소유권 포함, chartIndex 순)
+     * - 비어 있으면 없는 세션이거나 남의 세션
+     */
+    @Query("""
+        select c.id
+        from TrainingSessionChart c
+        join c.session s
+        join s.user u
+        where s.id = :sessionId
+          and u.id = :userId
+        order by c.chartIndex asc, c.id asc
+    """)
+    List<Long> findChartIdsBySessionIdAndUserId(
+            @Param("sessionId") Long sessionId,
+            @Param("userId") Long userId
+    );
+
+    /**
+     * PROGRESS 이벤트 압축 대상 차트 - [chartId, userId]
+     * - 완료됐거나 새로고침으로 비활성화되어 더 이상 진행하지 않는 차트 중 아직 압축 전인 것
+     */
+    @Query("""
+        select c.id, u.id
+        from TrainingSessionChart c
+        join c.session s
+        join s.user u
+        where c.id > :afterId
+          and c.eventsCompactedAt is null
+          and (c.status = com.tradenova.training.entity.TrainingChartStatus.COMPLETED or c.active = false)
+        order by c.id asc
+    """)
+    List<Object[]> findEventCompactionCandidates(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 압축 완료 표시 (벌크 update: 차트 @Version은 올리지 않는다)
+     */
+    @Modifying
+    @Query("update TrainingSessionChart c set c.eventsCompactedAt = :at where c.id = :chartId")
+    int markEventsCompacted(@Param("chartId") Long chartId, @Param("at") OffsetDateTime at);
 }
@@ -1,10 +1,18 @@
 package com.tradenova.training.repository;
 
 import com.tradenova.training.entity.TrainingTrade;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TrainingTradeRepository extends JpaRepository<TrainingTrade, Long> {
     //특정 훈련 세션(sessionId)에 속한 모든 매매 기록을, id 오름차순으로 조회한다.
@@ -23,6 +31,19 @@ public interface TrainingTradeRepository extends JpaRepository<TrainingTrade, Lo
      */
     long countByChartIdIn(List<Long> chartIds);
 
+    /**
+     * 차트별 거래 수 ([chartId, count])
+     *
+     * 세션 리뷰 전에 손익 장부가 거래 기록과 맞는지 거래 행을 읽지 않고 확인할 때 쓴다.
+     */
+    @Query("""
+            select t.chartId, count(t)
+              from TrainingTrade t
+             where t.chartId in :chartIds
+             group by t.chartId
+            """)
+    List<Object[]> countByChartIdInGroupByChartId(@Param("chartIds") List<Long> chartIds);
+
     /**
      * 특정 차트(chartId)에 속한 모든 트레이드(매수/매도 내역)를
      * 생성 시간(createdAt) 오름차순으로 조회한다.
@@ -39,4 +60,31 @@ public interface TrainingTradeRepository extends JpaRepository<TrainingTrade, Lo
      * - 거래 기록이 있으면 새로고침 불가
      */
     boolean existsByChartId(Long chartId);
-}
\ No newline at end of file
+
+    /**
+     * 세션 타임라인용: 차트 1개에서 (createdAt, id)가 (at, afterId)보다 뒤인 거래를 시간 순으로 limit건
+     * - idx_trade_chart_created(chart_id, created_at, id) 순서 그대로 읽는다. (filesort 없음)
+     */
+    @Query("""
+            select t
+              from TrainingTrade t
+             where t.chartId = :chartId
+               and (t.createdAt > :at or (t.createdAt = :at and t.id > :afterId))
+             order by t.createdAt asc, t.id asc
+            """)
+    List<TrainingTrade> findTimelineAfter(
+            @Param("chartId") Long chartId,
+            @Param("at") OffsetDateTime at,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * 내보내기용: 차트 거래를 id 순으로 한 행씩 읽는다. (MySQL 스트리밍 결과셋, 트랜잭션 안에서만 사용)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<TrainingTrade> streamByChartIdOrderByIdAsc(Long chartId);
+}
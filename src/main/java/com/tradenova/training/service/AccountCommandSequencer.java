@@ -0,0 +1,205 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.cache.LruMaps;
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 계좌 단위 단일 writer (SEQUENCED 락 모드)
+ *
+ * 왜 필요한가?
+ * - 세션의 차트 4개는 계좌 1개를 같이 쓴다.
+ * - 차트 단위 lock(OPTIMISTIC)만으로는 서로 다른 차트의 매수/자동청산이 같은 계좌 @Version에서 충돌한다.
+ *
+ * 동작 (actor 방식):
+ * - 계좌마다 mailbox(FIFO 큐) 1개. 명령은 들어온 순서대로 한 번에 하나씩 실행된다.
+ * - mailbox는 작업이 있을 때만 worker 스레드를 점유하고, 비면 map에서 제거된다.
+ * - 서로 다른 계좌의 명령은 worker 풀에서 병렬로 실행된다.
+ * - 호출 스레드는 자기 명령의 결과(또는 예외)를 기다린다.
+ * - result-timeout-ms 안에 실행이 시작되지 않으면 명령을 취소하고 CONCURRENT_REQUEST(409)로 응답한다.
+ *   취소된 명령은 큐에서 차례가 와도 건너뛰므로 409는 항상 "반영되지 않음"을 뜻한다.
+ *   이미 실행이 시작된 명령은 취소하지 않고 끝날 때까지 기다려 실제 결과를 돌려준다.
+ *
+ * 영속화/정합성:
+ * - 명령 1개 = 서비스 트랜잭션 1개. 커밋이 끝나야 다음 명령이 실행되고 응답이 나간다.
+ *   (메모리에서만 반영하고 나중에 몰아서 쓰면, 응답한 매매가 서버 장애 시 사라질 수 있어서 그렇게 하지 않는다)
+ * - 따라서 현금/포지션 계산 규칙은 기존 서비스 로직 그대로다. 순서만 계좌 단위로 고정된다.
+ */
+@Slf4j
+@Component
+public class AccountCommandSequencer implements DisposableBean {
+
+    private static final int MAX_CHART_ACCOUNTS = 50_000;
+
+    private final TrainingSessionChartRepository chartRepo;
+    private final ChartReplayStateCache replayCache;
+    private final ExecutorService workers;
+    private final long resultTimeoutMs;
+
+    // accountId -> 대기 중/실행 중인 명령 큐 (비면 제거)
+    private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    // chartId -> accountId (차트의 계좌는 바뀌지 않는다)
+    private final Map<Long, Long> chartAccounts = LruMaps.lru(1024, MAX_CHART_ACCOUNTS);
+
+    private static final class Mailbox {
+        // compute() 안에서만 접근하므로 동기화 불필요
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+        private boolean scheduled;
+    }
+
+    public AccountCommandSequencer(
+            TrainingSessionChartRepository chartRepo,
+            ChartReplayStateCache replayCache,
+            @Value("${tradenova.replay.sequencer-threads:16}") int threads,
+            @Value("${tradenova.replay.sequencer-result-timeout-ms:10000}") long resultTimeoutMs
+    ) {
+        this.chartRepo = chartRepo;
+        this.replayCache = replayCache;
+        this.resultTimeoutMs = Math.max(1, resultTimeoutMs);
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "account-sequencer-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 차트가 속한 계좌의 mailbox에 명령을 넣고 결과를 기다린다.
+     */
+    public <T> T submit(Long chartId, Supplier<T> command) {
+        return submitToAccount(accountIdOf(chartId), command);
+    }
+
+    <T> T submitToAccount(Long accountId, Supplier<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // 실행 시작 / 호출자 포기 중 먼저 온 쪽만 이긴다
+        AtomicBoolean claimed = new AtomicBoolean();
+        Runnable task = () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                // 호출자가 이미 타임아웃으로 포기한 명령: 실행하지 않는다
+                return;
+            }
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        mailboxes.compute(accountId, (id, mailbox) -> {
+            Mailbox mb = mailbox == null ? new Mailbox() : mailbox;
+            mb.queue.add(task);
+            if (!mb.scheduled) {
+                mb.scheduled = true;
+                workers.execute(() -> drain(id));
+            }
+            return mb;
+        });
+
+        try {
+            return result.get(resultTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (claimed.compareAndSet(false, true)) {
+                // 아직 시작 전: 취소해서 큐에서 차례가 와도 건너뛰게 한다 (409 = 반영 안 됨)
+                result.cancel(false);
+                log.warn("account command timed out before start. cancelled. accountId={}", accountId);
+                throw new CustomException(ErrorCode.CONCURRENT_REQUEST);
+            }
+        }
+
+        // 이미 실행 중: 트랜잭션이 끝날 때까지 기다려 실제 결과를 돌려준다 (join은 인터럽트에 반응하지 않는다)
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException re) {
+            throw re;
+        }
+        if (cause instanceof Error err) {
+            throw err;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    /**
+     * mailbox가 빌 때까지 한 개씩 실행한다. (한 계좌의 drain은 항상 worker 1개)
+     */
+    private void drain(Long accountId) {
+        while (true) {
+            Runnable[] next = new Runnable[1];
+            mailboxes.computeIfPresent(accountId, (id, mb) -> {
+                next[0] = mb.queue.poll();
+                if (next[0] == null) {
+                    // 비었으면 mailbox 제거 (다음 submit이 새로 만든다)
+                    mb.scheduled = false;
+                    return null;
+                }
+                return mb;
+            });
+            if (next[0] == null) {
+                return;
+            }
+            next[0].run();
+        }
+    }
+
+    private Long accountIdOf(Long chartId) {
+        ChartReplayStateCache.ChartState state = replayCache.chart(chartId);
+        if (state != null && state.accountId() != null) {
+            return state.accountId();
+        }
+
+        synchronized (chartAccounts) {
+            Long cached = chartAccounts.get(chartId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Long accountId = chartRepo.findAccountIdById(chartId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
+        synchronized (chartAccounts) {
+            chartAccounts.put(chartId, accountId);
+        }
+        return accountId;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+}
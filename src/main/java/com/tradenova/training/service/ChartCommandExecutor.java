@@ -0,0 +1,117 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 차트 단위 쓰기 명령 실행기 (advance / 매매 / 리스크 룰 수정)
+ *
+ * - PESSIMISTIC 모드: 그대로 실행한다. (직렬화는 DB row lock 담당)
+ * - OPTIMISTIC 모드:
+ *   1) chartId로 고른 stripe lock을 트랜잭션 "밖"에서 잡는다.
+ *      (커밋과 커밋 후 캐시 갱신까지 끝난 뒤에 다음 명령이 들어온다)
+ *   2) 같은 계좌를 쓰는 다른 차트/다른 서버와 @Version 충돌이 나면 최대 MAX_ATTEMPTS 번까지 다시 실행한다.
+ *   3) lock 대기가 LOCK_TIMEOUT_MS를 넘으면 CONCURRENT_REQUEST (409)
+ * - SEQUENCED 모드: stripe lock 대신 AccountCommandSequencer(계좌 mailbox)에 넣어 실행한다.
+ *   재시도 규칙은 OPTIMISTIC과 같다. (계좌 리셋/세션 종료/다른 서버와의 충돌만 남는다)
+ *
+ * - stripe 수가 고정이라 차트가 많아도 lock 객체가 늘지 않는다. (다른 차트끼리 드물게 같은 stripe를 공유할 수 있음)
+ * - 실행 중인 명령은 서비스 메서드(@Transactional)를 호출해야 한다. 이 클래스는 트랜잭션을 열지 않는다.
+ */
+@Slf4j
+@Component
+public class ChartCommandExecutor {
+
+    private static final int STRIPES = 1024; // 2의 거듭제곱 (mask 연산)
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long LOCK_TIMEOUT_MS = 5_000L;
+
+    private final TrainingWriteLocks writeLocks;
+    private final AccountCommandSequencer sequencer;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    // 운영 지표 (lock 대기 시간 / 재시도 횟수)
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    public record Stats(long acquisitions, long totalWaitNanos, long retries) {
+        public double averageWaitMicros() {
+            return acquisitions == 0 ? 0.0 : totalWaitNanos / 1_000.0 / acquisitions;
+        }
+    }
+
+    public ChartCommandExecutor(TrainingWriteLocks writeLocks, AccountCommandSequencer sequencer) {
+        this.writeLocks = writeLocks;
+        this.sequencer = sequencer;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T execute(Long chartId, Supplier<T> command) {
+        switch (writeLocks.mode()) {
+            case OPTIMISTIC:
+                return executeStriped(chartId, command);
+            case SEQUENCED:
+                return sequencer.submit(chartId, () -> executeWithRetry(chartId, command));
+            default:
+                return command.get();
+        }
+    }
+
+    private <T> T executeStriped(Long chartId, Supplier<T> command) {
+        ReentrantLock lock = locks[stripe(chartId)];
+        long start = System.nanoTime();
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new CustomException(ErrorCode.CONCURRENT_REQUEST);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException(ErrorCode.CONCURRENT_REQUEST);
+        }
+        acquisitions.incrementAndGet();
+        waitNanos.addAndGet(System.nanoTime() - start);
+
+        try {
+            return executeWithRetry(chartId, command);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T executeWithRetry(Long chartId, Supplier<T> command) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return command.get();
+            } catch (OptimisticLockingFailureException e) {
+                // 롤백된 트랜잭션은 캐시를 건드리지 않으므로(afterCommit) 그대로 다시 실행해도 안전하다.
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+                log.debug("optimistic write conflict. chartId={}, attempt={}", chartId, attempt);
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(acquisitions.get(), waitNanos.get(), retries.get());
+    }
+
+    private static int stripe(Long chartId) {
+        // Long.hashCode 후 상위 비트를 섞어 연속된 id가 고르게 퍼지게 한다
+        int h = Long.hashCode(chartId);
+        h ^= (h >>> 16);
+        return h & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,400 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.training.dto.AutoExitReason;
+import com.tradenova.training.dto.SessionProgressResponse;
+import com.tradenova.training.dto.TradeResponse;
+import com.tradenova.training.entity.TrainingChartStatus;
+import com.tradenova.training.entity.TrainingStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 차트 스트리밍 재생 (SSE)
+ *
+ * next를 봉마다 호출하는 대신 연결 1개로 서버가 봉을 밀어준다.
+ * - 봉은 캐시된 봉 배열에서 바로 보낸다. (봉마다 트랜잭션/이벤트 INSERT 없음)
+ * - 진행 상태는 checkpoint-bars 봉마다, 그리고 매매/일시정지/종료 직전에만 advance로 DB에 반영한다.
+ * - 손절/익절은 봉을 보낼 때마다 메모리에서 검사하고, 조건을 만족하면 그 봉까지 즉시 checkpoint 한다.
+ *   예약 주문(지정가/스톱)이 발동하는 봉도 즉시 checkpoint 한다. (체결은 advance가 주문장 매칭으로 처리)
+ *   (실제 청산/이벤트 기록은 advance가 기존 규칙 그대로 처리)
+ * - 매매 명령은 먼저 checkpoint 해서 DB 진행 위치를 화면과 맞춘 뒤 기존 매매 로직으로 실행한다.
+ *
+ * SSE 이벤트:
+ * - bar        : 새로 공개된 봉 {idx, t, o, h, l, c, v}
+ * - checkpoint : DB 반영 후 진행 상태 (SessionProgressResponse)
+ * - autoExit   : 손절/익절 청산 후 진행 상태 (SessionProgressResponse)
+ * - trade      : 재생 중 매매 결과 (TradeResponse)
+ * - paused / resumed
+ * - complete   : 마지막 봉 도달 후 최종 상태, 이후 연결 종료
+ * - error      : {code} 이후 연결 종료
+ *
+ * 재생 상태는 서버 메모리에만 있다. 연결이 끊기면 마지막 위치까지 checkpoint 하고 정리한다.
+ */
+@Slf4j
+@Service
+public class ChartPlaybackService implements DisposableBean {
+
+    private static final long MIN_INTERVAL_MS = 50L;
+    private static final long MAX_INTERVAL_MS = 10_000L;
+    private static final int MAX_ADVANCE_STEPS = 500;
+
+    private final TrainingSessionProgressService progressService;
+    private final TrainingTradeService tradeService;
+    private final ChartCommandExecutor chartCommands;
+    private final ChartReplayStateCache replayCache;
+    private final TrainingOrderBookCache orderBooks;
+
+    private final ScheduledExecutorService scheduler;
+    private final int checkpointBars;
+    private final long defaultIntervalMs;
+    private final long emitterTimeoutMs;
+
+    // chartId -> 재생 중인 스트림 (차트당 1개)
+    private final Map<Long, Playback> playbacks = new ConcurrentHashMap<>();
+
+    public ChartPlaybackService(
+            TrainingSessionProgressService progressService,
+            TrainingTradeService tradeService,
+            ChartCommandExecutor chartCommands,
+            ChartReplayStateCache replayCache,
+            TrainingOrderBookCache orderBooks,
+            @Value("${tradenova.playback.threads:4}") int threads,
+            @Value("${tradenova.playback.checkpoint-bars:20}") int checkpointBars,
+            @Value("${tradenova.playback.default-interval-ms:500}") long defaultIntervalMs,
+            @Value("${tradenova.playback.emitter-timeout-ms:1800000}") long emitterTimeoutMs
+    ) {
+        this.progressService = progressService;
+        this.tradeService = tradeService;
+        this.chartCommands = chartCommands;
+        this.replayCache = replayCache;
+        this.orderBooks = orderBooks;
+        this.checkpointBars = Math.max(1, checkpointBars);
+        this.defaultIntervalMs = defaultIntervalMs;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "chart-playback-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 재생 1개 (차트 1개)
+     * - 모든 상태 변경은 synchronized(this) 안에서만 (tick 스레드 / 명령 요청 스레드)
+     */
+    private final class Playback {
+        private final Long userId;
+        private final Long chartId;
+        private final SseEmitter emitter;
+        private final int maxIdx;
+
+        private int cursor;     // 클라이언트에 공개한 마지막 봉
+        private int persisted;  // DB progressIndex
+        private boolean paused;
+        private boolean closed;
+        private ScheduledFuture<?> ticker;
+
+        private Playback(Long userId, Long chartId, SseEmitter emitter, SessionProgressResponse start) {
+            this.userId = userId;
+            this.chartId = chartId;
+            this.emitter = emitter;
+            this.maxIdx = start.maxIndex();
+            this.cursor = start.progressIndex();
+            this.persisted = start.progressIndex();
+        }
+    }
+
+    /**
+     * 재생 시작 (같은 차트의 기존 재생은 checkpoint 후 종료)
+     *
+     * @param intervalMs 봉 간격 (null이면 기본값)
+     */
+    public SseEmitter start(Long userId, Long chartId, Long intervalMs) {
+        long interval = intervalMs == null ? defaultIntervalMs : intervalMs;
+        if (interval < MIN_INTERVAL_MS || interval > MAX_INTERVAL_MS) {
+            throw new CustomException(ErrorCode.INVALID_PLAYBACK_INTERVAL);
+        }
+
+        // 소유권 검증 + 현재 위치 (캐시 우선)
+        SessionProgressResponse start = progressService.getProgress(userId, chartId);
+        if (start.atLastBar() || TrainingChartStatus.COMPLETED.name().equals(start.chartStatus())) {
+            throw new CustomException(ErrorCode.TRAINING_CHART_ALREADY_COMPLETED);
+        }
+        if (!TrainingStatus.IN_PROGRESS.name().equals(start.sessionStatus())) {
+            throw new CustomException(ErrorCode.TRAINING_SESSION_NOT_IN_PROGRESS);
+        }
+
+        Playback previous = playbacks.get(chartId);
+        if (previous != null) {
+            stop(previous);
+            previous.emitter.complete();
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Playback playback = new Playback(userId, chartId, emitter, start);
+        playbacks.put(chartId, playback);
+
+        emitter.onCompletion(() -> stop(playback));
+        emitter.onTimeout(() -> stop(playback));
+        emitter.onError(e -> stop(playback));
+
+        synchronized (playback) {
+            send(playback, "checkpoint", start);
+            playback.ticker = scheduler.scheduleAtFixedRate(
+                    () -> tick(playback), interval, interval, TimeUnit.MILLISECONDS);
+        }
+        return emitter;
+    }
+
+    public void pause(Long userId, Long chartId) {
+        Playback playback = active(userId, chartId);
+        synchronized (playback) {
+            if (playback.closed || playback.paused) {
+                return;
+            }
+            playback.paused = true;
+            // 일시정지 동안 새로고침해도 위치가 맞도록 반영
+            SessionProgressResponse state = checkpoint(playback);
+            send(playback, "paused", state);
+        }
+    }
+
+    public void resume(Long userId, Long chartId) {
+        Playback playback = active(userId, chartId);
+        synchronized (playback) {
+            if (playback.closed || !playback.paused) {
+                return;
+            }
+            playback.paused = false;
+            send(playback, "resumed", Map.of("progressIndex", playback.cursor));
+        }
+    }
+
+    /**
+     * 재생 중 매매 (화면에 보이는 봉 기준)
+     */
+    public TradeResponse buy(Long userId, Long chartId, BigDecimal qty) {
+        return trade(userId, chartId, () -> tradeService.buy(userId, chartId, qty));
+    }
+
+    public TradeResponse sell(Long userId, Long chartId, BigDecimal qty) {
+        return trade(userId, chartId, () -> tradeService.sell(userId, chartId, qty, false));
+    }
+
+    public TradeResponse sellAll(Long userId, Long chartId) {
+        return trade(userId, chartId, () -> tradeService.sellAll(userId, chartId));
+    }
+
+    public void stop(Long userId, Long chartId) {
+        Playback playback = active(userId, chartId);
+        stop(playback);
+        playback.emitter.complete();
+    }
+
+    private TradeResponse trade(Long userId, Long chartId, Supplier<TradeResponse> command) {
+        Playback playback = active(userId, chartId);
+        synchronized (playback) {
+            if (playback.closed) {
+                throw new CustomException(ErrorCode.TRAINING_PLAYBACK_NOT_FOUND);
+            }
+            // 매매 가격 = DB progressIndex 봉 종가 -> 먼저 화면 위치까지 반영
+            checkpoint(playback);
+            TradeResponse result = chartCommands.execute(chartId, command);
+            send(playback, "trade", result);
+            return result;
+        }
+    }
+
+    /**
+     * 봉 1개 진행 (스케줄러가 호출, 테스트에서는 직접 호출)
+     */
+    void tick(Long chartId) {
+        Playback playback = playbacks.get(chartId);
+        if (playback != null) {
+            tick(playback);
+        }
+    }
+
+    private void tick(Playback playback) {
+        synchronized (playback) {
+            if (playback.closed || playback.paused) {
+                return;
+            }
+            try {
+                advanceOneBar(playback);
+            } catch (CustomException e) {
+                log.info("playback stopped. chartId={}, code={}", playback.chartId, e.getErrorCode());
+                send(playback, "error", Map.of("code", e.getErrorCode().name()));
+                close(playback);
+                playback.emitter.complete();
+            } catch (RuntimeException e) {
+                log.warn("playback failed. chartId={}", playback.chartId, e);
+                send(playback, "error", Map.of("code", ErrorCode.INVALID_REQUEST.name()));
+                close(playback);
+                playback.emitter.complete();
+            }
+        }
+    }
+
+    private void advanceOneBar(Playback playback) {
+        int idx = playback.cursor + 1;
+        ChartReplayStateCache.CandleSeries series = replayCache.series(playback.chartId);
+        if (series.size() <= idx) {
+            throw new CustomException(ErrorCode.CANDLES_EMPTY);
+        }
+
+        playback.cursor = idx;
+        send(playback, "bar", bar(series, idx));
+
+        // 손절/익절: 보유 중일 때만 의미가 있다 (포지션 캐시가 없으면 보수적으로 보유로 본다)
+        boolean hit = holding(playback)
+                && TrainingAutoExitService.scanFirstHit(
+                        replayCache.riskRule(playback.chartId),
+                        series.opens(),
+                        series.highs(),
+                        series.lows(),
+                        idx,
+                        idx) != null;
+
+        // 예약 주문 발동 (주문장 경계값 비교 O(log n))
+        boolean orderTouched = orderBooks.book(playback.chartId)
+                .touches(series.highs()[idx], series.lows()[idx]);
+
+        SessionProgressResponse state = null;
+        if (hit
+                || orderTouched
+                || idx >= playback.maxIdx
+                || playback.cursor - playback.persisted >= checkpointBars) {
+            state = checkpoint(playback);
+        }
+
+        if (state != null && state.autoExited() && state.reason() != null
+                && state.reason() != AutoExitReason.END_OF_CHART) {
+            send(playback, "autoExit", state);
+        }
+
+        if (playback.persisted >= playback.maxIdx) {
+            // 마지막 봉: advance가 END_OF_CHART 청산 + 차트 완료까지 처리했다
+            send(playback, "complete", state);
+            close(playback);
+            playback.emitter.complete();
+        } else if (state != null && !state.autoExited()) {
+            send(playback, "checkpoint", state);
+        }
+    }
+
+    /**
+     * 클라이언트에 공개한 위치(cursor)까지 DB 진행 상태를 맞춘다.
+     * - advance는 한 번에 최대 500봉이므로 나눠서 호출
+     * - advance가 자동청산으로 더 일찍 멈추면 그 위치로 cursor를 되돌린다
+     */
+    private SessionProgressResponse checkpoint(Playback playback) {
+        SessionProgressResponse state = null;
+        while (playback.persisted < playback.cursor) {
+            int steps = Math.min(MAX_ADVANCE_STEPS, playback.cursor - playback.persisted);
+            state = chartCommands.execute(playback.chartId,
+                    () -> progressService.advance(playback.userId, playback.chartId, steps));
+            int reached = state.progressIndex();
+            if (reached < playback.persisted + steps) {
+                playback.cursor = reached;
+            }
+            playback.persisted = reached;
+            if (state.autoExited()) {
+                break;
+            }
+        }
+        return state != null ? state : progressService.getProgress(playback.userId, playback.chartId);
+    }
+
+    private boolean holding(Playback playback) {
+        ChartReplayStateCache.ChartState chart = replayCache.chart(playback.chartId);
+        if (chart == null) {
+            return true;
+        }
+        ChartReplayStateCache.PositionSnapshot position =
+                replayCache.position(chart.accountId(), chart.symbolId());
+        return position == null || position.quantity().signum() > 0;
+    }
+
+    private Playback active(Long userId, Long chartId) {
+        Playback playback = playbacks.get(chartId);
+        if (playback == null || !playback.userId.equals(userId)) {
+            throw new CustomException(ErrorCode.TRAINING_PLAYBACK_NOT_FOUND);
+        }
+        return playback;
+    }
+
+    /**
+     * 연결 종료/교체 시 정리: 마지막 공개 위치까지 반영 후 제거
+     */
+    private void stop(Playback playback) {
+        synchronized (playback) {
+            if (playback.closed) {
+                return;
+            }
+            try {
+                checkpoint(playback);
+            } catch (RuntimeException e) {
+                log.warn("playback checkpoint on stop failed. chartId={}", playback.chartId, e);
+            }
+            close(playback);
+        }
+    }
+
+    private void close(Playback playback) {
+        playback.closed = true;
+        if (playback.ticker != null) {
+            playback.ticker.cancel(false);
+        }
+        playbacks.remove(playback.chartId, playback);
+    }
+
+    private void send(Playback playback, String name, Object data) {
+        try {
+            playback.emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // 클라이언트가 이미 끊었다 -> onError/onCompletion에서 정리
+            log.debug("playback send failed. chartId={}, event={}", playback.chartId, name);
+        }
+    }
+
+    private static Map<String, Object> bar(ChartReplayStateCache.CandleSeries series, int idx) {
+        Map<String, Object> bar = new LinkedHashMap<>();
+        bar.put("idx", idx);
+        bar.put("t", series.times()[idx]);
+        bar.put("o", series.opens()[idx]);
+        bar.put("h", series.highs()[idx]);
+        bar.put("l", series.lows()[idx]);
+        bar.put("c", series.closes()[idx]);
+        bar.put("v", series.volumes()[idx]);
+        return bar;
+    }
+
+    @Override
+    public void destroy() {
+        for (Playback playback : playbacks.values()) {
+            stop(playback);
+            playback.emitter.complete();
+        }
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,145 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.money.FixedPoint;
+import com.tradenova.training.dto.AutoExitReason;
+
+import java.math.BigDecimal;
+
+/**
+ * 차트 리플레이 배치 시뮬레이터 (순수 계산, DB/캐시/트랜잭션 없음)
+ *
+ * advance를 500봉씩 반복 호출한 것과 같은 결과를 한 번의 배열 스캔으로 계산한다.
+ * - 보유 포지션이 있으면 [fromIdx+1, 마지막 봉]에서 처음 손절/익절 조건을 만족한 봉에 전량 청산
+ *   (정책은 TrainingAutoExitService.scanFirstHit과 같다: 손절 우선, 갭 시 시가 체결)
+ * - 끝까지 조건을 만족하지 않으면 마지막 봉 종가로 END_OF_CHART 청산
+ * - 포지션이 없으면 청산 없이 마지막 봉까지 진행
+ *
+ * 사용처:
+ * - run-to-end API (결과만 DB에 반영)
+ * - 오프라인 분석 (저장된 봉 배열 + 리스크 룰 + 진입 포지션만으로 결과 재현)
+ */
+public final class ChartReplaySimulator {
+
+    private ChartReplaySimulator() {
+    }
+
+    /**
+     * 청산 체결 1건
+     *
+     * @param idx         체결 봉 index
+     * @param reason      STOP_LOSS / TAKE_PROFIT / END_OF_CHART
+     * @param price       체결가
+     * @param candleTime  체결 봉 시간
+     * @param qty         청산 수량 (전량)
+     * @param proceeds    매도대금 (price * qty, 수수료 없음 - 실제 매도 로직과 같음)
+     * @param realizedPnl 실현손익 ((price - avgPrice) * qty)
+     */
+    public record ExitFill(
+            int idx,
+            AutoExitReason reason,
+            BigDecimal price,
+            long candleTime,
+            BigDecimal qty,
+            BigDecimal proceeds,
+            BigDecimal realizedPnl
+    ) {}
+
+    /**
+     * 시뮬레이션 결과
+     *
+     * @param fromIdx 시작 위치 (이미 공개된 봉)
+     * @param toIdx   도착 위치 (항상 마지막 봉)
+     * @param exit    청산 체결 / 포지션이 없었으면 null
+     */
+    public record Outcome(
+            int fromIdx,
+            int toIdx,
+            ExitFill exit
+    ) {
+        public int advancedSteps() {
+            return toIdx - fromIdx;
+        }
+    }
+
+    /**
+     * fromIdx 다음 봉부터 차트 끝까지 재생한다.
+     *
+     * @param rule     리스크 룰 스냅샷 (없으면 NONE)
+     * @param series   차트 전체 봉 배열
+     * @param fromIdx  현재 진행 위치
+     * @param position 시작 시점 보유 포지션 (없으면 EMPTY)
+     */
+    public static Outcome runToEnd(
+            ChartReplayStateCache.RiskRuleSnapshot rule,
+            ChartReplayStateCache.CandleSeries series,
+            int fromIdx,
+            ChartReplayStateCache.PositionSnapshot position
+    ) {
+        int lastIdx = series.size() - 1;
+        if (lastIdx < 0 || fromIdx > lastIdx) {
+            throw new IllegalArgumentException(
+                    "fromIdx out of range: " + fromIdx + " (size=" + series.size() + ")");
+        }
+
+        boolean holding = position != null
+                && position.quantity() != null
+                && position.quantity().signum() > 0;
+
+        if (!holding) {
+            return new Outcome(fromIdx, lastIdx, null);
+        }
+
+        TrainingAutoExitService.AutoExitHit hit =
+                TrainingAutoExitService.scanFirstHit(
+                        rule,
+                        series.opens(),
+                        series.highs(),
+                        series.lows(),
+                        fromIdx + 1,
+                        lastIdx
+                );
+
+        ExitFill exit = hit != null
+                ? fill(series, hit.idx(), hit.reason(), hit.executedPrice(), position)
+                : fill(series, lastIdx, AutoExitReason.END_OF_CHART,
+                        BigDecimal.valueOf(series.closes()[lastIdx]), position);
+
+        return new Outcome(fromIdx, lastIdx, exit);
+    }
+
+    private static ExitFill fill(
+            ChartReplayStateCache.CandleSeries series,
+            int idx,
+            AutoExitReason reason,
+            BigDecimal price,
+            ChartReplayStateCache.PositionSnapshot position
+    ) {
+        BigDecimal qty = position.quantity();
+        BigDecimal avgPrice = position.avgPrice() == null ? BigDecimal.ZERO : position.avgPrice();
+
+        BigDecimal proceeds;
+        BigDecimal realizedPnl;
+        try {
+            // long 고정소수점 (scale 10 금액, 반올림 없음)
+            long p = FixedPoint.priceTicks(price);
+            long q = FixedPoint.qtyMicros(qty);
+            proceeds = FixedPoint.toAmount(FixedPoint.amount(p, q));
+            realizedPnl = FixedPoint.toAmount(
+                    FixedPoint.amount(Math.subtractExact(p, FixedPoint.priceTicks(avgPrice)), q));
+        } catch (ArithmeticException e) {
+            // tick/micro로 표현되지 않는 값 -> BigDecimal (결과 값은 같다)
+            proceeds = price.multiply(qty);
+            realizedPnl = price.subtract(avgPrice).multiply(qty);
+        }
+
+        return new ExitFill(
+                idx,
+                reason,
+                price,
+                series.times()[idx],
+                qty,
+                proceeds,
+                realizedPnl
+        );
+    }
+}
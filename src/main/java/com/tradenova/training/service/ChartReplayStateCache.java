@@ -0,0 +1,373 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.cache.LruMaps;
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.paper.entity.PaperAccount;
+import com.tradenova.paper.entity.PaperPosition;
+import com.tradenova.training.entity.TrainingChartStatus;
+import com.tradenova.training.entity.TrainingRiskRule;
+import com.tradenova.training.entity.TrainingSessionCandle;
+import com.tradenova.training.entity.TrainingSessionChart;
+import com.tradenova.training.entity.TrainingStatus;
+import com.tradenova.training.repository.TrainingRiskRuleHistoryRepository;
+import com.tradenova.training.repository.TrainingRiskRuleRepository;
+import com.tradenova.training.repository.TrainingSessionCandleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 차트 리플레이 상태 캐시 (프로세스 메모리)
+ *
+ * 왜 필요한가?
+ * - next 버튼 연타 / getProgress 폴링마다 chart, session, account, candle, risk rule, position을 전부 DB에서 다시 읽었다.
+ * - 세션 캔들은 생성 후 절대 바뀌지 않고, 나머지 상태는 이 서버의 쓰기 경로(advance/매매/리스크 룰)에서만 바뀐다.
+ *
+ * 보관하는 것:
+ * - CandleSeries      : 차트 전체 봉 (primitive 배열, 불변)
+ * - ChartState        : 소유자/진행 위치/상태/@Version
+ * - AccountSnapshot   : 계좌 현금 + @Version
+ * - PositionSnapshot  : (계좌, 종목) 포지션
+ * - RiskRuleSnapshot  : 손절/익절 설정
+ * - 리스크 룰 히스토리 id : 지금 캐시된 RiskRuleSnapshot이 어느 룰 버전인지
+ *
+ * 정합성 규칙:
+ * - 쓰기 경로는 트랜잭션 커밋 이후(afterCommit)에만 캐시를 갱신한다. (롤백된 값이 캐시에 남지 않게)
+ * - ChartState/AccountSnapshot은 @Version이 더 큰 값만 덮어쓴다. (커밋 콜백 순서가 뒤바뀌어도 역행하지 않게)
+ * - 읽기는 userId가 캐시된 소유자와 같을 때만 메모리에서 응답하고, 아니면 DB 경로로 보낸다.
+ * - 서버가 여러 대면 다른 서버의 쓰기는 이 캐시에 바로 보이지 않는다. 그래서 캐시 값을 쓰기 전에 DB와 대조한다.
+ *   - 리스크 룰: 쓰기 경로 시작 시 lock으로 읽은 차트의 riskHistoryId로 검증 (syncRiskRule, 추가 쿼리 없음)
+ *   - ChartState/AccountSnapshot: getProgress가 chart/account @Version을 조회해서 다르면 다시 적재
+ *   - 쓰기 경로의 차트/계좌 값은 어차피 lock을 잡고 DB에서 읽으므로 캐시를 믿지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChartReplayStateCache {
+
+    private static final int MAX_CHARTS = 10_000;
+    private static final int MAX_ACCOUNTS = 10_000;
+
+    private final TrainingSessionCandleRepository candleRepo;
+    private final TrainingRiskRuleRepository riskRepo;
+    private final TrainingRiskRuleHistoryRepository riskHistoryRepo;
+
+    // 히스토리가 없는 차트 표시 (map의 null = 캐시 미스와 구분)
+    private static final long NO_HISTORY = 0L;
+
+    /**
+     * 차트 전체 봉을 primitive 배열로 보관 (idx = 배열 index)
+     * - 봉 하나당 객체/BigDecimal을 만들지 않아서 구간 스캔이 빠르다.
+     */
+    public record CandleSeries(
+            long[] times,
+            double[] opens,
+            double[] highs,
+            double[] lows,
+            double[] closes,
+            double[] volumes
+    ) {
+        public int size() {
+            return closes.length;
+        }
+
+        /** 기존 코드(엔티티 기반)와 연결할 때만 쓰는 분리된(비영속) 캔들 */
+        public TrainingSessionCandle candleAt(Long chartId, int idx) {
+            return TrainingSessionCandle.builder()
+                    .chartId(chartId)
+                    .idx(idx)
+                    .t(times[idx])
+                    .o(opens[idx])
+                    .h(highs[idx])
+                    .l(lows[idx])
+                    .c(closes[idx])
+                    .v(volumes[idx])
+                    .build();
+        }
+
+        static CandleSeries of(List<TrainingSessionCandle> rows) {
+            int n = rows.size();
+            long[] t = new long[n];
+            double[] o = new double[n];
+            double[] h = new double[n];
+            double[] l = new double[n];
+            double[] c = new double[n];
+            double[] v = new double[n];
+            for (int i = 0; i < n; i++) {
+                TrainingSessionCandle row = rows.get(i);
+                // idx가 0..n-1 로 빈틈없이 이어져야 배열 index로 바로 접근할 수 있다
+                if (row.getIdx() == null || row.getIdx() != i) {
+                    throw new CustomException(ErrorCode.CANDLES_EMPTY);
+                }
+                t[i] = row.getT();
+                o[i] = row.getO();
+                h[i] = row.getH();
+                l[i] = row.getL();
+                c[i] = row.getC();
+                v[i] = row.getV();
+            }
+            return new CandleSeries(t, o, h, l, c, v);
+        }
+    }
+
+    /** 차트 진행 상태 (소유권 + @Version 포함) */
+    public record ChartState(
+            Long chartId,
+            Long version,
+            Long userId,
+            Long accountId,
+            Long symbolId,
+            int bars,
+            int progressIndex,
+            TrainingChartStatus chartStatus,
+            TrainingStatus sessionStatus
+    ) {}
+
+    /** 계좌 현금 스냅샷 */
+    public record AccountSnapshot(Long accountId, Long version, BigDecimal cashBalance) {
+
+        public static AccountSnapshot of(PaperAccount account) {
+            return new AccountSnapshot(account.getId(), account.getVersion(), account.getCashBalance());
+        }
+    }
+
+    /** (계좌, 종목) 포지션 스냅샷 - 포지션이 없으면 EMPTY */
+    public record PositionSnapshot(BigDecimal quantity, BigDecimal avgPrice) {
+        public static final PositionSnapshot EMPTY = new PositionSnapshot(BigDecimal.ZERO, BigDecimal.ZERO);
+
+        public static PositionSnapshot of(PaperPosition position) {
+            if (position == null
+                    || position.getQuantity() == null
+                    || position.getQuantity().compareTo(BigDecimal.ZERO) <= 0) {
+                return EMPTY;
+            }
+            return new PositionSnapshot(
+                    position.getQuantity(),
+                    position.getAvgPrice() == null ? BigDecimal.ZERO : position.getAvgPrice()
+            );
+        }
+    }
+
+    /** 손절/익절 설정 스냅샷 - 룰이 없으면 NONE(비활성) */
+    public record RiskRuleSnapshot(boolean enabled, BigDecimal stopLossPrice, BigDecimal takeProfitPrice) {
+        public static final RiskRuleSnapshot NONE = new RiskRuleSnapshot(false, null, null);
+
+        public static RiskRuleSnapshot of(TrainingRiskRule rule) {
+            return rule == null
+                    ? NONE
+                    : new RiskRuleSnapshot(rule.isEnabled(), rule.getStopLossPrice(), rule.getTakeProfitPrice());
+        }
+    }
+
+    private record PositionKey(Long accountId, Long symbolId) {}
+
+    private final Map<Long, CandleSeries> series = LruMaps.lru(256, MAX_CHARTS);
+    private final Map<Long, RiskRuleSnapshot> rules = LruMaps.lru(256, MAX_CHARTS);
+    private final Map<Long, Long> riskHistoryIds = LruMaps.lru(256, MAX_CHARTS);
+    private final Map<Long, ChartState> charts = LruMaps.lru(256, MAX_CHARTS);
+    private final Map<Long, AccountSnapshot> accounts = LruMaps.lru(256, MAX_ACCOUNTS);
+    private final Map<PositionKey, PositionSnapshot> positions = LruMaps.lru(256, MAX_ACCOUNTS * 4);
+
+    // ===== candle series =====
+
+    /**
+     * 차트 전체 봉 조회 (없으면 DB에서 1번 읽고 캐시)
+     */
+    public CandleSeries series(Long chartId) {
+        CandleSeries cached;
+        synchronized (series) {
+            cached = series.get(chartId);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        // DB 조회는 락 밖에서 (같은 차트를 동시에 읽어도 결과가 같으므로 중복 적재는 무해)
+        List<TrainingSessionCandle> rows = candleRepo.findAllByChartIdOrderByIdxAsc(chartId);
+        if (rows.isEmpty()) {
+            throw new CustomException(ErrorCode.CANDLES_EMPTY);
+        }
+        CandleSeries loaded = CandleSeries.of(rows);
+
+        synchronized (series) {
+            series.put(chartId, loaded);
+        }
+        return loaded;
+    }
+
+    // ===== risk rule =====
+
+    /**
+     * 리스크 룰 스냅샷 조회 (없으면 DB에서 1번 읽고 캐시)
+     */
+    public RiskRuleSnapshot riskRule(Long chartId) {
+        RiskRuleSnapshot cached;
+        synchronized (rules) {
+            cached = rules.get(chartId);
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        RiskRuleSnapshot loaded = RiskRuleSnapshot.of(riskRepo.findByChartId(chartId).orElse(null));
+        synchronized (rules) {
+            rules.putIfAbsent(chartId, loaded);
+            return rules.get(chartId);
+        }
+    }
+
+    public void putRiskRule(Long chartId, RiskRuleSnapshot rule) {
+        synchronized (rules) {
+            rules.put(chartId, rule);
+        }
+    }
+
+    // ===== risk rule version =====
+
+    /**
+     * 쓰기 경로(advance / run-to-end / 매매) 시작 시 호출: 캐시된 리스크 룰을 차트 row와 대조
+     * - 룰 저장은 차트 쓰기 lock 안에서 차트의 riskHistoryId를 새 히스토리 id로 바꾼다. 이 값이 곧 룰의 버전이다.
+     * - 호출부가 lock으로 읽은 차트 값을 쓰므로 다른 서버가 바꾼 룰도 보이고, 추가 쿼리가 없다.
+     * - 캐시가 기억하는 id와 다르면(다른 서버가 룰을 수정했거나 LRU에서 밀려남)
+     *   룰 스냅샷을 버리고 다음 riskRule() 호출에서 DB 값을 다시 읽는다.
+     * - 컬럼 추가 전 차트(riskHistoryId == null)만 최신 히스토리 id를 1번 조회해서 차트에 채운다.
+     *
+     * @param chart 차트 쓰기 lock으로 읽은 (영속) 차트
+     * @return 최신 히스토리 id (매매 기록에 찍는 값, 없으면 null)
+     */
+    public Long syncRiskRule(TrainingSessionChart chart) {
+        Long chartId = chart.getId();
+        Long stored = chart.getRiskHistoryId();
+        if (stored == null) {
+            Long latest = riskHistoryRepo.findLatestIdByChartId(chartId);
+            stored = latest == null ? NO_HISTORY : latest;
+            chart.updateRiskHistoryId(stored);
+        }
+        long version = stored;
+
+        Long cached;
+        synchronized (riskHistoryIds) {
+            cached = riskHistoryIds.get(chartId);
+        }
+        if (cached == null || cached != version) {
+            synchronized (rules) {
+                rules.remove(chartId);
+            }
+            synchronized (riskHistoryIds) {
+                riskHistoryIds.put(chartId, version);
+            }
+        }
+        return version == NO_HISTORY ? null : version;
+    }
+
+    /**
+     * 리스크 룰 저장 시 호출
+     * - 트랜잭션 안에서는 바로 비우고, 커밋 후 새 id를 넣는다.
+     *   (이 서버가 쓴 룰은 다음 syncRiskRule()에서 다시 읽지 않도록)
+     */
+    public void updateLatestRiskHistoryId(Long chartId, Long historyId) {
+        synchronized (riskHistoryIds) {
+            riskHistoryIds.remove(chartId);
+        }
+        afterCommit(() -> {
+            synchronized (riskHistoryIds) {
+                riskHistoryIds.put(chartId, historyId);
+            }
+        });
+    }
+
+    // ===== chart state =====
+
+    public ChartState chart(Long chartId) {
+        synchronized (charts) {
+            return charts.get(chartId);
+        }
+    }
+
+    /**
+     * @Version이 같거나 더 새로운 값만 반영한다.
+     */
+    public void putChart(ChartState state) {
+        synchronized (charts) {
+            ChartState old = charts.get(state.chartId());
+            if (isNewer(state.version(), old == null ? null : old.version())) {
+                charts.put(state.chartId(), state);
+            }
+        }
+    }
+
+    public void evictChart(Long chartId) {
+        synchronized (charts) {
+            charts.remove(chartId);
+        }
+    }
+
+    // ===== account / position =====
+
+    public AccountSnapshot account(Long accountId) {
+        synchronized (accounts) {
+            return accounts.get(accountId);
+        }
+    }
+
+    public PositionSnapshot position(Long accountId, Long symbolId) {
+        synchronized (accounts) {
+            return positions.get(new PositionKey(accountId, symbolId));
+        }
+    }
+
+    /**
+     * 계좌 현금 + 해당 종목 포지션을 함께 반영한다.
+     * - 매매는 항상 계좌 현금을 바꾸므로(@Version 증가) 계좌 버전으로 포지션 순서도 같이 보장한다.
+     */
+    public void putAccountState(AccountSnapshot account, Long symbolId, PositionSnapshot position) {
+        synchronized (accounts) {
+            AccountSnapshot old = accounts.get(account.accountId());
+            if (!isNewer(account.version(), old == null ? null : old.version())) {
+                return;
+            }
+            accounts.put(account.accountId(), account);
+            positions.put(new PositionKey(account.accountId(), symbolId), position);
+        }
+    }
+
+    /**
+     * 계좌 리셋 등 포지션이 여러 개 한꺼번에 바뀌는 경우 계좌 단위로 비운다.
+     */
+    public void evictAccount(Long accountId) {
+        synchronized (accounts) {
+            accounts.remove(accountId);
+            positions.keySet().removeIf(k -> k.accountId().equals(accountId));
+        }
+    }
+
+    // ===== helpers =====
+
+    /**
+     * 현재 트랜잭션이 커밋된 뒤에 실행한다. (트랜잭션 밖이면 즉시 실행)
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean isNewer(Long incoming, Long current) {
+        if (current == null || incoming == null) {
+            return true;
+        }
+        return incoming >= current;
+    }
+}
@@ -0,0 +1,49 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.cache.LruMaps;
+import com.tradenova.kis.dto.CandleDto;
+import com.tradenova.symbol.dto.SymbolSector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 시드 기반 세션(같은 챌린지)의 차트 구간 캐시
+ *
+ * 목적:
+ * - 같은 (seed, bars, chartCount, sector)로 세션을 만드는 유저가 많아도
+ *   종목/기간 랜덤 추첨 + 시장 데이터 조회 + 재시도를 매번 반복하지 않는다.
+ * - 한 번 확정된 차트 구간(종목 + 봉 데이터)을 그대로 재사용한다.
+ *
+ * 주의:
+ * - 진행 상태(progressIndex 등)는 유저마다 다르므로 차트/캔들 행은 세션마다 새로 저장된다.
+ *   (배치 insert 라서 비용은 작다)
+ * - 프로세스 메모리 캐시라 재시작 시 비워지지만, 시드가 같으면 같은 결과로 다시 만들어진다.
+ */
+@Component
+public class SeededChartWindowCache {
+
+    // 시드 챌린지 1개 = 최대 4차트 * 120봉 정도라 수백 개를 들고 있어도 부담이 작다.
+    private static final int MAX_ENTRIES = 256;
+
+    /** 캐시 키: 같은 시드라도 봉 수/차트 수/섹터가 다르면 다른 챌린지다. */
+    public record Key(long seed, int bars, int chartCount, SymbolSector sector) {}
+
+    /** 확정된 차트 1개 구간: 종목 + 세션에 저장될 봉(오래된 순) */
+    public record ChartWindow(Long symbolId, List<CandleDto> candles) {}
+
+    private final Map<Key, List<ChartWindow>> windows = LruMaps.lru(64, MAX_ENTRIES);
+
+    public synchronized List<ChartWindow> get(Key key) {
+        return windows.get(key);
+    }
+
+    public synchronized void put(Key key, List<ChartWindow> value) {
+        windows.put(key, List.copyOf(value));
+    }
+
+    public synchronized void evict(Key key) {
+        windows.remove(key);
+    }
+}
@@ -1,9 +1,7 @@
 package com.tradenova.training.service;
 
 import com.tradenova.training.dto.AutoExitReason;
-import com.tradenova.training.entity.TrainingRiskRule;
 import com.tradenova.training.entity.TrainingSessionCandle;
-import com.tradenova.training.repository.TrainingRiskRuleRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,10 +12,12 @@ import java.math.BigDecimal;
 @RequiredArgsConstructor // final 필드 자동 생성자
 public class TrainingAutoExitService {
 
-    // TrainingRiskRule 데이터를 DB에서 조회하기 위한 Repository.
-    // final이므로 객체 생성 이후 다른 Repository로 변경할 수 없다.
+    // 리스크 룰 스냅샷 캐시.
+    // 봉마다 DB를 다시 조회하지 않도록 차트별 룰을 메모리에서 꺼내 쓴다.
+    // (룰이 바뀌면 TrainingRiskRuleService가 커밋 후 캐시를 갱신한다)
+    // final이므로 객체 생성 이후 다른 객체로 변경할 수 없다.
     // @RequiredArgsConstructor 덕분에 Spring이 생성자를 통해 자동으로 주입한다.
-    private final TrainingRiskRuleRepository riskRepo;
+    private final ChartReplayStateCache replayCache;
 
     // record:
     // 데이터를 담아 전달하기 위한 간단한 클래스를 만들 때 사용하는 Java 문법.
@@ -34,6 +34,107 @@ public class TrainingAutoExitService {
             BigDecimal executedPrice
     ) {}
 
+    // 구간 스캔(scanFirstHit) 결과.
+    //
+    // idx           : 처음으로 손절/익절 조건을 만족한 봉 index
+    // reason        : STOP_LOSS 또는 TAKE_PROFIT
+    // executedPrice : 갭 규칙까지 반영한 실제 체결 가격
+    public record AutoExitHit(
+            int idx,
+            AutoExitReason reason,
+            BigDecimal executedPrice
+    ) {}
+
+    /**
+     * [fromIdx, toIdx] 구간에서 처음으로 손절/익절 조건을 만족하는 봉을 찾는다.
+     *
+     * checkAndAutoExit를 봉마다 호출하는 대신:
+     * - 리스크 룰은 구간 전체에 대해 1번만 가져오고
+     * - 봉 데이터는 캐시된 primitive 배열(open/high/low)을 그대로 훑는다.
+     * - 봉마다 BigDecimal 4개를 만들던 비용이 없어지고, BigDecimal은 실제로 청산될 때만 만든다.
+     *
+     * 정책은 checkAndAutoExit와 같다. (손절 우선, 갭 시 open 체결)
+     *
+     * @return 조건을 만족한 첫 봉 / 없으면 null
+     */
+    @Transactional(readOnly = true)
+    public AutoExitHit scanFirstHit(
+            Long chartId,
+            ChartReplayStateCache.CandleSeries series,
+            int fromIdx,
+            int toIdx
+    ) {
+        return scanFirstHit(
+                replayCache.riskRule(chartId),
+                series.opens(),
+                series.highs(),
+                series.lows(),
+                fromIdx,
+                toIdx
+        );
+    }
+
+    /**
+     * 룰 + 배열만으로 동작하는 순수 함수 버전 (DB/캐시 접근 없음)
+     */
+    static AutoExitHit scanFirstHit(
+            ChartReplayStateCache.RiskRuleSnapshot rule,
+            double[] opens,
+            double[] highs,
+            double[] lows,
+            int fromIdx,
+            int toIdx
+    ) {
+        // 룰이 없거나 꺼져 있으면 스캔할 필요가 없다
+        if (!rule.enabled()
+                || (rule.stopLossPrice() == null && rule.takeProfitPrice() == null)) {
+            return null;
+        }
+
+        boolean hasStop = rule.stopLossPrice() != null;
+        boolean hasTake = rule.takeProfitPrice() != null;
+
+        // 루프 안에서는 double 비교만 한다.
+        // 봉 데이터 자체가 double로 저장되어 있으므로 기존 BigDecimal.valueOf(double) 비교와 결과가 같다.
+        // (손절/익절가가 double로 표현되지 않는 초과 정밀도를 가진 경우만 경계에서 차이가 날 수 있다)
+        double stop = hasStop ? rule.stopLossPrice().doubleValue() : Double.NEGATIVE_INFINITY;
+        double take = hasTake ? rule.takeProfitPrice().doubleValue() : Double.POSITIVE_INFINITY;
+
+        for (int i = fromIdx; i <= toIdx; i++) {
+
+            // 손절 우선 (한 봉에서 둘 다 충족해도 손절)
+            if (hasStop && lows[i] <= stop) {
+                return new AutoExitHit(i, AutoExitReason.STOP_LOSS,
+                        fillOnDrop(opens[i], stop, rule.stopLossPrice()));
+            }
+
+            if (hasTake && highs[i] >= take) {
+                return new AutoExitHit(i, AutoExitReason.TAKE_PROFIT,
+                        fillOnRise(opens[i], take, rule.takeProfitPrice()));
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 하락 방향 발동가(손절 / 지정가 매수 / 스톱 매도) 체결가
+     * - 발동가 아래로 갭 하락 -> 시가 체결
+     * - 장중 발동가 터치 -> 발동가 체결
+     */
+    static BigDecimal fillOnDrop(double open, double level, BigDecimal levelPrice) {
+        return open <= level ? BigDecimal.valueOf(open) : levelPrice;
+    }
+
+    /**
+     * 상승 방향 발동가(익절 / 지정가 매도 / 스톱 매수) 체결가
+     * - 발동가 위로 갭 상승 -> 시가 체결
+     * - 장중 발동가 터치 -> 발동가 체결
+     */
+    static BigDecimal fillOnRise(double open, double level, BigDecimal levelPrice) {
+        return open >= level ? BigDecimal.valueOf(open) : levelPrice;
+    }
+
     /**
      * 특정 봉에서 자동청산 조건을 검사한다.
      *
@@ -50,7 +151,7 @@ public class TrainingAutoExitService {
     //
     // readOnly = true:
     // 이 메서드는 DB 데이터를 조회만 하고 수정하지 않는다는 의미다.
-    // 여기서는 riskRepo.findByChartId()로 리스크 룰만 조회하므로 readOnly가 적절하다.
+    // 여기서는 리스크 룰만 조회(캐시 미스 시 DB)하므로 readOnly가 적절하다.
     @Transactional(readOnly = true)
     public AutoExitResult checkAndAutoExit(
             Long chartId,                   // 자동청산 차트 ID
@@ -76,33 +177,19 @@ public class TrainingAutoExitService {
         // 현재 봉의 종가(Close)를 BigDecimal로 변환한다.
         BigDecimal close = BigDecimal.valueOf(candle.getC());
 
-        // chartId에 해당하는 리스크 룰을 DB에서 조회한다.
+        // chartId에 해당하는 리스크 룰 스냅샷을 캐시에서 가져온다.
         //
-        // findByChartId(chartId)의 반환값은 Optional<TrainingRiskRule>이다.
-        //
-        // Optional은 "값이 있을 수도 있고 없을 수도 있음"을 표현하는 객체다.
-        //
-        // .orElse(null):
-        // Optional 안에 값이 있으면 그 값을 반환하고,
-        // 값이 없으면 null을 반환한다.
-        //
-        // 따라서 최종적으로:
-        // 리스크 룰이 존재 -> rule에 TrainingRiskRule 객체 저장
-        // 리스크 룰이 없음 -> rule에 null 저장
-        TrainingRiskRule rule = riskRepo.findByChartId(chartId)
-                .orElse(null);
+        // 캐시에 없으면 한 번만 DB에서 조회해서 올려둔다.
+        // 리스크 룰이 없으면 NONE(비활성) 스냅샷이 반환되므로 null 체크가 필요 없다.
+        ChartReplayStateCache.RiskRuleSnapshot rule = replayCache.riskRule(chartId);
 
-        // 리스크 룰이 존재하지 않거나,
         // 리스크 룰의 자동청산 기능이 비활성화되어 있다면
         // 자동청산 검사를 할 필요가 없다.
         //
-        // || 는 OR(또는) 연산자다.
-        // 둘 중 하나라도 true이면 전체 조건이 true가 된다.
-        //
         // ! 는 boolean 값을 반대로 뒤집는다.
-        // rule.isEnabled() == true라면
-        // !rule.isEnabled() == false가 된다.
-        if (rule == null || !rule.isEnabled()) {
+        // rule.enabled() == true라면
+        // !rule.enabled() == false가 된다.
+        if (!rule.enabled()) {
 
             // 자동청산이 발생하지 않았다는 결과를 반환한다.
             //
@@ -125,7 +212,7 @@ public class TrainingAutoExitService {
         // 따라서 보수적으로 손절이 먼저 발생했다고 처리한다.
         if (
                 // 손절 가격이 설정되어 있는지 확인한다. NULL이면 사용자가 손절가를 설정하지 않았다는 뜻.
-                rule.getStopLossPrice() != null &&
+                rule.stopLossPrice() != null &&
                         // 현재 봉의 저가(low)가 손절가보다 작거나 같은지 검사한다.
                         //
                         // BigDecimal은 <, > 같은 연산자로 직접 크기 비교를 하지 않고
@@ -143,14 +230,14 @@ public class TrainingAutoExitService {
                         // low <= stopLossPrice
                         //
                         // 라는 의미다.
-                low.compareTo(rule.getStopLossPrice()) <= 0) {
+                low.compareTo(rule.stopLossPrice()) <= 0) {
             // 실제로 어느 가격에 손절 체결할지를 결정한다.
             BigDecimal executedPrice =
                     // 현재 봉의 시가(open)가 손절가보다 작거나 같은지 검사한다.
                     //
                     // 즉 이미 손절가 아래에서 장이 시작된
                     // "갭 하락" 상황인지 확인한다.
-                    open.compareTo(rule.getStopLossPrice()) <= 0
+                    open.compareTo(rule.stopLossPrice()) <= 0
                             // ? : 는 삼항 연산자다.
                             //
                             // 조건 ? 참일 때 값 : 거짓일 때 값
@@ -163,7 +250,7 @@ public class TrainingAutoExitService {
                             // 봉이 진행되는 도중 손절가까지 하락했다고 판단한다.
                             //
                             // 따라서 사용자가 설정한 손절가에 체결한다.
-                            : rule.getStopLossPrice();
+                            : rule.stopLossPrice();
 
             // 손절 자동청산 결과를 즉시 반환한다.
             //
@@ -180,7 +267,7 @@ public class TrainingAutoExitService {
         // 익절 조건을 검사한다.
         if (
             // 사용자가 익절 가격을 설정했는지 확인한다.
-                rule.getTakeProfitPrice() != null &&
+                rule.takeProfitPrice() != null &&
 
                         // 현재 봉의 고가(high)가 익절가 이상인지 검사한다.
                         //
@@ -188,7 +275,7 @@ public class TrainingAutoExitService {
                         // high >= takeProfitPrice라는 뜻이다.
                         //
                         // 즉 현재 봉이 진행되는 동안 익절 가격에 도달했는지 확인한다.
-                        high.compareTo(rule.getTakeProfitPrice()) >= 0
+                        high.compareTo(rule.takeProfitPrice()) >= 0
         ) {
 
             // 실제 익절 체결 가격을 결정한다.
@@ -199,14 +286,14 @@ public class TrainingAutoExitService {
                     // open >= takeProfitPrice
                     //
                     // 라면 익절가 위에서 갭 상승하여 봉이 시작된 것이다.
-                    open.compareTo(rule.getTakeProfitPrice()) >= 0
+                    open.compareTo(rule.takeProfitPrice()) >= 0
 
                             // 갭 상승한 경우 실제 시가(open)에 체결된 것으로 처리한다.
                             ? open
 
                             // 일반적인 경우 봉 진행 중 익절가에 도달했다고 보고
                             // 설정한 익절 가격에 체결한다.
-                            : rule.getTakeProfitPrice();
+                            : rule.takeProfitPrice();
 
 
             // 익절 자동청산 결과를 반환한다.
@@ -0,0 +1,250 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.money.FixedPoint;
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingChartLedger;
+import com.tradenova.training.entity.TrainingSessionChart;
+import com.tradenova.training.entity.TrainingTrade;
+import com.tradenova.training.repository.TrainingChartLedgerRepository;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import com.tradenova.training.repository.TrainingTradeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 차트별 손익 장부(TrainingChartLedger) 갱신/조회
+ *
+ * 갱신 시점:
+ * - 매매: TrainingTradeService가 거래를 저장한 같은 트랜잭션에서 apply/applyAll
+ * - 봉 공개: advance/run-to-end가 보유 중 공개된 봉으로 observe (MAE 갱신)
+ *
+ * 두 경로 모두 차트 쓰기 lock 아래에서만 호출되므로 행 단위 lock/@Version은 따로 두지 않는다.
+ *
+ * 장부가 없거나(기존 차트) 거래 기록과 어긋나면 rebuild로 거래 기록에서 다시 만든다.
+ * 완료된 차트는 TrainingChartLedgerVerifyJob이 주기적으로 verify를 돌려 대조한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrainingChartLedgerService {
+
+    private final TrainingChartLedgerRepository ledgerRepo;
+    private final TrainingTradeRepository tradeRepo;
+    private final TrainingSessionChartRepository chartRepo;
+
+    // 봉 시리즈 (rebuild 시 MAE 재계산용)
+    private final ChartReplayStateCache replayCache;
+
+    /**
+     * 거래 1건 반영 (거래 저장 직후, 같은 트랜잭션)
+     */
+    public void apply(Long chartId, Long accountId, TrainingTrade trade) {
+        TrainingChartLedger ledger = loadOrCreate(chartId, accountId);
+        applyTrade(ledger, trade);
+        ledgerRepo.save(ledger);
+    }
+
+    /**
+     * 일괄 매매 반영 (저장 순서 그대로)
+     */
+    public void applyAll(Long chartId, Long accountId, List<TrainingTrade> trades) {
+        if (trades == null || trades.isEmpty()) {
+            return;
+        }
+        TrainingChartLedger ledger = loadOrCreate(chartId, accountId);
+        for (TrainingTrade trade : trades) {
+            applyTrade(ledger, trade);
+        }
+        ledgerRepo.save(ledger);
+    }
+
+    /**
+     * 공개된 봉 [fromIdx, toIdx] 동안 현재 포지션을 들고 있었을 때의 MAE 갱신
+     * - 같은 구간의 청산/체결보다 먼저 호출한다. (체결 봉까지는 체결 전 포지션으로 평가)
+     * - 포지션이 없으면 장부 조회 1번으로 끝난다.
+     */
+    public void observe(Long chartId, ChartReplayStateCache.CandleSeries series, int fromIdx, int toIdx) {
+        if (fromIdx > toIdx) {
+            return;
+        }
+        TrainingChartLedger ledger = ledgerRepo.findById(chartId).orElse(null);
+        if (ledger == null || !ledger.holding()) {
+            return;
+        }
+        if (observeLows(ledger, series.lows(), fromIdx, toIdx)) {
+            ledgerRepo.save(ledger);
+        }
+    }
+
+    /**
+     * 장부 기준 최종 손익 (실현 + 미실현, HALF_UP scale 4)
+     * - 현재가는 포지션이 남아 있을 때만 조회한다.
+     * - finalPnLDecimal(거래 재생)과 같은 값
+     */
+    public static BigDecimal totalPnL(TrainingChartLedger ledger, DoubleSupplier currentClose) {
+        BigDecimal total = ledger.getRealizedPnl();
+        if (ledger.holding()) {
+            BigDecimal mark = BigDecimal.valueOf(currentClose.getAsDouble());
+            total = total.add(mark.subtract(ledger.getAvgPrice()).multiply(ledger.getPositionQty()));
+        }
+        return total.setScale(FixedPoint.PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 거래 기록과 대조해서 어긋나면 다시 만든다.
+     *
+     * @return 장부가 없거나 달라서 다시 썼으면 true
+     */
+    @Transactional
+    public boolean verify(Long chartId) {
+        TrainingSessionChart chart = chartRepo.findById(chartId).orElse(null);
+        if (chart == null) {
+            return false;
+        }
+
+        TrainingChartLedger stored = ledgerRepo.findById(chartId).orElse(null);
+        List<TrainingTrade> trades = tradeRepo.findAllByChartIdOrderByIdAsc(chartId);
+        if (stored == null && trades.isEmpty()) {
+            return false;
+        }
+
+        TrainingChartLedger expected = replay(chart, trades);
+        if (stored != null && sameValues(stored, expected)) {
+            return false;
+        }
+
+        log.warn("chart ledger mismatch, rebuilt. chartId={}, stored={}, tradeCount={}",
+                chartId, stored == null ? "none" : stored.getTradeCount(), trades.size());
+        save(stored, expected);
+        return true;
+    }
+
+    /**
+     * 거래 기록(시간 순)으로 장부를 다시 만든다. (장부가 없던 기존 차트 / 대조 실패)
+     */
+    public TrainingChartLedger rebuild(TrainingSessionChart chart, List<TrainingTrade> trades) {
+        TrainingChartLedger expected = replay(chart, trades);
+        return save(ledgerRepo.findById(chart.getId()).orElse(null), expected);
+    }
+
+    // ===== 내부 =====
+
+    private TrainingChartLedger loadOrCreate(Long chartId, Long accountId) {
+        return ledgerRepo.findById(chartId)
+                .orElseGet(() -> TrainingChartLedger.empty(chartId, accountId));
+    }
+
+    private TrainingChartLedger save(TrainingChartLedger stored, TrainingChartLedger expected) {
+        if (stored == null) {
+            return ledgerRepo.save(expected);
+        }
+        stored.setRealizedPnl(expected.getRealizedPnl());
+        stored.setPositionQty(expected.getPositionQty());
+        stored.setAvgPrice(expected.getAvgPrice());
+        stored.setTradeCount(expected.getTradeCount());
+        stored.setLastTradeId(expected.getLastTradeId());
+        stored.setMaxAdverseExcursion(expected.getMaxAdverseExcursion());
+        return ledgerRepo.save(stored);
+    }
+
+    /**
+     * 거래 기록으로 장부를 처음부터 다시 계산한다. (저장하지 않음)
+     * - 봉 0..progressIndex를 순서대로 보며 "봉 평가(MAE) -> 그 봉의 거래 반영"을 반복한다.
+     *   실시간 경로와 같은 순서다. (체결 봉은 체결 전 포지션으로 평가)
+     */
+    private TrainingChartLedger replay(TrainingSessionChart chart, List<TrainingTrade> trades) {
+        Long accountId = trades.isEmpty()
+                ? chart.getSession().getAccount().getId()
+                : trades.get(0).getAccountId();
+        TrainingChartLedger ledger = TrainingChartLedger.empty(chart.getId(), accountId);
+
+        int t = 0;
+        if (!trades.isEmpty()) {
+            ChartReplayStateCache.CandleSeries series = replayCache.series(chart.getId());
+            long[] times = series.times();
+            int progress = chart.getProgressIndex() == null ? 0 : chart.getProgressIndex();
+            int last = Math.min(progress, series.size() - 1);
+
+            for (int idx = 0; idx <= last; idx++) {
+                if (ledger.holding()) {
+                    observeLows(ledger, series.lows(), idx, idx);
+                }
+                while (t < trades.size()
+                        && (trades.get(t).getCandleTime() == null || trades.get(t).getCandleTime() <= times[idx])) {
+                    applyTrade(ledger, trades.get(t++));
+                }
+            }
+        }
+        // 진행 위치 뒤의 거래는 있을 수 없지만, 있으면 손익만이라도 반영
+        while (t < trades.size()) {
+            applyTrade(ledger, trades.get(t++));
+        }
+        return ledger;
+    }
+
+    static void applyTrade(TrainingChartLedger ledger, TrainingTrade trade) {
+        BigDecimal qty = trade.getQty();
+        BigDecimal price = trade.getPrice();
+
+        if (trade.getSide() == TradeSide.BUY) {
+            BigDecimal newQty = ledger.getPositionQty().add(qty);
+            if (newQty.signum() > 0) {
+                ledger.setAvgPrice(TrainingTradeService.weightedAvgPrice(
+                        ledger.getAvgPrice(), ledger.getPositionQty(), price, qty));
+            }
+            ledger.setPositionQty(newQty);
+        } else if (trade.getSide() == TradeSide.SELL) {
+            ledger.setRealizedPnl(ledger.getRealizedPnl()
+                    .add(price.subtract(ledger.getAvgPrice()).multiply(qty)));
+            ledger.setPositionQty(ledger.getPositionQty().subtract(qty));
+            if (ledger.getPositionQty().signum() == 0) {
+                ledger.setAvgPrice(BigDecimal.ZERO);
+            }
+        }
+
+        ledger.setTradeCount(ledger.getTradeCount() + 1);
+        ledger.setLastTradeId(trade.getId());
+    }
+
+    /**
+     * 구간 최저가 기준 평가손익이 기존 MAE보다 나쁘면 갱신
+     * - 봉마다 BigDecimal을 만들지 않도록 double로 최저가만 찾는다.
+     */
+    static boolean observeLows(TrainingChartLedger ledger, double[] lows, int fromIdx, int toIdx) {
+        double minLow = Double.POSITIVE_INFINITY;
+        for (int i = fromIdx; i <= toIdx; i++) {
+            if (lows[i] < minLow) {
+                minLow = lows[i];
+            }
+        }
+        if (minLow == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+
+        BigDecimal adverse = BigDecimal.valueOf(minLow)
+                .subtract(ledger.getAvgPrice())
+                .multiply(ledger.getPositionQty())
+                .setScale(FixedPoint.AMOUNT_SCALE, RoundingMode.HALF_UP);
+
+        if (adverse.compareTo(ledger.getMaxAdverseExcursion()) < 0) {
+            ledger.setMaxAdverseExcursion(adverse);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean sameValues(TrainingChartLedger a, TrainingChartLedger b) {
+        return a.getTradeCount() == b.getTradeCount()
+                && a.getRealizedPnl().compareTo(b.getRealizedPnl()) == 0
+                && a.getPositionQty().compareTo(b.getPositionQty()) == 0
+                && a.getAvgPrice().compareTo(b.getAvgPrice()) == 0
+                && a.getMaxAdverseExcursion().compareTo(b.getMaxAdverseExcursion()) == 0;
+    }
+}
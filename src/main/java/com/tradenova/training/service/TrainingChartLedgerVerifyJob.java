@@ -0,0 +1,122 @@
+package com.tradenova.training.service;
+
+import com.tradenova.training.repository.TrainingChartLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 차트 손익 장부 대조 (배경 작업)
+ *
+ * 왜 필요한가?
+ * - 리포트의 최종 손익/MAE는 매매 시점에 갱신한 장부를 그대로 읽는다.
+ * - 장부 갱신이 빠졌거나(배포 중 예외 등) 수동으로 거래를 고친 경우 어긋난 값이 계속 리포트에 나간다.
+ *
+ * 동작:
+ * - 완료된 차트의 장부를 chart_id 순으로 chunk개씩 가져와 TrainingChartLedgerService.verify로 거래 기록과 대조한다.
+ *   (다르면 거래 기록으로 다시 만든다. 차트 1개 = 트랜잭션 1개)
+ * - 1회 실행당 max-charts-per-run개까지만 보고, 다음 실행은 이어서 본다. 끝까지 보면 처음부터 다시 돈다.
+ * - 진행 중 차트는 매매 경로와 겹치지 않도록 보지 않는다. (진행 중에는 매매마다 장부가 갱신됨)
+ *
+ * 지표: stats() (누적 실행/대조/재작성 수) + 재작성이 있었던 실행마다 info 로그
+ */
+@Slf4j
+@Component
+public class TrainingChartLedgerVerifyJob {
+
+    private final TrainingChartLedgerRepository ledgerRepository;
+    private final TrainingChartLedgerService ledgerService;
+
+    private final boolean enabled;
+    private final int chunk;
+    private final int maxChartsPerRun;
+
+    // 다음 실행이 이어서 볼 위치 (프로세스 단위, 재시작하면 처음부터)
+    private final AtomicLong cursor = new AtomicLong();
+
+    // ===== 지표 (누적) =====
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong rebuilt = new AtomicLong();
+
+    public TrainingChartLedgerVerifyJob(
+            TrainingChartLedgerRepository ledgerRepository,
+            TrainingChartLedgerService ledgerService,
+            @Value("${tradenova.ledger.verify.enabled:true}") boolean enabled,
+            @Value("${tradenova.ledger.verify.chunk:100}") int chunk,
+            @Value("${tradenova.ledger.verify.max-charts-per-run:1000}") int maxChartsPerRun
+    ) {
+        this.ledgerRepository = ledgerRepository;
+        this.ledgerService = ledgerService;
+        this.enabled = enabled;
+        this.chunk = Math.max(1, chunk);
+        this.maxChartsPerRun = Math.max(1, maxChartsPerRun);
+    }
+
+    /**
+     * 누적 지표
+     */
+    public record Stats(long runs, long verified, long rebuilt, long cursor) {
+    }
+
+    public Stats stats() {
+        return new Stats(runs.get(), verified.get(), rebuilt.get(), cursor.get());
+    }
+
+    @Scheduled(
+            initialDelayString = "${tradenova.ledger.verify.initial-delay-ms:300000}",
+            fixedDelayString = "${tradenova.ledger.verify.interval-ms:3600000}"
+    )
+    public void scheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            runOnce();
+        } catch (Exception e) {
+            // 다음 주기에 같은 위치부터 다시 본다
+            log.warn("chart ledger verify failed. cursor={}", cursor.get(), e);
+        }
+    }
+
+    /**
+     * 1회 실행 (이전 위치부터 chunk 단위로, 최대 maxChartsPerRun개)
+     *
+     * @return 이번 실행에서 다시 만든 장부 수
+     */
+    public int runOnce() {
+        int charts = 0;
+        int fixed = 0;
+
+        while (charts < maxChartsPerRun) {
+            List<Long> chartIds = ledgerRepository.findCompletedChartIdsAfter(
+                    cursor.get(), PageRequest.of(0, Math.min(chunk, maxChartsPerRun - charts)));
+            if (chartIds.isEmpty()) {
+                // 끝까지 봤으면 다음 실행은 처음부터
+                cursor.set(0L);
+                break;
+            }
+
+            for (Long chartId : chartIds) {
+                if (ledgerService.verify(chartId)) {
+                    fixed++;
+                }
+                cursor.set(chartId);
+                charts++;
+            }
+        }
+
+        runs.incrementAndGet();
+        verified.addAndGet(charts);
+        rebuilt.addAndGet(fixed);
+        if (fixed > 0) {
+            log.info("chart ledger verify. charts={}, rebuilt={}, total={}", charts, fixed, stats());
+        }
+        return fixed;
+    }
+}
@@ -0,0 +1,180 @@
+package com.tradenova.training.service;
+
+import com.tradenova.training.dto.OrderBookVersion;
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingOrder;
+import com.tradenova.training.entity.TrainingOrderType;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 차트 1개의 예약 주문장 (메모리, 가격순)
+ *
+ * 주문은 발동 방향에 따라 두 개의 TreeMap(가격 -> 접수순 큐)에 나눠 담는다.
+ * - onDrop : 가격 이하로 내려오면 발동 (지정가 매수, 스톱 매도)  -> 봉 저가 <= 가격
+ * - onRise : 가격 이상으로 올라가면 발동 (지정가 매도, 스톱 매수) -> 봉 고가 >= 가격
+ *
+ * 봉 1개 매칭은 tailMap/headMap 한 번 + 체결 건수만큼이라 O(log n + fills).
+ * 체결 정책은 손절/익절(TrainingAutoExitService)과 같다.
+ * - 발동가를 넘어 갭으로 시작하면 시가 체결, 장중 터치면 발동가 체결
+ * - 한 봉에서 양쪽이 다 발동하면 하락 방향을 먼저 처리 (손절 우선과 같은 보수적 가정)
+ * - 같은 방향 안에서는 시가에 가까운 가격부터, 같은 가격은 접수순
+ *
+ * 스레드 안전하지 않다. 캐시에 올라간 인스턴스는 읽기만 하고,
+ * 변경은 copy()한 작업본에서 한 뒤 커밋 후 통째로 교체한다. (TrainingOrderBookCache)
+ */
+public final class TrainingOrderBook {
+
+    /** 주문장에 올라간 대기 주문 (엔티티와 분리된 불변 값) */
+    public record RestingOrder(
+            Long id,
+            TradeSide side,
+            TrainingOrderType type,
+            BigDecimal price,
+            BigDecimal qty
+    ) {
+        public static RestingOrder of(TrainingOrder order) {
+            return new RestingOrder(order.getId(), order.getSide(), order.getType(), order.getPrice(), order.getQty());
+        }
+
+        /** 지정가 매수 / 스톱 매도 -> 하락 방향 발동 */
+        public boolean triggersOnDrop() {
+            return TrainingOrderBook.triggersOnDrop(side, type);
+        }
+    }
+
+    /** 봉 1개에서 발동한 주문 + 체결가 */
+    public record Fill(RestingOrder order, BigDecimal price) {}
+
+    private final TreeMap<Double, ArrayDeque<RestingOrder>> onDrop = new TreeMap<>();
+    private final TreeMap<Double, ArrayDeque<RestingOrder>> onRise = new TreeMap<>();
+    private final Map<Long, RestingOrder> byId = new HashMap<>();
+
+    public static boolean triggersOnDrop(TradeSide side, TrainingOrderType type) {
+        return (side == TradeSide.BUY) == (type == TrainingOrderType.LIMIT);
+    }
+
+    public static TrainingOrderBook of(List<TrainingOrder> openOrders) {
+        TrainingOrderBook book = new TrainingOrderBook();
+        for (TrainingOrder order : openOrders) {
+            book.add(RestingOrder.of(order));
+        }
+        return book;
+    }
+
+    public void add(RestingOrder order) {
+        byId.put(order.id(), order);
+        side(order).computeIfAbsent(order.price().doubleValue(), k -> new ArrayDeque<>()).addLast(order);
+    }
+
+    public boolean remove(Long orderId) {
+        RestingOrder order = byId.remove(orderId);
+        if (order == null) {
+            return false;
+        }
+        TreeMap<Double, ArrayDeque<RestingOrder>> side = side(order);
+        double key = order.price().doubleValue();
+        ArrayDeque<RestingOrder> level = side.get(key);
+        level.remove(order);
+        if (level.isEmpty()) {
+            side.remove(key);
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * DB의 OPEN 주문과 같은 집합인지 (개수 + 최대 id 비교)
+     */
+    public boolean matches(OrderBookVersion version) {
+        if (version.openCount() == null || version.openCount() != byId.size()) {
+            return false;
+        }
+        Long maxId = byId.keySet().stream().max(Long::compare).orElse(null);
+        return Objects.equals(maxId, version.maxOpenId());
+    }
+
+    /**
+     * 이 봉에서 발동하는 주문이 하나라도 있는지 (O(log n))
+     */
+    public boolean touches(double high, double low) {
+        return (!onDrop.isEmpty() && low <= onDrop.lastKey())
+                || (!onRise.isEmpty() && high >= onRise.firstKey());
+    }
+
+    /**
+     * [fromIdx, toIdx]에서 주문이 처음 발동하는 봉 / 없으면 -1
+     * - 주문장은 구간 동안 바뀌지 않으므로 양쪽 경계값만 잡고 primitive 배열을 훑는다.
+     */
+    public int firstTouch(ChartReplayStateCache.CandleSeries series, int fromIdx, int toIdx) {
+        if (isEmpty()) {
+            return -1;
+        }
+        double dropMax = onDrop.isEmpty() ? Double.NEGATIVE_INFINITY : onDrop.lastKey();
+        double riseMin = onRise.isEmpty() ? Double.POSITIVE_INFINITY : onRise.firstKey();
+        double[] highs = series.highs();
+        double[] lows = series.lows();
+        for (int i = fromIdx; i <= toIdx; i++) {
+            if (lows[i] <= dropMax || highs[i] >= riseMin) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 봉 1개와 매칭해서 발동한 주문을 주문장에서 빼고 체결 순서대로 돌려준다.
+     */
+    public List<Fill> match(double open, double high, double low) {
+        List<Fill> fills = new ArrayList<>();
+
+        // 하락 방향: 저가 이상 가격 전부, 높은 가격(시가에 가까운 쪽)부터
+        NavigableMap<Double, ArrayDeque<RestingOrder>> dropped = onDrop.tailMap(low, true).descendingMap();
+        for (Map.Entry<Double, ArrayDeque<RestingOrder>> level : dropped.entrySet()) {
+            for (RestingOrder order : level.getValue()) {
+                fills.add(new Fill(order, TrainingAutoExitService.fillOnDrop(open, level.getKey(), order.price())));
+                byId.remove(order.id());
+            }
+        }
+        dropped.clear();
+
+        // 상승 방향: 고가 이하 가격 전부, 낮은 가격부터
+        NavigableMap<Double, ArrayDeque<RestingOrder>> risen = onRise.headMap(high, true);
+        for (Map.Entry<Double, ArrayDeque<RestingOrder>> level : risen.entrySet()) {
+            for (RestingOrder order : level.getValue()) {
+                fills.add(new Fill(order, TrainingAutoExitService.fillOnRise(open, level.getKey(), order.price())));
+                byId.remove(order.id());
+            }
+        }
+        risen.clear();
+
+        return fills;
+    }
+
+    /** 작업본 (가격/접수 순서 유지) */
+    public TrainingOrderBook copy() {
+        TrainingOrderBook copy = new TrainingOrderBook();
+        onDrop.values().forEach(level -> level.forEach(copy::add));
+        onRise.values().forEach(level -> level.forEach(copy::add));
+        return copy;
+    }
+
+    private TreeMap<Double, ArrayDeque<RestingOrder>> side(RestingOrder order) {
+        return order.triggersOnDrop() ? onDrop : onRise;
+    }
+}
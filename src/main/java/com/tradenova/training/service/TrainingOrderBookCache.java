@@ -0,0 +1,94 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.cache.LruMaps;
+import com.tradenova.training.dto.OrderBookVersion;
+import com.tradenova.training.entity.TrainingOrderStatus;
+import com.tradenova.training.repository.TrainingOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 차트별 예약 주문장 캐시 (프로세스 메모리)
+ *
+ * - 미스일 때만 OPEN 주문을 DB에서 읽어 주문장을 만든다. (주문이 없는 차트는 빈 주문장으로 캐시)
+ * - 서버가 여러 대면 다른 서버의 주문 등록/취소/체결이 이 캐시에 보이지 않는다.
+ *   그래서 꺼낼 때마다 OPEN 주문 수 + 최대 id(인덱스 범위 조회 1번)로 DB와 대조하고, 다르면 다시 적재한다.
+ * - 캐시에 있는 주문장은 읽기 전용이다. 쓰기 경로(주문 등록/취소/advance 매칭)는
+ *   workingCopy()로 작업본을 만들어 바꾸고, replace()로 커밋 후 교체한다.
+ * - 쓰기 경로는 모두 차트 쓰기 lock 아래에서 실행되므로 같은 차트의 작업본이 동시에 두 개 생기지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TrainingOrderBookCache {
+
+    private static final int MAX_CHARTS = 10_000;
+
+    private final TrainingOrderRepository orderRepo;
+
+    private final Map<Long, TrainingOrderBook> books = LruMaps.lru(256, MAX_CHARTS);
+
+    /**
+     * 읽기 전용 주문장 (수정 금지), DB의 OPEN 주문과 대조한 값
+     * - 차트 쓰기 lock 안에서 부르면 돌려준 주문장이 lock이 끝날 때까지 DB와 같다.
+     *   (lock 밖 호출(재생 중 체크포인트 판단)은 힌트로만 쓴다)
+     */
+    public TrainingOrderBook book(Long chartId) {
+        OrderBookVersion version = orderRepo.findOpenVersionByChartId(chartId);
+
+        TrainingOrderBook cached;
+        synchronized (books) {
+            cached = books.get(chartId);
+        }
+        if (cached != null && cached.matches(version)) {
+            return cached;
+        }
+
+        // 미스 또는 다른 서버에서 바뀜 -> 다시 적재 (OPEN 주문이 없으면 행을 읽지 않는다)
+        TrainingOrderBook loaded = version.openCount() == null || version.openCount() == 0
+                ? new TrainingOrderBook()
+                : TrainingOrderBook.of(orderRepo.findByChartIdAndStatusOrderByIdAsc(chartId, TrainingOrderStatus.OPEN));
+        synchronized (books) {
+            books.put(chartId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 쓰기 경로용 작업본 (차트 쓰기 lock 안에서만)
+     */
+    public TrainingOrderBook workingCopy(Long chartId) {
+        return book(chartId).copy();
+    }
+
+    /**
+     * 작업본 반영
+     * - 지금은 비우고(커밋 전 조회는 DB로), 커밋 후 작업본을 넣는다. (롤백되면 다음 조회가 DB에서 다시 만든다)
+     */
+    public void replace(Long chartId, TrainingOrderBook book) {
+        synchronized (books) {
+            books.remove(chartId);
+        }
+        ChartReplayStateCache.afterCommit(() -> {
+            synchronized (books) {
+                books.put(chartId, book);
+            }
+        });
+    }
+
+    /**
+     * 주문장 제거 (차트 종료 등)
+     * - 커밋 전 조회가 옛 주문장을 보지 않게 지금 비우고, 커밋 후에도 한 번 더 비운다.
+     */
+    public void evict(Long chartId) {
+        synchronized (books) {
+            books.remove(chartId);
+        }
+        ChartReplayStateCache.afterCommit(() -> {
+            synchronized (books) {
+                books.remove(chartId);
+            }
+        });
+    }
+}
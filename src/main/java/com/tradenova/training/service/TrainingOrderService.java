@@ -0,0 +1,224 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.training.dto.TradeResponse;
+import com.tradenova.training.dto.TrainingOrderRequest;
+import com.tradenova.training.dto.TrainingOrderResponse;
+import com.tradenova.training.entity.*;
+import com.tradenova.training.repository.TrainingOrderRepository;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 차트 예약 주문 (지정가/스톱)
+ *
+ * - 등록/취소는 DB(training_order)와 메모리 주문장(TrainingOrderBookCache)을 같이 바꾼다.
+ * - 체결은 advance가 봉을 공개할 때 matchBar로 한다. (클라이언트가 봉마다 매매 요청을 보낼 필요 없음)
+ * - 체결 자체는 일반 매매와 같은 TrainingTradeService 경로를 타서 trade/이벤트/캐시 규칙이 같다.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrainingOrderService {
+
+    // 차트당 대기 주문 상한 (주문장은 메모리에 올라간다)
+    static final int MAX_OPEN_ORDERS = 100;
+
+    private final TrainingOrderRepository orderRepo;
+    // 목록 조회 소유권 검증용
+    private final TrainingSessionChartRepository chartRepo;
+    private final TrainingTradeService tradeService;
+    private final ChartReplayStateCache replayCache;
+    private final TrainingOrderBookCache orderBooks;
+    // 차트 쓰기 조회 (PESSIMISTIC: FOR UPDATE / OPTIMISTIC: @Version)
+    private final TrainingWriteLocks writeLocks;
+
+    /**
+     * 예약 주문 등록
+     *
+     * 가격 정책 (등록 즉시 체결되는 주문은 받지 않는다 - 그건 일반 매매):
+     * - 지정가 매수 / 스톱 매도 : 현재가보다 낮아야 함
+     * - 지정가 매도 / 스톱 매수 : 현재가보다 높아야 함
+     * 매수 현금/매도 보유 수량은 체결 시점에 검사한다. (사다리 주문: 매수 체결 후 매도 주문이 체결되도록)
+     */
+    @Transactional
+    public TrainingOrderResponse place(Long userId, Long chartId, TrainingOrderRequest req) {
+
+        TrainingSessionChart chart = lockOpenChart(userId, chartId);
+
+        BigDecimal qty = TrainingTradeService.validateStockQty(req.qty());
+
+        if (req.price() == null || req.price().signum() <= 0) {
+            throw new CustomException(ErrorCode.INVALID_ORDER_PRICE);
+        }
+
+        // 현재가 = 공개된 마지막 봉 종가
+        ChartReplayStateCache.CandleSeries series = replayCache.series(chartId);
+        int idx = Math.max(0, Math.min(
+                chart.getProgressIndex() == null ? 0 : chart.getProgressIndex(),
+                series.size() - 1));
+        BigDecimal currentPrice = BigDecimal.valueOf(series.closes()[idx]);
+
+        boolean onDrop = TrainingOrderBook.triggersOnDrop(req.side(), req.type());
+        int cmp = req.price().compareTo(currentPrice);
+        if (onDrop ? cmp >= 0 : cmp <= 0) {
+            throw new CustomException(ErrorCode.INVALID_ORDER_PRICE);
+        }
+
+        TrainingOrderBook book = orderBooks.workingCopy(chartId);
+        if (book.size() >= MAX_OPEN_ORDERS) {
+            throw new CustomException(ErrorCode.TRAINING_ORDER_LIMIT_EXCEEDED);
+        }
+
+        TrainingOrder order = orderRepo.save(
+                TrainingOrder.builder()
+                        .chartId(chartId)
+                        .accountId(chart.getSession().getAccount().getId())
+                        .side(req.side())
+                        .type(req.type())
+                        .price(req.price())
+                        .qty(qty)
+                        .status(TrainingOrderStatus.OPEN)
+                        .build()
+        );
+
+        book.add(TrainingOrderBook.RestingOrder.of(order));
+        orderBooks.replace(chartId, book);
+
+        return toResponse(order);
+    }
+
+    /**
+     * 대기 주문 취소
+     */
+    @Transactional
+    public TrainingOrderResponse cancel(Long userId, Long chartId, Long orderId) {
+
+        // 체결(advance)과 취소가 엇갈리지 않도록 차트 쓰기 lock 아래에서
+        writeLocks.chartForWrite(chartId, userId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
+
+        TrainingOrder order = orderRepo.findByIdAndChartId(orderId, chartId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_ORDER_NOT_FOUND));
+
+        if (order.getStatus() != TrainingOrderStatus.OPEN) {
+            throw new CustomException(ErrorCode.TRAINING_ORDER_NOT_OPEN);
+        }
+
+        order.setStatus(TrainingOrderStatus.CANCELED);
+
+        TrainingOrderBook book = orderBooks.workingCopy(chartId);
+        book.remove(orderId);
+        orderBooks.replace(chartId, book);
+
+        return toResponse(order);
+    }
+
+    /**
+     * 차트의 주문 목록 (최신순, 모든 상태)
+     */
+    @Transactional(readOnly = true)
+    public List<TrainingOrderResponse> list(Long userId, Long chartId) {
+
+        chartRepo.findByIdAndSession_User_Id(chartId, userId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
+
+        return orderRepo.findByChartIdOrderByIdDesc(chartId)
+                .stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * 봉 1개에서 발동한 주문을 체결한다. (advance 전용, chart lock을 쥔 트랜잭션 안)
+     *
+     * @param book advance가 들고 있는 작업본 (발동한 주문은 여기서 빠진다)
+     * @return 실제 체결된 매매 (현금/수량 부족으로 거부된 주문은 제외)
+     */
+    List<TradeResponse> matchBar(
+            Long userId,
+            TrainingSessionChart chart,
+            TrainingOrderBook book,
+            ChartReplayStateCache.CandleSeries series,
+            int idx
+    ) {
+        List<TrainingOrderBook.Fill> fills =
+                book.match(series.opens()[idx], series.highs()[idx], series.lows()[idx]);
+
+        List<TradeResponse> trades = new ArrayList<>(fills.size());
+        long candleTime = series.times()[idx];
+
+        for (TrainingOrderBook.Fill fill : fills) {
+            TrainingOrder order = orderRepo.findById(fill.order().id()).orElse(null);
+            // 캐시와 DB가 어긋난 경우(다른 서버에서 취소 등)는 건너뛴다
+            if (order == null || order.getStatus() != TrainingOrderStatus.OPEN) {
+                continue;
+            }
+
+            TradeResponse trade = tradeService.fillOrderLocked(
+                    userId,
+                    chart,
+                    order.getId(),
+                    order.getSide(),
+                    fill.price(),
+                    order.getQty(),
+                    candleTime
+            );
+
+            order.setFilledCandleTime(candleTime);
+            if (trade == null) {
+                order.setStatus(TrainingOrderStatus.REJECTED);
+                continue;
+            }
+            order.setStatus(TrainingOrderStatus.FILLED);
+            order.setFilledPrice(fill.price());
+            order.setTradeId(trade.tradeId());
+            trades.add(trade);
+        }
+        return trades;
+    }
+
+    /**
+     * 차트 종료 시 남은 대기 주문 만료 (advance 마지막 봉 / 끝까지 재생 / 세션 강제 종료)
+     * - 캐시된 주문장은 다른 서버의 변경을 모를 수 있으므로 보고 건너뛰지 않고 항상 DB에서 만료한다.
+     */
+    void expireOpenOrders(Long chartId) {
+        orderRepo.cancelOpenByChartId(chartId);
+        orderBooks.evict(chartId);
+    }
+
+    private TrainingSessionChart lockOpenChart(Long userId, Long chartId) {
+        TrainingSessionChart chart = writeLocks.chartForWrite(chartId, userId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
+
+        if (chart.getSession().getStatus() != TrainingStatus.IN_PROGRESS) {
+            throw new CustomException(ErrorCode.TRAINING_SESSION_NOT_IN_PROGRESS);
+        }
+        if (chart.getStatus() == TrainingChartStatus.COMPLETED) {
+            throw new CustomException(ErrorCode.TRAINING_CHART_ALREADY_COMPLETED);
+        }
+        return chart;
+    }
+
+    private TrainingOrderResponse toResponse(TrainingOrder o) {
+        return new TrainingOrderResponse(
+                o.getId(),
+                o.getChartId(),
+                o.getSide(),
+                o.getType(),
+                o.getPrice(),
+                o.getQty(),
+                o.getStatus(),
+                o.getFilledPrice(),
+                o.getFilledCandleTime(),
+                o.getTradeId(),
+                o.getCreatedAt()
+        );
+    }
+}
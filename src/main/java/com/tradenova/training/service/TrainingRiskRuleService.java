@@ -25,6 +25,9 @@ public class TrainingRiskRuleService {
     private final TrainingRiskRuleRepository riskRepo;
     private final TrainingRiskRuleHistoryRepository riskHistoryRepo;
     private final TrainingSessionCandleRepository candleRepo;
+    private final ChartReplayStateCache replayCache;
+    // 차트 쓰기 조회 (PESSIMISTIC: FOR UPDATE / OPTIMISTIC: @Version)
+    private final TrainingWriteLocks writeLocks;
 
     /**
      * 리스크 룰 조회
@@ -63,7 +66,7 @@ public class TrainingRiskRuleService {
     public RiskRuleResponse upsert(Long userId, Long chartId, RiskRuleUpsertRequest req) {
 
         // 1) 차트 조회 + 소유권 검증
-        TrainingSessionChart chart = chartRepo.findForUpdateByIdAndUserId(chartId, userId)
+        TrainingSessionChart chart = writeLocks.chartForWrite(chartId, userId)
                 .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
 
         // 2) 세션 상태 검증 (진행 중만 설정 가능)
@@ -115,7 +118,7 @@ public class TrainingRiskRuleService {
         TrainingRiskRule saved = riskRepo.save(rule);
 
         // 최신 row는 upsert하되, 저장 시점의 상태는 immutable history로 누적한다.
-        riskHistoryRepo.save(
+        TrainingRiskRuleHistory history = riskHistoryRepo.save(
                 TrainingRiskRuleHistory.builder()
                         .riskRuleId(saved.getId())
                         .userId(userId)
@@ -130,7 +133,15 @@ public class TrainingRiskRuleService {
                         .build()
         );
 
-        // 9) 응답 반환
+        // 매매 기록에 찍을 최신 히스토리 id는 차트 row에 (다른 서버의 매매도 lock으로 읽은 차트에서 본다)
+        chart.updateRiskHistoryId(history.getId());
+        replayCache.updateLatestRiskHistoryId(chartId, history.getId());
+
+        // 9) 커밋 후 자동청산 판단용 룰 캐시 갱신
+        ChartReplayStateCache.RiskRuleSnapshot snapshot = ChartReplayStateCache.RiskRuleSnapshot.of(saved);
+        ChartReplayStateCache.afterCommit(() -> replayCache.putRiskRule(chartId, snapshot));
+
+        // 10) 응답 반환
         return toResponse(saved);
     }
 
@@ -7,19 +7,23 @@ import com.tradenova.common.exception.ErrorCode;
 import com.tradenova.paper.entity.PaperAccount;
 import com.tradenova.paper.entity.PaperPosition;
 import com.tradenova.paper.repository.PaperPositionRepository;
+import com.tradenova.report.dto.TrainingEventDraft;
 import com.tradenova.report.entity.Type;
 import com.tradenova.report.service.TrainingEventService;
 import com.tradenova.training.dto.AutoExitReason;
+import com.tradenova.training.dto.ChartReplayView;
 import com.tradenova.training.dto.SessionProgressResponse;
 import com.tradenova.training.dto.TradeResponse;
 import com.tradenova.training.entity.*;
-import com.tradenova.training.repository.TrainingSessionCandleRepository;
 import com.tradenova.training.repository.TrainingSessionChartRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor    //final 필드 자동 생성자
@@ -38,7 +42,18 @@ public class TrainingSessionProgressService {
     private final TrainingEventService eventService;
     private final ObjectMapper objectMapper; // payload 만들 때 편함
 
-    private final TrainingSessionCandleRepository candleRepo;
+    // 차트 리플레이 상태 캐시 (봉 시리즈 / 진행 상태 / 계좌·포지션 스냅샷)
+    private final ChartReplayStateCache replayCache;
+
+    // 차트 쓰기 조회 (PESSIMISTIC: FOR UPDATE / OPTIMISTIC: @Version)
+    private final TrainingWriteLocks writeLocks;
+
+    // 예약 주문(지정가/스톱) 주문장 + 체결
+    private final TrainingOrderBookCache orderBooks;
+    private final TrainingOrderService orderService;
+
+    // 차트 손익 장부 (보유 중 공개된 봉으로 MAE 갱신)
+    private final TrainingChartLedgerService ledgerService;
 
     /**
      * 한 봉(candle)만 진행시키는 API
@@ -56,6 +71,7 @@ public class TrainingSessionProgressService {
  * - 차트/세션 상태 검증
  * - 요청한 steps만큼 봉을 하나씩 진행
  * - 각 봉마다 손절/익절 조건 검사
+ * - 예약 주문(지정가/스톱)이 발동하는 봉에서 주문 체결
  * - 자동청산 발생 시 해당 봉에서 진행 중단
  * - 최종 계좌/포지션 상태와 진행 결과 반환
  */
@@ -67,31 +83,9 @@ public class TrainingSessionProgressService {
     ) {
 
         // 차트 조회 + 사용자 소유권 검증 + 동시 수정 방지를 위한 Lock
+        // (세션 진행 중 / 차트 미완료 검증 포함)
         TrainingSessionChart chart =
-                chartRepo.findForUpdateByIdAndUserId(chartId, userId)
-                        .orElseThrow(() ->
-                                new CustomException(
-                                        ErrorCode.TRAINING_CHART_NOT_FOUND
-                                )
-                        );
-
-        // 세션이 진행 중이 아니면 차트를 진행할 수 없음
-        if (chart.getSession().getStatus()
-                != TrainingStatus.IN_PROGRESS) {
-
-            throw new CustomException(
-                    ErrorCode.TRAINING_SESSION_NOT_IN_PROGRESS
-            );
-        }
-
-        // 이미 마지막 봉까지 진행된 차트인지 확인
-        if (chart.getStatus()
-                == TrainingChartStatus.COMPLETED) {
-
-            throw new CustomException(
-                    ErrorCode.TRAINING_CHART_ALREADY_COMPLETED
-            );
-        }
+                lockProgressableChart(userId, chartId);
 
         // 한 번에 진행 가능한 봉 수는 1 ~ 500
         if (steps < 1 || steps > 500) {
@@ -100,6 +94,17 @@ public class TrainingSessionProgressService {
             );
         }
 
+        return advanceLocked(userId, chart, steps);
+    }
+
+    /**
+     * 차트 쓰기 lock을 이미 쥔 상태에서 steps만큼 진행한다. (advance / 주문이 있는 run-to-end)
+     */
+    private SessionProgressResponse advanceLocked(
+            Long userId,
+            TrainingSessionChart chart,
+            int steps
+    ) {
 
         // 마지막 캔들 인덱스
         // 예: bars = 100이면 idx는 0 ~ 99이므로 maxIdx = 99
@@ -146,169 +151,212 @@ public class TrainingSessionProgressService {
         String autoExitSummary = null;
 
 
-        // 현재 위치의 캔들을 조회해서 시작 현재가를 구함
-        TrainingSessionCandle initialCandle =
-                candleRepo
-                        .findByChartIdAndIdx(
-                                chart.getId(),
-                                cur
-                        )
-                        .orElseThrow(() ->
-                                new CustomException(
-                                        ErrorCode.CANDLES_EMPTY
-                                )
-                        );
+        // 자동청산 판단 전에 캐시된 손절/익절 룰을 차트 row의 최신 히스토리 id와 대조
+        replayCache.syncRiskRule(chart);
+
+        // 차트 전체 봉 시리즈 (캐시, 미스 시 DB 1번)
+        // - 세션 캔들은 생성 후 바뀌지 않으므로 차트당 한 번만 읽는다
+        // - 봉마다 조회하던 것 -> 구간 조회 1번 -> 이제는 대부분 0번
+        ChartReplayStateCache.CandleSeries series =
+                replayCache.series(chart.getId());
+
+        if (series.size() <= targetIdx) {
+            throw new CustomException(ErrorCode.CANDLES_EMPTY);
+        }
 
 
+        // 현재 위치의 종가로 시작 현재가를 구함
         // valueOf(): 숫자를 BigDecimal로 변환
         BigDecimal currentPrice =
                 BigDecimal.valueOf(
-                        initialCandle.getC()
+                        series.closes()[cur]
                 );
 
 
         /*
-         * 요청한 위치로 한 번에 점프하지 않고
-         * 한 봉씩 진행하면서 자동청산 조건을 검사한다.
+         * [cur+1, targetIdx]를 "다음 주문 발동 봉"까지의 구간으로 나눠 스캔한다.
          *
-         * 예:
-         * cur = 10, targetIdx = 20이면
-         * 11 -> 12 -> ... -> 20 순서로 검사
+         * - 주문이 없으면 구간은 1개 -> 리스크 룰 조회 1번 + primitive 배열 루프 (기존과 같음)
+         * - 구간마다 처음으로 손절/익절 조건을 만족한 봉을 찾고, 포지션이 있으면 그 봉에서 청산 후 진행을 멈춘다.
+         * - 조건은 만족했지만 청산할 포지션이 없으면(tradeId == null) 다음 주문 체결 전까지는 포지션이 생기지 않는다.
+         *   (advance가 차트 쓰기 lock(DB row lock 또는 ChartCommandExecutor)을 쥐고 있어서 진행 중에 매수가 끼어들 수 없다)
+         * - 구간 끝(주문 발동 봉)에서는 주문장과 매칭해 체결한다. 같은 봉에서 청산도 났다면 청산 먼저.
          */
-        for (int idx = cur + 1;
-             idx <= targetIdx;
-             idx++) {
-
-            // 현재 진행할 봉 조회
-            TrainingSessionCandle candle =
-                    candleRepo
-                            .findByChartIdAndIdx(
-                                    chart.getId(),
-                                    idx
-                            )
-                            .orElseThrow(() ->
-                                    new CustomException(
-                                            ErrorCode.CANDLES_EMPTY
-                                    )
-                            );
+        finalIdx = targetIdx;
 
+        // 예약 주문장 작업본 (주문이 없는 차트는 빈 주문장)
+        TrainingOrderBook orderBook =
+                orderBooks.workingCopy(chart.getId());
 
-            // 실제로 현재 봉까지 진행
-            chart.setProgressIndex(idx);
-            finalIdx = idx;
+        int openOrders = orderBook.size();
+        int orderFills = 0;
 
+        // 마지막으로 계좌를 바꾼 매매 (응답의 현금 잔고용)
+        TradeResponse lastTrade = null;
 
-            // 현재 봉 종가를 현재가로 사용
-            currentPrice =
-                    BigDecimal.valueOf(
-                            candle.getC()
-                    );
+        // 보유 여부는 처음엔 모른다 -> 청산 시도 결과 / 주문 체결 결과로 갱신
+        boolean holding = true;
 
+        int from = cur + 1;
+        while (from <= targetIdx) {
 
-            // 현재 봉의 high/low/open을 기준으로 손절·익절 여부 검사
-            TrainingAutoExitService.AutoExitResult decision =
-                    autoExitService.checkAndAutoExit(
-                            chart.getId(),
-                            candle
-                    );
+            // 다음 주문 발동 봉까지가 한 구간 (없으면 목표 위치까지)
+            int touchIdx =
+                    orderBook.firstTouch(series, from, targetIdx);
 
+            int segmentEnd =
+                    touchIdx < 0 ? targetIdx : touchIdx;
 
-            // 자동청산 조건이 아니면 다음 봉으로 진행
-            if (!decision.autoExited()) {
-                continue;
+            TrainingAutoExitService.AutoExitHit hit =
+                    holding
+                            ? autoExitService.scanFirstHit(
+                                    chart.getId(),
+                                    series,
+                                    from,
+                                    segmentEnd
+                            )
+                            : null;
+
+            // 청산/체결 전에, 이 구간 동안 들고 있던 포지션의 역행폭 기록 (청산 봉까지만)
+            if (holding) {
+                ledgerService.observe(
+                        chart.getId(),
+                        series,
+                        from,
+                        hit != null ? hit.idx() : segmentEnd
+                );
             }
 
+            if (hit != null) {
 
-            // STOP_LOSS 또는 TAKE_PROFIT
-            autoExitReason =
-                    decision.reason();
+                // STOP_LOSS 또는 TAKE_PROFIT
+                autoExitReason =
+                        hit.reason();
 
+                long hitCandleTime =
+                        series.times()[hit.idx()];
 
-            /*
-             * 실제 자동청산 실행
-             *
-             * AutoExitService가 계산한 체결가와
-             * 자동청산이 발생한 캔들 시간을 넘겨준다.
-             */
-            TrainingTradeService.LockedSellResult lockedSell =
-                    tradeService.sellAllAtPriceLockedResult(
-                            userId,
-                            chart,
-                            decision.executedPrice(),
-                            candle.getT(),
-                            autoExitReason
-                    );
+                /*
+                 * 실제 자동청산 실행
+                 *
+                 * AutoExitService가 계산한 체결가와
+                 * 자동청산이 발생한 캔들 시간을 넘겨준다.
+                 */
+                TrainingTradeService.LockedSellResult lockedSell =
+                        tradeService.sellAllAtPriceLockedResult(
+                                userId,
+                                chart,
+                                hit.executedPrice(),
+                                hitCandleTime,
+                                autoExitReason
+                        );
 
-            autoExitTrade = lockedSell.response();
-            if (autoExitTrade.tradeId() == null) {
-                continue;
-            }
-            BigDecimal exitQty = lockedSell.executedQty();
+                autoExitTrade = lockedSell.response();
+                lastTrade = autoExitTrade;
 
+                // 청산했거나, 원래 포지션이 없었다
+                holding = false;
 
-            // 자동청산이 발생한 경우 실제 체결가를 현재가로 사용
-            currentPrice =
-                    autoExitTrade.executedPrice();
+                if (autoExitTrade.tradeId() != null) {
 
-            executedAutoExit = true;
+                    // 최초 자동청산이 발생한 봉에서 진행 중단
+                    finalIdx = hit.idx();
 
+                    BigDecimal exitQty = lockedSell.executedQty();
 
-            // enum의 이름을 문자열로 변환
-            // 예: STOP_LOSS -> "STOP_LOSS"
-            String reasonName =
-                    autoExitReason == null
-                            ? "UNKNOWN"
-                            : autoExitReason.name();
+                    executedAutoExit = true;
 
 
-            // 자동청산 WARNING 이벤트 payload
-            autoExitPayload =
-                    objectMapper.createObjectNode();
+                    // enum의 이름을 문자열로 변환
+                    // 예: STOP_LOSS -> "STOP_LOSS"
+                    String reasonName =
+                            autoExitReason == null
+                                    ? "UNKNOWN"
+                                    : autoExitReason.name();
 
-            autoExitPayload.put(
-                    "reason",
-                    reasonName
-            );
 
-            autoExitPayload.putPOJO(
-                    "tradeId",
-                    autoExitTrade.tradeId()
-            );
+                    // 자동청산 WARNING 이벤트 payload
+                    autoExitPayload =
+                            objectMapper.createObjectNode();
 
-            autoExitPayload.putPOJO(
-                    "qty",
-                    exitQty
-            );
+                    autoExitPayload.put(
+                            "reason",
+                            reasonName
+                    );
 
-            autoExitPayload.putPOJO(
-                    "executedPrice",
-                    autoExitTrade.executedPrice()
-            );
+                    autoExitPayload.putPOJO(
+                            "tradeId",
+                            autoExitTrade.tradeId()
+                    );
 
-            autoExitPayload.putPOJO(
-                    "candleTime",
-                    candle.getT()
-            );
+                    autoExitPayload.putPOJO(
+                            "qty",
+                            exitQty
+                    );
 
-            autoExitPayload.put(
-                    "chartId",
-                    chart.getId()
-            );
+                    autoExitPayload.putPOJO(
+                            "executedPrice",
+                            autoExitTrade.executedPrice()
+                    );
+
+                    autoExitPayload.putPOJO(
+                            "candleTime",
+                            hitCandleTime
+                    );
+
+                    autoExitPayload.put(
+                            "chartId",
+                            chart.getId()
+                    );
+
+                    autoExitSummary =
+                            "자동청산 발생: "
+                                    + reasonName;
+                }
+            }
+
+            // 주문 발동 봉이 청산 봉보다 뒤면 공개되지 않은 봉이므로 매칭하지 않는다
+            if (touchIdx >= 0
+                    && (!executedAutoExit || touchIdx == finalIdx)) {
 
-            autoExitSummary =
-                    "자동청산 발생: "
-                            + reasonName;
+                List<TradeResponse> fills =
+                        orderService.matchBar(
+                                userId,
+                                chart,
+                                orderBook,
+                                series,
+                                touchIdx
+                        );
 
+                if (!fills.isEmpty()) {
+                    orderFills += fills.size();
+                    lastTrade = fills.get(fills.size() - 1);
+                    holding = lastTrade.positionQty() != null
+                            && lastTrade.positionQty().signum() > 0;
+                }
+            }
+
+            if (executedAutoExit) {
+                break;
+            }
+
+            from = segmentEnd + 1;
+        }
 
-            /*
-             * 최초 자동청산이 발생한 봉에서 진행 중단
-             *
-             * break는 for문 자체를 종료한다.
-             */
-            break;
+        // 체결/거부로 주문장이 바뀌었으면 커밋 후 교체
+        if (orderBook.size() != openOrders) {
+            orderBooks.replace(chart.getId(), orderBook);
         }
 
 
+        // 도착한 봉 종가를 현재가로 사용
+        // 자동청산이 발생한 경우 실제 체결가를 현재가로 사용
+        currentPrice =
+                executedAutoExit
+                        ? autoExitTrade.executedPrice()
+                        : BigDecimal.valueOf(series.closes()[finalIdx]);
+
+
         // 실제로 도달한 최종 위치 저장
         chart.setProgressIndex(finalIdx);
 
@@ -326,9 +374,9 @@ public class TrainingSessionProgressService {
          */
         if (finalIdx >= maxIdx) {
             if (!executedAutoExit) {
+                // 마지막 봉도 이미 메모리에 있다 (finalIdx == targetIdx == maxIdx)
                 TrainingSessionCandle lastCandle =
-                        candleRepo.findByChartIdAndIdx(chart.getId(), finalIdx)
-                                .orElseThrow(() -> new CustomException(ErrorCode.CANDLES_EMPTY));
+                        series.candleAt(chart.getId(), finalIdx);
 
                 BigDecimal exitPrice = BigDecimal.valueOf(lastCandle.getC());
                 autoExitReason = AutoExitReason.END_OF_CHART;
@@ -341,6 +389,7 @@ public class TrainingSessionProgressService {
                                 autoExitReason
                         );
                 autoExitTrade = lockedSell.response();
+                lastTrade = autoExitTrade;
 
                 if (autoExitTrade.tradeId() != null) {
                     BigDecimal exitQty = lockedSell.executedQty();
@@ -358,6 +407,9 @@ public class TrainingSessionProgressService {
                 }
             }
 
+            // 남은 예약 주문은 만료
+            orderService.expireOpenOrders(chart.getId());
+
             // 잔여 포지션 청산이 완료된 뒤에 차트를 완료 상태로 변경한다.
             chart.complete();
         }
@@ -365,8 +417,14 @@ public class TrainingSessionProgressService {
 
         // 현재 엔티티 변경사항을 DB에 반영
         // commit은 아니고 트랜잭션 안에서 SQL을 미리 실행하는 것
+        // (@DynamicUpdate라 progress_index/status/version만 UPDATE 된다)
         chartRepo.flush();
 
+        // 커밋 후 진행 상태 캐시 갱신 (flush로 증가한 @Version 포함)
+        ChartReplayStateCache.afterCommit(() ->
+                replayCache.putChart(toChartState(userId, chart))
+        );
+
 
         // ==========================
         // 최종 계좌 / 포지션 스냅샷
@@ -412,8 +470,8 @@ public class TrainingSessionProgressService {
 
         // 최종 현금 잔액
         BigDecimal cashBalance =
-                autoExitTrade != null
-                        ? autoExitTrade.cashBalance()
+                lastTrade != null
+                        ? lastTrade.cashBalance()
                         : account.getCashBalance() == null
                         ? BigDecimal.ZERO
                         : account.getCashBalance();
@@ -469,6 +527,12 @@ public class TrainingSessionProgressService {
                 executedAutoExit
         );
 
+        // 이번 진행 중 체결된 예약 주문 수
+        progressPayload.put(
+                "orderFills",
+                orderFills
+        );
+
         progressPayload.putPOJO(
                 "autoExitReason",
                 executedAutoExit &&
@@ -478,27 +542,29 @@ public class TrainingSessionProgressService {
         );
 
 
-        // 차트 진행 이벤트 저장
-        eventService.append(
-                userId,
+        // 차트 진행 이벤트
+        List<TrainingEventDraft> events = new ArrayList<>(2);
+        events.add(new TrainingEventDraft(
                 chart.getId(),
                 Type.PROGRESS,
                 advancedSteps + "봉 진행",
                 progressPayload
-        );
+        ));
 
 
-        // 실제 자동청산이 발생했다면 WARNING 이벤트도 저장
+        // 실제 자동청산이 발생했다면 WARNING 이벤트도 같이
         if (executedAutoExit) {
-            eventService.append(
-                    userId,
+            events.add(new TrainingEventDraft(
                     chart.getId(),
                     Type.WARNING,
                     autoExitSummary,
                     autoExitPayload
-            );
+            ));
         }
 
+        // 한 번에 기록 (커밋 후 write-behind, 소유권은 chart lock 조회에서 검증됨)
+        eventService.publishAll(userId, events);
+
 
         // 앞으로 남은 봉 개수
         int remainingBars =
@@ -537,6 +603,213 @@ public class TrainingSessionProgressService {
 
 
 
+    /**
+     * 차트 끝까지 한 번에 진행 (run-to-end)
+     *
+     * advance(500)를 반복 호출하는 대신:
+     * - 남은 구간을 ChartReplaySimulator로 메모리에서 한 번에 재생하고
+     * - 결과만 DB에 반영한다: 최종 진행 상태(완료), 청산 거래(있으면 1건), 요약 PROGRESS 이벤트 1건
+     *   (청산 거래의 TRADE 이벤트는 매도 로직이 그대로 남긴다)
+     *
+     * 결과는 advance 반복과 같다.
+     * - 포지션이 있으면 처음 손절/익절 조건을 만족한 봉에서 전량 청산, 없으면 마지막 봉 종가로 END_OF_CHART 청산
+     * - 청산 후에는 포지션이 없으므로 이후 봉에서 추가 거래는 생기지 않는다
+     * - 차트 쓰기 lock을 쥐고 있어 재생 중 매수가 끼어들 수 없다
+     */
+    @Transactional
+    public SessionProgressResponse runToEnd(
+            Long userId,
+            Long chartId
+    ) {
+        TrainingSessionChart chart =
+                lockProgressableChart(userId, chartId);
+
+        int maxIdx =
+                Math.max(0, chart.getBars() - 1);
+
+        int cur =
+                Math.min(
+                        Math.max(chart.getProgressIndex() == null ? 0 : chart.getProgressIndex(), 0),
+                        maxIdx
+                );
+
+        // 예약 주문이 있으면 재생 중 포지션이 바뀔 수 있어서 시뮬레이터(청산 1회) 대신
+        // 같은 lock 안에서 advance 경로로 끝까지 진행한다. (청산/체결마다 advance 1번)
+        if (!orderBooks.book(chart.getId()).isEmpty()) {
+            SessionProgressResponse last;
+            do {
+                int progress = chart.getProgressIndex() == null ? 0 : chart.getProgressIndex();
+                last = advanceLocked(userId, chart, Math.max(1, maxIdx - progress));
+            } while (chart.getStatus() != TrainingChartStatus.COMPLETED);
+            return last;
+        }
+
+        ChartReplayStateCache.CandleSeries series =
+                replayCache.series(chart.getId());
+
+        if (series.size() <= maxIdx) {
+            throw new CustomException(ErrorCode.CANDLES_EMPTY);
+        }
+
+        PaperAccount account =
+                chart.getSession().getAccount();
+
+        Long symbolId =
+                chart.getSymbol().getId();
+
+        // 시작 시점 포지션 (같은 종목 매수는 이 차트 lock 아래에서만 가능)
+        ChartReplayStateCache.PositionSnapshot startPosition =
+                ChartReplayStateCache.PositionSnapshot.of(
+                        positionRepo
+                                .findByAccountIdAndSymbolId(account.getId(), symbolId)
+                                .orElse(null)
+                );
+
+        // 남은 구간 재생 (순수 계산, 룰은 DB와 대조한 뒤 사용)
+        replayCache.syncRiskRule(chart);
+        ChartReplaySimulator.Outcome outcome =
+                ChartReplaySimulator.runToEnd(
+                        replayCache.riskRule(chart.getId()),
+                        series,
+                        cur,
+                        startPosition
+                );
+
+        ChartReplaySimulator.ExitFill exit = outcome.exit();
+
+        // 재생 결과의 청산만 실제 매도로 반영
+        TradeResponse exitTrade = null;
+        if (exit != null) {
+            // 청산 봉까지 보유한 구간의 역행폭 먼저 기록
+            ledgerService.observe(chart.getId(), series, cur + 1, exit.idx());
+
+            exitTrade =
+                    tradeService.sellAllAtPriceLockedResult(
+                            userId,
+                            chart,
+                            exit.price(),
+                            exit.candleTime(),
+                            exit.reason()
+                    ).response();
+        }
+
+        boolean executedAutoExit =
+                exitTrade != null && exitTrade.tradeId() != null;
+
+        // 남은 예약 주문은 만료
+        orderService.expireOpenOrders(chart.getId());
+
+        // 최종 상태: 마지막 봉 + 완료
+        chart.setProgressIndex(maxIdx);
+        chart.complete();
+        chartRepo.flush();
+
+        ChartReplayStateCache.afterCommit(() ->
+                replayCache.putChart(toChartState(userId, chart))
+        );
+
+        BigDecimal currentPrice =
+                executedAutoExit
+                        ? exitTrade.executedPrice()
+                        : BigDecimal.valueOf(series.closes()[maxIdx]);
+
+        BigDecimal cashBalance =
+                exitTrade != null
+                        ? exitTrade.cashBalance()
+                        : account.getCashBalance() == null
+                        ? BigDecimal.ZERO
+                        : account.getCashBalance();
+
+        // 남은 포지션 (청산됐으면 0)
+        BigDecimal positionQty =
+                executedAutoExit ? BigDecimal.ZERO : startPosition.quantity();
+
+        BigDecimal avgPrice =
+                executedAutoExit ? BigDecimal.ZERO : startPosition.avgPrice();
+
+        // 요약 PROGRESS 이벤트 1건
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("runToEnd", true);
+        payload.put("advancedSteps", outcome.advancedSteps());
+        payload.put("fromIndex", cur);
+        payload.put("toIndex", maxIdx);
+        payload.put("progressIndex", maxIdx);
+        payload.putPOJO("bars", chart.getBars());
+        payload.putPOJO("currentPrice", currentPrice);
+        payload.put("autoExited", executedAutoExit);
+        payload.putPOJO("autoExitReason", executedAutoExit ? exit.reason().name() : null);
+        if (executedAutoExit) {
+            payload.put("exitIndex", exit.idx());
+            payload.put("tradeId", exitTrade.tradeId());
+            payload.putPOJO("qty", exit.qty());
+            payload.putPOJO("executedPrice", exitTrade.executedPrice());
+            payload.put("candleTime", exit.candleTime());
+            payload.putPOJO("realizedPnl", exit.realizedPnl());
+        }
+
+        eventService.publish(
+                userId,
+                chart.getId(),
+                Type.PROGRESS,
+                "끝까지 진행 (" + outcome.advancedSteps() + "봉)"
+                        + (executedAutoExit ? " · 청산 " + exit.reason().name() : ""),
+                payload
+        );
+
+        return new SessionProgressResponse(
+                chart.getId(),
+                maxIdx,
+                maxIdx,
+                0,
+                true,
+                currentPrice,
+                chart.getStatus().name(),
+                chart.getSession().getStatus().name(),
+                cashBalance,
+                positionQty,
+                avgPrice,
+                executedAutoExit,
+                executedAutoExit ? exit.reason() : null
+        );
+    }
+
+    /**
+     * 진행 가능한 차트를 쓰기용으로 조회한다.
+     * - 소유권 검증 + 쓰기 lock (PESSIMISTIC: FOR UPDATE / OPTIMISTIC: @Version)
+     * - 세션이 진행 중이고 차트가 완료되지 않았어야 한다
+     */
+    private TrainingSessionChart lockProgressableChart(
+            Long userId,
+            Long chartId
+    ) {
+        TrainingSessionChart chart =
+                writeLocks.chartForWrite(chartId, userId)
+                        .orElseThrow(() ->
+                                new CustomException(
+                                        ErrorCode.TRAINING_CHART_NOT_FOUND
+                                )
+                        );
+
+        // 세션이 진행 중이 아니면 차트를 진행할 수 없음
+        if (chart.getSession().getStatus()
+                != TrainingStatus.IN_PROGRESS) {
+
+            throw new CustomException(
+                    ErrorCode.TRAINING_SESSION_NOT_IN_PROGRESS
+            );
+        }
+
+        // 이미 마지막 봉까지 진행된 차트인지 확인
+        if (chart.getStatus()
+                == TrainingChartStatus.COMPLETED) {
+
+            throw new CustomException(
+                    ErrorCode.TRAINING_CHART_ALREADY_COMPLETED
+            );
+        }
+        return chart;
+    }
+
     /**
      * 현재 차트 진행 상태 조회
      *
@@ -546,33 +819,46 @@ public class TrainingSessionProgressService {
      * - 차트 변경 시 계좌/포지션 최신화
      *
      * 이 메서드는 DB 상태를 변경하지 않는다.
+     *
+     * 폴링이 잦은 API라 캐시 우선:
+     * - 캐시 히트 + 소유자 일치 -> 버전 조회 1번(chart/account @Version, 세션 상태)으로 검증 후 메모리에서 응답
+     *   (다른 서버가 쓴 값이면 버전이 달라서 아래 적재 경로로 간다)
+     * - 미스/소유자 불일치/버전 불일치 -> 요약 쿼리 1번 + 포지션 1번으로 적재 후 응답
+     *   (남의 차트면 요약 쿼리에서 TRAINING_CHART_NOT_FOUND)
+     * - 긴 트랜잭션으로 커넥션을 잡고 있지 않도록 @Transactional을 두지 않는다.
      */
-    @Transactional(readOnly = true)
     public SessionProgressResponse getProgress(
             Long userId,
             Long chartId
     ) {
 
-        // 1. 차트 조회 및 소유권 검증
-        TrainingSessionChart chart =
-                chartRepo.findByIdAndSession_User_Id(chartId, userId)
-                        .orElseThrow(() ->
-                                new CustomException(
-                                        ErrorCode.TRAINING_CHART_NOT_FOUND
-                                )
-                        );
+        // 1. 진행 상태 (캐시 -> 없거나 소유자가 다르면 DB)
+        ChartReplayStateCache.ChartState state =
+                replayCache.chart(chartId);
 
-        // 2. 현재 진행 위치 계산
-        int progressIndex =
-                chart.getProgressIndex() == null
-                        ? 0
-                        : chart.getProgressIndex();
+        ChartReplayStateCache.AccountSnapshot account =
+                state == null ? null : replayCache.account(state.accountId());
+
+        ChartReplayStateCache.PositionSnapshot position =
+                state == null ? null : replayCache.position(state.accountId(), state.symbolId());
 
-        int maxIndex = Math.max(0, chart.getBars() - 1);
+        if (state == null
+                || !state.userId().equals(userId)
+                || account == null
+                || position == null
+                || !matchesDb(state, account)) {
+
+            state = loadReplayState(userId, chartId);
+            account = replayCache.account(state.accountId());
+            position = replayCache.position(state.accountId(), state.symbolId());
+        }
+
+        // 2. 현재 진행 위치 계산
+        int maxIndex = Math.max(0, state.bars() - 1);
 
         // 방어적으로 범위를 보정
         int safeProgressIndex =
-                Math.min(Math.max(progressIndex, 0), maxIndex);
+                Math.min(Math.max(state.progressIndex(), 0), maxIndex);
 
         int remainingBars =
                 Math.max(0, maxIndex - safeProgressIndex);
@@ -580,61 +866,41 @@ public class TrainingSessionProgressService {
         boolean atLastBar =
                 safeProgressIndex >= maxIndex;
 
-        // 3. 현재 공개된 마지막 캔들의 종가 조회
-        TrainingSessionCandle currentCandle =
-                candleRepo
-                        .findByChartIdAndIdx(
-                                chart.getId(),
-                                safeProgressIndex
-                        )
-                        .orElseThrow(() ->
-                                new CustomException(
-                                        ErrorCode.CANDLES_EMPTY
-                                )
-                        );
+        // 3. 현재 공개된 마지막 캔들의 종가 (봉 시리즈 캐시)
+        ChartReplayStateCache.CandleSeries series =
+                replayCache.series(chartId);
 
-        BigDecimal currentPrice =
-                BigDecimal.valueOf(currentCandle.getC());
+        if (series.size() <= safeProgressIndex) {
+            throw new CustomException(ErrorCode.CANDLES_EMPTY);
+        }
 
-        // 4. 계좌 상태 조회
-        PaperAccount account =
-                chart.getSession().getAccount();
+        BigDecimal currentPrice =
+                BigDecimal.valueOf(series.closes()[safeProgressIndex]);
 
+        // 4. 계좌/포지션 스냅샷
+        // (다른 요청이 계좌 캐시를 막 교체한 경우를 대비해 null 방어)
         BigDecimal cashBalance =
-                account.getCashBalance() == null
+                account == null || account.cashBalance() == null
                         ? BigDecimal.ZERO
-                        : account.getCashBalance();
-
-        // 5. 현재 차트 종목의 포지션 조회
-        PaperPosition position =
-                positionRepo
-                        .findByAccountIdAndSymbolId(
-                                account.getId(),
-                                chart.getSymbol().getId()
-                        )
-                        .orElse(null);
+                        : account.cashBalance();
 
         BigDecimal positionQty =
-                position == null || position.getQuantity() == null
-                        ? BigDecimal.ZERO
-                        : position.getQuantity();
+                position == null ? BigDecimal.ZERO : position.quantity();
 
         BigDecimal avgPrice =
-                position == null || position.getAvgPrice() == null
-                        ? BigDecimal.ZERO
-                        : position.getAvgPrice();
+                position == null ? BigDecimal.ZERO : position.avgPrice();
 
-        // 6. 현재 상태 반환
+        // 5. 현재 상태 반환
         // 조회 API이므로 autoExited=false, reason=null
         return new SessionProgressResponse(
-                chart.getId(),
+                chartId,
                 safeProgressIndex,
                 maxIndex,
                 remainingBars,
                 atLastBar,
                 currentPrice,
-                chart.getStatus().name(),
-                chart.getSession().getStatus().name(),
+                state.chartStatus().name(),
+                state.sessionStatus().name(),
                 cashBalance,
                 positionQty,
                 avgPrice,
@@ -642,4 +908,88 @@ public class TrainingSessionProgressService {
                 null
         );
     }
+
+    /**
+     * 캐시된 진행 상태가 DB의 현재 버전과 같은지 확인
+     */
+    private boolean matchesDb(
+            ChartReplayStateCache.ChartState state,
+            ChartReplayStateCache.AccountSnapshot account
+    ) {
+        return chartRepo.findReplayVersionById(state.chartId())
+                .filter(v -> Objects.equals(v.chartVersion(), state.version()))
+                .filter(v -> Objects.equals(v.accountVersion(), account.version()))
+                .filter(v -> v.sessionStatus() == state.sessionStatus())
+                .isPresent();
+    }
+
+    /**
+     * 캐시 미스 시 차트/계좌/포지션 상태를 DB에서 읽어 캐시에 올린다.
+     */
+    private ChartReplayStateCache.ChartState loadReplayState(
+            Long userId,
+            Long chartId
+    ) {
+        // 차트 + 세션 + 계좌 요약 (소유권 검증 포함)
+        ChartReplayView view =
+                chartRepo.findReplayViewByIdAndUserId(chartId, userId)
+                        .orElseThrow(() ->
+                                new CustomException(
+                                        ErrorCode.TRAINING_CHART_NOT_FOUND
+                                )
+                        );
+
+        PaperPosition position =
+                positionRepo
+                        .findByAccountIdAndSymbolId(
+                                view.accountId(),
+                                view.symbolId()
+                        )
+                        .orElse(null);
+
+        ChartReplayStateCache.ChartState state =
+                new ChartReplayStateCache.ChartState(
+                        view.chartId(),
+                        view.chartVersion(),
+                        userId,
+                        view.accountId(),
+                        view.symbolId(),
+                        view.bars(),
+                        view.progressIndex() == null ? 0 : view.progressIndex(),
+                        view.chartStatus(),
+                        view.sessionStatus()
+                );
+
+        replayCache.putChart(state);
+        replayCache.putAccountState(
+                new ChartReplayStateCache.AccountSnapshot(
+                        view.accountId(),
+                        view.accountVersion(),
+                        view.cashBalance()
+                ),
+                view.symbolId(),
+                ChartReplayStateCache.PositionSnapshot.of(position)
+        );
+        return state;
+    }
+
+    /**
+     * 락을 잡고 수정한 차트 엔티티 -> 캐시용 진행 상태
+     */
+    private static ChartReplayStateCache.ChartState toChartState(
+            Long userId,
+            TrainingSessionChart chart
+    ) {
+        return new ChartReplayStateCache.ChartState(
+                chart.getId(),
+                chart.getVersion(),
+                userId,
+                chart.getSession().getAccount().getId(),
+                chart.getSymbol().getId(),
+                chart.getBars(),
+                chart.getProgressIndex() == null ? 0 : chart.getProgressIndex(),
+                chart.getStatus(),
+                chart.getSession().getStatus()
+        );
+    }
 }
@@ -8,12 +8,14 @@ import com.tradenova.kis.dto.CandleDto;
 import com.tradenova.market.service.MarketDataService;
 import com.tradenova.paper.entity.PaperAccount;
 import com.tradenova.paper.repository.PaperAccountRepository;
+import com.tradenova.report.dto.TrainingEventDraft;
 import com.tradenova.report.entity.ReportKind;
 import com.tradenova.report.entity.TrainingEvent;
 import com.tradenova.report.entity.Type;
 import com.tradenova.report.repository.ReportDocumentRepository;
 import com.tradenova.report.repository.TrainingEventRepository;
 import com.tradenova.report.service.TrainingEventService;
+import com.tradenova.symbol.dto.SymbolSector;
 import com.tradenova.symbol.entity.Symbol;
 import com.tradenova.symbol.repository.SymbolRepository;
 import com.tradenova.training.dto.*;
@@ -33,8 +35,12 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -53,6 +59,14 @@ public class TrainingSessionService {
 
     private static final int DEFAULT_INITIAL_VISIBLE_BARS = 60;
 
+    // 랜덤 구간 시작일
+    private static final LocalDate RANDOM_RANGE_START = LocalDate.of(2018, 1, 1);
+
+    // 시드 세션의 구간 상한
+    // - 오늘 날짜에 의존하면 같은 시드라도 날짜가 바뀔 때마다 다른 차트가 나온다.
+    // - 재현성을 위해 고정값을 쓰고, 이 값은 바꾸지 않는다. (바꾸면 기존 시드 챌린지가 전부 달라진다)
+    private static final LocalDate SEEDED_RANGE_END = LocalDate.of(2025, 12, 31);
+
     // 세션 저장/조회
     private final TrainingSessionRepository sessionRepo;
     // 차트 저장/조회 (실제 훈련 단위: 종목/기간/bars/progressIndex 등 보유)
@@ -74,6 +88,12 @@ public class TrainingSessionService {
     private final ReportDocumentRepository reportDocumentRepository;
     // AI 이벤트 조회
     private final TrainingEventRepository trainingEventRepository;
+    // 시드 챌린지 차트 구간 캐시
+    private final SeededChartWindowCache seededWindowCache;
+    // 차트 진행 상태 캐시 (세션 종료/차트 교체 시 비움)
+    private final ChartReplayStateCache replayCache;
+    // 차트 종료 시 대기 주문 만료
+    private final TrainingOrderService orderService;
     /**
      * 세션 생성 (RANDOM)
      */
@@ -88,9 +108,17 @@ public class TrainingSessionService {
         // CHANGED: chartCount 지원 (없으면 기본 4)
         int chartCount = resolveChartCount(req);
 
+        // 시드/섹터 (둘 다 선택값)
+        Long seed = req.seed();
+        SymbolSector sector = req.sector();
+
         // active symbol 후보군 가져오기
         // - 훈련에 쓸 수 있는 종목 풀(활성화=true)만 가져옴
-        List<Symbol> candidates = symbolRepository.findAllByActiveTrueOrderByIdAsc();
+        // - 섹터 필터가 있으면 해당 섹터 종목만
+        // - id 오름차순 고정 -> 시드가 같으면 같은 종목이 뽑힌다
+        List<Symbol> candidates = (sector == null)
+                ? symbolRepository.findAllByActiveTrueOrderByIdAsc()
+                : symbolRepository.findAllByActiveTrueAndTrainingSectorOrderByIdAsc(sector);
         if(candidates.isEmpty()){
             //종목이 0개면 랜덤 뽑기 자체가 불가능
             throw new CustomException(ErrorCode.SYMBOL_NOT_FOUND);
@@ -119,34 +147,102 @@ public class TrainingSessionService {
                         .account(account)
                         .mode(req.mode())
                         .status(TrainingStatus.IN_PROGRESS)
+                        .seed(seed)
+                        .sector(sector)
                         .build()
         );
 
         //  5) 차트를 chartCount 만큼 생성
+        List<TrainingChartCreateResponse> chartResponses = (seed == null)
+                ? createRandomCharts(session, candidates, bars, chartCount)
+                : createSeededCharts(session, candidates, bars, chartCount, seed, sector);
+
+        // 6) 응답은 chart[] 포함 정석 DTO로
+        return new TrainingSessionCreateResponse(
+                session.getId(),
+                account.getId(),
+                session.getMode(),
+                session.getStatus(),
+                chartResponses,
+                session.getSeed()
+        );
+    }
+
+    /**
+     * 시드 없는 일반 세션: 매번 새로 랜덤 추첨
+     */
+    private List<TrainingChartCreateResponse> createRandomCharts(
+            TrainingSession session,
+            List<Symbol> candidates,
+            int bars,
+            int chartCount
+    ) {
         List<TrainingChartCreateResponse> chartResponses = new ArrayList<>(chartCount);
         // 중복 방지 set
         Set<Long> usedSymbolIds = new HashSet<>();
 
         for (int chartIndex = 0; chartIndex < chartCount; chartIndex++) {
-            TrainingChartCreateResponse chartRes = createOneRandomChartWithCandles(
-                    session,
+            ChartWindowPick pick = pickChartWindow(
                     candidates,
                     bars,
-                    chartIndex,
                     usedSymbolIds,
-                    false
+                    ThreadLocalRandom.current(),
+                    LocalDate.now().minusDays(30)
             );
-            chartResponses.add(chartRes);
+            chartResponses.add(materializeChart(session, pick.symbol(), pick.candles(), bars, chartIndex, false));
         }
+        return chartResponses;
+    }
 
-        // 6) 응답은 chart[] 포함 정석 DTO로
-        return new TrainingSessionCreateResponse(
-                session.getId(),
-                account.getId(),
-                session.getMode(),
-                session.getStatus(),
-                chartResponses
-        );
+    /**
+     * 시드 세션: 같은 (seed, bars, chartCount, sector)면 항상 같은 차트 구간
+     *
+     * - 캐시에 확정된 구간이 있으면 추첨/시장데이터 조회 없이 그대로 저장만 한다.
+     * - 없으면 seed로 만든 Random으로 추첨하고 결과를 캐시에 올린다.
+     */
+    private List<TrainingChartCreateResponse> createSeededCharts(
+            TrainingSession session,
+            List<Symbol> candidates,
+            int bars,
+            int chartCount,
+            long seed,
+            SymbolSector sector
+    ) {
+        SeededChartWindowCache.Key key = new SeededChartWindowCache.Key(seed, bars, chartCount, sector);
+        Map<Long, Symbol> candidateById = candidates.stream()
+                .collect(Collectors.toMap(Symbol::getId, Function.identity()));
+
+        // 1) 캐시 히트: 이미 확정된 구간 재사용
+        List<SeededChartWindowCache.ChartWindow> cached = seededWindowCache.get(key);
+        if (cached != null) {
+            // 그 사이 비활성화된 종목이 있으면 캐시를 버리고 다시 만든다
+            boolean allActive = cached.stream().allMatch(w -> candidateById.containsKey(w.symbolId()));
+            if (allActive) {
+                List<TrainingChartCreateResponse> chartResponses = new ArrayList<>(cached.size());
+                for (int chartIndex = 0; chartIndex < cached.size(); chartIndex++) {
+                    SeededChartWindowCache.ChartWindow w = cached.get(chartIndex);
+                    chartResponses.add(materializeChart(
+                            session, candidateById.get(w.symbolId()), w.candles(), bars, chartIndex, false));
+                }
+                return chartResponses;
+            }
+            seededWindowCache.evict(key);
+        }
+
+        // 2) 캐시 미스: 시드 Random으로 추첨 (java.util.Random은 알고리즘이 스펙으로 고정되어 JVM이 달라도 같은 수열)
+        Random random = new Random(seed);
+        Set<Long> usedSymbolIds = new HashSet<>();
+        List<SeededChartWindowCache.ChartWindow> windows = new ArrayList<>(chartCount);
+        List<TrainingChartCreateResponse> chartResponses = new ArrayList<>(chartCount);
+
+        for (int chartIndex = 0; chartIndex < chartCount; chartIndex++) {
+            ChartWindowPick pick = pickChartWindow(candidates, bars, usedSymbolIds, random, SEEDED_RANGE_END);
+            windows.add(new SeededChartWindowCache.ChartWindow(pick.symbol().getId(), pick.candles()));
+            chartResponses.add(materializeChart(session, pick.symbol(), pick.candles(), bars, chartIndex, false));
+        }
+
+        seededWindowCache.put(key, windows);
+        return chartResponses;
     }
 
     /**
@@ -202,7 +298,8 @@ public class TrainingSessionService {
                 s.getId(),
                 s.getAccount().getId(),
                 s.getMode(),
-                s.getStatus()
+                s.getStatus(),
+                s.getSeed()
         );
     }
 
@@ -262,22 +359,25 @@ public class TrainingSessionService {
     }
 
 
+    /** 추첨으로 확정된 차트 구간 (종목 + 세션용 봉, 오래된 순) */
+    private record ChartWindowPick(Symbol symbol, List<CandleDto> candles) {}
+
     /**
-     *  핵심: 차트 1개를 만들고 + 캔들 저장까지 끝내고 + 차트 DTO 리턴
+     *  핵심: 차트 1개 구간(종목 + 기간 + 봉)을 추첨한다.
      * - 실패하면 MAX_TRIES_PER_CHART 만큼 재시도
      * - 결국 실패하면 예외 → 트랜잭션 롤백
+     * - random을 밖에서 받으므로 시드 Random을 넘기면 결과가 재현된다.
      */
-    private TrainingChartCreateResponse createOneRandomChartWithCandles(
-            TrainingSession session,
+    private ChartWindowPick pickChartWindow(
             List<Symbol> candidates,
             int bars,
-            int chartIndex,
             Set<Long> usedSymbolIds,
-            boolean refreshed
+            Random random,
+            LocalDate rangeEnd
     ) {
         for (int attempt = 1; attempt <= MAX_TRIES_PER_CHART; attempt++) {
 
-            Symbol picked = pickRandom(candidates);
+            Symbol picked = pickRandom(candidates, random);
 
             // 이미 이 세션에서 사용한 종목이면 다시 뽑기
             if (usedSymbolIds.contains(picked.getId())) {
@@ -285,7 +385,7 @@ public class TrainingSessionService {
             }
 
             //  랜덤 기간 생성
-            LocalDate endDate = randomDate(LocalDate.of(2018, 1, 1), LocalDate.now().minusDays(30));
+            LocalDate endDate = randomDate(RANDOM_RANGE_START, rangeEnd, random);
             LocalDate startDate = endDate.minusDays(bars * 5L);
 
             //  DB 캔들 조회
@@ -301,71 +401,84 @@ public class TrainingSessionService {
             int fromIndex = candles.size() - bars;
             List<CandleDto> sessionCandles = new ArrayList<>(candles.subList(fromIndex, candles.size()));
 
-            LocalDate finalStart = millisToSeoulDate(sessionCandles.get(0).t());
-            LocalDate finalEnd = millisToSeoulDate(sessionCandles.get(sessionCandles.size() - 1).t());
-
-            //  초기 공개 progressIndex 계산
-            int initialVisibleBars = Math.min(DEFAULT_INITIAL_VISIBLE_BARS, bars);
-            int progressIndex = Math.max(0, initialVisibleBars - 1);
-
-            //  차트 생성
-            TrainingSessionChart chart = chartRepo.save(
-                    TrainingSessionChart.builder()
-                            .session(session)
-                            .chartIndex(chartIndex)
-                            .symbol(picked)
-                            .startDate(finalStart)
-                            .endDate(finalEnd)
-                            .bars(bars)
-                            .hiddenFutureBars(0)
-                            .progressIndex(progressIndex)
-                            .status(TrainingChartStatus.IN_PROGRESS)
-                            .active(true)
-                            .refreshed(refreshed)
-                            .build()
-            );
-
-            //  캔들 저장 (chartId 기반, idx=0..bars-1)
-            List<TrainingSessionCandle> entities = new ArrayList<>(sessionCandles.size());
-            for (int i = 0; i < sessionCandles.size(); i++) {
-                CandleDto c = sessionCandles.get(i);
-                entities.add(
-                        TrainingSessionCandle.builder()
-                                .chartId(chart.getId())
-                                .idx(i)
-                                .t(c.t())
-                                .o(c.o())
-                                .h(c.h())
-                                .l(c.l())
-                                .c(c.c())
-                                .v(c.v())
-                                .build()
-                );
-            }
-            // 나중에 rewriteBatchedStatements=true 옵션 키기 Insert 1번씩 나가는거 없애기.
-            candleRepo.saveAll(entities);
-
             usedSymbolIds.add(picked.getId());
-
-            // 응답용 DTO
-            return new TrainingChartCreateResponse(
-                    chart.getId(),
-                    chart.getChartIndex(),
-                    picked.getId(),
-                    picked.getTicker(),
-                    picked.getName(),
-                    picked.getTrainingSector().name(),
-                    chart.getBars(),
-                    chart.getProgressIndex(),
-                    chart.getStatus(),
-                    chart.getStartDate(),
-                    chart.getEndDate()
-            );
+            return new ChartWindowPick(picked, sessionCandles);
         }
         // 차트 1개를 끝내 못 만들면 세션 생성 자체 실패로 처리 (트랜잭션 롤백)
         throw new CustomException(ErrorCode.TRAINING_SESSION_CREATE_FAILED);
     }
 
+    /**
+     * 확정된 구간으로 차트 1개를 만들고 + 캔들 저장까지 끝내고 + 차트 DTO 리턴
+     */
+    private TrainingChartCreateResponse materializeChart(
+            TrainingSession session,
+            Symbol picked,
+            List<CandleDto> sessionCandles,
+            int bars,
+            int chartIndex,
+            boolean refreshed
+    ) {
+        LocalDate finalStart = millisToSeoulDate(sessionCandles.get(0).t());
+        LocalDate finalEnd = millisToSeoulDate(sessionCandles.get(sessionCandles.size() - 1).t());
+
+        //  초기 공개 progressIndex 계산
+        int initialVisibleBars = Math.min(DEFAULT_INITIAL_VISIBLE_BARS, bars);
+        int progressIndex = Math.max(0, initialVisibleBars - 1);
+
+        //  차트 생성
+        TrainingSessionChart chart = chartRepo.save(
+                TrainingSessionChart.builder()
+                        .session(session)
+                        .chartIndex(chartIndex)
+                        .symbol(picked)
+                        .startDate(finalStart)
+                        .endDate(finalEnd)
+                        .bars(bars)
+                        .hiddenFutureBars(0)
+                        .progressIndex(progressIndex)
+                        .status(TrainingChartStatus.IN_PROGRESS)
+                        .active(true)
+                        .refreshed(refreshed)
+                        .build()
+        );
+
+        //  캔들 저장 (chartId 기반, idx=0..bars-1)
+        List<TrainingSessionCandle> entities = new ArrayList<>(sessionCandles.size());
+        for (int i = 0; i < sessionCandles.size(); i++) {
+            CandleDto c = sessionCandles.get(i);
+            entities.add(
+                    TrainingSessionCandle.builder()
+                            .chartId(chart.getId())
+                            .idx(i)
+                            .t(c.t())
+                            .o(c.o())
+                            .h(c.h())
+                            .l(c.l())
+                            .c(c.c())
+                            .v(c.v())
+                            .build()
+            );
+        }
+        // pooled ID + hibernate batch_size + rewriteBatchedStatements=true 로 multi-row insert 몇 번으로 끝난다.
+        candleRepo.saveAll(entities);
+
+        // 응답용 DTO
+        return new TrainingChartCreateResponse(
+                chart.getId(),
+                chart.getChartIndex(),
+                picked.getId(),
+                picked.getTicker(),
+                picked.getName(),
+                picked.getTrainingSector().name(),
+                chart.getBars(),
+                chart.getProgressIndex(),
+                chart.getStatus(),
+                chart.getStartDate(),
+                chart.getEndDate()
+        );
+    }
+
     //session 종료 메서드
     @Transactional
     public SessionFinishResponse finishSession(Long userId, Long sessionId) {
@@ -385,6 +498,9 @@ public class TrainingSessionService {
         int completedBefore = 0; // 이미 끝난 차트
         int forceCompleted = 0; // 강제로 끝낸 차트
 
+        // 이벤트는 모아서 마지막에 한 번에 저장 (소유권 확인 1번 + batch insert)
+        List<TrainingEventDraft> events = new ArrayList<>(charts.size() + 1);
+
         // 4. 차트 돌면서 처리
         for (TrainingSessionChart chart : charts) {
             if (chart.getStatus() == TrainingChartStatus.COMPLETED) {
@@ -392,7 +508,8 @@ public class TrainingSessionService {
                 continue;
             }
 
-            // 강제 종료
+            // 강제 종료 (남은 예약 주문도 만료)
+            orderService.expireOpenOrders(chart.getId());
             chart.complete();
             forceCompleted++;
 
@@ -406,13 +523,12 @@ public class TrainingSessionService {
             chartPayload.put("symbolName", chart.getSymbol().getName());
             chartPayload.put("reason", "FORCED_SESSION_FINISH");
 
-            trainingEventService.append(
-                    userId,
+            events.add(new TrainingEventDraft(
                     chart.getId(),
                     Type.NOTE,
                     "차트 강제 종료",
                     chartPayload
-            );
+            ));
         }
 
         // 5. 세션 종료
@@ -431,15 +547,20 @@ public class TrainingSessionService {
         Long representativeChartId = charts.isEmpty() ? null : charts.get(0).getId();
 
         if (representativeChartId != null) {
-            trainingEventService.append(
-                    userId,
+            events.add(new TrainingEventDraft(
                     representativeChartId,
                     Type.NOTE,
                     "세션 종료",
                     sessionPayload
-            );
+            ));
         }
 
+        trainingEventService.appendAll(userId, events);
+
+        // 7. 커밋 후 차트 상태 캐시 비우기 (세션/차트 상태가 바뀜)
+        List<Long> finishedChartIds = charts.stream().map(TrainingSessionChart::getId).toList();
+        ChartReplayStateCache.afterCommit(() -> finishedChartIds.forEach(replayCache::evictChart));
+
         // 8. 결과 반환
         return new SessionFinishResponse(
                 session.getId(),
@@ -580,10 +701,10 @@ public class TrainingSessionService {
 
         // 6) 해당 세션의 가장 최근 SESSION AI 이벤트 조회
         //
-        // payload_json 안의
-        // analysisScope = SESSION
-        // sessionId = 현재 sessionId
-        // 조건을 사용한다.
+        // training_event의
+        // analysis_scope = SESSION
+        // session_id = 현재 sessionId
+        // 조건을 사용한다. (인덱스 1번 탐색)
         TrainingEvent sessionAi =
                 trainingEventRepository
                         .findLatestSessionAiEvent(
@@ -675,14 +796,23 @@ public class TrainingSessionService {
 
         // 7) 기존 차트 비활성화
         currentChart.deactivate();
+        ChartReplayStateCache.afterCommit(() -> replayCache.evictChart(chartId));
 
         // 8) 같은 chartIndex에 새 차트 생성
-        return createOneRandomChartWithCandles(
-                session,
+        // - 새로고침은 시드 세션이어도 재현 대상이 아니므로 일반 랜덤으로 뽑는다.
+        ChartWindowPick pick = pickChartWindow(
                 candidates,
                 currentChart.getBars(),
-                currentChart.getChartIndex(),
                 usedSymbolIds,
+                ThreadLocalRandom.current(),
+                LocalDate.now().minusDays(30)
+        );
+        return materializeChart(
+                session,
+                pick.symbol(),
+                pick.candles(),
+                currentChart.getBars(),
+                currentChart.getChartIndex(),
                 true
         );
     }
@@ -690,16 +820,17 @@ public class TrainingSessionService {
     // ===== helpers =====
 
     // 후보 리스트에서 랜덤 1개 선택
-    private static Symbol pickRandom(List<Symbol> list) {
-        int idx = ThreadLocalRandom.current().nextInt(list.size());
+    private static Symbol pickRandom(List<Symbol> list, Random random) {
+        int idx = random.nextInt(list.size());
         return list.get(idx);
     }
 
     // from~to 사이 날짜를 랜덤으로 뽑기 (LocalDate)
-    private static LocalDate randomDate(LocalDate from, LocalDate to) {
+    // - Random.nextInt(bound)는 알고리즘이 스펙으로 고정되어 있어 시드가 같으면 항상 같은 날짜
+    private static LocalDate randomDate(LocalDate from, LocalDate to, Random random) {
         long fromEpoch = from.toEpochDay();
         long toEpoch = to.toEpochDay();
-        long rand = ThreadLocalRandom.current().nextLong(fromEpoch, toEpoch + 1);
+        long rand = fromEpoch + random.nextInt((int) (toEpoch - fromEpoch + 1));
         return LocalDate.ofEpochDay(rand);
     }
 
@@ -1,21 +1,24 @@
 package com.tradenova.training.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.tradenova.common.exception.CustomException;
 import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.common.money.FixedPoint;
 import com.tradenova.paper.entity.PaperAccount;
 import com.tradenova.paper.entity.PaperPosition;
 import com.tradenova.paper.repository.PaperAccountRepository;
 import com.tradenova.paper.repository.PaperPositionRepository;
 import com.tradenova.report.entity.Type;
 import com.tradenova.report.service.TrainingEventService;
+import com.tradenova.training.dto.BatchTradeItem;
+import com.tradenova.training.dto.BatchTradeResponse;
 import com.tradenova.training.dto.TradeResponse;
 import com.tradenova.training.dto.TrainingTradeItemResponse;
 import com.tradenova.training.entity.*;
 import com.tradenova.training.repository.TrainingSessionCandleRepository;
 import com.tradenova.training.repository.TrainingSessionChartRepository;
-import com.tradenova.training.repository.TrainingRiskRuleHistoryRepository;
 import com.tradenova.training.repository.TrainingTradeRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +27,7 @@ import com.tradenova.training.dto.AutoExitReason;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -36,7 +40,6 @@ public class TrainingTradeService {
     private final TrainingSessionCandleRepository candleRepo;
     // 훈련 매매 기록(TrainingTrader) 조회용
     private final TrainingTradeRepository tradeRepo;
-    private final TrainingRiskRuleHistoryRepository riskHistoryRepo;
     // 페이퍼 계좌/포지션 관련 (현금/보유수량 갱신)
     private final PaperAccountRepository accountRepo;
     private final PaperPositionRepository positionRepo;
@@ -44,6 +47,15 @@ public class TrainingTradeService {
     private final TrainingEventService eventService;
     private final ObjectMapper objectMapper;
 
+    // 커밋 후 계좌/포지션 스냅샷 갱신 (getProgress가 DB 없이 응답하도록)
+    private final ChartReplayStateCache replayCache;
+
+    // 차트/계좌 쓰기 조회 (PESSIMISTIC: FOR UPDATE / OPTIMISTIC: @Version)
+    private final TrainingWriteLocks writeLocks;
+
+    // 차트별 손익 장부 (거래와 같은 트랜잭션에서 갱신)
+    private final TrainingChartLedgerService ledgerService;
+
     /**
      * 매수(BUY)
      * - 세션 소유권 검증
@@ -59,7 +71,7 @@ public class TrainingTradeService {
 
         // chartId + userId(세션 소유자) 조건으로 차트를 조회
         // - session.user.id까지 조건에 포함해서 "남의 차트는 조회 자체가 안 되게" 막음(보안/치팅 방지)
-        TrainingSessionChart chart = chartRepo.findForUpdateByIdAndUserId(chartId, userId)
+        TrainingSessionChart chart = writeLocks.chartForWrite(chartId, userId)
                 // 없으면 404 성격의 커스텀 예외(차트 없음 또는 남의 차트)
                 .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
 
@@ -88,14 +100,31 @@ public class TrainingTradeService {
         // chart lock 다음에 account lock을 획득해 동일 계좌의 잔고 변경을 직렬화한다.
         PaperAccount acc = getAccountForUpdate(chart);
 
-        // 이번 거래 대상 종목 ID 가져오기 (차트에 연결된 종목)
-        Long symbolId = chart.getSymbol().getId();
-
         // 현재 캔들 가져오기
         TrainingSessionCandle currentCandle = getCurrentCandle(chart);
         // 현재 캔들 데이터에서 가격만 뽑고 BigDecimal로 변환
         BigDecimal price = BigDecimal.valueOf(currentCandle.getC());
 
+        return buyLocked(userId, chart, acc, qty, price, currentCandle.getT(), null);
+    }
+
+    /**
+     * chart lock + account lock을 이미 획득한 상태에서 지정 가격으로 매수한다.
+     * - 일반 매수: 현재 봉 종가
+     * - 예약 주문 체결: 주문장 매칭에서 결정한 체결가 + 체결 봉 시간 (orderId != null)
+     */
+    private TradeResponse buyLocked(
+            Long userId,
+            TrainingSessionChart chart,
+            PaperAccount acc,
+            BigDecimal qty,
+            BigDecimal price,
+            Long candleTime,
+            Long orderId
+    ) {
+        // 이번 거래 대상 종목 ID 가져오기 (차트에 연결된 종목)
+        Long symbolId = chart.getSymbol().getId();
+
         // 총 매수 금액 = 현재가 * 매수수량
         BigDecimal cost = price.multiply(qty);
 
@@ -138,9 +167,7 @@ public class TrainingTradeService {
             // 새로운 평균 단가(가중평균)
             // newAvg = (oldAvg*oldQty + price*qty) / newQty
             // - 소수점 4자리, 반올림(HALF_UP)로 계산(정책)
-            BigDecimal newAvg = oldAvg.multiply(oldQty)
-                    .add(price.multiply(qty))
-                    .divide(newQty, 4, RoundingMode.HALF_UP);
+            BigDecimal newAvg = weightedAvgPrice(oldAvg, oldQty, price, qty);
 
             // 포지션 수량 갱신
             pos.setQuantity(newQty);
@@ -163,7 +190,7 @@ public class TrainingTradeService {
         // ===== 거래 로그 기록(훈련 트레이드) =====
 
         // TradeNova 훈련 거래(로그) 저장
-        Long riskRuleHistoryId = findLatestRiskHistoryId(chart.getId());
+        Long riskRuleHistoryId = findLatestRiskHistoryId(chart);
         TrainingTrade trade = tradeRepo.save(
                 TrainingTrade.builder()
                         // 어느 차트에서 발생한 거래인지(차트 단위 로그)
@@ -180,28 +207,36 @@ public class TrainingTradeService {
                         // 체결 수량
                         .qty(qty)
                         // 어떤 캔들에서 발생한 거래인지 저장
-                        .candleTime(currentCandle.getT())
+                        .candleTime(candleTime)
                         .build()
         );
 
+        ledgerService.apply(chart.getId(), acc.getId(), trade);
+
         ObjectNode payload = objectMapper.createObjectNode();
         payload.putPOJO("tradeId", trade.getId());
         payload.putPOJO("side", "BUY");
+        if (orderId != null) {
+            payload.put("orderId", orderId);
+        }
         payload.putPOJO("qty", qty);
         payload.putPOJO("executedPrice", price);
         payload.putPOJO("cashBalance", acc.getCashBalance());
         payload.putPOJO("positionQty", pos.getQuantity());
         payload.putPOJO("avgPrice", pos.getAvgPrice());
-        payload.putPOJO("riskRuleHistoryId", trade.getRiskRuleHistoryId());
+        payload.put("riskRuleHistoryId", trade.getRiskRuleHistoryId());
 
-        eventService.append(
+        eventService.publish(
                 userId,
                 chart.getId(),
                 Type.TRADE,
-                chart.getSymbol().getName() + " " + qty + "주 매수",
+                chart.getSymbol().getName() + " " + qty + "주 매수" + (orderId != null ? " · 예약 주문 체결" : ""),
                 payload
         );
 
+        // 커밋 후 계좌/포지션 캐시 갱신
+        publishAccountState(acc, symbolId, pos);
+
         // ===== 응답 DTO 구성 =====
 
         // 프론트에서 즉시 상태 반영할 수 있도록 스냅샷 형태로 응답 구성
@@ -219,7 +254,7 @@ public class TrainingTradeService {
                 // executedPrice: 이번 거래 체결 가격(현재가)
                 price,
                 // candleTime: 거래가 발생한 캔들 시간
-                currentCandle.getT()
+                candleTime
         );
     }
 
@@ -231,7 +266,7 @@ public class TrainingTradeService {
     public TradeResponse sell(Long userId, Long chartId, BigDecimal qty, boolean sellAll) {
 
         // chart lock을 먼저 획득해 같은 chart의 거래와 NEXT/ADVANCE를 직렬화한다.
-        TrainingSessionChart chart = chartRepo.findForUpdateByIdAndUserId(chartId, userId)
+        TrainingSessionChart chart = writeLocks.chartForWrite(chartId, userId)
                 .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
 
         return sellLocked(userId, chart, qty, sellAll);
@@ -302,6 +337,27 @@ public class TrainingTradeService {
         // 현재 캔들 데이터에서 가격만 뽑고 BigDecimal로 변환
         BigDecimal price = BigDecimal.valueOf(currentCandle.getC());
 
+        return sellAtLocked(userId, chart, acc, pos, qty, price, currentCandle.getT(), sellAll, null);
+    }
+
+    /**
+     * chart lock + account lock을 이미 획득하고 보유 수량 검증까지 끝난 상태에서 지정 가격으로 매도한다.
+     * - 일반 매도: 현재 봉 종가
+     * - 예약 주문 체결: 주문장 매칭에서 결정한 체결가 + 체결 봉 시간 (orderId != null)
+     */
+    private TradeResponse sellAtLocked(
+            Long userId,
+            TrainingSessionChart chart,
+            PaperAccount acc,
+            PaperPosition pos,
+            BigDecimal qty,
+            BigDecimal price,
+            Long candleTime,
+            boolean sellAll,
+            Long orderId
+    ) {
+        Long symbolId = chart.getSymbol().getId();
+
         // 매도 대금 = 체결가 * 매도 수량
         BigDecimal proceeds = price.multiply(qty);
 
@@ -330,7 +386,7 @@ public class TrainingTradeService {
 
         // ===== 트레이드 로그 저장 =====
 
-        Long riskRuleHistoryId = findLatestRiskHistoryId(chart.getId());
+        Long riskRuleHistoryId = findLatestRiskHistoryId(chart);
         TrainingTrade trade = tradeRepo.save(
                 TrainingTrade.builder()
                         // 어느 차트에서 발생한 거래인지
@@ -347,11 +403,11 @@ public class TrainingTradeService {
                         // 체결 수량
                         .qty(qty)
                         // 어느 캔들에서 발생한 거래인지 저장
-                        .candleTime(currentCandle.getT())
+                        .candleTime(candleTime)
                         .build()
         );
 
-
+        ledgerService.apply(chart.getId(), acc.getId(), trade);
 
         // ===== 응답 스냅샷 구성 =====
         // 포지션이 0이 되면(삭제됨) 응답에서는 0,0으로 내려줘야 프론트가 깔끔하게 초기화 가능
@@ -362,18 +418,24 @@ public class TrainingTradeService {
         payload.putPOJO("tradeId", trade.getId());
         payload.put("side", "SELL");
         payload.put("sellAll", sellAll);
+        if (orderId != null) {
+            payload.put("orderId", orderId);
+        }
         payload.putPOJO("qty", qty);
         payload.putPOJO("executedPrice", price);
         payload.putPOJO("cashBalance", acc.getCashBalance());
         payload.putPOJO("positionQty", outQty);
         payload.putPOJO("avgPrice", outAvg);
-        payload.putPOJO("riskRuleHistoryId", trade.getRiskRuleHistoryId());
+        payload.put("riskRuleHistoryId", trade.getRiskRuleHistoryId());
 
         String summary = sellAll
                 ? chart.getSymbol().getName() + " " + qty + "주 전량 매도"
                 : chart.getSymbol().getName() + " " + qty + "주 매도";
+        if (orderId != null) {
+            summary += " · 예약 주문 체결";
+        }
 
-        eventService.append(
+        eventService.publish(
                 userId,
                 chart.getId(),
                 Type.TRADE,
@@ -381,6 +443,9 @@ public class TrainingTradeService {
                 payload
         );
 
+        // 커밋 후 계좌/포지션 캐시 갱신 (전량 매도면 포지션이 삭제됐으므로 EMPTY)
+        publishAccountState(acc, symbolId, remain.compareTo(BigDecimal.ZERO) == 0 ? null : pos);
+
         // 프론트 즉시 반영용 스냅샷 응답
         return new TradeResponse(
                 // chartId
@@ -396,11 +461,191 @@ public class TrainingTradeService {
                 // 이번 매도 체결가
                 price,
                 // candleTime: 거래가 발생한 캔들 시간
-                currentCandle.getT()
+                candleTime
         );
     }
 
 
+    /**
+     * 일괄 주문 (요청 순서대로 매수/매도, 전부 성공하거나 전부 실패)
+     *
+     * 주문마다 buy/sell을 부르는 것과 결과는 같지만:
+     * - chart lock / account lock / 현재 봉 / 포지션 조회는 1번씩만
+     * - 포지션/계좌는 메모리에서 순서대로 갱신한 뒤 마지막에 1번 저장
+     * - 거래 기록은 saveAll 1번 (pooled ID라 batch insert)
+     * - TRADE 이벤트는 요약 1건
+     * 중간 주문이 현금/보유 수량 부족이면 예외 -> 트랜잭션 전체 롤백
+     */
+    @Transactional
+    public BatchTradeResponse batch(Long userId, Long chartId, List<BatchTradeItem> orders) {
+
+        if (orders == null || orders.isEmpty()) {
+            throw new CustomException(ErrorCode.INVALID_TRADE_QTY);
+        }
+
+        // 수량 검증은 lock/조회 전에 전부 (잘못된 요청으로 차트 lock을 잡지 않는다)
+        List<BigDecimal> qtys = new ArrayList<>(orders.size());
+        for (BatchTradeItem order : orders) {
+            if (order == null || order.side() == null) {
+                throw new CustomException(ErrorCode.INVALID_REQUEST);
+            }
+            qtys.add(validateStockQty(order.qty()));
+        }
+
+        TrainingSessionChart chart = writeLocks.chartForWrite(chartId, userId)
+                .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
+
+        if (chart.getSession().getStatus() != TrainingStatus.IN_PROGRESS) {
+            throw new CustomException(ErrorCode.TRAINING_SESSION_NOT_IN_PROGRESS);
+        }
+        if (chart.getStatus() == TrainingChartStatus.COMPLETED) {
+            throw new CustomException(ErrorCode.TRAINING_CHART_ALREADY_COMPLETED);
+        }
+
+        // 계좌 lock 1번
+        PaperAccount acc = getAccountForUpdate(chart);
+        Long symbolId = chart.getSymbol().getId();
+
+        // 현재 봉 / 포지션 1번
+        TrainingSessionCandle currentCandle = getCurrentCandle(chart);
+        BigDecimal price = BigDecimal.valueOf(currentCandle.getC());
+        Long candleTime = currentCandle.getT();
+
+        PaperPosition pos = positionRepo.findByAccountIdAndSymbolId(acc.getId(), symbolId).orElse(null);
+
+        BigDecimal cash = acc.getCashBalance();
+        BigDecimal posQty = pos == null || pos.getQuantity() == null ? BigDecimal.ZERO : pos.getQuantity();
+        BigDecimal posAvg = pos == null || pos.getAvgPrice() == null ? BigDecimal.ZERO : pos.getAvgPrice();
+
+        Long riskRuleHistoryId = findLatestRiskHistoryId(chart);
+
+        List<TrainingTrade> trades = new ArrayList<>(orders.size());
+        List<BigDecimal[]> snapshots = new ArrayList<>(orders.size()); // 주문별 {cash, qty, avg}
+        BigDecimal boughtQty = BigDecimal.ZERO;
+        BigDecimal soldQty = BigDecimal.ZERO;
+
+        for (int i = 0; i < orders.size(); i++) {
+            TradeSide side = orders.get(i).side();
+            BigDecimal qty = qtys.get(i);
+
+            if (side == TradeSide.BUY) {
+                BigDecimal cost = price.multiply(qty);
+                if (cash.compareTo(cost) < 0) {
+                    throw new CustomException(ErrorCode.INSUFFICIENT_CASH);
+                }
+                // 첫 매수(보유 0)면 평단 = 체결가, 아니면 가중평균 (buy와 같은 규칙)
+                posAvg = posQty.signum() == 0 ? price : weightedAvgPrice(posAvg, posQty, price, qty);
+                posQty = posQty.add(qty);
+                cash = cash.subtract(cost);
+                boughtQty = boughtQty.add(qty);
+            } else {
+                if (posQty.compareTo(qty) < 0) {
+                    throw new CustomException(ErrorCode.INSUFFICIENT_POSITION_QTY);
+                }
+                posQty = posQty.subtract(qty);
+                cash = cash.add(price.multiply(qty));
+                // 전량 매도면 포지션이 정리된다 (sell과 같이 평단 0)
+                if (posQty.signum() == 0) {
+                    posAvg = BigDecimal.ZERO;
+                }
+                soldQty = soldQty.add(qty);
+            }
+
+            trades.add(TrainingTrade.builder()
+                    .chartId(chart.getId())
+                    .accountId(acc.getId())
+                    .symbolId(symbolId)
+                    .riskRuleHistoryId(riskRuleHistoryId)
+                    .side(side)
+                    .price(price)
+                    .qty(qty)
+                    .candleTime(candleTime)
+                    .build());
+            snapshots.add(new BigDecimal[]{cash, posQty, posAvg});
+        }
+
+        // ===== 최종 상태 1번 저장 =====
+
+        if (posQty.signum() == 0) {
+            // 포지션 정리 (원래 없었고 사고팔아 0이 된 경우는 저장할 것도 없다)
+            if (pos != null) {
+                positionRepo.delete(pos);
+            }
+            pos = null;
+        } else {
+            if (pos == null) {
+                pos = PaperPosition.builder()
+                        .account(acc)
+                        .symbolId(symbolId)
+                        .build();
+            }
+            pos.setQuantity(posQty);
+            pos.setAvgPrice(posAvg);
+            positionRepo.save(pos);
+        }
+
+        acc.setCashBalance(cash);
+        accountRepo.save(acc);
+
+        List<TrainingTrade> saved = tradeRepo.saveAll(trades);
+        ledgerService.applyAll(chart.getId(), acc.getId(), saved);
+
+        // ===== 요약 TRADE 이벤트 1건 =====
+
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("batch", true);
+        ArrayNode items = payload.putArray("trades");
+        for (TrainingTrade trade : saved) {
+            ObjectNode item = items.addObject();
+            item.putPOJO("tradeId", trade.getId());
+            item.put("side", trade.getSide().name());
+            item.putPOJO("qty", trade.getQty());
+        }
+        payload.putPOJO("boughtQty", boughtQty);
+        payload.putPOJO("soldQty", soldQty);
+        payload.putPOJO("executedPrice", price);
+        payload.putPOJO("cashBalance", cash);
+        payload.putPOJO("positionQty", posQty);
+        payload.putPOJO("avgPrice", posAvg);
+        payload.put("riskRuleHistoryId", riskRuleHistoryId);
+
+        eventService.publish(
+                userId,
+                chart.getId(),
+                Type.TRADE,
+                chart.getSymbol().getName() + " 일괄 주문 " + saved.size() + "건"
+                        + " (매수 " + boughtQty + "주 / 매도 " + soldQty + "주)",
+                payload
+        );
+
+        // 커밋 후 계좌/포지션 캐시 갱신 (1번)
+        publishAccountState(acc, symbolId, pos);
+
+        List<TradeResponse> responses = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            BigDecimal[] snap = snapshots.get(i);
+            responses.add(new TradeResponse(
+                    chart.getId(),
+                    saved.get(i).getId(),
+                    snap[0],
+                    snap[1],
+                    snap[2],
+                    price,
+                    candleTime
+            ));
+        }
+
+        return new BatchTradeResponse(
+                chart.getId(),
+                responses,
+                cash,
+                posQty,
+                posAvg,
+                price,
+                candleTime
+        );
+    }
+
     /**
      * 자동청산 전용 전량매도
      *
@@ -419,7 +664,7 @@ public class TrainingTradeService {
 
         // 1. 차트 조회 + 소유권 검증
         TrainingSessionChart chart =
-                chartRepo.findForUpdateByIdAndUserId(chartId, userId)
+                writeLocks.chartForWrite(chartId, userId)
                         .orElseThrow(() ->
                                 new CustomException(
                                         ErrorCode.TRAINING_CHART_NOT_FOUND
@@ -523,7 +768,7 @@ public class TrainingTradeService {
         accountRepo.save(acc);
 
         // 11. 거래 기록 저장
-        Long riskRuleHistoryId = findLatestRiskHistoryId(chart.getId());
+        Long riskRuleHistoryId = findLatestRiskHistoryId(chart);
         TrainingTrade trade =
                 tradeRepo.save(
                         TrainingTrade.builder()
@@ -538,6 +783,8 @@ public class TrainingTradeService {
                                 .build()
                 );
 
+        ledgerService.apply(chart.getId(), acc.getId(), trade);
+
         // 12. TRADE 이벤트 저장
         ObjectNode payload =
                 objectMapper.createObjectNode();
@@ -560,14 +807,14 @@ public class TrainingTradeService {
         payload.putPOJO("cashBalance", acc.getCashBalance());
         payload.putPOJO("positionQty", BigDecimal.ZERO);
         payload.putPOJO("avgPrice", BigDecimal.ZERO);
-        payload.putPOJO("riskRuleHistoryId", trade.getRiskRuleHistoryId());
+        payload.put("riskRuleHistoryId", trade.getRiskRuleHistoryId());
 
         String reasonName =
                 reason == null
                         ? "UNKNOWN"
                         : reason.name();
 
-        eventService.append(
+        eventService.publish(
                 userId,
                 chart.getId(),
                 Type.TRADE,
@@ -579,6 +826,9 @@ public class TrainingTradeService {
                 payload
         );
 
+        // 커밋 후 계좌/포지션 캐시 갱신 (전량 청산 -> 포지션 EMPTY)
+        publishAccountState(acc, symbolId, null);
+
         // 13. 프론트 응답
         return new LockedSellResult(
                 new TradeResponse(
@@ -597,6 +847,61 @@ public class TrainingTradeService {
     record LockedSellResult(TradeResponse response, BigDecimal executedQty) {
     }
 
+    /**
+     * 예약 주문 체결 (advance 매칭 전용, chart lock을 이미 획득한 트랜잭션 안)
+     *
+     * - 체결가/봉 시간은 주문장 매칭 결과를 그대로 사용
+     * - 현금/보유 수량이 부족하면 예외 대신 null을 반환한다. (주문만 REJECTED로 남기고 진행은 계속)
+     *
+     * @return 체결 결과 / 체결 불가면 null
+     */
+    TradeResponse fillOrderLocked(
+            Long userId,
+            TrainingSessionChart chart,
+            Long orderId,
+            TradeSide side,
+            BigDecimal price,
+            BigDecimal qty,
+            Long candleTime
+    ) {
+        PaperAccount acc = getAccountForUpdate(chart);
+
+        if (side == TradeSide.BUY) {
+            if (acc.getCashBalance().compareTo(price.multiply(qty)) < 0) {
+                return null;
+            }
+            return buyLocked(userId, chart, acc, qty, price, candleTime, orderId);
+        }
+
+        PaperPosition pos = positionRepo
+                .findByAccountIdAndSymbolId(acc.getId(), chart.getSymbol().getId())
+                .orElse(null);
+
+        if (pos == null || pos.getQuantity() == null || pos.getQuantity().compareTo(qty) < 0) {
+            return null;
+        }
+        return sellAtLocked(userId, chart, acc, pos, qty, price, candleTime, false, orderId);
+    }
+
+    /**
+     * 추가 매수 후 평균 단가 (HALF_UP scale 4)
+     * - long 고정소수점으로 계산하고, 소수 자릿수/범위를 벗어나면 BigDecimal로 계산한다. (결과는 같다)
+     */
+    static BigDecimal weightedAvgPrice(BigDecimal oldAvg, BigDecimal oldQty, BigDecimal price, BigDecimal qty) {
+        try {
+            return FixedPoint.toPrice(FixedPoint.weightedAvgTicks(
+                    FixedPoint.priceTicks(oldAvg),
+                    FixedPoint.qtyMicros(oldQty),
+                    FixedPoint.priceTicks(price),
+                    FixedPoint.qtyMicros(qty)
+            ));
+        } catch (ArithmeticException e) {
+            return oldAvg.multiply(oldQty)
+                    .add(price.multiply(qty))
+                    .divide(oldQty.add(qty), 4, RoundingMode.HALF_UP);
+        }
+    }
+
     /**
      * 자동매도/강제종료용: 전량 매도
      * - chart 기반으로 동작
@@ -606,7 +911,7 @@ public class TrainingTradeService {
     public TradeResponse sellAll(Long userId, Long chartId) {
 
         // chartId + userId 조건으로 차트 조회(소유권 검증 포함)
-        TrainingSessionChart chart = chartRepo.findForUpdateByIdAndUserId(chartId, userId)
+        TrainingSessionChart chart = writeLocks.chartForWrite(chartId, userId)
                 .orElseThrow(() -> new CustomException(ErrorCode.TRAINING_CHART_NOT_FOUND));
 
         // 세션이 진행 중이 아니면 거래 금지
@@ -716,19 +1021,31 @@ public class TrainingTradeService {
 //        return BigDecimal.valueOf(candle.getC());
 //    }
 
+    /**
+     * 트랜잭션 커밋 후 계좌 현금 + 포지션 스냅샷을 리플레이 캐시에 반영한다.
+     * - 스냅샷은 커밋 시점에 만든다. (flush로 올라간 @Version이 엔티티에 반영된 뒤)
+     * - position == null 이면 포지션 없음(EMPTY)
+     */
+    private void publishAccountState(PaperAccount acc, Long symbolId, PaperPosition position) {
+        ChartReplayStateCache.afterCommit(() -> replayCache.putAccountState(
+                ChartReplayStateCache.AccountSnapshot.of(acc),
+                symbolId,
+                ChartReplayStateCache.PositionSnapshot.of(position)
+        ));
+    }
+
     private PaperAccount getAccountForUpdate(TrainingSessionChart chart) {
         Long accountId = chart.getSession().getAccount().getId();
-        return accountRepo.findForUpdateById(accountId)
+        return writeLocks.accountForWrite(accountId)
                 .orElseThrow(() -> new CustomException(ErrorCode.PAPER_ACCOUNT_NOT_FOUND));
     }
 
-    private Long findLatestRiskHistoryId(Long chartId) {
-        return riskHistoryRepo.findTopByChartIdOrderByIdDesc(chartId)
-                .map(TrainingRiskRuleHistory::getId)
-                .orElse(null);
+    private Long findLatestRiskHistoryId(TrainingSessionChart chart) {
+        // lock으로 읽은 차트 row의 값 (조회 없음, 다른 서버가 룰을 바꿨으면 룰 캐시도 같이 무효화)
+        return replayCache.syncRiskRule(chart);
     }
 
-    private BigDecimal validateStockQty(BigDecimal qty) {
+    static BigDecimal validateStockQty(BigDecimal qty) {
         // null이거나 0 이하이면 invalid
         if (qty == null || qty.compareTo(BigDecimal.ZERO) <= 0) {
             throw new CustomException(ErrorCode.INVALID_TRADE_QTY);
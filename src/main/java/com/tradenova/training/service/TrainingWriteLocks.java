@@ -0,0 +1,76 @@
+package com.tradenova.training.service;
+
+import com.tradenova.paper.entity.PaperAccount;
+import com.tradenova.paper.repository.PaperAccountRepository;
+import com.tradenova.training.entity.TrainingSessionChart;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * 차트/계좌 쓰기 조회 방식 (락 모드)
+ *
+ * PESSIMISTIC (기본값):
+ * - 차트/계좌를 SELECT ... FOR UPDATE 로 잡는다.
+ * - row lock이 트랜잭션 끝(이벤트 저장 포함)까지 유지된다.
+ *
+ * OPTIMISTIC:
+ * - 같은 차트에 대한 쓰기는 ChartCommandExecutor(프로세스 내 striped lock)가 직렬화한다.
+ * - DB에서는 row lock 없이 읽고, 커밋 시 @Version 비교로만 충돌을 감지한다.
+ *   (차트는 OPTIMISTIC_FORCE_INCREMENT, 계좌/포지션은 엔티티 @Version)
+ * - 다른 서버/다른 차트(같은 계좌)와의 충돌은 ChartCommandExecutor가 재시도한다.
+ *
+ * SEQUENCED:
+ * - 같은 계좌(= 세션의 모든 차트)에 대한 쓰기를 AccountCommandSequencer가 계좌 단위로 한 줄 세운다.
+ * - DB 조회/충돌 감지는 OPTIMISTIC과 같다. 프로세스 안에서는 계좌 @Version 충돌이 생기지 않는다.
+ */
+@Component
+public class TrainingWriteLocks {
+
+    public enum Mode { PESSIMISTIC, OPTIMISTIC, SEQUENCED }
+
+    private final TrainingSessionChartRepository chartRepo;
+    private final PaperAccountRepository accountRepo;
+    private final Mode mode;
+
+    public TrainingWriteLocks(
+            TrainingSessionChartRepository chartRepo,
+            PaperAccountRepository accountRepo,
+            @Value("${tradenova.replay.lock-mode:PESSIMISTIC}") Mode mode
+    ) {
+        this.chartRepo = chartRepo;
+        this.accountRepo = accountRepo;
+        this.mode = mode;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * DB row lock 없이 @Version으로만 충돌을 검사하는 모드인지
+     */
+    public boolean versioned() {
+        return mode != Mode.PESSIMISTIC;
+    }
+
+    /**
+     * 쓰기용 차트 조회 (chartId + 소유자 검증)
+     */
+    public Optional<TrainingSessionChart> chartForWrite(Long chartId, Long userId) {
+        return versioned()
+                ? chartRepo.findForVersionedWriteByIdAndUserId(chartId, userId)
+                : chartRepo.findForUpdateByIdAndUserId(chartId, userId);
+    }
+
+    /**
+     * 쓰기용 계좌 조회
+     */
+    public Optional<PaperAccount> accountForWrite(Long accountId) {
+        return versioned()
+                ? accountRepo.findById(accountId)
+                : accountRepo.findForUpdateById(accountId);
+    }
+}
@@ -0,0 +1,63 @@
+package com.tradenova.common.jpa;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonPayloadTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final SmileJsonPayloadConverter converter = new SmileJsonPayloadConverter();
+
+    @Test
+    void storedSmileRoundTripsAndIsSerializedWithoutParsing() throws Exception {
+        ObjectNode node = om.createObjectNode();
+        node.put("side", "BUY");
+        node.put("qty", 3);
+        node.put("avgPrice", 71000.5);
+        node.putArray("habits").add("추격매수").add("손절 지연");
+
+        byte[] bytes = converter.convertToDatabaseColumn(JsonPayload.of(node));
+        assertThat(JsonPayload.isGzip(bytes)).isFalse();
+        assertThat(new String(bytes, 0, 3)).isEqualTo(":)\n"); // Smile 헤더
+
+        JsonPayload loaded = converter.convertToEntityAttribute(bytes);
+        assertThat(loaded.isParsed()).isFalse();
+
+        // 응답 직렬화는 원본 토큰을 그대로 옮긴다
+        String json = om.writeValueAsString(Map.of("payloadJson", loaded));
+        assertThat(loaded.isParsed()).isFalse();
+        assertThat(om.readTree(json).get("payloadJson")).isEqualTo(node);
+
+        // 필드를 꺼낼 때 처음 파싱
+        assertThat(loaded.node()).isEqualTo(node);
+        assertThat(loaded.isParsed()).isTrue();
+    }
+
+    @Test
+    void largePayloadIsGzippedAndLegacyTextIsReadLazily() throws Exception {
+        ObjectNode node = om.createObjectNode();
+        node.put("freeNote", "매수 근거 ".repeat(500));
+
+        byte[] bytes = converter.convertToDatabaseColumn(JsonPayload.of(node));
+        assertThat(JsonPayload.isGzip(bytes)).isTrue();
+        assertThat(bytes.length).isLessThan(JsonPayload.GZIP_THRESHOLD);
+        assertThat(converter.convertToEntityAttribute(bytes).node()).isEqualTo(node);
+
+        // 예전 LONGTEXT 컬럼 (dual-read)
+        JsonPayload legacy = JsonPayload.fromJsonText("{\"score\":62,\"oneLine\":\"이유 없는 매수\"}");
+        assertThat(om.writeValueAsString(legacy)).isEqualTo("{\"score\":62,\"oneLine\":\"이유 없는 매수\"}");
+        assertThat(legacy.isParsed()).isFalse();
+        assertThat(legacy.node().get("score").asInt()).isEqualTo(62);
+
+        // 다시 저장하면 Smile로 바뀐다
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(legacy)).node())
+                .isEqualTo(legacy.node());
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+}
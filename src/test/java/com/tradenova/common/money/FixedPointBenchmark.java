@@ -0,0 +1,110 @@
+package com.tradenova.common.money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 차트 1개 손익 계산 (매수/매도 시퀀스 + 미실현): BigDecimal vs long 고정소수점
+ *
+ * 기본 빌드(surefire)에서는 실행되지 않는다. 실행 예:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *       com.tradenova.common.money.FixedPointBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixedPointBenchmark {
+
+    private static final int TRADES = 200;
+
+    private boolean[] buys;
+    private long[] priceTicks;
+    private long[] qtyMicros;
+    private BigDecimal[] prices;
+    private BigDecimal[] qtys;
+    private double close;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        buys = new boolean[TRADES];
+        priceTicks = new long[TRADES];
+        qtyMicros = new long[TRADES];
+        prices = new BigDecimal[TRADES];
+        qtys = new BigDecimal[TRADES];
+        long held = 0;
+        for (int i = 0; i < TRADES; i++) {
+            buys[i] = held == 0 || random.nextInt(3) != 0;
+            priceTicks[i] = (50_000L + random.nextInt(20_000)) * FixedPoint.TICKS_PER_UNIT;
+            qtyMicros[i] = buys[i]
+                    ? (1 + random.nextInt(100)) * FixedPoint.MICROS_PER_UNIT
+                    : Math.max(1, held / 2);
+            held += buys[i] ? qtyMicros[i] : -qtyMicros[i];
+            prices[i] = FixedPoint.toPrice(priceTicks[i]);
+            qtys[i] = FixedPoint.toQty(qtyMicros[i]);
+        }
+        close = 61_000.0;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal realized = BigDecimal.ZERO;
+        BigDecimal position = BigDecimal.ZERO;
+        BigDecimal avg = BigDecimal.ZERO;
+        for (int i = 0; i < TRADES; i++) {
+            if (buys[i]) {
+                BigDecimal newQty = position.add(qtys[i]);
+                avg = avg.multiply(position).add(prices[i].multiply(qtys[i])).divide(newQty, 4, RoundingMode.HALF_UP);
+                position = newQty;
+            } else {
+                realized = realized.add(prices[i].subtract(avg).multiply(qtys[i]));
+                position = position.subtract(qtys[i]);
+                if (position.signum() == 0) {
+                    avg = BigDecimal.ZERO;
+                }
+            }
+        }
+        BigDecimal unrealized = position.signum() > 0
+                ? BigDecimal.valueOf(close).subtract(avg).multiply(position)
+                : BigDecimal.ZERO;
+        return realized.add(unrealized).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal fixedPoint() {
+        PositionLedger ledger = new PositionLedger();
+        for (int i = 0; i < TRADES; i++) {
+            if (buys[i]) {
+                ledger.buy(priceTicks[i], qtyMicros[i]);
+            } else {
+                ledger.sell(priceTicks[i], qtyMicros[i]);
+            }
+        }
+        return ledger.totalPnL(ledger.holding() ? FixedPoint.priceTicks(close) : 0L);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(FixedPointBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.tradenova.common.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 고정소수점 연산이 기존 BigDecimal 계산과 같은 값을 내는지 (시드 고정 랜덤 속성 테스트)
+ */
+class FixedPointTest {
+
+    private static final int CASES = 20_000;
+
+    @Test
+    void candlePriceConversionMatchesBigDecimalValueOf() {
+        Random random = new Random(37);
+        for (int i = 0; i < CASES; i++) {
+            long ticks = randomTicks(random);
+            double price = (double) ticks / FixedPoint.TICKS_PER_UNIT;
+
+            assertThat(FixedPoint.priceTicks(price)).isEqualTo(ticks);
+            assertThat(FixedPoint.toPrice(FixedPoint.priceTicks(price)))
+                    .isEqualByComparingTo(BigDecimal.valueOf(price));
+        }
+    }
+
+    @Test
+    void valuesThatDoNotFitTheScaleAreRejected() {
+        assertThatThrownBy(() -> FixedPoint.priceTicks(0.00001))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.priceTicks(new BigDecimal("1.23456")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.qtyMicros(new BigDecimal("0.0000001")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> FixedPoint.amount(Long.MAX_VALUE / 2, 3))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void divideHalfUpMatchesBigDecimalHalfUp() {
+        Random random = new Random(41);
+        for (int i = 0; i < CASES; i++) {
+            long numerator = random.nextLong() >> random.nextInt(40);
+            long denominator = 1 + (random.nextLong() >>> (1 + random.nextInt(50)));
+
+            long expected = BigDecimal.valueOf(numerator)
+                    .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            assertThat(FixedPoint.divideHalfUp(numerator, denominator))
+                    .as("%d / %d", numerator, denominator)
+                    .isEqualTo(expected);
+        }
+        // 정확히 .5 경계
+        assertThat(FixedPoint.divideHalfUp(5, 2)).isEqualTo(3);
+        assertThat(FixedPoint.divideHalfUp(-5, 2)).isEqualTo(-3);
+    }
+
+    @Test
+    void weightedAverageMatchesBigDecimalPolicy() {
+        Random random = new Random(43);
+        for (int i = 0; i < CASES; i++) {
+            long oldAvg = randomTicks(random);
+            long oldQty = randomMicros(random);
+            long price = randomTicks(random);
+            long qty = randomMicros(random);
+
+            BigDecimal expected = FixedPoint.toPrice(oldAvg).multiply(FixedPoint.toQty(oldQty))
+                    .add(FixedPoint.toPrice(price).multiply(FixedPoint.toQty(qty)))
+                    .divide(FixedPoint.toQty(oldQty).add(FixedPoint.toQty(qty)), 4, RoundingMode.HALF_UP);
+
+            BigDecimal actual = FixedPoint.toPrice(FixedPoint.weightedAvgTicks(oldAvg, oldQty, price, qty));
+            assertThat(actual).isEqualTo(expected); // 값 + scale 모두 같음
+        }
+    }
+
+    // 1원 ~ 20만원, 절반은 원 단위 정수 (국내 주식), 나머지는 소수 4자리까지
+    static long randomTicks(Random random) {
+        long won = 1 + random.nextInt(200_000);
+        return random.nextBoolean()
+                ? won * FixedPoint.TICKS_PER_UNIT
+                : won * FixedPoint.TICKS_PER_UNIT + random.nextInt((int) FixedPoint.TICKS_PER_UNIT);
+    }
+
+    // 0.000001주 ~ 1,000주, 절반은 정수 주
+    static long randomMicros(Random random) {
+        return random.nextBoolean()
+                ? (1 + random.nextInt(1_000)) * FixedPoint.MICROS_PER_UNIT
+                : 1 + (long) (random.nextDouble() * 1_000 * FixedPoint.MICROS_PER_UNIT);
+    }
+}
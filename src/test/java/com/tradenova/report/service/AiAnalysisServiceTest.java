@@ -0,0 +1,59 @@
+package com.tradenova.report.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class AiAnalysisServiceTest {
+
+    @Mock private RestTemplate restTemplate;
+    @Mock private PromptBuilder promptBuilder;
+    @Mock private AiResponseCache responseCache;
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    void streamedDeltasRebuildContentAndForwardSummaryAsItArrives() throws Exception {
+        AiAnalysisService service = new AiAnalysisService(restTemplate, promptBuilder, om, responseCache);
+
+        // content = {"score":62,"summary":"추세 \"추종\"은 좋았지만\n손절 지연","warnings":["손절 지연"]}
+        // 키/이스케이프가 조각 경계에서 잘린다
+        List<String> pieces = List.of(
+                "{\"score\":6", "2,\"summ", "ary\": \"추세 \\", "\"추종\\\"은 좋았", "지만\\",
+                "n손절 \\u", "c9c0연\",\"warnings\":[\"손절 지연\"]}");
+
+        StringBuilder sse = new StringBuilder();
+        sse.append("data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}\n\n");
+        for (String p : pieces) {
+            String chunk = om.writeValueAsString(
+                    om.createObjectNode().set("choices", om.createArrayNode().add(
+                            om.createObjectNode().set("delta", om.createObjectNode().put("content", p)))));
+            sse.append("data: ").append(chunk).append("\n\n");
+        }
+        sse.append(": keep-alive\n\n");
+        sse.append("data: {\"choices\":[{\"delta\":{},\"finish_reason\":\"stop\"}]}\n\n");
+        sse.append("data: [DONE]\n\n");
+
+        List<String> forwarded = new ArrayList<>();
+        String content = service.readStream(
+                new ByteArrayInputStream(sse.toString().getBytes(StandardCharsets.UTF_8)), forwarded::add);
+
+        assertThat(content).isEqualTo(String.join("", pieces));
+        assertThat(om.readTree(content).get("summary").asText()).isEqualTo("추세 \"추종\"은 좋았지만\n손절 지연");
+
+        // 조각으로 나뉘어 전달되고, 이어 붙이면 summary 전체
+        assertThat(forwarded.size()).isGreaterThan(1);
+        assertThat(String.join("", forwarded)).isEqualTo("추세 \"추종\"은 좋았지만\n손절 지연");
+    }
+}
@@ -0,0 +1,89 @@
+package com.tradenova.report.service;
+
+import com.tradenova.report.entity.AiResponseCacheEntry;
+import com.tradenova.report.repository.AiResponseCacheRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AiResponseCacheTest {
+
+    @Mock private AiResponseCacheRepository repository;
+
+    // 테이블 흉내
+    private final Map<String, AiResponseCacheEntry> rows = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(repository.save(any(AiResponseCacheEntry.class))).thenAnswer(inv -> {
+            AiResponseCacheEntry e = inv.getArgument(0);
+            rows.put(e.getCacheKey(), e);
+            return e;
+        });
+        lenient().when(repository.findById(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(rows.get((String) inv.getArgument(0))));
+    }
+
+    @Test
+    void keyCoversModelPromptsAndTemperature() {
+        String k = AiResponseCache.key("gpt-4.1-mini", "sys", "user", 0.2);
+        assertThat(k).hasSize(64).isEqualTo(AiResponseCache.key("gpt-4.1-mini", "sys", "user", 0.2));
+        assertThat(k).isNotEqualTo(AiResponseCache.key("gpt-4o-mini", "sys", "user", 0.2));
+        assertThat(k).isNotEqualTo(AiResponseCache.key("gpt-4.1-mini", "sys", "user ", 0.2));
+        assertThat(k).isNotEqualTo(AiResponseCache.key("gpt-4.1-mini", "sys", "user", 0.3));
+        // 구분자 덕분에 경계가 바뀐 프롬프트는 다른 키
+        assertThat(AiResponseCache.key("m", "ab", "c", 0.2)).isNotEqualTo(AiResponseCache.key("m", "a", "bc", 0.2));
+    }
+
+    @Test
+    void memoryThenDatabaseThenMissWithTtl() {
+        AiResponseCache cache = new AiResponseCache(repository, true, 24, 1);
+
+        cache.put("k1", "m", "{\"score\":70}");
+        assertThat(cache.get("k1")).contains("{\"score\":70}");           // 메모리
+
+        cache.put("k2", "m", "{\"score\":50}");                            // k1은 LRU에서 밀려남
+        assertThat(cache.get("k1")).contains("{\"score\":70}");           // DB
+
+        // 만료된 행은 쓰지 않는다
+        rows.put("old", AiResponseCacheEntry.builder()
+                .cacheKey("old").model("m").content("{}")
+                .createdAt(Instant.now().minusSeconds(7200))
+                .expiresAt(Instant.now().minusSeconds(60))
+                .build());
+        assertThat(cache.get("old")).isEmpty();
+        assertThat(cache.get("none")).isEmpty();
+
+        AiResponseCache.Stats stats = cache.stats();
+        assertThat(stats.memoryHits()).isEqualTo(1);
+        assertThat(stats.dbHits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.puts()).isEqualTo(2);
+        assertThat(stats.memoryEntries()).isEqualTo(1);
+        assertThat(stats.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void disabledCacheNeverTouchesTable() {
+        AiResponseCache cache = new AiResponseCache(repository, false, 24, 10);
+        cache.put("k", "m", "{}");
+        assertThat(cache.get("k")).isEmpty();
+        verify(repository, never()).save(any());
+        verify(repository, never()).findById(anyString());
+    }
+}
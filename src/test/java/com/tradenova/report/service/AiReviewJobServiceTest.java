@@ -0,0 +1,171 @@
+package com.tradenova.report.service;
+
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.report.dto.AiReviewJobResponse;
+import com.tradenova.report.dto.TrainingEventResponse;
+import com.tradenova.report.entity.AiReviewJob;
+import com.tradenova.report.entity.AiReviewJobStatus;
+import com.tradenova.report.repository.AiReviewJobRepository;
+import com.tradenova.training.entity.TrainingSession;
+import com.tradenova.training.entity.TrainingSessionChart;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import com.tradenova.training.repository.TrainingSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AiReviewJobServiceTest {
+
+    @Mock private AiReviewJobRepository jobRepository;
+    @Mock private TrainingSessionChartRepository chartRepository;
+    @Mock private TrainingSessionRepository sessionRepository;
+    @Mock private ReportAnalysisService reportAnalysisService;
+    @Mock private SessionReportAnalysisService sessionReportAnalysisService;
+    @Mock private ExecutorService workers;
+
+    private AiReviewJobService service;
+
+    // 저장소 흉내 (id -> job) + worker에 넘어간 작업
+    private final Map<Long, AiReviewJob> jobs = new HashMap<>();
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new AiReviewJobService(
+                jobRepository, chartRepository, sessionRepository,
+                reportAnalysisService, sessionReportAnalysisService,
+                workers, 2, 1000L, true, "node-a", 3_600_000L
+        );
+
+        lenient().when(jobRepository.save(any(AiReviewJob.class))).thenAnswer(inv -> {
+            AiReviewJob j = inv.getArgument(0);
+            if (j.getId() == null) {
+                j.setId((long) jobs.size() + 1);
+                j.setCreatedAt(Instant.now());
+            }
+            jobs.put(j.getId(), j);
+            return j;
+        });
+        lenient().when(jobRepository.findById(anyLong()))
+                .thenAnswer(inv -> Optional.ofNullable(jobs.get((Long) inv.getArgument(0))));
+        lenient().when(jobRepository.findByIdAndUserId(anyLong(), any()))
+                .thenAnswer(inv -> Optional.ofNullable(jobs.get((Long) inv.getArgument(0)))
+                        .filter(j -> j.getUserId().equals(inv.getArgument(1))));
+        lenient().when(chartRepository.findByIdAndSession_User_Id(anyLong(), any()))
+                .thenReturn(Optional.of(TrainingSessionChart.builder().build()));
+        lenient().when(sessionRepository.findByIdAndUserId(anyLong(), any()))
+                .thenReturn(Optional.of(TrainingSession.builder().build()));
+        lenient().doAnswer(inv -> queued.add(inv.getArgument(0))).when(workers).execute(any(Runnable.class));
+    }
+
+    @Test
+    void dedupesSameTargetLimitsPerUserAndRecordsResult() {
+        AiReviewJobResponse first = service.submitChart(1L, 100L);
+        assertThat(first.status()).isEqualTo("QUEUED");
+
+        // 같은 차트는 진행 중인 작업을 그대로 돌려준다
+        assertThat(service.submitChart(1L, 100L).jobId()).isEqualTo(first.jobId());
+        assertThat(queued).hasSize(1);
+
+        service.submitSession(1L, 7L);
+        assertThatThrownBy(() -> service.submitChart(1L, 101L))
+                .isInstanceOf(CustomException.class)
+                .extracting(e -> ((CustomException) e).getErrorCode())
+                .isEqualTo(ErrorCode.AI_JOB_LIMIT_EXCEEDED);
+
+        // 다른 사용자는 영향 없음
+        service.submitChart(2L, 100L);
+
+        when(reportAnalysisService.analyzeLatestSnapshot(eq(1L), eq(100L), any()))
+                .thenReturn(new TrainingEventResponse(900L, 100L, "AI", "AI 리뷰", null, Instant.now()));
+        when(sessionReportAnalysisService.analyzeSession(eq(1L), eq(7L), any()))
+                .thenThrow(new CustomException(ErrorCode.SESSION_AI_ALREADY_EXISTS));
+        queued.get(0).run();
+        queued.get(1).run();
+
+        AiReviewJobResponse done = service.get(1L, first.jobId());
+        assertThat(done.status()).isEqualTo("SUCCEEDED");
+        assertThat(done.resultEventId()).isEqualTo(900L);
+        assertThat(done.startedAt()).isNotNull();
+        assertThat(done.finishedAt()).isNotNull();
+
+        AiReviewJobResponse failed = service.get(1L, 2L);
+        assertThat(failed.status()).isEqualTo("FAILED");
+        assertThat(failed.errorCode()).isEqualTo("SESSION_AI_ALREADY_EXISTS");
+
+        // 끝난 작업은 한도에서 빠진다
+        assertThat(service.submitChart(1L, 101L).status()).isEqualTo("QUEUED");
+
+        // 다른 사용자의 작업은 조회할 수 없다
+        assertThatThrownBy(() -> service.get(2L, first.jobId()))
+                .isInstanceOf(CustomException.class);
+    }
+
+    @Test
+    void savesJobOutsideLockWithOwnerAndSweepsOnlyOwnOrStaleJobs() {
+        // 행 저장 중에는 서비스 락을 잡고 있지 않다
+        when(jobRepository.save(any(AiReviewJob.class))).thenAnswer(inv -> {
+            assertThat(Thread.holdsLock(service)).isFalse();
+            AiReviewJob j = inv.getArgument(0);
+            j.setId(1L);
+            jobs.put(1L, j);
+            return j;
+        });
+        service.submitChart(1L, 100L);
+        assertThat(jobs.get(1L).getOwnerId()).isEqualTo("node-a");
+
+        // 기동 정리는 이 인스턴스 작업 + 오래된 작업만
+        when(jobRepository.failUnfinished(any(), any(), any(), any(), any())).thenReturn(0);
+        Instant before = Instant.now();
+        service.afterSingletonsInstantiated();
+        verify(jobRepository).failUnfinished(
+                eq(List.of(AiReviewJobStatus.QUEUED, AiReviewJobStatus.RUNNING)),
+                eq("node-a"),
+                argThat(staleBefore -> !staleBefore.isAfter(before.minusMillis(3_600_000L).plusSeconds(5))
+                        && staleBefore.isAfter(before.minusMillis(3_600_000L).minusSeconds(5))),
+                eq("AI_JOB_INTERRUPTED"),
+                any(Instant.class));
+    }
+
+    @Test
+    void rejectedSubmissionIsClosedAsQueueFull() {
+        doThrow(new RejectedExecutionException()).when(workers).execute(any(Runnable.class));
+
+        assertThatThrownBy(() -> service.submitChart(1L, 100L))
+                .isInstanceOf(CustomException.class)
+                .extracting(e -> ((CustomException) e).getErrorCode())
+                .isEqualTo(ErrorCode.AI_JOB_QUEUE_FULL);
+
+        assertThat(jobs.get(1L).getStatus().name()).isEqualTo("FAILED");
+        assertThat(jobs.get(1L).getErrorCode()).isEqualTo("AI_JOB_QUEUE_FULL");
+
+        // 한도/중복 집계가 풀려서 다시 등록할 수 있다
+        doAnswer(inv -> queued.add(inv.getArgument(0))).when(workers).execute(any(Runnable.class));
+        assertThat(service.submitChart(1L, 100L).jobId()).isEqualTo(2L);
+    }
+}
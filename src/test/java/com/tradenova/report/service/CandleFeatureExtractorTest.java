@@ -0,0 +1,61 @@
+package com.tradenova.report.service;
+
+import com.tradenova.report.dto.CandleFeatures;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CandleFeatureExtractorTest {
+
+    @Test
+    void computesReturnsAtrDrawdownTrendAndVolumeZ() {
+        double[] close = {100, 110, 99, 121};
+        double[] high = {102, 112, 111, 122};
+        double[] low = {98, 100, 97, 100};
+        double[] volume = {10, 10, 10, 50};
+
+        CandleFeatures f = CandleFeatureExtractor.extract(high, low, close, volume, 99.0, null);
+
+        assertThat(f.bars()).isEqualTo(4);
+        assertThat(f.returnPct()).isCloseTo(21.0, within(1e-9));
+        assertThat(f.lastReturnPct()).isCloseTo((121.0 / 99 - 1) * 100, within(1e-9));
+
+        // 수익률 10%, -10%, 22.22% 의 표본 표준편차
+        double r1 = 0.10, r2 = -0.10, r3 = 121.0 / 99 - 1;
+        double m = (r1 + r2 + r3) / 3;
+        double sd = Math.sqrt(((r1 - m) * (r1 - m) + (r2 - m) * (r2 - m) + (r3 - m) * (r3 - m)) / 2);
+        assertThat(f.volatilityPct()).isCloseTo(sd * 100, within(1e-9));
+
+        // TR: 4, max(12,12,10)=12, max(14,1,13)=14, max(22,23,1)=23 -> 평균 13.25
+        assertThat(f.atr()).isCloseTo(13.25, within(1e-9));
+        assertThat(f.maxDrawdownPct()).isCloseTo(-10.0, within(1e-9));
+
+        // 종가 회귀 기울기 = 26 / 5 = 5.2, 평균 종가 107.5
+        assertThat(f.trendSlopePct()).isCloseTo(5.2 / 107.5 * 100, within(1e-9));
+        assertThat(f.trendR2()).isBetween(0.0, 1.0);
+
+        assertThat(f.rangeLow()).isEqualTo(97);
+        assertThat(f.rangeHigh()).isEqualTo(122);
+        assertThat(f.lastClosePos()).isCloseTo(24.0 / 25, within(1e-9));
+        assertThat(f.entryPos()).isCloseTo(2.0 / 25, within(1e-9));
+        assertThat(f.exitPos()).isNull();
+
+        // 거래량 평균 20, 모표준편차 sqrt(300)
+        assertThat(f.lastVolumeZ()).isCloseTo(30 / Math.sqrt(300), within(1e-9));
+        assertThat(f.maxVolumeBarsAgo()).isZero();
+    }
+
+    @Test
+    void singleFlatBarHasNeutralDescriptors() {
+        CandleFeatures f = CandleFeatureExtractor.extract(
+                new double[]{50}, new double[]{50}, new double[]{50}, new double[]{0}, null, 50.0);
+
+        assertThat(f.returnPct()).isZero();
+        assertThat(f.volatilityPct()).isZero();
+        assertThat(f.trendSlopePct()).isZero();
+        assertThat(f.lastClosePos()).isEqualTo(0.5);
+        assertThat(f.exitPos()).isEqualTo(0.5);
+        assertThat(f.lastVolumeZ()).isZero();
+    }
+}
@@ -0,0 +1,72 @@
+package com.tradenova.report.service;
+
+import com.tradenova.common.money.FixedPoint;
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingTrade;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 차트 최종 손익: 고정소수점(PositionLedger) 결과 == 기존 BigDecimal 결과
+ * - 시드 고정 랜덤 거래 시퀀스 (매수/부분매도/전량매도 섞음, 미실현 포함)
+ */
+class FinalPnLEquivalenceTest {
+
+    private static final int SEQUENCES = 5_000;
+
+    @Test
+    void fixedPointFinalPnLEqualsBigDecimalFinalPnL() {
+        Random random = new Random(2024);
+        for (int s = 0; s < SEQUENCES; s++) {
+            List<TrainingTrade> trades = randomTrades(random);
+            double close = (double) randomTicks(random) / FixedPoint.TICKS_PER_UNIT;
+            DoubleSupplier currentClose = () -> close;
+
+            BigDecimal expected = SessionReportAnalysisService.finalPnLDecimal(trades, currentClose);
+            BigDecimal actual = SessionReportAnalysisService.finalPnLFixed(trades, currentClose);
+
+            assertThat(actual).as("sequence %d", s).isEqualTo(expected);
+        }
+    }
+
+    private static List<TrainingTrade> randomTrades(Random random) {
+        int n = 1 + random.nextInt(30);
+        List<TrainingTrade> trades = new ArrayList<>(n);
+        long held = 0;
+        for (int i = 0; i < n; i++) {
+            long price = randomTicks(random);
+            boolean sell = held > 0 && random.nextInt(3) == 0;
+            long qty;
+            if (sell) {
+                qty = random.nextBoolean() ? held : 1 + (long) (random.nextDouble() * held);
+                qty = Math.min(qty, held);
+                held -= qty;
+            } else {
+                qty = random.nextBoolean()
+                        ? (1 + random.nextInt(500)) * FixedPoint.MICROS_PER_UNIT
+                        : 1 + (long) (random.nextDouble() * 500 * FixedPoint.MICROS_PER_UNIT);
+                held += qty;
+            }
+            trades.add(TrainingTrade.builder()
+                    .side(sell ? TradeSide.SELL : TradeSide.BUY)
+                    .price(FixedPoint.toPrice(price))
+                    .qty(FixedPoint.toQty(qty))
+                    .build());
+        }
+        return trades;
+    }
+
+    private static long randomTicks(Random random) {
+        long won = 1 + random.nextInt(200_000);
+        return random.nextBoolean()
+                ? won * FixedPoint.TICKS_PER_UNIT
+                : won * FixedPoint.TICKS_PER_UNIT + random.nextInt((int) FixedPoint.TICKS_PER_UNIT);
+    }
+}
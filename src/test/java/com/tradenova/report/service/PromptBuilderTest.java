@@ -0,0 +1,72 @@
+package com.tradenova.report.service;
+
+import com.tradenova.report.dto.AiAnalysisRequest;
+import com.tradenova.report.dto.CandleFeatures;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptBuilderTest {
+
+    @Test
+    void longNotesAreTrimmedToBudgetWhileShortOnesStay() {
+        List<String> notes = List.of("지지선 반등", "거래량 ".repeat(300), "", "손절 3%", "메모 ".repeat(100));
+        List<String> fitted = PromptBuilder.fitNotes(notes, 200);
+
+        assertThat(fitted.get(0)).isEqualTo("지지선 반등");
+        assertThat(fitted.get(2)).isEmpty();
+        assertThat(fitted.get(3)).isEqualTo("손절 3%");
+        assertThat(fitted.get(1)).endsWith("…").startsWith("거래량 거래량");
+        assertThat(fitted.get(4)).endsWith("…");
+        assertThat(fitted.stream().mapToInt(PromptBuilder::estimateTokens).sum()).isLessThanOrEqualTo(200);
+
+        // 예산 안이면 그대로
+        assertThat(PromptBuilder.fitNotes(notes.subList(0, 1), 200)).isEqualTo(notes.subList(0, 1));
+    }
+
+    @Test
+    void fittedNotesNeverExceedSmallBudgetAndKeepSurrogatePairs() {
+        List<String> notes = List.of("매수 ".repeat(100), "📈상승".repeat(50), "손절 ".repeat(100));
+
+        // 최소 보장(메모당 40)을 다 줄 수 없는 예산이어도 합은 예산 이하
+        for (int budget : new int[]{0, 1, 10, 50, 119}) {
+            List<String> fitted = PromptBuilder.fitNotes(notes, budget);
+            assertThat(fitted.stream().mapToInt(PromptBuilder::estimateTokens).sum())
+                    .as("budget=%d", budget)
+                    .isLessThanOrEqualTo(budget);
+        }
+        assertThat(PromptBuilder.fitNotes(notes, 0)).containsOnly("");
+
+        // 이모지(서로게이트 쌍) 중간에서 자르지 않는다
+        for (int budget = 4; budget < 60; budget++) {
+            String cut = PromptBuilder.fitNotes(notes, budget).get(1);
+            assertThat(cut.codePoints().noneMatch(cp -> cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE))
+                    .as("budget=%d: %s", budget, cut)
+                    .isTrue();
+        }
+    }
+
+    @Test
+    void userPromptCarriesFeaturesInsteadOfRawSeries() {
+        PromptBuilder builder = new PromptBuilder(600);
+        CandleFeatures f = CandleFeatureExtractor.extract(
+                new double[]{102, 112}, new double[]{98, 100}, new double[]{100, 110}, new double[]{10, 30},
+                101.0, null);
+        AiAnalysisRequest req = new AiAnalysisRequest(
+                "추세 추종", "돌파 ".repeat(1000), "목표가 도달 시 청산", "손절 3%", "",
+                "DEEP", true,
+                BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, BigDecimal.TEN,
+                null, null, false, new BigDecimal("-35.5"), f);
+
+        String prompt = builder.buildUserPrompt(req);
+
+        assertThat(prompt).contains("returnPct=10.00", "atr=", "entryPos=0.21", "exitPos=없음");
+        assertThat(prompt).contains("thesis: 추세 추종", "exitPlan: 목표가 도달 시 청산");
+        assertThat(prompt).contains("maxAdverseExcursion: -35.50");
+        assertThat(prompt).contains("…");
+        assertThat(PromptBuilder.estimateTokens(prompt)).isLessThan(PromptBuilder.estimateTokens("돌파 ".repeat(1000)));
+    }
+}
@@ -0,0 +1,202 @@
+package com.tradenova.report.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.report.dto.SessionTimelineItem;
+import com.tradenova.report.dto.SessionTimelineItem.Kind;
+import com.tradenova.report.dto.SessionTimelinePageResponse;
+import com.tradenova.report.entity.ReportDocument;
+import com.tradenova.report.entity.ReportKind;
+import com.tradenova.report.entity.TrainingEvent;
+import com.tradenova.report.entity.Type;
+import com.tradenova.report.repository.ReportDocumentRepository;
+import com.tradenova.report.repository.TrainingEventRepository;
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingTrade;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import com.tradenova.training.repository.TrainingTradeRepository;
+import jakarta.persistence.EntityManager;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionTimelineServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-05T00:00:00Z");
+
+    @Mock private TrainingSessionChartRepository chartRepository;
+    @Mock private TrainingEventRepository eventRepository;
+    @Mock private TrainingTradeRepository tradeRepository;
+    @Mock private ReportDocumentRepository reportDocumentRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private EntityManager entityManager;
+
+    private SessionTimelineService service;
+
+    // 각 저장소의 행 (시간 순)
+    private final List<TrainingTrade> trades = new ArrayList<>();
+    private final List<TrainingEvent> events = new ArrayList<>();
+    private final List<ReportDocument> snapshots = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new SessionTimelineService(
+                chartRepository,
+                eventRepository,
+                tradeRepository,
+                reportDocumentRepository,
+                transactionManager,
+                entityManager,
+                new ObjectMapper()
+        );
+
+        // 거래 2건, 이벤트 3건(그중 1건은 거래와 같은 시각), 스냅샷 1건
+        trades.add(trade(11L, 10));
+        trades.add(trade(12L, 30));
+        events.add(event(21L, 5));
+        events.add(event(22L, 10));
+        events.add(event(23L, 40));
+        snapshots.add(snapshot(31L, 30));
+
+        // 키셋 조건 (createdAt, id) > (at, afterId) 을 메모리에서 흉내낸다
+        // 차트 1개씩 조회하므로 chartId로도 거른다
+        lenient().when(tradeRepository.findTimelineAfter(anyLong(), any(OffsetDateTime.class), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> after(chart(trades, TrainingTrade::getChartId, inv.getArgument(0)),
+                        t -> t.getCreatedAt().toInstant(), TrainingTrade::getId,
+                        ((OffsetDateTime) inv.getArgument(1)).toInstant(), inv.getArgument(2), inv.getArgument(3)));
+        lenient().when(eventRepository.findTimelineAfter(eq(1L), anyLong(), any(Instant.class), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> after(chart(events, TrainingEvent::getChartId, inv.getArgument(1)),
+                        TrainingEvent::getCreatedAt, TrainingEvent::getId,
+                        inv.getArgument(2), inv.getArgument(3), inv.getArgument(4)));
+        lenient().when(reportDocumentRepository.findTimelineAfter(eq(1L), anyLong(), eq(ReportKind.SNAPSHOT),
+                        any(Instant.class), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> after(chart(snapshots, ReportDocument::getChartId, inv.getArgument(1)),
+                        ReportDocument::getCreatedAt, ReportDocument::getId,
+                        inv.getArgument(3), inv.getArgument(4), inv.getArgument(5)));
+    }
+
+    @Test
+    void mergesAllKindsByTimeWithSmallBatches() {
+        Iterator<SessionTimelineItem> merged =
+                service.merge(1L, List.of(100L), SessionTimelineService.Position.START, 1);
+
+        List<String> order = new ArrayList<>();
+        merged.forEachRemaining(i -> order.add(i.kind() + ":" + i.id()));
+
+        // 같은 시각이면 거래 -> 이벤트 -> 스냅샷
+        assertThat(order).containsExactly(
+                "EVENT:21", "TRADE:11", "EVENT:22", "TRADE:12", "SNAPSHOT:31", "EVENT:23");
+    }
+
+    @Test
+    void mergesPerChartCursorsIntoOneTimeline() {
+        // 다른 차트의 거래 (차트마다 커서가 따로 열린다)
+        trades.add(trade(13L, 200L, 20));
+
+        Iterator<SessionTimelineItem> merged =
+                service.merge(1L, List.of(100L, 200L), SessionTimelineService.Position.START, 1);
+
+        List<String> order = new ArrayList<>();
+        merged.forEachRemaining(i -> order.add(i.kind() + ":" + i.id()));
+
+        assertThat(order).containsExactly(
+                "EVENT:21", "TRADE:11", "EVENT:22", "TRADE:13", "TRADE:12", "SNAPSHOT:31", "EVENT:23");
+    }
+
+    @Test
+    void pagesContinueFromCursorWithoutGapsOrDuplicates() {
+        when(chartRepository.findChartIdsBySessionIdAndUserId(7L, 1L)).thenReturn(List.of(100L));
+
+        SessionTimelinePageResponse first = service.page(1L, 7L, null, 2);
+        assertThat(first.items()).extracting(SessionTimelineItem::id).containsExactly(21L, 11L);
+        assertThat(first.nextCursor()).isNotNull();
+
+        SessionTimelinePageResponse second = service.page(1L, 7L, first.nextCursor(), 3);
+        assertThat(second.items()).extracting(SessionTimelineItem::id).containsExactly(22L, 12L, 31L);
+
+        SessionTimelinePageResponse last = service.page(1L, 7L, second.nextCursor(), 3);
+        assertThat(last.items()).extracting(SessionTimelineItem::kind, SessionTimelineItem::id)
+                .containsExactly(Tuple.tuple(Kind.EVENT, 23L));
+        assertThat(last.nextCursor()).isNull();
+
+        assertThatThrownBy(() -> service.page(1L, 7L, "not-a-cursor", 3))
+                .isInstanceOf(CustomException.class);
+    }
+
+    private static <T> List<T> after(List<T> rows,
+                                     Function<T, Instant> at,
+                                     Function<T, Long> id,
+                                     Instant fromAt, long afterId, Pageable page) {
+        return rows.stream()
+                .filter(r -> at.apply(r).isAfter(fromAt)
+                        || (at.apply(r).equals(fromAt) && id.apply(r) > afterId))
+                .limit(page.getPageSize())
+                .toList();
+    }
+
+    private static <T> List<T> chart(List<T> rows, Function<T, Long> chartId, Long id) {
+        return rows.stream().filter(r -> id.equals(chartId.apply(r))).toList();
+    }
+
+    private static TrainingTrade trade(Long id, int sec) {
+        return trade(id, 100L, sec);
+    }
+
+    private static TrainingTrade trade(Long id, Long chartId, int sec) {
+        return TrainingTrade.builder()
+                .id(id)
+                .chartId(chartId)
+                .accountId(10L)
+                .symbolId(1L)
+                .side(TradeSide.BUY)
+                .price(BigDecimal.ONE)
+                .qty(BigDecimal.ONE)
+                .candleTime(0L)
+                .createdAt(T0.plusSeconds(sec).atOffset(ZoneOffset.UTC))
+                .build();
+    }
+
+    private static TrainingEvent event(Long id, int sec) {
+        return TrainingEvent.builder()
+                .id(id)
+                .userId(1L)
+                .chartId(100L)
+                .type(Type.TRADE)
+                .summary("e" + id)
+                .createdAt(T0.plusSeconds(sec))
+                .build();
+    }
+
+    private static ReportDocument snapshot(Long id, int sec) {
+        return ReportDocument.builder()
+                .id(id)
+                .userId(1L)
+                .chartId(100L)
+                .kind(ReportKind.SNAPSHOT)
+                .createdAt(T0.plusSeconds(sec))
+                .build();
+    }
+}
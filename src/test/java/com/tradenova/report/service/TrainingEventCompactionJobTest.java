@@ -0,0 +1,148 @@
+package com.tradenova.report.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tradenova.common.jpa.JsonPayload;
+import com.tradenova.report.entity.TrainingEvent;
+import com.tradenova.report.entity.Type;
+import com.tradenova.report.repository.TrainingEventRepository;
+import com.tradenova.training.entity.TrainingSessionCandle;
+import com.tradenova.training.repository.TrainingSessionCandleRepository;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrainingEventCompactionJobTest {
+
+    @Mock private TrainingSessionChartRepository chartRepository;
+    @Mock private TrainingEventRepository eventRepository;
+    @Mock private TrainingSessionCandleRepository candleRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    private TrainingEventCompactionJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new TrainingEventCompactionJob(
+                chartRepository, eventRepository, candleRepository, transactionManager, om,
+                true, 50, 100, 0
+        );
+    }
+
+    @Test
+    void foldsConsecutiveProgressRunsAndKeepsTradesAndAutoExits() throws Exception {
+        TrainingEvent p1 = progress(1L, 0, 10, "100", false);
+        TrainingEvent p2 = progress(2L, 10, 15, "90", false);
+        TrainingEvent p3 = progress(3L, 15, 20, "120", false);
+        TrainingEvent trade = event(4L, Type.TRADE, om.createObjectNode());
+        TrainingEvent p5 = progress(5L, 20, 25, "110", false);   // 혼자라 그대로
+        TrainingEvent trade2 = event(6L, Type.TRADE, om.createObjectNode());
+        TrainingEvent p7 = progress(7L, 25, 30, "105", false);
+        TrainingEvent exit = progress(8L, 30, 32, "95", true);   // 자동청산은 묶지 않음
+        TrainingEvent p9 = progress(9L, 32, 40, "99", false);
+
+        when(chartRepository.findEventCompactionCandidates(eq(0L), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{100L, 1L}));
+        when(eventRepository.findAllByUserIdAndChartIdOrderByIdAsc(1L, 100L))
+                .thenReturn(new ArrayList<>(List.of(p1, p2, p3, trade, p5, trade2, p7, exit, p9)));
+        List<TrainingSessionCandle> candles = candles(40);
+        when(candleRepository.findAllByChartIdOrderByIdxAsc(100L)).thenReturn(candles);
+
+        assertThat(job.runOnce()).isEqualTo(2);
+
+        verify(eventRepository).deleteAllByIdInBatch(List.of(2L, 3L));
+        verify(chartRepository).markEventsCompacted(eq(100L), any(OffsetDateTime.class));
+
+        JsonNode summary = p1.getPayloadJson();
+        assertThat(summary.get("compacted").asBoolean()).isTrue();
+        assertThat(summary.get("events").asInt()).isEqualTo(3);
+        assertThat(summary.get("advancedSteps").asInt()).isEqualTo(20);
+        assertThat(summary.get("fromIndex").asInt()).isZero();
+        assertThat(summary.get("toIndex").asInt()).isEqualTo(20);
+        // 가격 범위는 캔들 기준: 진행 전(0번) 봉 종가, 0..20번 봉 저가/고가
+        assertThat(summary.get("startPrice").decimalValue()).isEqualByComparingTo("1000");
+        assertThat(summary.get("currentPrice").decimalValue()).isEqualByComparingTo("120");
+        assertThat(summary.get("minPrice").decimalValue()).isEqualByComparingTo("995");
+        assertThat(summary.get("maxPrice").decimalValue()).isEqualByComparingTo("1025");
+        assertThat(p1.getSummary()).isEqualTo("20봉 진행 (3회 묶음)");
+
+        // 요약된 이벤트는 다시 묶어도 합계가 유지된다
+        TrainingEvent next = progress(10L, 20, 22, "80", false);
+        ObjectNode again = job.summarize(List.of(p1, next), candles);
+        assertThat(again.get("events").asInt()).isEqualTo(4);
+        assertThat(again.get("advancedSteps").asInt()).isEqualTo(22);
+        assertThat(again.get("startPrice").decimalValue()).isEqualByComparingTo("1000");
+        assertThat(again.get("maxPrice").decimalValue()).isEqualByComparingTo("1027");
+
+        // 캔들이 없으면 이벤트 가격(currentPrice)으로 대신 계산한다
+        ObjectNode fallback = job.summarize(List.of(p1, next), List.of());
+        assertThat(fallback.get("startPrice").decimalValue()).isEqualByComparingTo("1000");
+        assertThat(fallback.get("minPrice").decimalValue()).isEqualByComparingTo("80");
+
+        assertThat(job.stats().chartsCompacted()).isEqualTo(1);
+        assertThat(job.stats().eventsDeleted()).isEqualTo(2);
+    }
+
+    /**
+     * idx i 봉: 종가 1000+i, 저가 종가-5, 고가 종가+5
+     */
+    private static List<TrainingSessionCandle> candles(int count) {
+        List<TrainingSessionCandle> list = new ArrayList<>();
+        for (int i = 0; i <= count; i++) {
+            double close = 1000 + i;
+            list.add(TrainingSessionCandle.builder()
+                    .chartId(100L)
+                    .idx(i)
+                    .c(close)
+                    .l(close - 5)
+                    .h(close + 5)
+                    .build());
+        }
+        return list;
+    }
+
+    private TrainingEvent progress(Long id, int from, int to, String price, boolean autoExited) {
+        ObjectNode p = om.createObjectNode();
+        p.put("requestedSteps", to - from);
+        p.put("advancedSteps", to - from);
+        p.put("fromIndex", from);
+        p.put("toIndex", to);
+        p.put("progressIndex", to);
+        p.put("bars", 40);
+        p.put("currentPrice", new BigDecimal(price));
+        p.put("autoExited", autoExited);
+        p.put("orderFills", 0);
+        return event(id, Type.PROGRESS, p);
+    }
+
+    private static TrainingEvent event(Long id, Type type, ObjectNode payload) {
+        return TrainingEvent.builder()
+                .id(id)
+                .userId(1L)
+                .chartId(100L)
+                .type(type)
+                .summary("e" + id)
+                .payload(JsonPayload.of(payload))
+                .build();
+    }
+}
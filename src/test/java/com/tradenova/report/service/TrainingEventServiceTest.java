@@ -0,0 +1,145 @@
+package com.tradenova.report.service;
+
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.report.dto.TrainingEventDraft;
+import com.tradenova.report.dto.TrainingEventPageResponse;
+import com.tradenova.report.dto.TrainingEventResponse;
+import com.tradenova.report.entity.AnalysisScope;
+import com.tradenova.report.entity.TrainingEvent;
+import com.tradenova.report.entity.Type;
+import com.tradenova.report.repository.TrainingEventRepository;
+import com.tradenova.training.entity.TrainingSessionChart;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrainingEventServiceTest {
+
+    @Mock private TrainingEventRepository repo;
+    @Mock private TrainingSessionChartRepository chartRepository;
+    @Mock private TrainingEventWriteBehind writeBehind;
+
+    private TrainingEventService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TrainingEventService(repo, chartRepository, writeBehind, new ChartOwnershipCache());
+    }
+
+    @Test
+    void appendAllChecksOwnershipOnceAndReusesItForLaterCalls() {
+        when(chartRepository.findOwnedChartIds(eq(7L), any())).thenReturn(List.of(1L, 2L));
+        when(repo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<TrainingEventDraft> drafts = List.of(
+                new TrainingEventDraft(1L, Type.NOTE, "차트 강제 종료", null),
+                new TrainingEventDraft(2L, Type.NOTE, "차트 강제 종료", null),
+                new TrainingEventDraft(1L, Type.NOTE, "세션 종료", null)
+        );
+
+        assertThat(service.appendAll(7L, drafts)).hasSize(3);
+        service.appendAll(7L, drafts);
+
+        // 중복 제거된 차트 id로 쿼리 1번, 두 번째 호출은 캐시
+        verify(chartRepository, times(1)).findOwnedChartIds(7L, Set.of(1L, 2L));
+        verify(repo, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void appendAllRejectsBatchContainingForeignChart() {
+        when(chartRepository.findOwnedChartIds(eq(7L), any())).thenReturn(List.of(1L));
+
+        List<TrainingEventDraft> drafts = List.of(
+                new TrainingEventDraft(1L, Type.NOTE, "mine", null),
+                new TrainingEventDraft(9L, Type.NOTE, "not mine", null)
+        );
+
+        assertThatThrownBy(() -> service.appendAll(7L, drafts))
+                .isInstanceOf(CustomException.class)
+                .extracting(e -> ((CustomException) e).getErrorCode())
+                .isEqualTo(ErrorCode.TRAINING_CHART_NOT_FOUND);
+        verify(repo, never()).saveAll(anyList());
+        verify(repo, never()).save(any(TrainingEvent.class));
+    }
+
+    @Test
+    void appendAiStoresScopeAndSessionAsColumnsForIndexedLookup() {
+        when(chartRepository.findByIdAndSession_User_Id(1L, 7L))
+                .thenReturn(Optional.of(TrainingSessionChart.builder().id(1L).build()));
+        when(repo.save(any(TrainingEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.appendAi(7L, 1L, "세션 AI 리뷰", null, AnalysisScope.SESSION, 40L);
+        service.appendAi(7L, 1L, "차트 AI 리뷰", null, AnalysisScope.CHART, 40L);
+
+        ArgumentCaptor<TrainingEvent> saved = ArgumentCaptor.forClass(TrainingEvent.class);
+        verify(repo, times(2)).save(saved.capture());
+
+        assertThat(saved.getAllValues())
+                .extracting(TrainingEvent::getType, TrainingEvent::getAnalysisScope, TrainingEvent::getSessionId)
+                .containsExactly(
+                        tuple(Type.AI, AnalysisScope.SESSION, 40L),
+                        // 차트 리뷰는 세션 컬럼을 비워 둔다
+                        tuple(Type.AI, AnalysisScope.CHART, null)
+                );
+    }
+
+    @Test
+    void appendAiRejectsSessionScopeWithoutSessionId() {
+        assertThatThrownBy(() -> service.appendAi(7L, 1L, "세션 AI 리뷰", null, AnalysisScope.SESSION, null))
+                .isInstanceOf(CustomException.class)
+                .extracting(e -> ((CustomException) e).getErrorCode())
+                .isEqualTo(ErrorCode.INVALID_TRAINING_EVENT);
+        verify(repo, never()).save(any(TrainingEvent.class));
+    }
+
+    @Test
+    void listPageReadsOneExtraRowToReturnNextCursorWithoutOffset() {
+        when(repo.findByUserIdAndChartIdAndIdLessThanOrderByIdDesc(eq(7L), eq(1L), eq(Long.MAX_VALUE), any()))
+                .thenReturn(List.of(event(30L), event(20L), event(10L)));
+        when(repo.findByUserIdAndChartIdAndIdLessThanOrderByIdDesc(eq(7L), eq(1L), eq(20L), any()))
+                .thenReturn(List.of(event(10L)));
+
+        TrainingEventPageResponse first = service.listPage(7L, 1L, null, 2);
+        assertThat(first.items()).extracting(TrainingEventResponse::id).containsExactly(30L, 20L);
+        assertThat(first.nextCursor()).isEqualTo(20L);
+
+        TrainingEventPageResponse last = service.listPage(7L, 1L, first.nextCursor(), 2);
+        assertThat(last.items()).extracting(TrainingEventResponse::id).containsExactly(10L);
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    @Test
+    void listSessionPageRejectsForeignSession() {
+        when(chartRepository.findChartIdsBySessionIdAndUserId(40L, 7L)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> service.listSessionPage(7L, 40L, null, 50))
+                .isInstanceOf(CustomException.class)
+                .extracting(e -> ((CustomException) e).getErrorCode())
+                .isEqualTo(ErrorCode.TRAINING_SESSION_NOT_FOUND);
+    }
+
+    private static TrainingEvent event(Long id) {
+        return TrainingEvent.builder().id(id).userId(7L).chartId(1L).type(Type.NOTE).summary("note").build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.tradenova.report.service;
+
+import com.tradenova.report.entity.TrainingEvent;
+import com.tradenova.report.entity.Type;
+import com.tradenova.report.repository.TrainingEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrainingEventWriteBehindTest {
+
+    @Mock private TrainingEventRepository repo;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @Test
+    void asyncModeWritesQueuedEventsInBatchesAndFlushesOnStop() {
+        TrainingEventWriteBehind writeBehind = new TrainingEventWriteBehind(
+                repo, transactionManager, TrainingEventWriteBehind.Mode.ASYNC, 100, 3, 50
+        );
+        writeBehind.start();
+
+        for (int i = 0; i < 7; i++) {
+            writeBehind.submit(event(i));
+        }
+        writeBehind.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TrainingEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repo, atLeastOnce()).saveAll(captor.capture());
+        verify(repo, never()).save(org.mockito.ArgumentMatchers.any(TrainingEvent.class));
+
+        List<String> written = new ArrayList<>();
+        for (List<TrainingEvent> batch : captor.getAllValues()) {
+            assertThat(batch).hasSizeLessThanOrEqualTo(3);
+            batch.forEach(e -> written.add(e.getSummary()));
+        }
+        // 단일 writer라 적재 순서대로 저장된다
+        assertThat(written).containsExactly("e0", "e1", "e2", "e3", "e4", "e5", "e6");
+        assertThat(writeBehind.isRunning()).isFalse();
+    }
+
+    @Test
+    void fullQueueBlocksCallerInsteadOfWritingAheadOfQueuedEvents() {
+        // 큐 2칸 + offer 대기 0ms: 대부분의 submit이 큐가 가득 찬 상태를 만난다
+        TrainingEventWriteBehind writeBehind = new TrainingEventWriteBehind(
+                repo, transactionManager, TrainingEventWriteBehind.Mode.ASYNC, 2, 2, 0
+        );
+        writeBehind.start();
+
+        for (int i = 0; i < 30; i++) {
+            writeBehind.submit(event(i));
+        }
+        writeBehind.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TrainingEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repo, atLeastOnce()).saveAll(captor.capture());
+
+        List<String> written = new ArrayList<>();
+        captor.getAllValues().forEach(batch -> batch.forEach(e -> written.add(e.getSummary())));
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            expected.add("e" + i);
+        }
+        assertThat(written).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void flushChartsWritesThatChartsQueuedEventsBeforeReturning() {
+        TrainingEventWriteBehind writeBehind = new TrainingEventWriteBehind(
+                repo, transactionManager, TrainingEventWriteBehind.Mode.ASYNC, 100, 3, 50
+        );
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        when(repo.saveAll(anyList())).thenAnswer(inv -> {
+            List<TrainingEvent> batch = inv.getArgument(0);
+            batch.forEach(e -> written.add(e.getSummary()));
+            return batch;
+        });
+        writeBehind.start();
+
+        for (int i = 0; i < 20; i++) {
+            writeBehind.submit(event(i, i % 2 == 0 ? 1L : 2L));
+        }
+        writeBehind.flushCharts(List.of(1L));
+
+        // 반환 시점에 차트 1 이벤트는 모두 저장돼 있다 (동기 저장보다 앞선 id)
+        List<String> chart1 = new ArrayList<>();
+        for (int i = 0; i < 20; i += 2) {
+            chart1.add("e" + i);
+        }
+        synchronized (written) {
+            assertThat(written).containsAll(chart1);
+        }
+
+        writeBehind.stop();
+        // 차트별 순서는 유지된다
+        assertThat(written.stream().filter(chart1::contains).toList()).containsExactlyElementsOf(chart1);
+        assertThat(written).hasSize(20);
+    }
+
+    @Test
+    void syncModeSavesImmediatelyWithoutQueue() {
+        TrainingEventWriteBehind writeBehind = new TrainingEventWriteBehind(
+                repo, transactionManager, TrainingEventWriteBehind.Mode.SYNC, 100, 3, 50
+        );
+        writeBehind.start();
+
+        TrainingEvent event = event(0);
+        writeBehind.submit(event);
+
+        verify(repo).saveAll(List.of(event));
+        assertThat(writeBehind.isRunning()).isFalse();
+    }
+
+    private static TrainingEvent event(int i) {
+        return event(i, 1L);
+    }
+
+    private static TrainingEvent event(int i, Long chartId) {
+        return TrainingEvent.builder()
+                .userId(7L)
+                .chartId(chartId)
+                .type(Type.PROGRESS)
+                .summary("e" + i)
+                .build();
+    }
+}
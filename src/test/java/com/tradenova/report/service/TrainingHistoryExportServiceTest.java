@@ -0,0 +1,93 @@
+package com.tradenova.report.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tradenova.report.entity.ReportDocument;
+import com.tradenova.report.entity.ReportKind;
+import com.tradenova.report.entity.TrainingEvent;
+import com.tradenova.report.entity.Type;
+import com.tradenova.report.repository.ReportDocumentRepository;
+import com.tradenova.report.repository.TrainingEventRepository;
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingTrade;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import com.tradenova.training.repository.TrainingTradeRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrainingHistoryExportServiceTest {
+
+    @Mock private TrainingSessionChartRepository chartRepository;
+    @Mock private TrainingEventRepository eventRepository;
+    @Mock private TrainingTradeRepository tradeRepository;
+    @Mock private ReportDocumentRepository reportDocumentRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private TrainingHistoryExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TrainingHistoryExportService(
+                chartRepository,
+                eventRepository,
+                tradeRepository,
+                reportDocumentRepository,
+                transactionManager,
+                entityManager,
+                objectMapper
+        );
+    }
+
+    @Test
+    void writesOneJsonLinePerRowAndDetachesEachEntity() throws Exception {
+        TrainingEvent event = TrainingEvent.builder().id(5L).userId(7L).chartId(1L).type(Type.NOTE).summary("메모").build();
+        TrainingTrade trade = TrainingTrade.builder().id(6L).chartId(1L).accountId(10L).symbolId(20L)
+                .side(TradeSide.BUY).price(new BigDecimal("100.0000")).qty(new BigDecimal("1.000000")).candleTime(100L).build();
+        ReportDocument snapshot = ReportDocument.builder().id(8L).userId(7L).chartId(1L).kind(ReportKind.SNAPSHOT).build();
+
+        when(eventRepository.streamByUserIdAndChartIdOrderByIdAsc(7L, 1L)).thenReturn(Stream.of(event));
+        when(tradeRepository.streamByChartIdOrderByIdAsc(1L)).thenReturn(Stream.of(trade));
+        when(reportDocumentRepository.streamByUserIdAndChartIdAndKindOrderByIdAsc(7L, 1L, ReportKind.SNAPSHOT))
+                .thenReturn(Stream.of(snapshot));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.write(7L, 40L, List.of(1L), out);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+
+        assertThat(lines).extracting(n -> n.get("kind").asText())
+                .containsExactly("session", "event", "trade", "snapshot", "end");
+        assertThat(lines.get(1).get("data").get("id").asLong()).isEqualTo(5L);
+        assertThat(lines.get(2).get("data").get("tradeId").asLong()).isEqualTo(6L);
+        assertThat(lines.get(4).get("events").asInt()).isEqualTo(1);
+
+        // 영속성 컨텍스트에 쌓이지 않도록 행마다 분리
+        verify(entityManager).detach(event);
+        verify(entityManager).detach(trade);
+        verify(entityManager).detach(snapshot);
+    }
+}
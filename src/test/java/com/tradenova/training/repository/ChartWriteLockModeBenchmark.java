@@ -0,0 +1,228 @@
+package com.tradenova.training.repository;
+
+import com.tradenova.training.service.ChartCommandExecutor;
+import com.tradenova.training.service.TrainingWriteLocks;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 차트 쓰기 락 모드 비교 (PESSIMISTIC: FOR UPDATE vs OPTIMISTIC: striped lock + @Version)
+ *
+ * - advance 1회를 흉내 낸다: 차트/계좌 조회 -> progress/cash 갱신 -> 이벤트 INSERT -> 커밋
+ * - PESSIMISTIC 은 차트/계좌 row lock을 이벤트 INSERT까지 쥐고 있고,
+ *   OPTIMISTIC 은 lock 없이 읽은 뒤 version 조건 UPDATE로만 충돌을 검사한다.
+ * - 실제 MySQL이 필요하므로 기본 빌드에서는 실행되지 않는다.
+ * - 실행 예:
+ *   mvn -Dtest=ChartWriteLockModeBenchmark -Dsurefire.failIfNoSpecifiedTests=false \
+ *       -Dtradenova.bench.jdbc-url="jdbc:mysql://localhost:3306/tradenova_bench" \
+ *       -Dtradenova.bench.username=root -Dtradenova.bench.password=... test
+ */
+@EnabledIfSystemProperty(named = "tradenova.bench.jdbc-url", matches = ".+")
+class ChartWriteLockModeBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int CHARTS = 8;          // 차트 8개가 계좌 1개를 공유 (같은 유저의 멀티차트)
+    private static final int COMMANDS_PER_THREAD = 200;
+
+    @Test
+    void comparesPessimisticRowLocksWithOptimisticStripedLocks() throws Exception {
+        String url = System.getProperty("tradenova.bench.jdbc-url");
+        String user = System.getProperty("tradenova.bench.username", "root");
+        String password = System.getProperty("tradenova.bench.password", "");
+
+        try (Connection con = DriverManager.getConnection(url, user, password)) {
+            recreateTables(con);
+        }
+
+        Result pessimistic = run(url, user, password, TrainingWriteLocks.Mode.PESSIMISTIC);
+        Result optimistic = run(url, user, password, TrainingWriteLocks.Mode.OPTIMISTIC);
+
+        long expected = (long) THREADS * COMMANDS_PER_THREAD;
+        assertThat(pessimistic.committed()).isEqualTo(expected);
+        // 재시도를 다 써버린 명령은 409로 끝난다 (계좌를 공유하는 차트가 많을수록 늘어남)
+        assertThat(optimistic.committed() + optimistic.conflicts()).isEqualTo(expected);
+
+        print("PESSIMISTIC", pessimistic);
+        print("OPTIMISTIC", optimistic);
+
+        try (Connection con = DriverManager.getConnection(url, user, password);
+             Statement st = con.createStatement()) {
+            st.execute("DROP TABLE bench_chart");
+            st.execute("DROP TABLE bench_account");
+            st.execute("DROP TABLE bench_event");
+        }
+    }
+
+    private static void print(String mode, Result r) {
+        System.out.printf("[bench] %-11s: %,d cmds in %,d ms (%,.0f cmd/s), avg lock wait %.1f us, retries %,d, conflicts %,d%n",
+                mode, r.committed(), r.elapsedMs(), r.throughput(), r.avgWaitMicros(), r.retries(), r.conflicts());
+    }
+
+    private record Result(long committed, long conflicts, long elapsedMs, double avgWaitMicros, long retries) {
+        double throughput() {
+            return committed / (elapsedMs / 1000.0);
+        }
+    }
+
+    private Result run(String url, String user, String password, TrainingWriteLocks.Mode mode) throws Exception {
+        ChartCommandExecutor executor = new ChartCommandExecutor(new TrainingWriteLocks(null, null, mode), null);
+        AtomicLong committed = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong dbLockWaitNanos = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                try (Connection con = DriverManager.getConnection(url, user, password)) {
+                    con.setAutoCommit(false);
+                    start.await();
+                    for (int i = 0; i < COMMANDS_PER_THREAD; i++) {
+                        long chartId = (seed + i) % CHARTS + 1;
+                        if (mode == TrainingWriteLocks.Mode.PESSIMISTIC) {
+                            advancePessimistic(con, chartId, dbLockWaitNanos);
+                        } else {
+                            try {
+                                executor.execute(chartId, () -> advanceOptimistic(con, chartId));
+                            } catch (ObjectOptimisticLockingFailureException e) {
+                                conflicts.incrementAndGet();
+                                continue;
+                            }
+                        }
+                        committed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(10, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - began;
+        pool.shutdown();
+
+        ChartCommandExecutor.Stats stats = executor.stats();
+        double avgWait = mode == TrainingWriteLocks.Mode.PESSIMISTIC
+                ? dbLockWaitNanos.get() / 1_000.0 / committed.get()
+                : stats.averageWaitMicros();
+        return new Result(committed.get(), conflicts.get(), elapsed / 1_000_000, avgWait, stats.retries());
+    }
+
+    // 현재 모드: chart FOR UPDATE -> account FOR UPDATE -> 갱신 -> 이벤트 INSERT -> 커밋 (lock 유지)
+    private static void advancePessimistic(Connection con, long chartId, AtomicLong lockWaitNanos) throws Exception {
+        long waitStart = System.nanoTime();
+        selectForUpdate(con, "SELECT progress FROM bench_chart WHERE id = ? FOR UPDATE", chartId);
+        selectForUpdate(con, "SELECT cash FROM bench_account WHERE id = ? FOR UPDATE", 1L);
+        lockWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+        update(con, "UPDATE bench_chart SET progress = progress + 1, version = version + 1 WHERE id = ?", chartId);
+        update(con, "UPDATE bench_account SET cash = cash - 1, version = version + 1 WHERE id = ?", 1L);
+        insertEvent(con, chartId);
+        con.commit();
+    }
+
+    // OPTIMISTIC: lock 없이 읽고 version 조건 UPDATE, 충돌 시 롤백 후 재시도(ChartCommandExecutor)
+    private static Void advanceOptimistic(Connection con, long chartId) {
+        try {
+            long chartVersion = readVersion(con, "SELECT version FROM bench_chart WHERE id = ?", chartId);
+            long accountVersion = readVersion(con, "SELECT version FROM bench_account WHERE id = ?", 1L);
+
+            boolean ok = versionedUpdate(con,
+                    "UPDATE bench_chart SET progress = progress + 1, version = version + 1 WHERE id = ? AND version = ?",
+                    chartId, chartVersion)
+                    && versionedUpdate(con,
+                    "UPDATE bench_account SET cash = cash - 1, version = version + 1 WHERE id = ? AND version = ?",
+                    1L, accountVersion);
+            if (!ok) {
+                con.rollback();
+                throw new ObjectOptimisticLockingFailureException("bench", chartId);
+            }
+            insertEvent(con, chartId);
+            con.commit();
+            return null;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void recreateTables(Connection con) throws Exception {
+        try (Statement st = con.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_chart");
+            st.execute("DROP TABLE IF EXISTS bench_account");
+            st.execute("DROP TABLE IF EXISTS bench_event");
+            st.execute("CREATE TABLE bench_chart (id BIGINT PRIMARY KEY, progress BIGINT NOT NULL, version BIGINT NOT NULL)");
+            st.execute("CREATE TABLE bench_account (id BIGINT PRIMARY KEY, cash BIGINT NOT NULL, version BIGINT NOT NULL)");
+            st.execute("CREATE TABLE bench_event (id BIGINT AUTO_INCREMENT PRIMARY KEY, chart_id BIGINT NOT NULL, payload_json LONGTEXT)");
+            for (int i = 1; i <= CHARTS; i++) {
+                st.execute("INSERT INTO bench_chart VALUES (" + i + ", 0, 0)");
+            }
+            st.execute("INSERT INTO bench_account VALUES (1, 1000000000, 0)");
+        }
+    }
+
+    private static void selectForUpdate(Connection con, String sql, long id) throws Exception {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+            }
+        }
+    }
+
+    private static long readVersion(Connection con, String sql, long id) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static void update(Connection con, String sql, long id) throws Exception {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, id);
+            ps.executeUpdate();
+        }
+    }
+
+    private static boolean versionedUpdate(Connection con, String sql, long id, long version) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, id);
+            ps.setLong(2, version);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    private static void insertEvent(Connection con, long chartId) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO bench_event (chart_id, payload_json) VALUES (?, ?)")) {
+            ps.setLong(1, chartId);
+            ps.setString(2, "{\"requestedSteps\":1,\"advancedSteps\":1}");
+            ps.executeUpdate();
+        }
+    }
+}
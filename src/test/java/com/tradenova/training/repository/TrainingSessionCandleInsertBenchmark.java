@@ -0,0 +1,129 @@
+package com.tradenova.training.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * training_session_candle insert 처리량 비교 (IDENTITY 행 단위 insert vs pooled ID + 배치 insert)
+ *
+ * - 실제 MySQL이 필요하므로 기본 빌드에서는 실행되지 않는다. (클래스명이 *Test 가 아니고, 시스템 프로퍼티가 없으면 skip)
+ * - 실행 예:
+ *   mvn -Dtest=TrainingSessionCandleInsertBenchmark -Dsurefire.failIfNoSpecifiedTests=false \
+ *       -Dtradenova.bench.jdbc-url="jdbc:mysql://localhost:3306/tradenova_bench" \
+ *       -Dtradenova.bench.username=root -Dtradenova.bench.password=... test
+ * - 운영 테이블을 건드리지 않도록 전용 임시 테이블(bench_training_session_candle)을 만들고 지운다.
+ */
+@EnabledIfSystemProperty(named = "tradenova.bench.jdbc-url", matches = ".+")
+class TrainingSessionCandleInsertBenchmark {
+
+    private static final int CHARTS = 50;
+    private static final int BARS = 120;
+    private static final int BATCH_SIZE = 100;
+
+    @Test
+    void comparesIdentityInsertWithPooledBatchInsert() throws Exception {
+        String url = System.getProperty("tradenova.bench.jdbc-url");
+        String user = System.getProperty("tradenova.bench.username", "root");
+        String password = System.getProperty("tradenova.bench.password", "");
+
+        // 변경 전: IDENTITY -> Hibernate가 배치를 끄고 행마다 insert + generated key 조회
+        long identityNanos;
+        try (Connection con = DriverManager.getConnection(url, user, password)) {
+            recreateTable(con, true);
+            con.setAutoCommit(false);
+            long start = System.nanoTime();
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO bench_training_session_candle (chart_id, idx, t, o, h, l, c, v) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (int chart = 0; chart < CHARTS; chart++) {
+                    for (int idx = 0; idx < BARS; idx++) {
+                        bindCandle(ps, 1, chart, idx);
+                        ps.executeUpdate();
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            keys.next();
+                        }
+                    }
+                    con.commit();
+                }
+            }
+            identityNanos = System.nanoTime() - start;
+            assertThat(countRows(con)).isEqualTo((long) CHARTS * BARS);
+        }
+
+        // 변경 후: ID를 미리 확보(pooled) -> 배치 + rewriteBatchedStatements 로 multi-row insert
+        long batchedNanos;
+        String batchedUrl = url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        try (Connection con = DriverManager.getConnection(batchedUrl, user, password)) {
+            recreateTable(con, false);
+            con.setAutoCommit(false);
+            long nextId = 1;
+            long start = System.nanoTime();
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO bench_training_session_candle (id, chart_id, idx, t, o, h, l, c, v) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int chart = 0; chart < CHARTS; chart++) {
+                    for (int idx = 0; idx < BARS; idx++) {
+                        ps.setLong(1, nextId++);
+                        bindCandle(ps, 2, chart, idx);
+                        ps.addBatch();
+                        if ((idx + 1) % BATCH_SIZE == 0) {
+                            ps.executeBatch();
+                        }
+                    }
+                    ps.executeBatch();
+                    con.commit();
+                }
+            }
+            batchedNanos = System.nanoTime() - start;
+            assertThat(countRows(con)).isEqualTo((long) CHARTS * BARS);
+
+            try (Statement st = con.createStatement()) {
+                st.execute("DROP TABLE bench_training_session_candle");
+            }
+        }
+
+        long rows = (long) CHARTS * BARS;
+        System.out.printf("[bench] identity row-by-row : %,d rows in %,d ms (%,.0f rows/s)%n",
+                rows, identityNanos / 1_000_000, rows / (identityNanos / 1e9));
+        System.out.printf("[bench] pooled + batched    : %,d rows in %,d ms (%,.0f rows/s)%n",
+                rows, batchedNanos / 1_000_000, rows / (batchedNanos / 1e9));
+    }
+
+    private static void recreateTable(Connection con, boolean autoIncrement) throws Exception {
+        try (Statement st = con.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_training_session_candle");
+            st.execute("CREATE TABLE bench_training_session_candle ("
+                    + " id BIGINT NOT NULL" + (autoIncrement ? " AUTO_INCREMENT" : "") + " PRIMARY KEY,"
+                    + " chart_id BIGINT NOT NULL, idx INT NOT NULL, t BIGINT NOT NULL,"
+                    + " o DOUBLE NOT NULL, h DOUBLE NOT NULL, l DOUBLE NOT NULL, c DOUBLE NOT NULL, v DOUBLE NOT NULL,"
+                    + " UNIQUE KEY uk_bench_chart_idx (chart_id, idx))");
+        }
+    }
+
+    private static void bindCandle(PreparedStatement ps, int from, int chart, int idx) throws Exception {
+        double price = 70_000 + idx;
+        ps.setLong(from, chart);
+        ps.setInt(from + 1, idx);
+        ps.setLong(from + 2, 1_700_000_000_000L + idx * 86_400_000L);
+        ps.setDouble(from + 3, price);
+        ps.setDouble(from + 4, price + 500);
+        ps.setDouble(from + 5, price - 500);
+        ps.setDouble(from + 6, price + 100);
+        ps.setDouble(from + 7, 1_000_000);
+    }
+
+    private static long countRows(Connection con) throws Exception {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM bench_training_session_candle")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.tradenova.training.service;
+
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountCommandSequencerTest {
+
+    private final TrainingSessionChartRepository chartRepo = mock(TrainingSessionChartRepository.class);
+    private final ChartReplayStateCache replayCache = mock(ChartReplayStateCache.class);
+    private final AccountCommandSequencer sequencer = new AccountCommandSequencer(chartRepo, replayCache, 4, 10_000);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sequencer.destroy();
+    }
+
+    /**
+     * 한 스레드가 보낸 명령은 보낸 순서대로, 같은 계좌 명령은 동시에 실행되지 않는다.
+     * (차트 4개가 계좌 1개를 공유하는 세션 2개)
+     */
+    @Test
+    void commandsOfSameAccountRunOneAtATimeInSubmitOrder() throws Exception {
+        int threads = 8;
+        int commandsPerThread = 500;
+        long[] cash = new long[2];
+        int[] inFlight = new int[2];
+        AtomicInteger overlapped = new AtomicInteger();
+        List<List<Integer>> seenPerThread = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            seenPerThread.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < commandsPerThread; i++) {
+                    int account = (seed + i) % 2;
+                    int seq = i;
+                    sequencer.submitToAccount((long) account + 1, () -> {
+                        if (++inFlight[account] > 1) {
+                            overlapped.incrementAndGet();
+                        }
+                        // 일부러 원자적이지 않은 read-modify-write
+                        long cur = cash[account];
+                        Thread.onSpinWait();
+                        cash[account] = cur + 1;
+                        seenPerThread.get(seed).add(seq);
+                        inFlight[account]--;
+                        return null;
+                    });
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(cash[0] + cash[1]).isEqualTo((long) threads * commandsPerThread);
+        assertThat(overlapped.get()).isZero();
+        for (List<Integer> seen : seenPerThread) {
+            assertThat(seen).isSorted().hasSize(commandsPerThread);
+        }
+    }
+
+    @Test
+    void exceptionOfCommandIsRethrownToCaller() {
+        assertThatThrownBy(() -> sequencer.submitToAccount(1L, () -> {
+            throw new CustomException(ErrorCode.INSUFFICIENT_CASH);
+        }))
+                .isInstanceOf(CustomException.class)
+                .extracting(e -> ((CustomException) e).getErrorCode())
+                .isEqualTo(ErrorCode.INSUFFICIENT_CASH);
+
+        // 실패한 명령 뒤의 명령도 계속 실행된다
+        assertThat(sequencer.submitToAccount(1L, () -> "next")).isEqualTo("next");
+    }
+
+    /**
+     * 실행이 시작되기 전에 타임아웃된 명령은 409로 끝나고, 나중에 차례가 와도 실행되지 않는다.
+     */
+    @Test
+    void commandTimedOutInQueueIsCancelledAndNeverRuns() throws Exception {
+        AccountCommandSequencer sequencer = new AccountCommandSequencer(chartRepo, replayCache, 4, 200);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<String> blocker = pool.submit(() -> sequencer.submitToAccount(1L, () -> {
+            running.countDown();
+            try {
+                // 앞 명령이 오래 걸리는 상황 (타임아웃 200ms보다 길게)
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        }));
+        running.await(5, TimeUnit.SECONDS);
+
+        AtomicInteger applied = new AtomicInteger();
+        assertThatThrownBy(() -> sequencer.submitToAccount(1L, applied::incrementAndGet))
+                .isInstanceOf(CustomException.class)
+                .extracting(e -> ((CustomException) e).getErrorCode())
+                .isEqualTo(ErrorCode.CONCURRENT_REQUEST);
+
+        release.countDown();
+        // 이미 실행 중이던 명령은 타임아웃을 넘겨도 실제 결과를 받는다
+        assertThat(blocker.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        pool.shutdown();
+
+        // 취소된 명령 다음 명령까지 실행된 뒤에도 취소된 명령은 반영되지 않았다
+        assertThat(sequencer.submitToAccount(1L, () -> "next")).isEqualTo("next");
+        assertThat(applied.get()).isZero();
+        sequencer.destroy();
+    }
+
+    @Test
+    void chartAccountIsLookedUpOnceAndCached() {
+        when(replayCache.chart(7L)).thenReturn(null);
+        when(chartRepo.findAccountIdById(7L)).thenReturn(Optional.of(3L));
+
+        assertThat(sequencer.submit(7L, () -> 1)).isEqualTo(1);
+        assertThat(sequencer.submit(7L, () -> 2)).isEqualTo(2);
+
+        verify(chartRepo, times(1)).findAccountIdById(7L);
+    }
+}
@@ -0,0 +1,94 @@
+package com.tradenova.training.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OPTIMISTIC 모드 striped lock 처리량 (DB 없이 프로세스 안 lock만)
+ *
+ * - 여러 스레드가 같은 차트들에 쓰기 명령을 몰아 보내고 처리량과 평균 lock 대기 시간을 출력한다.
+ * - 기본 빌드(surefire)에서는 실행되지 않는다. 실행 예:
+ *   mvn -Dtest=ChartCommandExecutorBenchmark -Dsurefire.failIfNoSpecifiedTests=false test
+ */
+class ChartCommandExecutorBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int CHARTS = 8;
+    private static final int COMMANDS_PER_THREAD = 2_000;
+
+    @Test
+    void optimisticStripedLockThroughput() throws Exception {
+        ChartCommandExecutor executor = new ChartCommandExecutor(
+                new TrainingWriteLocks(null, null, TrainingWriteLocks.Mode.OPTIMISTIC), null);
+
+        long began = System.nanoTime();
+        long total = contend(executor, THREADS, CHARTS, COMMANDS_PER_THREAD);
+        long elapsed = System.nanoTime() - began;
+
+        assertThat(total).isEqualTo((long) THREADS * COMMANDS_PER_THREAD);
+        System.out.printf("[bench] optimistic striped lock: %,d commands in %,d ms (%,.0f cmd/s), avg lock wait %.1f us%n",
+                total, elapsed / 1_000_000, total / (elapsed / 1e9), executor.stats().averageWaitMicros());
+    }
+
+    /**
+     * 스레드마다 차트를 돌아가며 원자적이지 않은 read-modify-write 명령을 보낸다.
+     * 같은 차트 명령이 겹쳐 실행되면 AssertionError, 아니면 차트별 합계를 더해 돌려준다.
+     */
+    static long contend(ChartCommandExecutor executor, int threads, int charts, int commandsPerThread)
+            throws Exception {
+        // 일부러 원자적이지 않은 read-modify-write (직렬화가 깨지면 합계가 모자란다)
+        long[] progress = new long[charts];
+        int[] inFlight = new int[charts];
+        AtomicInteger concurrentInSameChart = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < commandsPerThread; i++) {
+                    int chart = (seed + i) % charts;
+                    executor.execute((long) chart + 1, () -> {
+                        if (++inFlight[chart] > 1) {
+                            concurrentInSameChart.incrementAndGet();
+                        }
+                        long cur = progress[chart];
+                        Thread.onSpinWait();
+                        progress[chart] = cur + 1;
+                        inFlight[chart]--;
+                        return null;
+                    });
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(concurrentInSameChart.get()).isZero();
+        long total = 0;
+        for (long p : progress) {
+            total += p;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,67 @@
+package com.tradenova.training.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChartCommandExecutorTest {
+
+    private static final int THREADS = 4;
+    private static final int CHARTS = 4;
+    private static final int COMMANDS_PER_THREAD = 200;
+
+    /**
+     * 여러 스레드가 같은 차트들에 동시에 쓰기 명령을 보내도
+     * 차트별 명령은 하나씩만 실행된다. (lost update 없음)
+     * 처리량 측정은 ChartCommandExecutorBenchmark
+     */
+    @Test
+    void optimisticModeSerializesCommandsPerChartUnderContention() throws Exception {
+        ChartCommandExecutor executor = new ChartCommandExecutor(writeLocks(TrainingWriteLocks.Mode.OPTIMISTIC), null);
+
+        long total = ChartCommandExecutorBenchmark.contend(executor, THREADS, CHARTS, COMMANDS_PER_THREAD);
+
+        assertThat(total).isEqualTo((long) THREADS * COMMANDS_PER_THREAD);
+        assertThat(executor.stats().acquisitions()).isEqualTo(total);
+    }
+
+    @Test
+    void optimisticModeRetriesVersionConflictsThenGivesUp() {
+        ChartCommandExecutor executor = new ChartCommandExecutor(writeLocks(TrainingWriteLocks.Mode.OPTIMISTIC), null);
+
+        AtomicInteger calls = new AtomicInteger();
+        String result = executor.execute(1L, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("PaperAccount", 10L);
+            }
+            return "ok";
+        });
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(executor.stats().retries()).isEqualTo(2);
+
+        AtomicInteger alwaysConflicting = new AtomicInteger();
+        assertThatThrownBy(() -> executor.execute(1L, () -> {
+            alwaysConflicting.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("PaperAccount", 10L);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(alwaysConflicting.get()).isEqualTo(3);
+    }
+
+    @Test
+    void pessimisticModeRunsCommandDirectly() {
+        ChartCommandExecutor executor = new ChartCommandExecutor(writeLocks(TrainingWriteLocks.Mode.PESSIMISTIC), null);
+
+        assertThat(executor.execute(1L, () -> 42)).isEqualTo(42);
+        assertThat(executor.stats().acquisitions()).isZero();
+    }
+
+    private static TrainingWriteLocks writeLocks(TrainingWriteLocks.Mode mode) {
+        // 실행기는 mode만 사용한다
+        return new TrainingWriteLocks(null, null, mode);
+    }
+}
@@ -0,0 +1,124 @@
+package com.tradenova.training.service;
+
+import com.tradenova.training.dto.AutoExitReason;
+import com.tradenova.training.dto.OrderBookVersion;
+import com.tradenova.training.dto.SessionProgressResponse;
+import com.tradenova.training.dto.TradeResponse;
+import com.tradenova.training.repository.TrainingOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChartPlaybackServiceTest {
+
+    private static final ChartReplayStateCache.CandleSeries SERIES = new ChartReplayStateCache.CandleSeries(
+            new long[]{100L, 200L, 300L, 400L, 500L, 600L},
+            new double[]{100, 101, 102, 103, 90, 91},
+            new double[]{101, 102, 103, 104, 92, 93},
+            new double[]{99, 100, 101, 102, 89, 90},
+            new double[]{100, 101, 102, 103, 91, 92},
+            new double[]{1, 1, 1, 1, 1, 1}
+    );
+
+    @Mock private TrainingSessionProgressService progressService;
+    @Mock private TrainingTradeService tradeService;
+    @Mock private ChartReplayStateCache replayCache;
+    @Mock private TrainingOrderRepository orderRepo;
+
+    private ChartPlaybackService service;
+
+    @BeforeEach
+    void setUp() {
+        ChartCommandExecutor passthrough = new ChartCommandExecutor(
+                new TrainingWriteLocks(null, null, TrainingWriteLocks.Mode.PESSIMISTIC), null);
+        // checkpoint 3봉마다, tick은 테스트에서 직접 호출 (스케줄 간격은 최대값으로)
+        // 예약 주문 없음 (OPEN 주문 0건 -> 빈 주문장)
+        service = new ChartPlaybackService(progressService, tradeService, passthrough, replayCache,
+                new TrainingOrderBookCache(orderRepo), 1, 3, 500, 60_000);
+        when(progressService.getProgress(7L, 1L)).thenReturn(progress(0, false, null));
+        when(replayCache.series(1L)).thenReturn(SERIES);
+        lenient().when(orderRepo.findOpenVersionByChartId(1L)).thenReturn(new OrderBookVersion(0L, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void barsArePushedFromMemoryAndCheckpointedEveryNBars() {
+        when(replayCache.chart(1L)).thenReturn(null);
+        when(replayCache.riskRule(1L)).thenReturn(ChartReplayStateCache.RiskRuleSnapshot.NONE);
+        when(progressService.advance(7L, 1L, 3)).thenReturn(progress(3, false, null));
+
+        service.start(7L, 1L, 10_000L);
+        service.tick(1L);
+        service.tick(1L);
+        verify(progressService, never()).advance(any(), any(), anyInt());
+
+        service.tick(1L);
+        verify(progressService).advance(7L, 1L, 3);
+    }
+
+    @Test
+    void ruleHitCheckpointsImmediatelyAtThatBar() {
+        when(replayCache.chart(1L)).thenReturn(null); // 포지션 캐시 없음 -> 보유로 간주
+        when(replayCache.riskRule(1L)).thenReturn(
+                new ChartReplayStateCache.RiskRuleSnapshot(true, new BigDecimal("95"), null));
+        when(progressService.advance(7L, 1L, 3)).thenReturn(progress(3, false, null));
+        when(progressService.advance(7L, 1L, 1)).thenReturn(progress(4, true, AutoExitReason.STOP_LOSS));
+
+        service.start(7L, 1L, 10_000L);
+        for (int i = 0; i < 4; i++) {
+            service.tick(1L);
+        }
+
+        // 3봉 checkpoint 후, 4번째 봉(저가 89 <= 손절 95)에서 바로 1봉 checkpoint
+        InOrder order = inOrder(progressService);
+        order.verify(progressService).advance(7L, 1L, 3);
+        order.verify(progressService).advance(7L, 1L, 1);
+    }
+
+    @Test
+    void tradeCommandCheckpointsVisibleBarsBeforeExecuting() {
+        when(replayCache.chart(1L)).thenReturn(null);
+        when(replayCache.riskRule(1L)).thenReturn(ChartReplayStateCache.RiskRuleSnapshot.NONE);
+        when(progressService.advance(7L, 1L, 2)).thenReturn(progress(2, false, null));
+        when(tradeService.buy(eq(7L), eq(1L), any())).thenReturn(new TradeResponse(
+                1L, 5L, new BigDecimal("898"), BigDecimal.ONE, new BigDecimal("102"), new BigDecimal("102"), 300L));
+
+        service.start(7L, 1L, 10_000L);
+        service.tick(1L);
+        service.tick(1L);
+        service.buy(7L, 1L, BigDecimal.ONE);
+
+        InOrder order = inOrder(progressService, tradeService);
+        order.verify(progressService).advance(7L, 1L, 2);
+        order.verify(tradeService).buy(7L, 1L, BigDecimal.ONE);
+    }
+
+    private static SessionProgressResponse progress(int idx, boolean autoExited, AutoExitReason reason) {
+        return new SessionProgressResponse(
+                1L, idx, 5, 5 - idx, idx >= 5, new BigDecimal("100"),
+                "IN_PROGRESS", "IN_PROGRESS",
+                new BigDecimal("1000"), BigDecimal.ZERO, BigDecimal.ZERO,
+                autoExited, reason
+        );
+    }
+}
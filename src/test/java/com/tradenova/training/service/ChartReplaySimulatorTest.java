@@ -0,0 +1,58 @@
+package com.tradenova.training.service;
+
+import com.tradenova.training.dto.AutoExitReason;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChartReplaySimulatorTest {
+
+    //                                    idx:   0      1      2      3
+    private static final ChartReplayStateCache.CandleSeries SERIES = new ChartReplayStateCache.CandleSeries(
+            new long[]{100L, 200L, 300L, 400L},
+            new double[]{100, 101, 104, 106},  // open
+            new double[]{101, 105, 112, 108},  // high
+            new double[]{99, 100, 103, 104},   // low
+            new double[]{100, 104, 106, 107},  // close
+            new double[]{1, 1, 1, 1}
+    );
+
+    private static final ChartReplayStateCache.PositionSnapshot POSITION =
+            new ChartReplayStateCache.PositionSnapshot(new BigDecimal("3"), new BigDecimal("100"));
+
+    @Test
+    void takeProfitTouchedIntradayFillsAtTakeProfitPrice() {
+        ChartReplayStateCache.RiskRuleSnapshot rule =
+                new ChartReplayStateCache.RiskRuleSnapshot(true, new BigDecimal("95"), new BigDecimal("110"));
+
+        ChartReplaySimulator.Outcome outcome = ChartReplaySimulator.runToEnd(rule, SERIES, 0, POSITION);
+
+        assertThat(outcome.toIdx()).isEqualTo(3);
+        assertThat(outcome.advancedSteps()).isEqualTo(3);
+        ChartReplaySimulator.ExitFill exit = outcome.exit();
+        assertThat(exit.idx()).isEqualTo(2);
+        assertThat(exit.reason()).isEqualTo(AutoExitReason.TAKE_PROFIT);
+        assertThat(exit.price()).isEqualByComparingTo("110");
+        assertThat(exit.candleTime()).isEqualTo(300L);
+        assertThat(exit.proceeds()).isEqualByComparingTo("330");
+        assertThat(exit.realizedPnl()).isEqualByComparingTo("30");
+    }
+
+    @Test
+    void withoutRuleHitLiquidatesAtLastCloseAndWithoutPositionDoesNothing() {
+        ChartReplaySimulator.Outcome outcome = ChartReplaySimulator.runToEnd(
+                ChartReplayStateCache.RiskRuleSnapshot.NONE, SERIES, 1, POSITION);
+
+        assertThat(outcome.exit().reason()).isEqualTo(AutoExitReason.END_OF_CHART);
+        assertThat(outcome.exit().idx()).isEqualTo(3);
+        assertThat(outcome.exit().price()).isEqualByComparingTo("107");
+        assertThat(outcome.exit().realizedPnl()).isEqualByComparingTo("21");
+
+        ChartReplaySimulator.Outcome flat = ChartReplaySimulator.runToEnd(
+                ChartReplayStateCache.RiskRuleSnapshot.NONE, SERIES, 1, ChartReplayStateCache.PositionSnapshot.EMPTY);
+        assertThat(flat.exit()).isNull();
+        assertThat(flat.toIdx()).isEqualTo(3);
+    }
+}
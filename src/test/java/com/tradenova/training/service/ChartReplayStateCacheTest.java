@@ -0,0 +1,95 @@
+package com.tradenova.training.service;
+
+import com.tradenova.training.entity.TrainingRiskRule;
+import com.tradenova.training.entity.TrainingSessionChart;
+import com.tradenova.training.repository.TrainingRiskRuleHistoryRepository;
+import com.tradenova.training.repository.TrainingRiskRuleRepository;
+import com.tradenova.training.repository.TrainingSessionCandleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChartReplayStateCacheTest {
+
+    @Mock private TrainingSessionCandleRepository candleRepo;
+    @Mock private TrainingRiskRuleRepository riskRepo;
+    @Mock private TrainingRiskRuleHistoryRepository riskHistoryRepo;
+
+    @Test
+    void syncRiskRuleKeepsSnapshotWhileChartHistoryIdIsUnchanged() {
+        ChartReplayStateCache cache = new ChartReplayStateCache(candleRepo, riskRepo, riskHistoryRepo);
+        TrainingSessionChart chart = chart(1L, 70L);
+        when(riskRepo.findByChartId(1L)).thenReturn(Optional.of(rule(true, "90")));
+
+        assertThat(cache.syncRiskRule(chart)).isEqualTo(70L);
+        assertThat(cache.riskRule(1L).stopLossPrice()).isEqualByComparingTo("90");
+        assertThat(cache.syncRiskRule(chart)).isEqualTo(70L);
+        assertThat(cache.riskRule(1L).stopLossPrice()).isEqualByComparingTo("90");
+        verify(riskRepo, times(1)).findByChartId(1L);
+
+        // 이 서버가 룰을 저장 (트랜잭션 밖이라 커밋 콜백이 즉시 실행됨) -> 다시 읽지 않는다
+        chart.updateRiskHistoryId(71L);
+        cache.updateLatestRiskHistoryId(1L, 71L);
+        cache.putRiskRule(1L, ChartReplayStateCache.RiskRuleSnapshot.of(rule(true, "95")));
+        assertThat(cache.syncRiskRule(chart)).isEqualTo(71L);
+        assertThat(cache.riskRule(1L).stopLossPrice()).isEqualByComparingTo("95");
+        verify(riskRepo, times(1)).findByChartId(1L);
+
+        // 매매/advance 경로는 히스토리 테이블을 조회하지 않는다
+        verifyNoInteractions(riskHistoryRepo);
+    }
+
+    @Test
+    void syncRiskRuleReloadsRuleChangedElsewhere() {
+        ChartReplayStateCache cache = new ChartReplayStateCache(candleRepo, riskRepo, riskHistoryRepo);
+        TrainingSessionChart chart = chart(2L, 0L);
+
+        assertThat(cache.syncRiskRule(chart)).isNull();
+        assertThat(cache.riskRule(2L).enabled()).isFalse();
+
+        // 다른 서버가 룰을 저장: lock으로 다시 읽은 차트의 히스토리 id가 바뀌어서 캐시된 NONE을 버린다
+        when(riskRepo.findByChartId(2L)).thenReturn(Optional.of(rule(true, "90")));
+        assertThat(cache.syncRiskRule(chart(2L, 80L))).isEqualTo(80L);
+        assertThat(cache.riskRule(2L).enabled()).isTrue();
+        assertThat(cache.riskRule(2L).stopLossPrice()).isEqualByComparingTo("90");
+    }
+
+    @Test
+    void syncRiskRuleBackfillsChartsCreatedBeforeTheColumn() {
+        ChartReplayStateCache cache = new ChartReplayStateCache(candleRepo, riskRepo, riskHistoryRepo);
+        TrainingSessionChart legacy = chart(3L, null);
+        when(riskHistoryRepo.findLatestIdByChartId(3L)).thenReturn(90L);
+
+        assertThat(cache.syncRiskRule(legacy)).isEqualTo(90L);
+        assertThat(legacy.getRiskHistoryId()).isEqualTo(90L);
+
+        // 채운 뒤에는 조회하지 않는다
+        assertThat(cache.syncRiskRule(legacy)).isEqualTo(90L);
+        verify(riskHistoryRepo, times(1)).findLatestIdByChartId(3L);
+    }
+
+    private static TrainingSessionChart chart(Long id, Long riskHistoryId) {
+        return TrainingSessionChart.builder()
+                .id(id)
+                .riskHistoryId(riskHistoryId)
+                .build();
+    }
+
+    private static TrainingRiskRule rule(boolean enabled, String stopLoss) {
+        return TrainingRiskRule.builder()
+                .enabled(enabled)
+                .stopLossPrice(new BigDecimal(stopLoss))
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.tradenova.training.service;
+
+import com.tradenova.training.dto.AutoExitReason;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrainingAutoExitServiceTest {
+
+    //                        idx:   0      1      2      3      4
+    private static final double[] OPENS = {100.0, 101.0, 104.0, 96.0, 112.0};
+    private static final double[] HIGHS = {102.0, 103.0, 106.0, 99.0, 115.0};
+    private static final double[] LOWS  = {98.0,  99.0,  93.0,  91.0, 110.0};
+
+    @Test
+    void scanReturnsFirstCrossingAndPrefersStopLossWithinSameBar() {
+        ChartReplayStateCache.RiskRuleSnapshot rule = new ChartReplayStateCache.RiskRuleSnapshot(
+                true, new BigDecimal("95"), new BigDecimal("105")
+        );
+
+        // idx 2: high 106 >= 105 이면서 low 93 <= 95 -> 손절 우선, 장중 터치라 손절가 체결
+        TrainingAutoExitService.AutoExitHit hit =
+                TrainingAutoExitService.scanFirstHit(rule, OPENS, HIGHS, LOWS, 1, 4);
+
+        assertThat(hit).isNotNull();
+        assertThat(hit.idx()).isEqualTo(2);
+        assertThat(hit.reason()).isEqualTo(AutoExitReason.STOP_LOSS);
+        assertThat(hit.executedPrice()).isEqualByComparingTo("95");
+    }
+
+    @Test
+    void scanFillsAtOpenWhenBarGapsThroughLevel() {
+        ChartReplayStateCache.RiskRuleSnapshot stopOnly = new ChartReplayStateCache.RiskRuleSnapshot(
+                true, new BigDecimal("97"), null
+        );
+        ChartReplayStateCache.RiskRuleSnapshot takeOnly = new ChartReplayStateCache.RiskRuleSnapshot(
+                true, null, new BigDecimal("110")
+        );
+
+        // idx 3: 시가 96 <= 손절가 97 -> 시가 체결
+        TrainingAutoExitService.AutoExitHit stop =
+                TrainingAutoExitService.scanFirstHit(stopOnly, OPENS, HIGHS, LOWS, 3, 4);
+        assertThat(stop.idx()).isEqualTo(3);
+        assertThat(stop.executedPrice()).isEqualByComparingTo("96.0");
+
+        // idx 4: 시가 112 >= 익절가 110 -> 시가 체결
+        TrainingAutoExitService.AutoExitHit take =
+                TrainingAutoExitService.scanFirstHit(takeOnly, OPENS, HIGHS, LOWS, 0, 4);
+        assertThat(take.idx()).isEqualTo(4);
+        assertThat(take.reason()).isEqualTo(AutoExitReason.TAKE_PROFIT);
+        assertThat(take.executedPrice()).isEqualByComparingTo("112.0");
+    }
+
+    @Test
+    void scanReturnsNullWhenRuleDisabledOrNoCrossingInRange() {
+        ChartReplayStateCache.RiskRuleSnapshot disabled = new ChartReplayStateCache.RiskRuleSnapshot(
+                false, new BigDecimal("200"), new BigDecimal("1")
+        );
+        ChartReplayStateCache.RiskRuleSnapshot far = new ChartReplayStateCache.RiskRuleSnapshot(
+                true, new BigDecimal("50"), new BigDecimal("200")
+        );
+
+        assertThat(TrainingAutoExitService.scanFirstHit(disabled, OPENS, HIGHS, LOWS, 0, 4)).isNull();
+        assertThat(TrainingAutoExitService.scanFirstHit(ChartReplayStateCache.RiskRuleSnapshot.NONE, OPENS, HIGHS, LOWS, 0, 4)).isNull();
+        assertThat(TrainingAutoExitService.scanFirstHit(far, OPENS, HIGHS, LOWS, 0, 4)).isNull();
+    }
+}
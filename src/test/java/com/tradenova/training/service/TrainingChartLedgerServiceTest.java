@@ -0,0 +1,156 @@
+package com.tradenova.training.service;
+
+import com.tradenova.paper.entity.PaperAccount;
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingChartLedger;
+import com.tradenova.training.entity.TrainingSession;
+import com.tradenova.training.entity.TrainingSessionChart;
+import com.tradenova.training.entity.TrainingTrade;
+import com.tradenova.training.repository.TrainingChartLedgerRepository;
+import com.tradenova.training.repository.TrainingSessionChartRepository;
+import com.tradenova.training.repository.TrainingTradeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrainingChartLedgerServiceTest {
+
+    @Mock private TrainingChartLedgerRepository ledgerRepo;
+    @Mock private TrainingTradeRepository tradeRepo;
+    @Mock private TrainingSessionChartRepository chartRepo;
+    @Mock private ChartReplayStateCache replayCache;
+
+    private TrainingChartLedgerService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TrainingChartLedgerService(ledgerRepo, tradeRepo, chartRepo, replayCache);
+    }
+
+    @Test
+    void appliedTradesGiveRealizedPlusUnrealizedPnLWithoutReplay() {
+        when(ledgerRepo.findById(1L)).thenReturn(Optional.empty());
+
+        service.applyAll(1L, 10L, List.of(
+                trade(51L, TradeSide.BUY, "100", "10", 100L),
+                trade(52L, TradeSide.BUY, "110", "10", 200L),
+                trade(53L, TradeSide.SELL, "120", "5", 300L)
+        ));
+
+        ArgumentCaptor<TrainingChartLedger> saved = ArgumentCaptor.forClass(TrainingChartLedger.class);
+        verify(ledgerRepo).save(saved.capture());
+        TrainingChartLedger ledger = saved.getValue();
+
+        // 평단 105, 실현 (120-105)x5 = 75, 잔여 15주
+        assertThat(ledger.getAvgPrice()).isEqualByComparingTo("105");
+        assertThat(ledger.getPositionQty()).isEqualByComparingTo("15");
+        assertThat(ledger.getRealizedPnl()).isEqualByComparingTo("75");
+        assertThat(ledger.getTradeCount()).isEqualTo(3);
+        assertThat(ledger.getLastTradeId()).isEqualTo(53L);
+
+        // 현재가 90 -> 75 + (90-105)x15 = -150
+        assertThat(TrainingChartLedgerService.totalPnL(ledger, () -> 90.0))
+                .isEqualTo(new BigDecimal("-150.0000"));
+    }
+
+    @Test
+    void observeKeepsWorstLowWhileHoldingAndSkipsFlatLedger() {
+        TrainingChartLedger holding = TrainingChartLedger.empty(1L, 10L);
+        holding.setPositionQty(new BigDecimal("2"));
+        holding.setAvgPrice(new BigDecimal("100"));
+        when(ledgerRepo.findById(1L)).thenReturn(Optional.of(holding));
+
+        ChartReplayStateCache.CandleSeries series = series(new double[]{99, 95, 97, 90});
+
+        service.observe(1L, series, 1, 2);
+        assertThat(holding.getMaxAdverseExcursion()).isEqualByComparingTo("-10"); // (95-100)x2
+
+        // 더 나쁘지 않으면 그대로
+        service.observe(1L, series, 2, 2);
+        assertThat(holding.getMaxAdverseExcursion()).isEqualByComparingTo("-10");
+
+        when(ledgerRepo.findById(2L)).thenReturn(Optional.of(TrainingChartLedger.empty(2L, 10L)));
+        service.observe(2L, series, 3, 3);
+
+        // 저장은 처음 갱신 1번뿐 (포지션 없는 장부는 저장하지 않음)
+        verify(ledgerRepo, times(1)).save(any(TrainingChartLedger.class));
+        verify(ledgerRepo).save(holding);
+    }
+
+    @Test
+    void verifyRebuildsMismatchedLedgerFromTradesAndRevealedBars() {
+        TrainingSessionChart chart = chart(2);
+        TrainingChartLedger stale = TrainingChartLedger.empty(1L, 10L);
+        stale.setTradeCount(1);
+
+        when(chartRepo.findById(1L)).thenReturn(Optional.of(chart));
+        when(ledgerRepo.findById(1L)).thenReturn(Optional.of(stale));
+        when(tradeRepo.findAllByChartIdOrderByIdAsc(1L)).thenReturn(List.of(
+                trade(51L, TradeSide.BUY, "100", "1", 100L),
+                trade(52L, TradeSide.SELL, "104", "1", 300L)
+        ));
+        // 봉 1(저가 93)과 봉 2(저가 96)는 보유 중 공개 / 봉 3(저가 50)은 아직 미공개
+        when(replayCache.series(1L)).thenReturn(series(new double[]{99, 93, 96, 50}));
+
+        assertThat(service.verify(1L)).isTrue();
+
+        verify(ledgerRepo).save(stale);
+        assertThat(stale.getTradeCount()).isEqualTo(2);
+        assertThat(stale.getRealizedPnl()).isEqualByComparingTo("4");
+        assertThat(stale.getPositionQty()).isEqualByComparingTo("0");
+        assertThat(stale.getMaxAdverseExcursion()).isEqualByComparingTo("-7");
+        assertThat(stale.getLastTradeId()).isEqualTo(52L);
+
+        // 다시 대조하면 일치
+        assertThat(service.verify(1L)).isFalse();
+    }
+
+    private static TrainingTrade trade(Long id, TradeSide side, String price, String qty, Long candleTime) {
+        return TrainingTrade.builder()
+                .id(id)
+                .chartId(1L)
+                .accountId(10L)
+                .side(side)
+                .price(new BigDecimal(price))
+                .qty(new BigDecimal(qty))
+                .candleTime(candleTime)
+                .build();
+    }
+
+    // 봉 시간은 100, 200, 300, ... / 저가만 의미 있음
+    private static ChartReplayStateCache.CandleSeries series(double[] lows) {
+        int n = lows.length;
+        long[] times = new long[n];
+        double[] prices = new double[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = (i + 1) * 100L;
+            prices[i] = 100.0;
+        }
+        return new ChartReplayStateCache.CandleSeries(times, prices, prices, lows, prices, new double[n]);
+    }
+
+    private static TrainingSessionChart chart(int progressIndex) {
+        PaperAccount account = PaperAccount.builder().id(10L).build();
+        TrainingSession session = TrainingSession.builder().id(40L).account(account).build();
+        return TrainingSessionChart.builder()
+                .id(1L)
+                .session(session)
+                .bars(4)
+                .progressIndex(progressIndex)
+                .build();
+    }
+}
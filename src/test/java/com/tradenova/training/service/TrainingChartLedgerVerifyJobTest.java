@@ -0,0 +1,41 @@
+package com.tradenova.training.service;
+
+import com.tradenova.training.repository.TrainingChartLedgerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrainingChartLedgerVerifyJobTest {
+
+    @Mock private TrainingChartLedgerRepository ledgerRepository;
+    @Mock private TrainingChartLedgerService ledgerService;
+
+    @Test
+    void verifiesCompletedChartsInChunksAndResumesWhereItStopped() {
+        TrainingChartLedgerVerifyJob job = new TrainingChartLedgerVerifyJob(ledgerRepository, ledgerService, true, 2, 3);
+        when(ledgerRepository.findCompletedChartIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(ledgerRepository.findCompletedChartIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(5L));
+        when(ledgerRepository.findCompletedChartIdsAfter(eq(5L), any(Pageable.class))).thenReturn(List.of());
+        when(ledgerService.verify(any())).thenAnswer(inv -> Long.valueOf(2L).equals(inv.getArgument(0)));
+
+        // 1회차: 최대 3개까지 (1, 2, 5), 장부 2 재작성
+        assertThat(job.runOnce()).isEqualTo(1);
+        assertThat(job.stats().cursor()).isEqualTo(5L);
+
+        // 2회차: 5 다음부터 -> 끝이라 처음으로 되감음
+        assertThat(job.runOnce()).isZero();
+        assertThat(job.stats().cursor()).isZero();
+        assertThat(job.stats().verified()).isEqualTo(3);
+        assertThat(job.stats().rebuilt()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tradenova.training.service;
+
+import com.tradenova.training.entity.TradeSide;
+import com.tradenova.training.entity.TrainingOrderType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrainingOrderBookTest {
+
+    @Test
+    void matchFillsDropSideFirstNearestToOpenAndLeavesUntouchedOrders() {
+        TrainingOrderBook book = new TrainingOrderBook();
+        book.add(order(1L, TradeSide.BUY, TrainingOrderType.LIMIT, "95"));
+        book.add(order(2L, TradeSide.BUY, TrainingOrderType.LIMIT, "98"));
+        book.add(order(3L, TradeSide.SELL, TrainingOrderType.STOP, "97"));
+        book.add(order(4L, TradeSide.SELL, TrainingOrderType.LIMIT, "105"));
+        book.add(order(5L, TradeSide.BUY, TrainingOrderType.STOP, "103"));
+        book.add(order(6L, TradeSide.BUY, TrainingOrderType.LIMIT, "90"));
+
+        List<TrainingOrderBook.Fill> fills = book.match(99, 106, 94);
+
+        assertThat(fills).extracting(f -> f.order().id()).containsExactly(2L, 3L, 1L, 5L, 4L);
+        assertThat(fills).extracting(TrainingOrderBook.Fill::price)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(
+                        new BigDecimal("98"), new BigDecimal("97"), new BigDecimal("95"),
+                        new BigDecimal("103"), new BigDecimal("105"));
+        assertThat(book.size()).isEqualTo(1);
+        assertThat(book.match(99, 106, 94)).isEmpty();
+    }
+
+    @Test
+    void gapThroughOrderPriceFillsAtOpen() {
+        TrainingOrderBook book = new TrainingOrderBook();
+        book.add(order(1L, TradeSide.BUY, TrainingOrderType.LIMIT, "95"));
+        book.add(order(2L, TradeSide.SELL, TrainingOrderType.LIMIT, "105"));
+
+        assertThat(book.match(93, 94, 92)).singleElement()
+                .satisfies(f -> assertThat(f.price()).isEqualByComparingTo("93"));
+        assertThat(book.match(110, 112, 109)).singleElement()
+                .satisfies(f -> assertThat(f.price()).isEqualByComparingTo("110"));
+        assertThat(book.isEmpty()).isTrue();
+    }
+
+    @Test
+    void firstTouchScansSeriesAndCopyIsIndependent() {
+        TrainingOrderBook book = new TrainingOrderBook();
+        book.add(order(1L, TradeSide.BUY, TrainingOrderType.LIMIT, "95"));
+        book.add(order(2L, TradeSide.BUY, TrainingOrderType.STOP, "110"));
+        ChartReplayStateCache.CandleSeries series = new ChartReplayStateCache.CandleSeries(
+                new long[]{1, 2, 3, 4},
+                new double[]{100, 100, 100, 100},
+                new double[]{101, 102, 111, 101},
+                new double[]{99, 98, 99, 94},
+                new double[]{100, 100, 100, 100},
+                new double[]{1, 1, 1, 1}
+        );
+
+        assertThat(book.firstTouch(series, 0, 3)).isEqualTo(2);
+
+        TrainingOrderBook copy = book.copy();
+        assertThat(copy.remove(2L)).isTrue();
+        assertThat(copy.firstTouch(series, 0, 3)).isEqualTo(3);
+        assertThat(book.size()).isEqualTo(2);
+        assertThat(book.touches(111, 99)).isTrue();
+        assertThat(copy.touches(111, 99)).isFalse();
+    }
+
+    private static TrainingOrderBook.RestingOrder order(Long id, TradeSide side, TrainingOrderType type, String price) {
+        return new TrainingOrderBook.RestingOrder(id, side, type, new BigDecimal(price), BigDecimal.ONE);
+    }
+}
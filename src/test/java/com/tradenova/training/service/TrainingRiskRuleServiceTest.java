@@ -1,6 +1,7 @@
 package com.tradenova.training.service;
 
 import com.tradenova.paper.entity.PaperAccount;
+import com.tradenova.paper.repository.PaperAccountRepository;
 import com.tradenova.symbol.entity.Symbol;
 import com.tradenova.training.dto.RiskRuleResponse;
 import com.tradenova.training.dto.RiskRuleUpsertRequest;
@@ -20,15 +21,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,12 +44,17 @@ class TrainingRiskRuleServiceTest {
     @Mock private TrainingRiskRuleRepository riskRepo;
     @Mock private TrainingRiskRuleHistoryRepository historyRepo;
     @Mock private TrainingSessionCandleRepository candleRepo;
+    @Mock private ChartReplayStateCache replayCache;
+    @Mock private PaperAccountRepository accountRepo;
 
     private TrainingRiskRuleService service;
 
     @BeforeEach
     void setUp() {
-        service = new TrainingRiskRuleService(chartRepo, riskRepo, historyRepo, candleRepo);
+        service = new TrainingRiskRuleService(
+                chartRepo, riskRepo, historyRepo, candleRepo, replayCache,
+                new TrainingWriteLocks(chartRepo, accountRepo, TrainingWriteLocks.Mode.PESSIMISTIC)
+        );
     }
 
     @Test
@@ -66,8 +75,10 @@ class TrainingRiskRuleServiceTest {
             currentRule = rule;
             return rule;
         });
-        when(historyRepo.save(any(TrainingRiskRuleHistory.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        AtomicLong historyIds = new AtomicLong(70L);
+        // 저장된 히스토리 id: 70, 71, 72
+        when(historyRepo.save(any(TrainingRiskRuleHistory.class))).thenAnswer(invocation ->
+                TrainingRiskRuleHistory.builder().id(historyIds.getAndIncrement()).build());
 
         service.upsert(7L, 1L, request("90.00", "120.00", true));
         service.upsert(7L, 1L, request("85.00", "125.00", true));
@@ -87,6 +98,14 @@ class TrainingRiskRuleServiceTest {
         assertThat(latest.stopLossPrice()).isEqualByComparingTo("85.00");
         assertThat(latest.takeProfitPrice()).isEqualByComparingTo("125.00");
         assertThat(latest.autoExitEnabled()).isFalse();
+
+        // 매매가 찍을 최신 히스토리 id 캐시도 매번 갱신
+        InOrder order = inOrder(replayCache);
+        order.verify(replayCache).updateLatestRiskHistoryId(1L, 70L);
+        order.verify(replayCache).updateLatestRiskHistoryId(1L, 71L);
+        order.verify(replayCache).updateLatestRiskHistoryId(1L, 72L);
+        // 다른 서버의 매매는 차트 row에서 최신 id를 읽는다
+        assertThat(chart.getRiskHistoryId()).isEqualTo(72L);
     }
 
     private TrainingRiskRule currentRule;
@@ -2,17 +2,29 @@ package com.tradenova.training.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tradenova.paper.entity.PaperAccount;
+import com.tradenova.paper.entity.PaperPosition;
+import com.tradenova.paper.repository.PaperAccountRepository;
 import com.tradenova.paper.repository.PaperPositionRepository;
+import com.tradenova.report.entity.Type;
 import com.tradenova.report.service.TrainingEventService;
 import com.tradenova.symbol.entity.Symbol;
 import com.tradenova.training.dto.AutoExitReason;
+import com.tradenova.training.dto.OrderBookVersion;
 import com.tradenova.training.dto.SessionProgressResponse;
 import com.tradenova.training.dto.TradeResponse;
+import com.tradenova.training.entity.TradeSide;
 import com.tradenova.training.entity.TrainingChartStatus;
+import com.tradenova.training.entity.TrainingOrder;
+import com.tradenova.training.entity.TrainingOrderStatus;
+import com.tradenova.training.entity.TrainingOrderType;
+import com.tradenova.training.entity.TrainingRiskRule;
 import com.tradenova.training.entity.TrainingSession;
 import com.tradenova.training.entity.TrainingSessionCandle;
 import com.tradenova.training.entity.TrainingSessionChart;
 import com.tradenova.training.entity.TrainingStatus;
+import com.tradenova.training.repository.TrainingOrderRepository;
+import com.tradenova.training.repository.TrainingRiskRuleHistoryRepository;
+import com.tradenova.training.repository.TrainingRiskRuleRepository;
 import com.tradenova.training.repository.TrainingSessionCandleRepository;
 import com.tradenova.training.repository.TrainingSessionChartRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,12 +34,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,6 +55,12 @@ class TrainingSessionProgressServiceTest {
     @Mock private TrainingTradeService tradeService;
     @Mock private TrainingEventService eventService;
     @Mock private TrainingSessionCandleRepository candleRepo;
+    @Mock private TrainingRiskRuleRepository riskRepo;
+    @Mock private TrainingRiskRuleHistoryRepository riskHistoryRepo;
+    @Mock private PaperAccountRepository accountRepo;
+    @Mock private TrainingOrderRepository orderRepo;
+    @Mock private TrainingOrderService orderService;
+    @Mock private TrainingChartLedgerService ledgerService;
 
     private TrainingSessionProgressService service;
 
@@ -52,8 +73,14 @@ class TrainingSessionProgressServiceTest {
                 tradeService,
                 eventService,
                 new ObjectMapper(),
-                candleRepo
+                new ChartReplayStateCache(candleRepo, riskRepo, riskHistoryRepo),
+                new TrainingWriteLocks(chartRepo, accountRepo, TrainingWriteLocks.Mode.PESSIMISTIC),
+                new TrainingOrderBookCache(orderRepo),
+                orderService,
+                ledgerService
         );
+        // 기본: 예약 주문 없음
+        lenient().when(orderRepo.findOpenVersionByChartId(1L)).thenReturn(new OrderBookVersion(0L, null));
     }
 
     @Test
@@ -64,11 +91,8 @@ class TrainingSessionProgressServiceTest {
         TrainingSessionCandle last = candle(fixture.chart().getId(), 2, 300L, 110.0);
 
         when(chartRepo.findForUpdateByIdAndUserId(1L, 7L)).thenReturn(Optional.of(fixture.chart()));
-        when(candleRepo.findByChartIdAndIdx(1L, 0)).thenReturn(Optional.of(first));
-        when(candleRepo.findByChartIdAndIdx(1L, 1)).thenReturn(Optional.of(middle));
-        when(candleRepo.findByChartIdAndIdx(1L, 2)).thenReturn(Optional.of(last));
-        when(autoExitService.checkAndAutoExit(eq(1L), any()))
-                .thenReturn(noAutoExit(105.0), noAutoExit(110.0));
+        when(candleRepo.findAllByChartIdOrderByIdxAsc(1L))
+                .thenReturn(List.of(first, middle, last));
         when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.empty());
         when(tradeService.sellAllAtPriceLockedResult(
                 7L, fixture.chart(), BigDecimal.valueOf(110.0), 300L, AutoExitReason.END_OF_CHART
@@ -96,6 +120,8 @@ class TrainingSessionProgressServiceTest {
                 7L, fixture.chart(), BigDecimal.valueOf(110.0), 300L, AutoExitReason.END_OF_CHART
         );
         verify(positionRepo).findByAccountIdAndSymbolId(10L, 20L);
+        verify(candleRepo).findAllByChartIdOrderByIdxAsc(1L);
+        verify(candleRepo, never()).findByChartIdAndIdx(any(), any());
     }
 
     @Test
@@ -105,9 +131,8 @@ class TrainingSessionProgressServiceTest {
         TrainingSessionCandle last = candle(1L, 1, 200L, 110.0);
 
         when(chartRepo.findForUpdateByIdAndUserId(1L, 7L)).thenReturn(Optional.of(fixture.chart()));
-        when(candleRepo.findByChartIdAndIdx(1L, 0)).thenReturn(Optional.of(first));
-        when(candleRepo.findByChartIdAndIdx(1L, 1)).thenReturn(Optional.of(last));
-        when(autoExitService.checkAndAutoExit(1L, last)).thenReturn(noAutoExit(110.0));
+        when(candleRepo.findAllByChartIdOrderByIdxAsc(1L))
+                .thenReturn(List.of(first, last));
         when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.empty());
         when(tradeService.sellAllAtPriceLockedResult(
                 7L, fixture.chart(), BigDecimal.valueOf(110.0), 200L, AutoExitReason.END_OF_CHART
@@ -129,6 +154,8 @@ class TrainingSessionProgressServiceTest {
                 7L, fixture.chart(), BigDecimal.valueOf(110.0), 200L, AutoExitReason.END_OF_CHART
         );
         verify(positionRepo).findByAccountIdAndSymbolId(10L, 20L);
+        // 캐시된 주문장이 비어 있어도 DB의 대기 주문은 만료
+        verify(orderService).expireOpenOrders(1L);
     }
 
     @Test
@@ -136,14 +163,14 @@ class TrainingSessionProgressServiceTest {
         Fixture fixture = fixture(4, 0);
         TrainingSessionCandle first = candle(1L, 0, 100L, 100.0);
         TrainingSessionCandle trigger = candle(1L, 1, 200L, 90.0);
+        TrainingSessionCandle afterTrigger = candle(1L, 2, 300L, 80.0);
+        TrainingSessionCandle last = candle(1L, 3, 400L, 70.0);
 
         when(chartRepo.findForUpdateByIdAndUserId(1L, 7L)).thenReturn(Optional.of(fixture.chart()));
-        when(candleRepo.findByChartIdAndIdx(1L, 0)).thenReturn(Optional.of(first));
-        when(candleRepo.findByChartIdAndIdx(1L, 1)).thenReturn(Optional.of(trigger));
-        when(autoExitService.checkAndAutoExit(1L, trigger)).thenReturn(
-                new TrainingAutoExitService.AutoExitResult(
-                        true, AutoExitReason.STOP_LOSS, BigDecimal.valueOf(90.0), BigDecimal.valueOf(95.0)
-                )
+        when(candleRepo.findAllByChartIdOrderByIdxAsc(1L))
+                .thenReturn(List.of(first, trigger, afterTrigger, last));
+        when(autoExitService.scanFirstHit(eq(1L), any(), eq(1), eq(3))).thenReturn(
+                new TrainingAutoExitService.AutoExitHit(1, AutoExitReason.STOP_LOSS, BigDecimal.valueOf(95.0))
         );
         when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.empty());
         when(tradeService.sellAllAtPriceLockedResult(
@@ -166,12 +193,123 @@ class TrainingSessionProgressServiceTest {
                 7L, fixture.chart(), BigDecimal.valueOf(95.0), 200L, AutoExitReason.STOP_LOSS
         );
         verify(positionRepo).findByAccountIdAndSymbolId(10L, 20L);
-        verify(candleRepo, never()).findByChartIdAndIdx(1L, 2);
-        verify(candleRepo, never()).findByChartIdAndIdx(1L, 3);
+        verify(autoExitService).scanFirstHit(eq(1L), any(), eq(1), eq(3));
+        verify(autoExitService, never()).checkAndAutoExit(any(), any());
+        verify(candleRepo, never()).findByChartIdAndIdx(any(), any());
     }
 
-    private static TrainingAutoExitService.AutoExitResult noAutoExit(double close) {
-        return new TrainingAutoExitService.AutoExitResult(false, null, BigDecimal.valueOf(close), null);
+    @Test
+    void advanceMatchesRestingOrderOnlyOnTouchingBarAndResumesRiskScanAfterFill() {
+        Fixture fixture = fixture(5, 0);
+        TrainingSessionCandle dip = candle(1L, 2, 300L, 100.0);
+        dip.setL(94.0);
+
+        when(chartRepo.findForUpdateByIdAndUserId(1L, 7L)).thenReturn(Optional.of(fixture.chart()));
+        when(candleRepo.findAllByChartIdOrderByIdxAsc(1L)).thenReturn(List.of(
+                candle(1L, 0, 100L, 100.0),
+                candle(1L, 1, 200L, 100.0),
+                dip,
+                candle(1L, 3, 400L, 100.0),
+                candle(1L, 4, 500L, 100.0)
+        ));
+        // 지정가 매수 95 -> 저가 94인 2번 봉에서만 발동
+        when(orderRepo.findOpenVersionByChartId(1L)).thenReturn(new OrderBookVersion(1L, 300L));
+        when(orderRepo.findByChartIdAndStatusOrderByIdAsc(1L, TrainingOrderStatus.OPEN)).thenReturn(List.of(
+                TrainingOrder.builder()
+                        .id(300L).chartId(1L).accountId(10L)
+                        .side(TradeSide.BUY).type(TrainingOrderType.LIMIT)
+                        .price(new BigDecimal("95")).qty(BigDecimal.ONE)
+                        .status(TrainingOrderStatus.OPEN)
+                        .build()
+        ));
+        when(orderService.matchBar(eq(7L), eq(fixture.chart()), any(), any(), eq(2))).thenReturn(List.of(
+                new TradeResponse(1L, 77L, new BigDecimal("905.00"), BigDecimal.ONE,
+                        new BigDecimal("95"), new BigDecimal("95"), 300L)
+        ));
+
+        SessionProgressResponse response = service.advance(7L, 1L, 3);
+
+        assertThat(response.progressIndex()).isEqualTo(3);
+        assertThat(response.cashBalance()).isEqualByComparingTo("905.00");
+        assertThat(response.autoExited()).isFalse();
+        // 주문 발동 봉까지 한 구간, 체결 후 남은 구간 한 번 더 (봉마다 스캔하지 않는다)
+        verify(autoExitService).scanFirstHit(eq(1L), any(), eq(1), eq(2));
+        verify(autoExitService).scanFirstHit(eq(1L), any(), eq(3), eq(3));
+        verify(orderService, times(1)).matchBar(any(), any(), any(), any(), any(Integer.class));
+        verify(tradeService, never()).sellAllAtPriceLockedResult(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void runToEndReplaysRestOfChartAndPersistsOnlyFirstExitAndOneSummaryEvent() {
+        Fixture fixture = fixture(5, 0);
+        when(chartRepo.findForUpdateByIdAndUserId(1L, 7L)).thenReturn(Optional.of(fixture.chart()));
+        when(candleRepo.findAllByChartIdOrderByIdxAsc(1L)).thenReturn(List.of(
+                candle(1L, 0, 100L, 100.0),
+                candle(1L, 1, 200L, 105.0),
+                candle(1L, 2, 300L, 90.0),   // 손절가 95 아래로 갭 -> 시가 90 체결
+                candle(1L, 3, 400L, 80.0),
+                candle(1L, 4, 500L, 70.0)
+        ));
+        when(riskRepo.findByChartId(1L)).thenReturn(Optional.of(TrainingRiskRule.builder()
+                .chartId(1L)
+                .enabled(true)
+                .stopLossPrice(new BigDecimal("95"))
+                .build()));
+        when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.of(PaperPosition.builder()
+                .account(fixture.account())
+                .symbolId(20L)
+                .quantity(new BigDecimal("2"))
+                .avgPrice(new BigDecimal("100"))
+                .build()));
+        when(tradeService.sellAllAtPriceLockedResult(
+                7L, fixture.chart(), BigDecimal.valueOf(90.0), 300L, AutoExitReason.STOP_LOSS
+        )).thenReturn(new TrainingTradeService.LockedSellResult(
+                new TradeResponse(
+                        1L, 88L, new BigDecimal("1180.00"), BigDecimal.ZERO,
+                        BigDecimal.ZERO, BigDecimal.valueOf(90.0), 300L
+                ),
+                new BigDecimal("2")
+        ));
+
+        SessionProgressResponse response = service.runToEnd(7L, 1L);
+
+        assertThat(response.progressIndex()).isEqualTo(4);
+        assertThat(response.atLastBar()).isTrue();
+        assertThat(response.chartStatus()).isEqualTo(TrainingChartStatus.COMPLETED.name());
+        assertThat(response.cashBalance()).isEqualByComparingTo("1180.00");
+        assertThat(response.positionQty()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(response.reason()).isEqualTo(AutoExitReason.STOP_LOSS);
+        assertThat(fixture.chart().getProgressIndex()).isEqualTo(4);
+
+        // 청산은 첫 손절 1건만, 마지막 봉 강제청산은 없음
+        verify(tradeService, times(1)).sellAllAtPriceLockedResult(any(), any(), any(), any(), any());
+        verify(eventService, times(1)).publish(eq(7L), eq(1L), eq(Type.PROGRESS), any(), any());
+        verify(eventService, never()).publishAll(any(), any());
+        verify(autoExitService, never()).scanFirstHit(any(), any(), any(Integer.class), any(Integer.class));
+    }
+
+    @Test
+    void runToEndWithoutPositionCompletesWithoutTrade() {
+        Fixture fixture = fixture(3, 1);
+        when(chartRepo.findForUpdateByIdAndUserId(1L, 7L)).thenReturn(Optional.of(fixture.chart()));
+        when(candleRepo.findAllByChartIdOrderByIdxAsc(1L)).thenReturn(List.of(
+                candle(1L, 0, 100L, 100.0),
+                candle(1L, 1, 200L, 105.0),
+                candle(1L, 2, 300L, 110.0)
+        ));
+        when(riskRepo.findByChartId(1L)).thenReturn(Optional.empty());
+        when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.empty());
+
+        SessionProgressResponse response = service.runToEnd(7L, 1L);
+
+        assertThat(response.progressIndex()).isEqualTo(2);
+        assertThat(response.chartStatus()).isEqualTo(TrainingChartStatus.COMPLETED.name());
+        assertThat(response.currentPrice()).isEqualByComparingTo("110.0");
+        assertThat(response.cashBalance()).isEqualByComparingTo("1000.00");
+        assertThat(response.autoExited()).isFalse();
+        verify(tradeService, never()).sellAllAtPriceLockedResult(any(), any(), any(), any(), any());
+        verify(eventService).publish(eq(7L), eq(1L), eq(Type.PROGRESS), any(), any());
+        verify(orderService).expireOpenOrders(1L);
     }
 
     private static TrainingSessionCandle candle(Long chartId, int idx, long time, double close) {
@@ -9,16 +9,19 @@ import com.tradenova.paper.repository.PaperPositionRepository;
 import com.tradenova.report.service.TrainingEventService;
 import com.tradenova.report.entity.Type;
 import com.tradenova.symbol.entity.Symbol;
+import com.tradenova.common.exception.CustomException;
+import com.tradenova.common.exception.ErrorCode;
 import com.tradenova.training.dto.AutoExitReason;
+import com.tradenova.training.dto.BatchTradeItem;
+import com.tradenova.training.dto.BatchTradeResponse;
 import com.tradenova.training.dto.TradeResponse;
+import com.tradenova.training.entity.TradeSide;
 import com.tradenova.training.entity.TrainingChartStatus;
 import com.tradenova.training.entity.TrainingSession;
 import com.tradenova.training.entity.TrainingSessionCandle;
 import com.tradenova.training.entity.TrainingSessionChart;
 import com.tradenova.training.entity.TrainingStatus;
 import com.tradenova.training.entity.TrainingTrade;
-import com.tradenova.training.entity.TrainingRiskRuleHistory;
-import com.tradenova.training.repository.TrainingRiskRuleHistoryRepository;
 import com.tradenova.training.repository.TrainingSessionCandleRepository;
 import com.tradenova.training.repository.TrainingSessionChartRepository;
 import com.tradenova.training.repository.TrainingTradeRepository;
@@ -39,6 +42,7 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -54,10 +58,11 @@ class TrainingTradeServiceLockTest {
     @Mock private TrainingSessionChartRepository chartRepo;
     @Mock private TrainingSessionCandleRepository candleRepo;
     @Mock private TrainingTradeRepository tradeRepo;
-    @Mock private TrainingRiskRuleHistoryRepository riskHistoryRepo;
     @Mock private PaperAccountRepository accountRepo;
     @Mock private PaperPositionRepository positionRepo;
     @Mock private TrainingEventService eventService;
+    @Mock private ChartReplayStateCache replayCache;
+    @Mock private TrainingChartLedgerService ledgerService;
 
     private TrainingTradeService service;
 
@@ -67,11 +72,13 @@ class TrainingTradeServiceLockTest {
                 chartRepo,
                 candleRepo,
                 tradeRepo,
-                riskHistoryRepo,
                 accountRepo,
                 positionRepo,
                 eventService,
-                new ObjectMapper()
+                new ObjectMapper(),
+                replayCache,
+                new TrainingWriteLocks(chartRepo, accountRepo, TrainingWriteLocks.Mode.PESSIMISTIC),
+                ledgerService
         );
     }
 
@@ -82,6 +89,8 @@ class TrainingTradeServiceLockTest {
         when(accountRepo.findForUpdateById(10L)).thenReturn(Optional.of(fixture.lockedAccount()));
         when(candleRepo.findByChartIdAndIdx(1L, 0)).thenReturn(Optional.of(fixture.candle()));
         when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.empty());
+        // 리스크 룰 히스토리 없음
+        when(replayCache.syncRiskRule(fixture.chart())).thenReturn(null);
         when(tradeRepo.save(any(TrainingTrade.class))).thenAnswer(invocation -> {
             TrainingTrade trade = invocation.getArgument(0);
             trade.setId(50L);
@@ -102,7 +111,7 @@ class TrainingTradeServiceLockTest {
         assertThat(tradeCaptor.getValue().getRiskRuleHistoryId()).isNull();
 
         ArgumentCaptor<JsonNode> payloadCaptor = ArgumentCaptor.forClass(JsonNode.class);
-        verify(eventService).append(eq(7L), eq(1L), eq(Type.TRADE), anyString(), payloadCaptor.capture());
+        verify(eventService).publish(eq(7L), eq(1L), eq(Type.TRADE), anyString(), payloadCaptor.capture());
         assertThat(payloadCaptor.getValue().path("tradeId").asLong()).isEqualTo(50L);
         assertThat(payloadCaptor.getValue().path("riskRuleHistoryId").isNull()).isTrue();
     }
@@ -120,8 +129,7 @@ class TrainingTradeServiceLockTest {
                 .build();
         when(accountRepo.findForUpdateById(10L)).thenReturn(Optional.of(fixture.lockedAccount()));
         when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.of(position));
-        when(riskHistoryRepo.findTopByChartIdOrderByIdDesc(1L))
-                .thenReturn(Optional.of(TrainingRiskRuleHistory.builder().id(70L).build()));
+        when(replayCache.syncRiskRule(fixture.chart())).thenReturn(70L);
         when(tradeRepo.save(any(TrainingTrade.class))).thenAnswer(invocation -> {
             TrainingTrade trade = invocation.getArgument(0);
             trade.setId(51L);
@@ -147,7 +155,7 @@ class TrainingTradeServiceLockTest {
         assertThat(tradeCaptor.getValue().getRiskRuleHistoryId()).isEqualTo(70L);
 
         ArgumentCaptor<JsonNode> payloadCaptor = ArgumentCaptor.forClass(JsonNode.class);
-        verify(eventService).append(eq(7L), eq(1L), eq(Type.TRADE), anyString(), payloadCaptor.capture());
+        verify(eventService).publish(eq(7L), eq(1L), eq(Type.TRADE), anyString(), payloadCaptor.capture());
         assertThat(payloadCaptor.getValue().path("tradeId").asLong()).isEqualTo(51L);
         assertThat(payloadCaptor.getValue().path("riskRuleHistoryId").asLong()).isEqualTo(70L);
     }
@@ -169,9 +177,8 @@ class TrainingTradeServiceLockTest {
             savedPosition.set(position);
             return position;
         });
-        when(riskHistoryRepo.findTopByChartIdOrderByIdDesc(1L))
-                .thenReturn(Optional.of(TrainingRiskRuleHistory.builder().id(70L).build()))
-                .thenReturn(Optional.of(TrainingRiskRuleHistory.builder().id(71L).build()));
+        // 두 매매 사이에 리스크 룰이 수정되어 캐시가 71로 갱신된 상황
+        when(replayCache.syncRiskRule(fixture.chart())).thenReturn(70L).thenReturn(71L);
         when(tradeRepo.save(any(TrainingTrade.class))).thenAnswer(invocation -> {
             TrainingTrade trade = invocation.getArgument(0);
             trade.setId(50L + savedTrades.size());
@@ -192,7 +199,7 @@ class TrainingTradeServiceLockTest {
 
         ArgumentCaptor<JsonNode> payloadCaptor = ArgumentCaptor.forClass(JsonNode.class);
         verify(eventService, times(2))
-                .append(eq(7L), eq(1L), eq(Type.TRADE), anyString(), payloadCaptor.capture());
+                .publish(eq(7L), eq(1L), eq(Type.TRADE), anyString(), payloadCaptor.capture());
         assertThat(payloadCaptor.getAllValues().get(0).path("tradeId").asLong()).isEqualTo(50L);
         assertThat(payloadCaptor.getAllValues().get(1).path("tradeId").asLong()).isEqualTo(51L);
     }
@@ -211,8 +218,7 @@ class TrainingTradeServiceLockTest {
         when(accountRepo.findForUpdateById(10L)).thenReturn(Optional.of(fixture.lockedAccount()));
         when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.of(position));
         when(candleRepo.findByChartIdAndIdx(1L, 0)).thenReturn(Optional.of(fixture.candle()));
-        when(riskHistoryRepo.findTopByChartIdOrderByIdDesc(1L))
-                .thenReturn(Optional.of(TrainingRiskRuleHistory.builder().id(70L).build()));
+        when(replayCache.syncRiskRule(fixture.chart())).thenReturn(70L);
         when(tradeRepo.save(any(TrainingTrade.class))).thenAnswer(invocation -> {
             TrainingTrade trade = invocation.getArgument(0);
             trade.setId(52L);
@@ -223,7 +229,7 @@ class TrainingTradeServiceLockTest {
 
         assertThat(response.tradeId()).isEqualTo(52L);
         ArgumentCaptor<JsonNode> payloadCaptor = ArgumentCaptor.forClass(JsonNode.class);
-        verify(eventService).append(eq(7L), eq(1L), eq(Type.TRADE), anyString(), payloadCaptor.capture());
+        verify(eventService).publish(eq(7L), eq(1L), eq(Type.TRADE), anyString(), payloadCaptor.capture());
         assertThat(payloadCaptor.getValue().path("tradeId").asLong()).isEqualTo(52L);
         assertThat(payloadCaptor.getValue().path("sellAll").asBoolean()).isTrue();
         assertThat(payloadCaptor.getValue().path("riskRuleHistoryId").asLong()).isEqualTo(70L);
@@ -241,11 +247,85 @@ class TrainingTradeServiceLockTest {
 
         assertThat(response.tradeId()).isNull();
         verify(tradeRepo, never()).save(any(TrainingTrade.class));
-        verify(eventService, never()).append(
+        verify(eventService, never()).publish(
                 eq(7L), eq(1L), eq(Type.TRADE), anyString(), any(JsonNode.class)
         );
     }
 
+    @Test
+    void batchAppliesOrdersInSequenceUnderOneLockWithOneInsertAndOneEvent() {
+        Fixture fixture = fixture();
+        PaperPosition position = PaperPosition.builder()
+                .account(fixture.lockedAccount())
+                .symbolId(20L)
+                .quantity(new BigDecimal("2"))
+                .avgPrice(new BigDecimal("90.0000"))
+                .build();
+        when(chartRepo.findForUpdateByIdAndUserId(1L, 7L)).thenReturn(Optional.of(fixture.chart()));
+        when(accountRepo.findForUpdateById(10L)).thenReturn(Optional.of(fixture.lockedAccount()));
+        when(candleRepo.findByChartIdAndIdx(1L, 0)).thenReturn(Optional.of(fixture.candle()));
+        when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.of(position));
+        when(replayCache.syncRiskRule(fixture.chart())).thenReturn(70L);
+        when(tradeRepo.saveAll(any())).thenAnswer(invocation -> {
+            List<TrainingTrade> trades = invocation.getArgument(0);
+            long id = 50L;
+            for (TrainingTrade trade : trades) {
+                trade.setId(id++);
+            }
+            return trades;
+        });
+
+        BatchTradeResponse response = service.batch(7L, 1L, List.of(
+                new BatchTradeItem(TradeSide.BUY, new BigDecimal("2")),
+                new BatchTradeItem(TradeSide.SELL, new BigDecimal("3")),
+                new BatchTradeItem(TradeSide.BUY, BigDecimal.ONE)
+        ));
+
+        // 1000 - 200 + 300 - 100, 평단 90 -> 95 -> 95 -> 97.5
+        assertThat(response.cashBalance()).isEqualByComparingTo("1000.00");
+        assertThat(response.positionQty()).isEqualByComparingTo("2");
+        assertThat(response.avgPrice()).isEqualByComparingTo("97.5");
+        assertThat(response.trades()).extracting(TradeResponse::tradeId).containsExactly(50L, 51L, 52L);
+        assertThat(response.trades()).extracting(TradeResponse::positionQty)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("4"), BigDecimal.ONE, new BigDecimal("2"));
+        assertThat(position.getAvgPrice()).isEqualByComparingTo("97.5");
+
+        verify(chartRepo, times(1)).findForUpdateByIdAndUserId(1L, 7L);
+        verify(accountRepo, times(1)).findForUpdateById(10L);
+        verify(candleRepo, times(1)).findByChartIdAndIdx(1L, 0);
+        verify(positionRepo, times(1)).findByAccountIdAndSymbolId(10L, 20L);
+        verify(positionRepo).save(position);
+        verify(tradeRepo, never()).save(any(TrainingTrade.class));
+        ArgumentCaptor<List<TrainingTrade>> tradesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(tradeRepo).saveAll(tradesCaptor.capture());
+        assertThat(tradesCaptor.getValue()).extracting(TrainingTrade::getRiskRuleHistoryId).containsOnly(70L);
+        verify(eventService, times(1)).publish(eq(7L), eq(1L), eq(Type.TRADE), anyString(), any());
+    }
+
+    @Test
+    void batchRejectsWholeRequestWhenAnOrderCannotBeFilled() {
+        Fixture fixture = fixture();
+        when(chartRepo.findForUpdateByIdAndUserId(1L, 7L)).thenReturn(Optional.of(fixture.chart()));
+        when(accountRepo.findForUpdateById(10L)).thenReturn(Optional.of(fixture.lockedAccount()));
+        when(candleRepo.findByChartIdAndIdx(1L, 0)).thenReturn(Optional.of(fixture.candle()));
+        when(positionRepo.findByAccountIdAndSymbolId(10L, 20L)).thenReturn(Optional.empty());
+
+        // 5주 매수 후 6주 매도 -> 두 번째 주문에서 실패
+        assertThatThrownBy(() -> service.batch(7L, 1L, List.of(
+                new BatchTradeItem(TradeSide.BUY, new BigDecimal("5")),
+                new BatchTradeItem(TradeSide.SELL, new BigDecimal("6"))
+        )))
+                .isInstanceOf(CustomException.class)
+                .extracting(e -> ((CustomException) e).getErrorCode())
+                .isEqualTo(ErrorCode.INSUFFICIENT_POSITION_QTY);
+
+        assertThat(fixture.lockedAccount().getCashBalance()).isEqualByComparingTo("1000.00");
+        verify(tradeRepo, never()).saveAll(any());
+        verify(positionRepo, never()).save(any());
+        verify(eventService, never()).publish(any(), any(), any(), any(), any());
+    }
+
     private static Fixture fixture() {
         PaperAccount chartAccount = PaperAccount.builder()
                 .id(10L)